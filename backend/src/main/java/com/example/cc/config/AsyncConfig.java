@@ -0,0 +1,11 @@
+package com.example.cc.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    // Habilita los métodos anotados con @Async (p. ej. el refresco del catálogo
+    // al arrancar), que se ejecutan en el task executor de Spring Boot
+}
@@ -1,26 +1,23 @@
 package com.example.cc.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import com.example.cc.constants.ROLES;
 import com.example.cc.entities.Rol;
 import com.example.cc.entities.TipoPrediccion;
-import com.example.cc.entities.Deporte;
-import com.example.cc.entities.Liga;
 import com.example.cc.repository.RolRepository;
 import com.example.cc.repository.TipoPrediccionRepository;
-import com.example.cc.service.deportes.IDeporteService;
-import com.example.cc.service.deportes.ILigaService;
-import com.example.cc.service.external.ITheSportsDbService;
-import com.example.cc.dto.response.TheSportsDbSportResponse;
-import com.example.cc.dto.response.TheSportsDbLeagueResponse;
+import com.example.cc.service.deportes.CatalogoSnapshotStore;
+import com.example.cc.service.deportes.CatalogoSyncService;
+import com.example.cc.dto.external.CatalogoSnapshot;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-import java.util.Optional;
-
 @Component
 @Slf4j
 public class DataLoader implements CommandLineRunner {
@@ -32,20 +29,20 @@ public class DataLoader implements CommandLineRunner {
     private TipoPrediccionRepository tipoPrediccionRepository;
 
     @Autowired
-    private IDeporteService deporteService;
+    private CatalogoSyncService catalogoSyncService;
 
     @Autowired
-    private ILigaService ligaService;
+    private CatalogoSnapshotStore catalogoSnapshotStore;
 
-    @Autowired
-    private ITheSportsDbService theSportsDbService;
+    @Value("${catalogo.sync.habilitado:true}")
+    private boolean sincronizacionCatalogoHabilitada;
 
     @Override
     public void run(String... args) throws Exception {
         crearRoles();
         crearTiposPrediccion();
-        sincronizarDeportes();
-        sincronizarLigas();
+        // Solo lectura local; el refresco desde la API se hace al estar lista la aplicación
+        catalogoSyncService.cargarDesdeSnapshotSiVacio();
     }
 
     private void crearRoles() {
@@ -180,235 +177,32 @@ public class DataLoader implements CommandLineRunner {
     }
 
     /**
-     * Sincroniza los deportes de TheSportsDB con la base de datos local
+     * Refresca el catálogo de deportes y ligas desde TheSportsDB en segundo plano,
+     * una vez que la aplicación ya está lista, y reescribe el snapshot local.
      */
-    private void sincronizarDeportes() {
-        Boolean isEnabled = true; // Cambiar a false para desactivar la sincronización
-        if (!isEnabled) {
-            log.info("Sincronización de deportes desactivada");
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void refrescarCatalogo() {
+        if (!sincronizacionCatalogoHabilitada) {
+            log.info("Sincronización del catálogo desactivada");
             return;
         }
-        log.info("Iniciando sincronización de deportes desde TheSportsDB...");
-        
-        try {
-            // Obtener deportes de TheSportsDB
-            List<TheSportsDbSportResponse.SportData> deportesExternos = theSportsDbService.obtenerTodosLosDeportes();
-            
-            if (deportesExternos == null || deportesExternos.isEmpty()) {
-                log.warn("No se obtuvieron deportes de TheSportsDB");
-                return;
-            }
-
-            int deportesCreados = 0;
-            int deportesExistentes = 0;
-            
-            for (TheSportsDbSportResponse.SportData deporteExterno : deportesExternos) {
-                try {
-                    // Crear entidad Deporte
-                    Deporte deporte = new Deporte();
-                    deporte.setNombre(deporteExterno.getStrSport());
-                    deporte.setDescripcion("Deporte sincronizado desde TheSportsDB");
-                    deporte.setActivo(true);
-                    // Asignar iconos y colores por defecto según el deporte
-                    asignarIconoYColor(deporte, deporteExterno.getStrSport());
-                    
-                    // Intentar crear el deporte de forma segura
-                    Deporte deporteGuardado = deporteService.createDeporteSafe(deporte);
-                    
-                    if (deporteGuardado.getId() != null) {
-                        // Verificar si se creó o ya existía
-                        if (deporteService.existsDeporte(deporteExterno.getStrSport())) {
-                            deportesExistentes++;
-                        } else {
-                            deportesCreados++;
-                        }
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("Error al procesar deporte {}: {}", deporteExterno.getStrSport(), e.getMessage());
-                }
-            }
-            
-            log.info("Sincronización de deportes completada. Creados: {}, Existentes: {}, Total procesados: {}", 
-                deportesCreados, deportesExistentes, deportesExternos.size());
-            
-        } catch (Exception e) {
-            log.error("Error durante la sincronización de deportes: {}", e.getMessage(), e);
-        }
-    }
+        log.info("🔄 Refrescando catálogo de deportes y ligas desde TheSportsDB en segundo plano...");
 
-    /**
-     * Asigna iconos y colores por defecto según el tipo de deporte
-     */
-    private void asignarIconoYColor(Deporte deporte, String nombreDeporte) {
-        String nombre = nombreDeporte.toLowerCase();
-        
-        switch (nombre) {
-            case "soccer":
-            case "football":
-                deporte.setIcono("⚽");
-                deporte.setColorPrimario("#28a745");
-                break;
-            case "basketball":
-                deporte.setIcono("🏀");
-                deporte.setColorPrimario("#fd7e14");
-                break;
-            case "tennis":
-                deporte.setIcono("🎾");
-                deporte.setColorPrimario("#20c997");
-                break;
-            case "baseball":
-                deporte.setIcono("⚾");
-                deporte.setColorPrimario("#6f42c1");
-                break;
-            case "american football":
-                deporte.setIcono("🏈");
-                deporte.setColorPrimario("#dc3545");
-                break;
-            case "hockey":
-            case "ice hockey":
-                deporte.setIcono("🏒");
-                deporte.setColorPrimario("#17a2b8");
-                break;
-            case "golf":
-                deporte.setIcono("⛳");
-                deporte.setColorPrimario("#ffc107");
-                break;
-            case "cricket":
-                deporte.setIcono("🏏");
-                deporte.setColorPrimario("#e83e8c");
-                break;
-            case "rugby":
-                deporte.setIcono("🏉");
-                deporte.setColorPrimario("#6c757d");
-                break;
-            case "boxing":
-                deporte.setIcono("🥊");
-                deporte.setColorPrimario("#343a40");
-                break;
-            case "cycling":
-                deporte.setIcono("🚴");
-                deporte.setColorPrimario("#007bff");
-                break;
-            case "swimming":
-                deporte.setIcono("🏊");
-                deporte.setColorPrimario("#20c997");
-                break;
-            default:
-                deporte.setIcono("🏃");
-                deporte.setColorPrimario("#6c757d");
-                break;
-        }
-    }
-
-    /**
-     * Sincroniza las ligas de TheSportsDB con la base de datos local
-     */
-    private void sincronizarLigas() {
-        Boolean isEnabled = true; // Cambiar a false para desactivar la sincronización
-        if (!isEnabled) {
-            log.info("Sincronización de ligas desactivada");
-            return;
-        }
-        log.info("Iniciando sincronización de ligas desde TheSportsDB...");
-        
         try {
-            // Obtener ligas de TheSportsDB
-            List<TheSportsDbLeagueResponse.LeagueData> ligasExternas = theSportsDbService.obtenerTodasLasLigas();
-            
-            if (ligasExternas == null || ligasExternas.isEmpty()) {
-                log.warn("No se obtuvieron ligas de TheSportsDB");
+            long inicio = System.currentTimeMillis();
+            CatalogoSnapshot snapshot = catalogoSyncService.descargarCatalogo();
+            if (snapshot.getDeportes().isEmpty()) {
+                log.warn("No se obtuvieron deportes de TheSportsDB; se conserva el catálogo actual");
                 return;
             }
 
-            int ligasCreadas = 0;
-            int ligasExistentes = 0;
-            int ligasOmitidas = 0;
-            
-            for (TheSportsDbLeagueResponse.LeagueData ligaExterna : ligasExternas) {
-                try {
-                    // Verificar que la liga tenga datos esenciales
-                    if (ligaExterna.getStrLeague() == null || ligaExterna.getStrLeague().trim().isEmpty()) {
-                        ligasOmitidas++;
-                        continue;
-                    }
-                    
-                    // Buscar el deporte correspondiente
-                    Optional<Deporte> deporteOpt = deporteService.getDeporteByNombre(ligaExterna.getStrSport());
-                    if (deporteOpt.isEmpty()) {
-                        log.debug("Deporte {} no encontrado para la liga {}, omitiendo", 
-                            ligaExterna.getStrSport(), ligaExterna.getStrLeague());
-                        ligasOmitidas++;
-                        continue;
-                    }
-                    
-                    // Crear entidad Liga
-                    Liga liga = new Liga();
-                    liga.setNombre(ligaExterna.getStrLeague());
-                    liga.setLigaIdExterno(ligaExterna.getIdLeague());
-                    liga.setPais(ligaExterna.getStrCountry());
-                    liga.setTemporada(ligaExterna.getStrCurrentSeason());
-                    liga.setActiva(true);
-                    liga.setDeporte(deporteOpt.get());
-                    
-                    // Asignar descripción (priorizando español)
-                    String descripcion = obtenerDescripcionLiga(ligaExterna);
-                    liga.setDescripcion(descripcion);
-                    
-                    // Asignar URLs
-                    liga.setSitioWeb(ligaExterna.getStrWebsite());
-                    liga.setLogoUrl(obtenerLogoLiga(ligaExterna));
-                    
-                    // Intentar crear la liga de forma segura
-                    Liga ligaGuardada = ligaService.createLigaSafe(liga);
-                    
-                    if (ligaGuardada.getId() != null) {
-                        // Verificar si se creó o ya existía
-                        if (ligaExterna.getIdLeague() != null && 
-                            ligaService.existsLigaByIdExterno(ligaExterna.getIdLeague())) {
-                            ligasExistentes++;
-                        } else {
-                            ligasCreadas++;
-                        }
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("Error al procesar liga {}: {}", ligaExterna.getStrLeague(), e.getMessage());
-                    ligasOmitidas++;
-                }
-            }
-            
-            log.info("Sincronización de ligas completada. Creadas: {}, Existentes: {}, Omitidas: {}, Total procesadas: {}", 
-                ligasCreadas, ligasExistentes, ligasOmitidas, ligasExternas.size());
-            
-        } catch (Exception e) {
-            log.error("Error durante la sincronización de ligas: {}", e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Obtiene la descripción de la liga priorizando el español
-     */
-    private String obtenerDescripcionLiga(TheSportsDbLeagueResponse.LeagueData ligaExterna) {
-        if (ligaExterna.getStrDescriptionES() != null && !ligaExterna.getStrDescriptionES().trim().isEmpty()) {
-            return ligaExterna.getStrDescriptionES();
-        }
-        if (ligaExterna.getStrDescriptionEN() != null && !ligaExterna.getStrDescriptionEN().trim().isEmpty()) {
-            return ligaExterna.getStrDescriptionEN();
-        }
-        return "Liga sincronizada desde TheSportsDB";
-    }
+            CatalogoSyncService.ResultadoSync resultado = catalogoSyncService.aplicarCatalogo(snapshot);
+            catalogoSnapshotStore.escribir(snapshot);
 
-    /**
-     * Obtiene la URL del logo de la liga
-     */
-    private String obtenerLogoLiga(TheSportsDbLeagueResponse.LeagueData ligaExterna) {
-        if (ligaExterna.getStrBadge() != null && !ligaExterna.getStrBadge().trim().isEmpty()) {
-            return ligaExterna.getStrBadge();
-        }
-        if (ligaExterna.getStrLogo() != null && !ligaExterna.getStrLogo().trim().isEmpty()) {
-            return ligaExterna.getStrLogo();
+            log.info("✅ Catálogo refrescado en {} ms: {}", System.currentTimeMillis() - inicio, resultado);
+        } catch (Exception e) {
+            log.error("Error durante el refresco del catálogo: {}", e.getMessage(), e);
         }
-        return null;
     }
-}
\ No newline at end of file
+}
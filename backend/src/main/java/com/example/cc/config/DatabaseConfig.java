@@ -1,20 +1,146 @@
 package com.example.cc.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.LogicalConnectionImplementor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
 @Configuration
 @EnableTransactionManagement
+@Slf4j
 public class DatabaseConfig {
 
     @Bean
     public PlatformTransactionManager transactionManager() {
-        JpaTransactionManager transactionManager = new JpaTransactionManager();
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            public void afterPropertiesSet() {
+                // El de la fábrica de EntityManager se asigna aquí; se reemplaza por el que separa conexiones
+                super.afterPropertiesSet();
+                setJpaDialect(new DialectoSoloLectura());
+            }
+        };
         // Configurar timeout más largo para transacciones de batch (5 minutos)
         transactionManager.setDefaultTimeout(300);
         return transactionManager;
     }
+
+    /**
+     * Pool principal, configurado con las propiedades spring.datasource.*
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName("primario");
+        return primario;
+    }
+
+    /**
+     * Pool de la réplica de lectura; solo existe si se configura datasource.replica.url
+     */
+    @Bean
+    @ConditionalOnProperty("datasource.replica.url")
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * DataSource de la aplicación: las transacciones de solo lectura
+     * ({@code @Transactional(readOnly = true)}) van a la réplica y el resto al
+     * primario. El proxy no toma la conexión física hasta la primera
+     * sentencia, cuando ya se sabe si la transacción es de solo lectura; sin
+     * réplica configurada todo va al primario.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+            @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica) {
+        LazyConnectionDataSourceProxy enrutador = new LazyConnectionDataSourceProxy(primario);
+        DataSource lectura = replica.getIfAvailable();
+        if (lectura != null) {
+            enrutador.setReadOnlyDataSource(lectura);
+            log.info("📚 Transacciones de solo lectura enrutadas a la réplica");
+        } else {
+            log.info("Sin réplica de lectura configurada; todas las transacciones usan el primario");
+        }
+        return enrutador;
+    }
+
+    /**
+     * Con open-in-view el EntityManager vive toda la petición y Hibernate
+     * retiene su conexión física entre transacciones, así que una escritura
+     * posterior a una transacción de solo lectura seguiría en la réplica (y
+     * una lectura posterior a una escritura, en el primario). Las
+     * transacciones de solo lectura sueltan la conexión retenida al empezar y
+     * al terminar, para que cada una tome la de su pool.
+     */
+    static class DialectoSoloLectura extends HibernateJpaDialect {
+
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws PersistenceException, SQLException, TransactionException {
+            if (!definition.isReadOnly()) {
+                return super.beginTransaction(entityManager, definition);
+            }
+            soltarConexion(entityManager);
+            return new SoloLectura(entityManager, super.beginTransaction(entityManager, definition));
+        }
+
+        @Override
+        public void cleanupTransaction(Object transactionData) {
+            if (transactionData instanceof SoloLectura soloLectura) {
+                super.cleanupTransaction(soloLectura.datos());
+                soltarConexion(soloLectura.entityManager());
+            } else {
+                super.cleanupTransaction(transactionData);
+            }
+        }
+
+        private static void soltarConexion(EntityManager entityManager) {
+            if (!entityManager.isOpen()) {
+                return;
+            }
+            LogicalConnectionImplementor conexion = entityManager.unwrap(SessionImplementor.class)
+                    .getJdbcCoordinator().getLogicalConnection();
+            if (conexion.isOpen() && conexion.isPhysicallyConnected()) {
+                conexion.manualDisconnect();
+            }
+        }
+
+        private record SoloLectura(EntityManager entityManager, Object datos) {
+        }
+    }
 }
@@ -1,12 +1,24 @@
 package com.example.cc.config;
 
+import com.example.cc.service.external.stub.FixtureStore;
+import com.example.cc.service.external.stub.RecordingInterceptor;
+import com.example.cc.service.external.stub.ReplayClientHttpRequestFactory;
+import com.example.cc.service.external.stub.SyntheticSportsDataGenerator;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
 @Configuration
+@Slf4j
 public class RestTemplateConfig {
 
     @Value("${thesportsdb.api.timeout.connect:10000}")
@@ -15,12 +27,90 @@ public class RestTemplateConfig {
     @Value("${thesportsdb.api.timeout.read:30000}")
     private int readTimeout;
 
+    @Value("${thesportsdb.api.base-url}")
+    private String baseUrl;
+
+    @Value("${thesportsdb.api.base-url-v1}")
+    private String baseUrlV1;
+
+    @Value("${thesportsdb.api.key}")
+    private String apiKey;
+
+    /** off | record | replay */
+    @Value("${thesportsdb.stub.mode:off}")
+    private String stubMode;
+
+    @Value("${thesportsdb.stub.dir:fixtures/thesportsdb}")
+    private String stubDir;
+
+    /** Fragmentos de clave que en modo record se graban como secuencia de pasos */
+    @Value("${thesportsdb.stub.record.secuencias:livescore}")
+    private String[] stubSecuencias;
+
+    @Value("${thesportsdb.stub.latency-ms:0}")
+    private long stubLatencyMs;
+
+    @Value("${thesportsdb.stub.jitter-ms:0}")
+    private long stubJitterMs;
+
+    @Value("${thesportsdb.stub.error-rate:0}")
+    private double stubErrorRate;
+
+    @Value("${thesportsdb.stub.synthetic.events:0}")
+    private int syntheticEvents;
+
+    @Value("${thesportsdb.stub.synthetic.days:7}")
+    private int syntheticDays;
+
+    @Value("${thesportsdb.stub.synthetic.livescore-steps:60}")
+    private int syntheticLivescoreSteps;
+
+    @Value("${thesportsdb.stub.synthetic.seed:42}")
+    private long syntheticSeed;
+
+    /** Directorio propio de los fixtures sintéticos, para no pisar los grabados en stub.dir */
+    @Value("${thesportsdb.stub.synthetic.dir:fixtures/thesportsdb-synthetic}")
+    private String syntheticDir;
+
     @Bean
     public RestTemplate restTemplate() {
+        if ("replay".equalsIgnoreCase(stubMode)) {
+            FixtureStore store = syntheticEvents > 0 ? syntheticStore() : fixtureStore();
+            if (syntheticEvents > 0) {
+                try {
+                    new SyntheticSportsDataGenerator(store, baseUrl, baseUrlV1)
+                            .generar(syntheticEvents, syntheticDays, syntheticLivescoreSteps, syntheticSeed);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("No se pudieron generar los fixtures sintéticos", e);
+                }
+            }
+            log.warn("🧪 TheSportsDB en modo replay desde {} (latencia {}ms ± {}ms, errores {})",
+                    store.getDirectorio(), stubLatencyMs, stubJitterMs, stubErrorRate);
+            return new RestTemplate(new ReplayClientHttpRequestFactory(store, stubLatencyMs, stubJitterMs, stubErrorRate));
+        }
+
         SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
         factory.setConnectTimeout(connectTimeout);
         factory.setReadTimeout(readTimeout);
-        
-        return new RestTemplate(factory);
+
+        RestTemplate restTemplate = new RestTemplate(factory);
+        if ("record".equalsIgnoreCase(stubMode)) {
+            log.warn("📼 TheSportsDB en modo record hacia {}", stubDir);
+            restTemplate.getInterceptors().add(new RecordingInterceptor(fixtureStore(), List.of(stubSecuencias)));
+        }
+        return restTemplate;
+    }
+
+    private FixtureStore fixtureStore() {
+        return new FixtureStore(Paths.get(stubDir), apiKey);
+    }
+
+    private FixtureStore syntheticStore() {
+        Path directorio = Paths.get(syntheticDir).toAbsolutePath().normalize();
+        if (directorio.equals(Paths.get(stubDir).toAbsolutePath().normalize())) {
+            throw new IllegalStateException("thesportsdb.stub.synthetic.dir no puede ser el directorio de "
+                    + "fixtures grabados (thesportsdb.stub.dir): los sobrescribiría");
+        }
+        return new FixtureStore(directorio, apiKey);
     }
 }
@@ -4,14 +4,20 @@ import com.example.cc.dto.admin.*;
 import com.example.cc.entities.CryptoTransaction;
 import com.example.cc.entities.Usuario;
 import com.example.cc.service.admin.AdminService;
+import com.example.cc.service.admin.ExportacionService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,6 +28,9 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private ExportacionService exportacionService;
+
     // ========== DASHBOARD STATS ==========
     /**
      * Obtiene las estadísticas generales del dashboard administrativo
@@ -228,5 +237,23 @@ public class AdminController {
     }
 
     // ========== REPORTES ==========
+    /**
+     * Exporta apuestas, transacciones o participaciones en quinielas (CSV o NDJSON),
+     * escribiendo las filas en la respuesta a medida que se leen
+     */
+    @GetMapping("/exportaciones/{conjunto}")
+    public void exportar(@PathVariable String conjunto,
+            @RequestParam(defaultValue = "CSV") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            HttpServletResponse response) throws IOException {
+        ExportacionService.Conjunto tipoConjunto = ExportacionService.Conjunto.valueOf(conjunto.toUpperCase());
+        ExportacionService.Formato tipoFormato = ExportacionService.Formato.valueOf(formato.toUpperCase());
 
+        response.setContentType(tipoFormato.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" +
+                tipoConjunto.name().toLowerCase() + "." + tipoFormato.getExtension() + "\"");
+        exportacionService.exportar(tipoConjunto, tipoFormato, desde, hasta, response.getOutputStream());
+    }
 }
@@ -2,14 +2,17 @@ package com.example.cc.controller;
 
 import com.example.cc.dto.QuinielaResumenDto;
 import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.entities.RollupEstadistica;
 import com.example.cc.service.estadisticas.EstadisticasService;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -84,6 +87,18 @@ public class EstadisticasController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Obtener rollups horarios o diarios de una dimensión
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupEstadistica>> obtenerRollups(
+            @RequestParam(defaultValue = "DIA") RollupEstadistica.Granularidad granularidad,
+            @RequestParam(defaultValue = "MERCADO") RollupEstadistica.Dimension dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        return ResponseEntity.ok(estadisticasService.obtenerRollups(granularidad, dimension, desde, hasta));
+    }
+
     /**
      * Obtener top ganadores
      */
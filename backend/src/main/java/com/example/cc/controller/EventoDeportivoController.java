@@ -8,6 +8,7 @@ import com.example.cc.service.apuestas.CuotaEventoService;
 import com.example.cc.service.deportes.IDeporteService;
 import com.example.cc.service.deportes.ILigaService;
 import com.example.cc.scheduler.EventoDeportivoScheduler;
+import com.example.cc.scheduler.LiveScorePollPlanner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -32,6 +33,7 @@ public class EventoDeportivoController {
     private final EventoDeportivoScheduler eventoScheduler;
     private final com.example.cc.service.external.ITheSportsDbService theSportsDbService;
     private final CuotaEventoService cuotaEventoService;
+    private final LiveScorePollPlanner pollPlanner;
 
     /**
      * Obtener eventos por rango de fechas
@@ -313,6 +315,21 @@ public class EventoDeportivoController {
 
     // ===== ENDPOINTS PARA LIVESCORES =====
 
+    /**
+     * Inspeccionar la cola del planificador adaptativo de livescores
+     */
+    @GetMapping("/livescores/plan")
+    public ResponseEntity<Map<String, Object>> obtenerPlanLivescores() {
+        List<LiveScorePollPlanner.EntradaPoll> cola = pollPlanner.getCola();
+        return ResponseEntity.ok(Map.of(
+            "eventosEnCola", cola.size(),
+            "llamadasUltimoMinuto", pollPlanner.getLlamadasUltimoMinuto(),
+            "limiteLlamadasPorMinuto", pollPlanner.getLimiteLlamadasPorMinuto(),
+            "cola", cola,
+            "timestamp", LocalDateTime.now()
+        ));
+    }
+
     /**
      * Obtener livescores actuales de todos los eventos del día
      */
@@ -1,5 +1,7 @@
 package com.example.cc.controller;
 
+import com.example.cc.entities.EjecucionJob;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,6 +11,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,6 +22,9 @@ public class HealthController {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private RegistroEjecucionesService registroEjecuciones;
+
     @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> health = new HashMap<>();
@@ -58,4 +64,30 @@ public class HealthController {
         
         return ResponseEntity.ok(info);
     }
+
+    /**
+     * Indicadores de la última ejecución de cada job programado
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, RegistroEjecucionesService.IndicadoresJob>> jobs() {
+        return ResponseEntity.ok(registroEjecuciones.getIndicadores());
+    }
+
+    /**
+     * Historial de ejecuciones de los jobs, opcionalmente de uno solo
+     */
+    @GetMapping("/jobs/historial")
+    public ResponseEntity<List<EjecucionJob>> historialJobs(
+            @RequestParam(required = false) String nombreJob,
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(registroEjecuciones.obtenerHistorial(nombreJob, limite));
+    }
+
+    /**
+     * Resumen por job de las últimas horas: duraciones medias por etapa, filas y errores
+     */
+    @GetMapping("/jobs/resumen")
+    public ResponseEntity<List<Map<String, Object>>> resumenJobs(@RequestParam(defaultValue = "24") int horas) {
+        return ResponseEntity.ok(registroEjecuciones.obtenerResumen(horas));
+    }
 }
@@ -8,6 +8,8 @@ import com.example.cc.entities.Quiniela;
 import com.example.cc.entities.QuinielaParticipacion;
 import com.example.cc.entities.QuinielaEvento;
 import com.example.cc.service.quiniela.QuinielaService;
+import com.example.cc.service.quinielaEventoStats.IQuinielaEventoStatsService;
+import com.example.cc.service.quinielaEventoStats.QuinielaEventoStatsService;
 import com.example.cc.entities.PrediccionEvento;
 import com.example.cc.repository.QuinielaParticipacionRepository;
 import com.example.cc.mapper.QuinielaMapper;
@@ -34,6 +36,7 @@ public class QuinielaController {
     private final QuinielaService quinielaService;
     private final QuinielaParticipacionRepository participacionRepository;
     private final QuinielaMapper quinielaMapper;
+    private final IQuinielaEventoStatsService quinielaEventoStatsService;
 
     /**
      * Crear nueva quiniela
@@ -119,18 +122,83 @@ public class QuinielaController {
     }
 
     /**
-     * Obtener ranking de una quiniela
+     * Obtener ranking de una quiniela: completo, o paginado si se indica page o size
      */
     @GetMapping("/{quinielaId}/ranking")
-    public ResponseEntity<List<RankingParticipacionDto>> obtenerRanking(@PathVariable Long quinielaId) {
+    public ResponseEntity<List<RankingParticipacionDto>> obtenerRanking(@PathVariable Long quinielaId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        if ((page != null && page < 0) || (size != null && size <= 0)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<RankingParticipacionDto> ranking = quinielaService.obtenerRanking(quinielaId);
+            List<RankingParticipacionDto> ranking = page == null && size == null
+                    ? quinielaService.obtenerRanking(quinielaId)
+                    : quinielaService.obtenerRanking(quinielaId, page != null ? page : 0, size != null ? size : 100);
             return ResponseEntity.ok(ranking);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Obtener las primeras posiciones del ranking en vivo
+     */
+    @GetMapping("/{quinielaId}/ranking/top")
+    public ResponseEntity<List<RankingParticipacionDto>> obtenerTopRanking(@PathVariable Long quinielaId,
+            @RequestParam(defaultValue = "10") int limite) {
+        if (limite <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(quinielaService.obtenerTopRanking(quinielaId, limite));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtener la posición de una participación en el ranking en vivo
+     */
+    @GetMapping("/{quinielaId}/ranking/participacion/{participacionId}")
+    public ResponseEntity<RankingParticipacionDto> obtenerPosicionRanking(@PathVariable Long quinielaId,
+            @PathVariable Long participacionId) {
+        try {
+            return ResponseEntity.ok(quinielaService.obtenerPosicionRanking(quinielaId, participacionId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Obtener las participaciones alrededor de una participación en el ranking en vivo
+     */
+    @GetMapping("/{quinielaId}/ranking/participacion/{participacionId}/vecinos")
+    public ResponseEntity<List<RankingParticipacionDto>> obtenerVecinosRanking(@PathVariable Long quinielaId,
+            @PathVariable Long participacionId, @RequestParam(defaultValue = "5") int radio) {
+        if (radio <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(quinielaService.obtenerVecinosRanking(quinielaId, participacionId, radio));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtener la distribución de predicciones de todos los eventos de una quiniela
+     */
+    @GetMapping("/{quinielaId}/eventos/distribucion")
+    public ResponseEntity<Map<Long, QuinielaEventoStatsService.DistribucionEvento>> obtenerDistribucionPredicciones(
+            @PathVariable Long quinielaId) {
+        try {
+            return ResponseEntity.ok(quinielaEventoStatsService.getDistribucion(quinielaId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Procesar resultados de una quiniela (solo admin)
      */
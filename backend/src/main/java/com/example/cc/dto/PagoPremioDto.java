@@ -0,0 +1,19 @@
+package com.example.cc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Abono pendiente de aplicar en un lote de pagos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagoPremioDto {
+    private Long usuarioId;
+    private BigDecimal monto;
+    private String descripcion;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 
 import com.example.cc.entities.DocumentoIdentidad;
@@ -64,4 +65,27 @@ public class AdminUserDto {
     private String monedaPreferida;
 
     private List<DocumentoIdentidad> documentos;
+
+    /**
+     * Proyección del listado de administración: datos de usuario y perfil más
+     * el número y monto total de apuestas, agregados en la misma consulta
+     */
+    public AdminUserDto(Long idUsuario, String email, String estado, Boolean activo, BigDecimal saldoUsuario,
+                        String username, String nombreCompleto, String apellidos, String telefono,
+                        Date fechaNacimiento, Date fechaCreacion, Long totalApuestas,
+                        BigDecimal montoTotalApostado) {
+        this.idUsuario = idUsuario;
+        this.email = email;
+        this.estado = estado;
+        this.activo = Boolean.TRUE.equals(activo);
+        this.saldoUsuario = saldoUsuario;
+        this.username = username;
+        this.nombreCompleto = nombreCompleto;
+        this.apellidos = apellidos;
+        this.telefono = telefono;
+        this.fechaNacimiento = fechaNacimiento != null ? fechaNacimiento.toString() : null;
+        this.fechaCreacion = fechaCreacion != null ? fechaCreacion.toString() : null;
+        this.totalApuestas = totalApuestas;
+        this.montoTotalApostado = montoTotalApostado;
+    }
 }
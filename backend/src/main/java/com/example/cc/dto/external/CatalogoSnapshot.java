@@ -0,0 +1,46 @@
+package com.example.cc.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copia local del catálogo de deportes y ligas de TheSportsDB.
+ * Solo guarda los campos que se persisten en la base de datos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogoSnapshot {
+
+    private String generadoEn;
+    private List<DeporteSnapshot> deportes = new ArrayList<>();
+    private List<LigaSnapshot> ligas = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeporteSnapshot {
+        private String nombre;
+        private String descripcion;
+        private String icono;
+        private String colorPrimario;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LigaSnapshot {
+        private String ligaIdExterno;
+        private String nombre;
+        private String deporte;
+        private String pais;
+        private String temporada;
+        private String descripcion;
+        private String logoUrl;
+        private String sitioWeb;
+    }
+}
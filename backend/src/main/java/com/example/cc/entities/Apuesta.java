@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "apuestas")
+@Table(name = "apuestas", indexes = {
+    @Index(name = "idx_apuestas_usuario_monto", columnList = "usuario_id, monto_apostado"),
+    @Index(name = "idx_apuestas_fecha_creacion", columnList = "fecha_creacion"),
+    @Index(name = "idx_apuestas_fecha_resolucion", columnList = "fecha_resolucion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
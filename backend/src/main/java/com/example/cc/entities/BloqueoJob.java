@@ -0,0 +1,33 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Concesión (lease) de un job programado entre instancias del backend.
+ * También registra el latido de cada instancia con nombre {@code instancia:<id>}.
+ */
+@Entity
+@Table(name = "bloqueos_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoJob {
+
+    @Id
+    @Column(name = "nombre", length = 150)
+    private String nombre;
+
+    @Column(name = "propietario", nullable = false, length = 150)
+    private String propietario;
+
+    @Column(name = "bloqueado_hasta", nullable = false)
+    private LocalDateTime bloqueadoHasta;
+
+    @Column(name = "bloqueado_en", nullable = false)
+    private LocalDateTime bloqueadoEn;
+}
@@ -0,0 +1,47 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Contador incremental de apuestas por estado ({@code PENDIENTE},
+ * {@code ACEPTADA}, {@code GANADA}, {@code PERDIDA}, {@code CANCELADA},
+ * {@code RECHAZADA}). Cada estado se reparte en varias ranuras para que las
+ * altas concurrentes no se serialicen sobre una sola fila; el total es la
+ * suma de sus ranuras.
+ */
+@Entity
+@Table(name = "contadores_apuestas")
+@IdClass(ContadorApuesta.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContadorApuesta {
+
+    @Id
+    @Column(name = "estado", length = 20)
+    private String estado;
+
+    @Id
+    @Column(name = "ranura")
+    private Integer ranura;
+
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad = 0L;
+
+    @Column(name = "monto", nullable = false, precision = 19, scale = 2)
+    private BigDecimal monto = BigDecimal.ZERO;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private String estado;
+        private Integer ranura;
+    }
+}
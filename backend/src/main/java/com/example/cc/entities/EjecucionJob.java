@@ -0,0 +1,65 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro de una ejecución de un job programado: duración total y por etapa
+ * (fetch, parse, upsert, cuotas...), filas procesadas, llamadas a la API y errores.
+ */
+@Entity
+@Table(name = "ejecuciones_jobs", indexes = {
+    @Index(name = "idx_ejecucion_job_nombre_inicio", columnList = "nombre_job, inicio")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EjecucionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "nombre_job", nullable = false, length = 100)
+    private String nombreJob;
+
+    @Column(name = "inicio", nullable = false)
+    private LocalDateTime inicio;
+
+    @Column(name = "fin")
+    private LocalDateTime fin;
+
+    @Column(name = "duracion_ms")
+    private Long duracionMs;
+
+    /** completado | con_errores | fallido */
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "filas_leidas", nullable = false)
+    private Long filasLeidas = 0L;
+
+    @Column(name = "filas_escritas", nullable = false)
+    private Long filasEscritas = 0L;
+
+    @Column(name = "llamadas_api", nullable = false)
+    private Integer llamadasApi = 0;
+
+    @Column(name = "errores", nullable = false)
+    private Integer errores = 0;
+
+    @Column(name = "mensaje_error", length = 1000)
+    private String mensajeError;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "ejecuciones_jobs_etapas", joinColumns = @JoinColumn(name = "ejecucion_id"))
+    @MapKeyColumn(name = "etapa", length = 50)
+    @Column(name = "duracion_ms", nullable = false)
+    private Map<String, Long> etapasMs = new LinkedHashMap<>();
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
@@ -66,6 +67,10 @@ public class EventoDeportivo {
     @Column(name = "marcador_visitante")
     private Integer marcadorVisitante;
 
+    @Column(name = "hash_externo", length = 64)
+    @JsonIgnore
+    private String hashExterno; // Hash del contenido recibido de TheSportsDB (sincronización incremental)
+
     @Column(name = "fecha_creacion", nullable = false)
     private LocalDateTime fechaCreacion;
 
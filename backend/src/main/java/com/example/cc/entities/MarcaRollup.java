@@ -0,0 +1,27 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua de una fuente de los rollups de estadísticas: las filas de la
+ * fuente con fecha anterior a {@code hasta} ya están agregadas.
+ */
+@Entity
+@Table(name = "marcas_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarcaRollup {
+
+    @Id
+    @Column(name = "fuente", length = 50)
+    private String fuente;
+
+    @Column(name = "hasta", nullable = false)
+    private LocalDateTime hasta;
+}
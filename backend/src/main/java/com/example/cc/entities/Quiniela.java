@@ -14,7 +14,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "quinielas")
+@Table(name = "quinielas", indexes = {
+    @Index(name = "idx_quiniela_estado_participantes", columnList = "estado, participantes_actuales"),
+    @Index(name = "idx_quiniela_estado_pool", columnList = "estado, pool_actual")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
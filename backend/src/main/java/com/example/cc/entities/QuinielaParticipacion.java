@@ -15,7 +15,13 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "quiniela_participaciones")
+@Table(name = "quiniela_participaciones",
+       uniqueConstraints = @UniqueConstraint(name = "uk_participacion_quiniela_usuario",
+               columnNames = {"quiniela_id", "usuario_id"}),
+       indexes = {
+               @Index(name = "idx_participacion_premio_usuario", columnList = "premio_ganado, usuario_id"),
+               @Index(name = "idx_participacion_fecha", columnList = "fecha_participacion")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,6 +54,9 @@ public class QuinielaParticipacion {
     @Column(name = "posicion_final")
     private Integer posicionFinal;
 
+    @Column(name = "posicion_actual")
+    private Integer posicionActual; // Posición provisional del ranking en vivo
+
     @Column(name = "aciertos", nullable = false)
     private Integer aciertos = 0;
 
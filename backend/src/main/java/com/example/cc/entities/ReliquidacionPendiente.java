@@ -0,0 +1,45 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Corrección de resultado de un evento cuyas apuestas aún no se reliquidaron.
+ * Se inserta en la misma transacción que la corrección y se borra en la que
+ * aplica la reliquidación; las de un mismo evento se procesan en orden de id.
+ */
+@Entity
+@Table(name = "reliquidaciones_pendientes", indexes = {
+        @Index(name = "idx_reliquidacion_pendiente_evento", columnList = "evento_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReliquidacionPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "evento_id", nullable = false)
+    private Long eventoId;
+
+    @Column(name = "resultado_anterior")
+    private String resultadoAnterior;
+
+    @Column(name = "resultado_nuevo")
+    private String resultadoNuevo;
+
+    @Column(name = "creada_en", nullable = false)
+    private LocalDateTime creadaEn;
+
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+}
@@ -0,0 +1,79 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado horario o diario de la actividad de apuestas y quinielas para un
+ * valor de una dimensión (mercado, deporte o tipo de quiniela): número de
+ * apuestas o participaciones, monto apostado, pagos de premios y reembolsos.
+ * El GGR del periodo es {@code apostado - pagado - reembolsado}.
+ */
+@Entity
+@Table(name = "rollups_estadisticas")
+@IdClass(RollupEstadistica.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupEstadistica {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularidad", length = 10)
+    private Granularidad granularidad;
+
+    @Id
+    @Column(name = "periodo")
+    private LocalDateTime periodo;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", length = 20)
+    private Dimension dimension;
+
+    @Id
+    @Column(name = "valor", length = 100)
+    private String valor;
+
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad = 0L;
+
+    @Column(name = "apostado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal apostado = BigDecimal.ZERO;
+
+    @Column(name = "pagado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal pagado = BigDecimal.ZERO;
+
+    @Column(name = "reembolsado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal reembolsado = BigDecimal.ZERO;
+
+    public BigDecimal getGgr() {
+        return apostado.subtract(pagado).subtract(reembolsado);
+    }
+
+    public enum Granularidad {
+        HORA, DIA
+    }
+
+    public enum Dimension {
+        MERCADO,    // Tipo de apuesta
+        DEPORTE,    // Deporte del evento apostado
+        QUINIELA    // Tipo de quiniela
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Granularidad granularidad;
+        private LocalDateTime periodo;
+        private Dimension dimension;
+        private String valor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.cc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua de la sincronización de eventos por día: hash del contenido
+ * recibido de TheSportsDB y momento de la última sincronización completa.
+ */
+@Entity
+@Table(name = "sincronizacion_dias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SincronizacionDia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fecha", nullable = false, unique = true)
+    private LocalDate fecha;
+
+    @Column(name = "hash_contenido", nullable = false, length = 64)
+    private String hashContenido;
+
+    @Column(name = "total_eventos", nullable = false)
+    private Integer totalEventos = 0;
+
+    @Column(name = "eventos_cambiados", nullable = false)
+    private Integer eventosCambiados = 0;
+
+    @Column(name = "ultima_sincronizacion", nullable = false)
+    private LocalDateTime ultimaSincronizacion;
+
+    @Column(name = "ultima_verificacion")
+    private LocalDateTime ultimaVerificacion;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+    }
+}
@@ -13,6 +13,9 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_usuario_estado_cuenta", columnList = "estado_cuenta, id_usuario")
+})
 @Getter
 @Setter
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -33,7 +36,8 @@ public class Usuario {
     private String email;
 
     @ManyToMany
-    @JoinTable(name = "Usuario_Rol", joinColumns = @JoinColumn(name = "id_usuario"), inverseJoinColumns = @JoinColumn(name = "id_rol"))
+    @JoinTable(name = "Usuario_Rol", joinColumns = @JoinColumn(name = "id_usuario"), inverseJoinColumns = @JoinColumn(name = "id_rol"),
+            indexes = @Index(name = "idx_usuario_rol_rol", columnList = "id_rol, id_usuario"))
     @JsonIgnore
     private Set<Rol> roles;
       @OneToOne(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -0,0 +1,61 @@
+package com.example.cc.repository;
+
+import com.example.cc.entities.BloqueoJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Las consultas usan el reloj de la base de datos para que el desfase entre
+ * los relojes de las instancias no afecte a la expiración de las concesiones.
+ */
+@Repository
+public interface BloqueoJobRepository extends JpaRepository<BloqueoJob, String> {
+
+    /**
+     * Tomar la concesión si no existe, expiró o ya es del mismo propietario
+     * @return 1 si se obtuvo, 0 si la tiene otra instancia
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bloqueos_jobs (nombre, propietario, bloqueado_hasta, bloqueado_en) " +
+                   "VALUES (:nombre, :propietario, LOCALTIMESTAMP + make_interval(secs => :segundos), LOCALTIMESTAMP) " +
+                   "ON CONFLICT (nombre) DO UPDATE SET propietario = EXCLUDED.propietario, " +
+                   "bloqueado_hasta = EXCLUDED.bloqueado_hasta, bloqueado_en = EXCLUDED.bloqueado_en " +
+                   "WHERE bloqueos_jobs.bloqueado_hasta <= LOCALTIMESTAMP " +
+                   "OR bloqueos_jobs.propietario = EXCLUDED.propietario", nativeQuery = true)
+    int adquirir(@Param("nombre") String nombre,
+                 @Param("propietario") String propietario,
+                 @Param("segundos") double segundos);
+
+    /**
+     * Liberar la concesión manteniéndola al menos hasta bloqueado_en + mínimo,
+     * para que otra instancia no repita el mismo disparo del job
+     */
+    @Modifying
+    @Query(value = "UPDATE bloqueos_jobs SET bloqueado_hasta = " +
+                   "GREATEST(LOCALTIMESTAMP, bloqueado_en + make_interval(secs => :minimoSegundos)) " +
+                   "WHERE nombre = :nombre AND propietario = :propietario", nativeQuery = true)
+    int liberar(@Param("nombre") String nombre,
+                @Param("propietario") String propietario,
+                @Param("minimoSegundos") double minimoSegundos);
+
+    /**
+     * Extender una concesión en curso sin tocar bloqueado_en
+     * @return 1 si sigue siendo del propietario, 0 si la tomó otra instancia
+     */
+    @Modifying
+    @Query(value = "UPDATE bloqueos_jobs SET bloqueado_hasta = LOCALTIMESTAMP + make_interval(secs => :segundos) " +
+                   "WHERE nombre = :nombre AND propietario = :propietario", nativeQuery = true)
+    int renovar(@Param("nombre") String nombre,
+                @Param("propietario") String propietario,
+                @Param("segundos") double segundos);
+
+    /**
+     * Instancias con latido vigente
+     */
+    @Query(value = "SELECT COUNT(*) FROM bloqueos_jobs WHERE nombre LIKE 'instancia:%' " +
+                   "AND bloqueado_hasta > LOCALTIMESTAMP", nativeQuery = true)
+    long contarInstanciasActivas();
+}
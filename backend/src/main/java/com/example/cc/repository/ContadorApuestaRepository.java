@@ -0,0 +1,59 @@
+package com.example.cc.repository;
+
+import com.example.cc.entities.ContadorApuesta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ContadorApuestaRepository extends JpaRepository<ContadorApuesta, ContadorApuesta.Clave> {
+
+    /**
+     * Sumar (o restar, con valores negativos) al contador de un estado en una ranura
+     */
+    @Modifying
+    @Query(value = "INSERT INTO contadores_apuestas (estado, ranura, cantidad, monto) " +
+                   "VALUES (:estado, :ranura, :cantidad, :monto) " +
+                   "ON CONFLICT (estado, ranura) DO UPDATE SET " +
+                   "cantidad = contadores_apuestas.cantidad + EXCLUDED.cantidad, " +
+                   "monto = contadores_apuestas.monto + EXCLUDED.monto", nativeQuery = true)
+    int sumar(@Param("estado") String estado,
+              @Param("ranura") int ranura,
+              @Param("cantidad") long cantidad,
+              @Param("monto") BigDecimal monto);
+
+    /**
+     * Totales por estado: (estado, cantidad, monto)
+     */
+    @Query("SELECT c.estado, SUM(c.cantidad), SUM(c.monto) FROM ContadorApuesta c GROUP BY c.estado")
+    List<Object[]> totalesPorEstado();
+
+    /**
+     * Bloquear las escrituras sobre apuestas hasta el fin de la transacción
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE apuestas IN SHARE MODE", nativeQuery = true)
+    int bloquearApuestas();
+
+    /**
+     * Vaciar los contadores antes de reconstruirlos
+     */
+    @Modifying
+    @Query(value = "DELETE FROM contadores_apuestas", nativeQuery = true)
+    int vaciar();
+
+    /**
+     * Reconstruir los contadores desde la tabla de apuestas (en la ranura 0)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO contadores_apuestas (estado, ranura, cantidad, monto) " +
+                   "SELECT CASE WHEN estado = 'RESUELTA' THEN " +
+                   "CASE WHEN es_ganadora THEN 'GANADA' ELSE 'PERDIDA' END ELSE estado END, " +
+                   "0, COUNT(*), COALESCE(SUM(monto_apostado), 0) FROM apuestas GROUP BY 1", nativeQuery = true)
+    int reconstruirDesdeApuestas();
+}
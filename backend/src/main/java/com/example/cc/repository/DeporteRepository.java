@@ -37,4 +37,10 @@ public interface DeporteRepository extends JpaRepository<Deporte, Long> {
      */
     @Query("SELECT d FROM Deporte d WHERE LOWER(d.nombre) LIKE LOWER(CONCAT('%', :nombre, '%')) AND d.activo = true")
     List<Deporte> findByNombreContaining(@Param("nombre") String nombre);
+
+    /**
+     * Id y nombre de todos los deportes (para calentar la caché de resolución)
+     */
+    @Query("SELECT d.id, d.nombre FROM Deporte d")
+    List<Object[]> findIdYNombre();
 }
@@ -3,7 +3,10 @@ package com.example.cc.repository;
 import com.example.cc.entities.DocumentoIdentidad;
 import com.example.cc.entities.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,13 @@ public interface DocumentoIdentidadRepository extends JpaRepository<DocumentoIde
     List<DocumentoIdentidad> findByUsuario(Usuario usuario);
     Optional<DocumentoIdentidad> findByUsuarioAndTipoDocumento(Usuario usuario, DocumentoIdentidad.TipoDocumento tipo);
     List<DocumentoIdentidad> findByEstado(DocumentoIdentidad.EstadoVerificacion estado);
+
+    /**
+     * Documentos de un conjunto de usuarios, con el usuario y sus relaciones
+     * uno a uno cargados en la misma consulta
+     */
+    @Query("SELECT d FROM DocumentoIdentidad d JOIN FETCH d.usuario u " +
+           "LEFT JOIN FETCH u.perfil LEFT JOIN FETCH u.autenticacion2FA " +
+           "WHERE u.idUsuario IN :usuarioIds")
+    List<DocumentoIdentidad> findByUsuarioIds(@Param("usuarioIds") Collection<Long> usuarioIds);
 }
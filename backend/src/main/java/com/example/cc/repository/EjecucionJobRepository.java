@@ -0,0 +1,47 @@
+package com.example.cc.repository;
+
+import com.example.cc.entities.EjecucionJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EjecucionJobRepository extends JpaRepository<EjecucionJob, Long> {
+
+    List<EjecucionJob> findByNombreJobOrderByInicioDesc(String nombreJob, Pageable pageable);
+
+    List<EjecucionJob> findAllByOrderByInicioDesc(Pageable pageable);
+
+    /**
+     * Resumen por job desde una fecha: ejecuciones, fallos, duración media y máxima,
+     * filas leídas y escritas, llamadas a la API y errores
+     */
+    @Query("SELECT e.nombreJob, COUNT(e), " +
+           "SUM(CASE WHEN e.estado = 'fallido' THEN 1 ELSE 0 END), " +
+           "AVG(e.duracionMs), MAX(e.duracionMs), " +
+           "SUM(e.filasLeidas), SUM(e.filasEscritas), SUM(e.llamadasApi), SUM(e.errores) " +
+           "FROM EjecucionJob e WHERE e.inicio >= :desde GROUP BY e.nombreJob ORDER BY e.nombreJob")
+    List<Object[]> resumenPorJobDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Duración media por etapa y job desde una fecha
+     */
+    @Query("SELECT e.nombreJob, KEY(et), AVG(VALUE(et)) FROM EjecucionJob e JOIN e.etapasMs et " +
+           "WHERE e.inicio >= :desde GROUP BY e.nombreJob, KEY(et)")
+    List<Object[]> duracionMediaEtapasDesde(@Param("desde") LocalDateTime desde);
+
+    @Modifying
+    @Query(value = "DELETE FROM ejecuciones_jobs_etapas WHERE ejecucion_id IN " +
+                   "(SELECT id FROM ejecuciones_jobs WHERE inicio < :fecha)", nativeQuery = true)
+    int deleteEtapasByInicioBefore(@Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("DELETE FROM EjecucionJob e WHERE e.inicio < :fecha")
+    int deleteByInicioBefore(@Param("fecha") LocalDateTime fecha);
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -76,6 +77,18 @@ public interface EventoDeportivoRepository extends JpaRepository<EventoDeportivo
     List<EventoDeportivo> findByFechaEventoBetweenAndEstadoOrderByFechaEventoAsc(
             LocalDateTime fechaInicio, LocalDateTime fechaFin, String estado);
 
+    /**
+     * Obtener eventos por estados dentro de un rango de fechas
+     */
+    List<EventoDeportivo> findByEstadoInAndFechaEventoBetween(List<String> estados,
+            LocalDateTime fechaInicio, LocalDateTime fechaFin);
+
+    /**
+     * Obtener eventos en un estado que aún no tienen resultado dentro de un rango de fechas
+     */
+    List<EventoDeportivo> findByEstadoAndResultadoIsNullAndFechaEventoBetween(String estado,
+            LocalDateTime fechaInicio, LocalDateTime fechaFin);
+
     /**
      * Eliminar eventos antiguos (más de 30 días)
      */
@@ -101,4 +114,10 @@ public interface EventoDeportivoRepository extends JpaRepository<EventoDeportivo
     @Modifying
     @Query("UPDATE EventoDeportivo e SET e.estado = 'finalizado', e.fechaActualizacion = :fechaActualizacion WHERE e.fechaEvento < :fechaActual AND e.estado IN ('programado', 'en_vivo')")
     int cerrarEventosVencidos(@Param("fechaActual") LocalDateTime fechaActual, @Param("fechaActualizacion") LocalDateTime fechaActualizacion);
+
+    /**
+     * ID externo y hash de contenido de los eventos indicados (sincronización incremental)
+     */
+    @Query("SELECT e.eventoIdExterno, e.hashExterno FROM EventoDeportivo e WHERE e.eventoIdExterno IN :ids")
+    List<Object[]> findHashesByEventoIdExternoIn(@Param("ids") Collection<String> ids);
 }
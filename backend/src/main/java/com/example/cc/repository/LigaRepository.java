@@ -78,4 +78,10 @@ public interface LigaRepository extends JpaRepository<Liga, Long> {
      * Verificar si existe una liga con el ID externo dado
      */
     boolean existsByLigaIdExterno(String ligaIdExterno);
+
+    /**
+     * Id, nombre e ID externo de todas las ligas (para calentar la caché de resolución)
+     */
+    @Query("SELECT l.id, l.nombre, l.ligaIdExterno FROM Liga l")
+    List<Object[]> findIdNombreYIdExterno();
 }
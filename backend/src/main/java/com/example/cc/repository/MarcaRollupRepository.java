@@ -0,0 +1,9 @@
+package com.example.cc.repository;
+
+import com.example.cc.entities.MarcaRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MarcaRollupRepository extends JpaRepository<MarcaRollup, String> {
+}
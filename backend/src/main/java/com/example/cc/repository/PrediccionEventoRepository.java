@@ -3,11 +3,13 @@ package com.example.cc.repository;
 import com.example.cc.entities.PrediccionEvento;
 import com.example.cc.entities.QuinielaParticipacion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -119,4 +121,21 @@ public interface PrediccionEventoRepository extends JpaRepository<PrediccionEven
      * Contar predicciones correctas por evento y quiniela
      */
     long countByEventoDeportivo_IdAndParticipacion_Quiniela_IdAndEsCorrecto(Long eventoId, Long quinielaId, Boolean esCorrecto);
+
+    /**
+     * Distribución de predicciones de una quiniela en una sola pasada:
+     * (evento deportivo, pronóstico, número de predicciones)
+     */
+    @Query("SELECT p.eventoDeportivo.id, p.prediccionTexto, COUNT(p) FROM PrediccionEvento p " +
+           "WHERE p.participacion.quiniela.id = :quinielaId " +
+           "GROUP BY p.eventoDeportivo.id, p.prediccionTexto")
+    List<Object[]> contarPorEventoYPrediccion(@Param("quinielaId") Long quinielaId);
+
+    /**
+     * Eliminar las predicciones de todas las participaciones de un lote de quinielas
+     */
+    @Modifying
+    @Query("DELETE FROM PrediccionEvento p WHERE p.participacion.id IN " +
+           "(SELECT pa.id FROM QuinielaParticipacion pa WHERE pa.quiniela.id IN :quinielaIds)")
+    int eliminarPorQuinielaIds(@Param("quinielaIds") Collection<Long> quinielaIds);
 }
@@ -2,10 +2,12 @@ package com.example.cc.repository;
 
 import com.example.cc.entities.QuinielaEvento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +30,32 @@ public interface QuinielaEventoRepository extends JpaRepository<QuinielaEvento,
     @Query("SELECT qe FROM QuinielaEvento qe JOIN qe.eventoDeportivo ed WHERE qe.quiniela.id = :quinielaId AND ed.estado = :estado")
     List<QuinielaEvento> findByQuinielaIdAndEventoEstado(@Param("quinielaId") Long quinielaId, @Param("estado") String estado);
 
+    /**
+     * ID y resultado de cada evento deportivo de una quiniela
+     */
+    @Query("SELECT ed.id, ed.resultado FROM QuinielaEvento qe JOIN qe.eventoDeportivo ed WHERE qe.quiniela.id = :quinielaId")
+    List<Object[]> findResultadosEventosByQuinielaId(@Param("quinielaId") Long quinielaId);
+
+    /**
+     * IDs de las quinielas que incluyen un evento deportivo
+     */
+    @Query("SELECT DISTINCT qe.quiniela.id FROM QuinielaEvento qe WHERE qe.eventoDeportivo.id = :eventoId")
+    List<Long> findQuinielaIdsByEventoDeportivoId(@Param("eventoId") Long eventoId);
+
+    /**
+     * IDs de las quinielas ya finalizadas (con premios pagados) que incluyen un evento deportivo
+     */
+    @Query("SELECT DISTINCT qe.quiniela.id FROM QuinielaEvento qe " +
+           "WHERE qe.eventoDeportivo.id = :eventoId AND qe.quiniela.estado = 'FINALIZADA'")
+    List<Long> findQuinielaIdsFinalizadasByEventoDeportivoId(@Param("eventoId") Long eventoId);
+
+    /**
+     * Eliminar los eventos de un lote de quinielas
+     */
+    @Modifying
+    @Query("DELETE FROM QuinielaEvento qe WHERE qe.quiniela.id IN :quinielaIds")
+    int eliminarPorQuinielaIds(@Param("quinielaIds") Collection<Long> quinielaIds);
+
     /**
      * Contar eventos en una quiniela
      */
@@ -7,13 +7,21 @@ import com.example.cc.entities.Usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface QuinielaParticipacionRepository extends JpaRepository<QuinielaParticipacion, Long> {
@@ -28,6 +36,27 @@ public interface QuinielaParticipacionRepository extends JpaRepository<QuinielaP
      */
     boolean existsByQuinielaAndUsuario(Quiniela quiniela, Usuario usuario);
 
+    /**
+     * Recorrer las predicciones de las participaciones de una quiniela en los
+     * estados dados, ordenadas por participación: (participacionId, eventoId,
+     * predicción, confianza). Las participaciones sin predicciones aparecen una
+     * vez con el resto de columnas nulas.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT pa.id, p.eventoDeportivo.id, p.prediccionTexto, p.confidence " +
+           "FROM QuinielaParticipacion pa LEFT JOIN pa.predicciones p " +
+           "WHERE pa.quiniela.id = :quinielaId AND pa.estado IN :estados ORDER BY pa.id")
+    Stream<Object[]> streamPrediccionesParaPuntuar(@Param("quinielaId") Long quinielaId,
+                                                   @Param("estados") Collection<QuinielaParticipacion.EstadoParticipacion> estados);
+
+    /**
+     * Predicciones de un evento en una quiniela: (participacionId, predicción, confianza)
+     */
+    @Query("SELECT pa.id, p.prediccionTexto, p.confidence FROM PrediccionEvento p JOIN p.participacion pa " +
+           "WHERE pa.quiniela.id = :quinielaId AND p.eventoDeportivo.id = :eventoId")
+    List<Object[]> findPrediccionesDeEvento(@Param("quinielaId") Long quinielaId,
+                                            @Param("eventoId") Long eventoId);
+
     /**
      * Obtener participación específica
      */
@@ -95,6 +124,43 @@ public interface QuinielaParticipacionRepository extends JpaRepository<QuinielaP
            "ORDER BY p.puntuacion DESC, p.aciertos DESC")
     List<RankingParticipacionDto> findRankingByQuiniela(@Param("quinielaId") Long quinielaId);
 
+    /**
+     * Primeras posiciones del ranking de una quiniela (proyección paginada)
+     */
+    @Query("SELECT new com.example.cc.dto.RankingParticipacionDto(" +
+           "p.id, u.perfil.nombre, p.aciertos, p.puntuacion, p.premioGanado, 0) " +
+           "FROM QuinielaParticipacion p " +
+           "JOIN p.usuario u " +
+           "WHERE p.quiniela.id = :quinielaId " +
+           "ORDER BY p.puntuacion DESC, p.aciertos DESC, p.id")
+    List<RankingParticipacionDto> findRankingByQuiniela(@Param("quinielaId") Long quinielaId, Pageable pageable);
+
+    /**
+     * Usuarios con más premios ganados en quinielas: (idUsuario, username, total ganado).
+     * Solo recorre las participaciones con premio.
+     */
+    @Query("SELECT u.idUsuario, pf.username, SUM(p.premioGanado) FROM QuinielaParticipacion p " +
+           "JOIN p.usuario u LEFT JOIN u.perfil pf " +
+           "WHERE p.premioGanado > 0 " +
+           "GROUP BY u.idUsuario, pf.username " +
+           "ORDER BY SUM(p.premioGanado) DESC, u.idUsuario")
+    List<Object[]> findTopGanadores(Pageable pageable);
+
+    /**
+     * Resumen de participaciones de una quiniela por estado:
+     * (estado, participaciones, premios repartidos, monto apostado)
+     */
+    @Query("SELECT p.estado, COUNT(p), COALESCE(SUM(p.premioGanado), 0), COALESCE(SUM(p.montoApostado), 0) " +
+           "FROM QuinielaParticipacion p WHERE p.quiniela.id = :quinielaId GROUP BY p.estado")
+    List<Object[]> resumirPorEstado(@Param("quinielaId") Long quinielaId);
+
+    /**
+     * Número de participaciones de una quiniela por número de aciertos, de más a menos
+     */
+    @Query("SELECT p.aciertos, COUNT(p) FROM QuinielaParticipacion p WHERE p.quiniela.id = :quinielaId " +
+           "GROUP BY p.aciertos ORDER BY p.aciertos DESC")
+    List<Object[]> contarPorAciertos(@Param("quinielaId") Long quinielaId);
+
     /**
      * Obtener top N participantes de una quiniela
      */
@@ -103,6 +169,12 @@ public interface QuinielaParticipacionRepository extends JpaRepository<QuinielaP
            "ORDER BY p.puntuacion DESC, p.aciertos DESC, p.fechaParticipacion ASC")
     Page<QuinielaParticipacion> getTopParticipantes(@Param("quinielaId") Long quinielaId, Pageable pageable);
 
+    /**
+     * Número de participaciones de una quiniela (revalidación del ranking en vivo)
+     */
+    @Query("SELECT COUNT(p) FROM QuinielaParticipacion p WHERE p.quiniela.id = :quinielaId")
+    long contarPorQuiniela(@Param("quinielaId") Long quinielaId);
+
     /**
      * Contar participantes activos en una quiniela
      */
@@ -179,4 +251,11 @@ public interface QuinielaParticipacionRepository extends JpaRepository<QuinielaP
      * Buscar participación por usuario y quiniela
      */
     Optional<QuinielaParticipacion> findByUsuario_IdUsuarioAndQuiniela_Id(Long usuarioId, Long quinielaId);
+
+    /**
+     * Eliminar las participaciones de un lote de quinielas (sus predicciones deben eliminarse antes)
+     */
+    @Modifying
+    @Query("DELETE FROM QuinielaParticipacion p WHERE p.quiniela.id IN :quinielaIds")
+    int eliminarPorQuinielaIds(@Param("quinielaIds") Collection<Long> quinielaIds);
 }
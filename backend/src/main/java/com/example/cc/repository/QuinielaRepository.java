@@ -4,11 +4,14 @@ import com.example.cc.entities.Quiniela;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +28,75 @@ public interface QuinielaRepository extends JpaRepository<Quiniela, Long> {
      */
     boolean existsByCodigoUnico(String codigoUnico);
 
+    /**
+     * Ocupar un lugar en la quiniela de forma atómica: incrementa participantes
+     * y pool solo si sigue activa, abierta y con cupo
+     * @return 1 si se ocupó el lugar, 0 si ya no admite participaciones
+     */
+    @Modifying
+    @Query("UPDATE Quiniela q SET q.participantesActuales = q.participantesActuales + 1, " +
+           "q.poolActual = q.poolActual + q.costoParticipacion, q.fechaActualizacion = :ahora " +
+           "WHERE q.id = :quinielaId AND q.estado = 'ACTIVA' AND q.fechaCierre >= :ahora " +
+           "AND (q.maxParticipantes IS NULL OR q.participantesActuales < q.maxParticipantes)")
+    int ocuparLugar(@Param("quinielaId") Long quinielaId, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cerrar en una sola sentencia todas las quinielas activas cuya fecha de cierre ya pasó
+     * @return Número de quinielas cerradas
+     */
+    @Modifying
+    @Query("UPDATE Quiniela q SET q.estado = 'CERRADA', q.fechaActualizacion = :ahora " +
+           "WHERE q.estado = 'ACTIVA' AND q.fechaCierre < :ahora")
+    int cerrarVencidas(@Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cancelar una quiniela activa o en borrador sin tocar participantes ni
+     * pool, que pueden estar cambiando a la vez; la nota se agrega a las reglas
+     * especiales. Corre en su propia transacción si no hay una en curso
+     * @return 1 si se canceló, 0 si ya no estaba activa ni en borrador
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Quiniela q SET q.estado = 'CANCELADA', q.fechaActualizacion = :ahora, " +
+           "q.reglasEspeciales = CASE WHEN q.reglasEspeciales IS NULL THEN :nota " +
+           "ELSE CONCAT(q.reglasEspeciales, :separador, :nota) END " +
+           "WHERE q.id = :quinielaId AND q.estado IN ('ACTIVA', 'BORRADOR')")
+    int cancelar(@Param("quinielaId") Long quinielaId, @Param("nota") String nota,
+            @Param("separador") String separador, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Reservar una quiniela cerrada para resolverla (CERRADA → EN_RESOLUCION).
+     * Solo una transacción puede hacerlo; las demás ven 0 filas
+     * @return 1 si se reservó, 0 si no estaba cerrada
+     */
+    @Modifying
+    @Query("UPDATE Quiniela q SET q.estado = 'EN_RESOLUCION', q.fechaActualizacion = :ahora " +
+           "WHERE q.id = :quinielaId AND q.estado = 'CERRADA'")
+    int reservarParaResolucion(@Param("quinielaId") Long quinielaId, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * IDs de las quinielas cerradas con al menos un evento y todos sus eventos con resultado
+     */
+    @Query("SELECT q.id FROM Quiniela q WHERE q.estado = 'CERRADA' " +
+           "AND EXISTS (SELECT 1 FROM QuinielaEvento qe WHERE qe.quiniela = q) " +
+           "AND NOT EXISTS (SELECT 1 FROM QuinielaEvento qe JOIN qe.eventoDeportivo ed " +
+           "WHERE qe.quiniela = q AND ed.resultado IS NULL) " +
+           "ORDER BY q.fechaCierre, q.id")
+    List<Long> findIdsListasParaResolver();
+
+    /**
+     * IDs de quinielas canceladas creadas antes de la fecha límite, por lotes
+     */
+    @Query("SELECT q.id FROM Quiniela q WHERE q.estado = 'CANCELADA' AND q.fechaCreacion < :limite ORDER BY q.id")
+    List<Long> findIdsCanceladasAntes(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+    /**
+     * Eliminar quinielas por ID (sus eventos y participaciones deben eliminarse antes)
+     */
+    @Modifying
+    @Query("DELETE FROM Quiniela q WHERE q.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Obtener quinielas por estado
      */
@@ -115,6 +187,24 @@ public interface QuinielaRepository extends JpaRepository<Quiniela, Long> {
      */
     List<Quiniela> findByEstado(Quiniela.EstadoQuiniela estado);
 
+    /**
+     * Número de quinielas y pool acumulado por estado: (estado, quinielas, pool)
+     */
+    @Query("SELECT q.estado, COUNT(q), COALESCE(SUM(q.poolActual), 0) FROM Quiniela q GROUP BY q.estado")
+    List<Object[]> resumirPorEstado();
+
+    /**
+     * Número de quinielas por tipo: (tipo, quinielas)
+     */
+    @Query("SELECT q.tipoQuiniela, COUNT(q) FROM Quiniela q GROUP BY q.tipoQuiniela")
+    List<Object[]> contarPorTipo();
+
+    /**
+     * Número de quinielas por tipo de distribución: (distribución, quinielas)
+     */
+    @Query("SELECT q.tipoDistribucion, COUNT(q) FROM Quiniela q GROUP BY q.tipoDistribucion")
+    List<Object[]> contarPorDistribucion();
+
     /**
      * Obtener quinielas activas y públicas
      */
@@ -136,4 +226,29 @@ public interface QuinielaRepository extends JpaRepository<Quiniela, Long> {
     List<Quiniela> findByEstadoAndFechaCierreBetween(Quiniela.EstadoQuiniela estado,
                                                      LocalDateTime fechaInicio,
                                                      LocalDateTime fechaFin);
+
+    /**
+     * Primeras quinielas próximas a cerrar, de la más cercana a la más lejana
+     */
+    List<Quiniela> findByEstadoAndFechaCierreBetweenOrderByFechaCierreAsc(Quiniela.EstadoQuiniela estado,
+                                                                          LocalDateTime fechaInicio,
+                                                                          LocalDateTime fechaFin,
+                                                                          Pageable pageable);
+
+    /**
+     * Contar quinielas próximas a cerrar
+     */
+    long countByEstadoAndFechaCierreBetween(Quiniela.EstadoQuiniela estado,
+                                            LocalDateTime fechaInicio,
+                                            LocalDateTime fechaFin);
+
+    /**
+     * Quinielas de un estado con más participantes
+     */
+    List<Quiniela> findByEstadoOrderByParticipantesActualesDesc(Quiniela.EstadoQuiniela estado, Pageable pageable);
+
+    /**
+     * Quinielas de un estado con mayor pool
+     */
+    List<Quiniela> findByEstadoOrderByPoolActualDesc(Quiniela.EstadoQuiniela estado, Pageable pageable);
 }
@@ -0,0 +1,39 @@
+package com.example.cc.repository;
+
+import com.example.cc.entities.RollupEstadistica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RollupEstadisticaRepository
+        extends JpaRepository<RollupEstadistica, RollupEstadistica.Clave> {
+
+    /**
+     * Serie de una dimensión en un rango de periodos, en orden cronológico
+     */
+    @Query("SELECT r FROM RollupEstadistica r WHERE r.granularidad = :granularidad " +
+           "AND r.dimension = :dimension AND r.periodo >= :desde AND r.periodo < :hasta " +
+           "ORDER BY r.periodo, r.valor")
+    List<RollupEstadistica> findSerie(@Param("granularidad") RollupEstadistica.Granularidad granularidad,
+                                      @Param("dimension") RollupEstadistica.Dimension dimension,
+                                      @Param("desde") LocalDateTime desde,
+                                      @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Totales por valor de una dimensión en un rango de periodos:
+     * (valor, cantidad, apostado, pagado, reembolsado)
+     */
+    @Query("SELECT r.valor, SUM(r.cantidad), SUM(r.apostado), SUM(r.pagado), SUM(r.reembolsado) " +
+           "FROM RollupEstadistica r WHERE r.granularidad = :granularidad " +
+           "AND r.dimension = :dimension AND r.periodo >= :desde AND r.periodo < :hasta " +
+           "GROUP BY r.valor")
+    List<Object[]> totalesPorValor(@Param("granularidad") RollupEstadistica.Granularidad granularidad,
+                                   @Param("dimension") RollupEstadistica.Dimension dimension,
+                                   @Param("desde") LocalDateTime desde,
+                                   @Param("hasta") LocalDateTime hasta);
+}
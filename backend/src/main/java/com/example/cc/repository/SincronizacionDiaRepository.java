@@ -0,0 +1,32 @@
+package com.example.cc.repository;
+
+import com.example.cc.entities.SincronizacionDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SincronizacionDiaRepository extends JpaRepository<SincronizacionDia, Long> {
+
+    Optional<SincronizacionDia> findByFecha(LocalDate fecha);
+
+    /**
+     * Registrar que se verificó el día sin encontrar cambios
+     */
+    @Modifying
+    @Query("UPDATE SincronizacionDia s SET s.ultimaVerificacion = :ahora WHERE s.id = :id")
+    int marcarVerificado(@Param("id") Long id, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Eliminar marcas de días antiguos
+     */
+    @Modifying
+    @Query("DELETE FROM SincronizacionDia s WHERE s.fecha < :fecha")
+    int deleteByFechaBefore(@Param("fecha") LocalDate fecha);
+}
@@ -1,13 +1,76 @@
 package com.example.cc.repository;
 
+import com.example.cc.dto.admin.AdminUserDto;
 import com.example.cc.entities.Usuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /**
+     * Debitar saldo de forma atómica si alcanza y la cuenta está activa
+     * @return 1 si se debitó, 0 si no
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.saldoUsuario = u.saldoUsuario - :monto " +
+           "WHERE u.idUsuario = :usuarioId AND u.saldoUsuario >= :monto AND u.estadoCuenta = true")
+    int debitarSaldo(@Param("usuarioId") Long usuarioId, @Param("monto") BigDecimal monto);
+
+    /**
+     * Listado de administración: usuarios con su perfil y el número y monto
+     * total de sus apuestas, agregados en una sola consulta paginada
+     */
+    @Query(value = "SELECT new com.example.cc.dto.admin.AdminUserDto(" +
+                   "u.idUsuario, u.email, u.estado, u.estadoCuenta, u.saldoUsuario, " +
+                   "p.username, p.nombre, p.apellido, p.telefono, p.fechaNacimiento, p.fechaRegistro, " +
+                   "COUNT(a), COALESCE(SUM(a.montoApostado), 0)) " +
+                   "FROM Usuario u LEFT JOIN u.perfil p LEFT JOIN Apuesta a ON a.usuario = u " +
+                   "GROUP BY u.idUsuario, p.idPerfil",
+           countQuery = "SELECT COUNT(u) FROM Usuario u")
+    Page<AdminUserDto> findResumenAdmin(Pageable pageable);
+
+    /**
+     * Listado de administración filtrado por rol
+     */
+    @Query(value = "SELECT new com.example.cc.dto.admin.AdminUserDto(" +
+                   "u.idUsuario, u.email, u.estado, u.estadoCuenta, u.saldoUsuario, " +
+                   "p.username, p.nombre, p.apellido, p.telefono, p.fechaNacimiento, p.fechaRegistro, " +
+                   "COUNT(a), COALESCE(SUM(a.montoApostado), 0)) " +
+                   "FROM Usuario u JOIN u.roles r LEFT JOIN u.perfil p LEFT JOIN Apuesta a ON a.usuario = u " +
+                   "WHERE r.nombreRol = :rol " +
+                   "GROUP BY u.idUsuario, p.idPerfil",
+           countQuery = "SELECT COUNT(u) FROM Usuario u JOIN u.roles r WHERE r.nombreRol = :rol")
+    Page<AdminUserDto> findResumenAdminByRol(@Param("rol") String rol, Pageable pageable);
+
+    /**
+     * Listado de administración filtrado por estado de la cuenta
+     */
+    @Query(value = "SELECT new com.example.cc.dto.admin.AdminUserDto(" +
+                   "u.idUsuario, u.email, u.estado, u.estadoCuenta, u.saldoUsuario, " +
+                   "p.username, p.nombre, p.apellido, p.telefono, p.fechaNacimiento, p.fechaRegistro, " +
+                   "COUNT(a), COALESCE(SUM(a.montoApostado), 0)) " +
+                   "FROM Usuario u LEFT JOIN u.perfil p LEFT JOIN Apuesta a ON a.usuario = u " +
+                   "WHERE u.estadoCuenta = :activo " +
+                   "GROUP BY u.idUsuario, p.idPerfil",
+           countQuery = "SELECT COUNT(u) FROM Usuario u WHERE u.estadoCuenta = :activo")
+    Page<AdminUserDto> findResumenAdminByEstadoCuenta(@Param("activo") Boolean activo, Pageable pageable);
+
+    /**
+     * Roles de un conjunto de usuarios: (idUsuario, nombreRol)
+     */
+    @Query("SELECT u.idUsuario, r.nombreRol FROM Usuario u JOIN u.roles r WHERE u.idUsuario IN :usuarioIds")
+    List<Object[]> findRolesByUsuarioIds(@Param("usuarioIds") Collection<Long> usuarioIds);
 }
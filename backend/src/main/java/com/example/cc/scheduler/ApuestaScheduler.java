@@ -4,12 +4,15 @@ import com.example.cc.entities.EventoDeportivo;
 import com.example.cc.repository.EventoDeportivoRepository;
 import com.example.cc.service.apuestas.ApuestaService;
 import com.example.cc.service.apuestas.CuotaEventoService;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import com.example.cc.service.wallet.ReembolsoMasivoService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,6 +24,9 @@ public class ApuestaScheduler {
     private final ApuestaService apuestaService;
     private final CuotaEventoService cuotaEventoService;
     private final EventoDeportivoRepository eventoRepository;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final CoordinadorJobs coordinadorJobs;
+    private final ReembolsoMasivoService reembolsoMasivo;
 
     /**
      * Procesar apuestas pendientes de eventos finalizados
@@ -31,14 +37,31 @@ public class ApuestaScheduler {
         log.info("=== PROCESANDO APUESTAS PENDIENTES ===");
         
         try {
-            // Procesar apuestas de eventos finalizados
-            apuestaService.procesarApuestasPendientes();
-            
+            coordinadorJobs.ejecutar("apuestas.liquidacion", Duration.ofMinutes(25), () -> {
+                // Procesar apuestas de eventos finalizados
+                apuestaService.procesarApuestasPendientes();
+            });
         } catch (Exception e) {
             log.error("Error procesando apuestas pendientes: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Anular y reembolsar apuestas de eventos cancelados o aplazados
+     * Se ejecuta cada minuto
+     */
+    @Scheduled(fixedDelayString = "${reembolsos.intervalo-ms:60000}")
+    public void reembolsarApuestasEventosCancelados() {
+        try {
+            coordinadorJobs.ejecutar("apuestas.reembolsos", Duration.ofSeconds(50), () -> {
+                int reembolsadas = reembolsoMasivo.reembolsarApuestasEventosCancelados();
+                registroEjecuciones.sumarFilas(reembolsadas, reembolsadas);
+            });
+        } catch (Exception e) {
+            log.error("Error reembolsando apuestas de eventos cancelados: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Cerrar cuotas para eventos que están por comenzar
      * Se ejecuta cada 5 minutos
@@ -48,26 +71,29 @@ public class ApuestaScheduler {
         log.info("=== CERRANDO CUOTAS DE EVENTOS PRÓXIMOS ===");
         
         try {
-            // Obtener eventos que comienzan en los próximos 10 minutos
-            LocalDateTime ahora = LocalDateTime.now();
-            LocalDateTime limite = ahora.plusMinutes(10);
-            
-            List<EventoDeportivo> eventosProximos = eventoRepository
-                    .findByFechaEventoBetweenAndEstadoOrderByFechaEventoAsc(ahora, limite, "programado");
-            
-            for (EventoDeportivo evento : eventosProximos) {
-                try {
-                    // Cerrar cuotas para este evento
-                    cuotaEventoService.cerrarCuotasEvento(evento.getId());
-                    log.info("Cuotas cerradas para evento próximo: {} (ID: {})", 
-                            evento.getNombreEvento(), evento.getId());
-                    
-                } catch (Exception e) {
-                    log.error("Error cerrando cuotas para evento {}: {}", 
-                            evento.getId(), e.getMessage());
+            coordinadorJobs.ejecutar("cuotas.cierre", Duration.ofMinutes(4), () -> {
+                // Obtener eventos que comienzan en los próximos 10 minutos
+                LocalDateTime ahora = LocalDateTime.now();
+                LocalDateTime limite = ahora.plusMinutes(10);
+
+                List<EventoDeportivo> eventosProximos = eventoRepository
+                        .findByFechaEventoBetweenAndEstadoOrderByFechaEventoAsc(ahora, limite, "programado");
+
+                for (EventoDeportivo evento : eventosProximos) {
+                    try {
+                        // Cerrar cuotas para este evento
+                        cuotaEventoService.cerrarCuotasEvento(evento.getId());
+                        log.info("Cuotas cerradas para evento próximo: {} (ID: {})", 
+                                evento.getNombreEvento(), evento.getId());
+
+                    } catch (Exception e) {
+                        log.error("Error cerrando cuotas para evento {}: {}", 
+                                evento.getId(), e.getMessage());
+                        registroEjecuciones.registrarError("evento " + evento.getId() + ": " + e.getMessage());
+                    }
                 }
-            }
-            
+                registroEjecuciones.sumarFilas(eventosProximos.size(), eventosProximos.size());
+            });
         } catch (Exception e) {
             log.error("Error al cerrar cuotas de eventos próximos: {}", e.getMessage(), e);
         }
@@ -82,29 +108,37 @@ public class ApuestaScheduler {
         log.info("=== GENERANDO CUOTAS PARA EVENTOS FUTUROS ===");
         
         try {
-            // Obtener eventos programados de los próximos días sin cuotas
-            LocalDateTime ahora = LocalDateTime.now();
-            LocalDateTime limite = ahora.plusDays(7);
-            
-            List<EventoDeportivo> eventosFuturos = eventoRepository
-                    .findByFechaEventoBetweenAndEstadoOrderByFechaEventoAsc(ahora, limite, "programado");
-            
-            int eventosConCuotas = 0;
-            
-            for (EventoDeportivo evento : eventosFuturos) {
-                try {
-                    // Generar cuotas para este evento si no tiene
-                    cuotaEventoService.generarCuotasParaEvento(evento.getId());
-                    eventosConCuotas++;
-                    
-                } catch (Exception e) {
-                    log.error("Error generando cuotas para evento {}: {}", 
-                            evento.getId(), e.getMessage());
+            // Repartida por ID de evento entre las instancias activas
+            coordinadorJobs.ejecutarPorParticiones("cuotas.generacion", Duration.ofHours(11), particion -> {
+                // Obtener eventos programados de los próximos días sin cuotas
+                LocalDateTime ahora = LocalDateTime.now();
+                LocalDateTime limite = ahora.plusDays(7);
+
+                List<EventoDeportivo> eventosFuturos = eventoRepository
+                        .findByFechaEventoBetweenAndEstadoOrderByFechaEventoAsc(ahora, limite, "programado");
+
+                int eventosConCuotas = 0;
+
+                for (EventoDeportivo evento : eventosFuturos) {
+                    if (!particion.incluye(evento.getId())) {
+                        continue;
+                    }
+                    try {
+                        // Generar cuotas para este evento si no tiene
+                        registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_CUOTAS,
+                                () -> cuotaEventoService.generarCuotasParaEvento(evento.getId()));
+                        eventosConCuotas++;
+
+                    } catch (Exception e) {
+                        log.error("Error generando cuotas para evento {}: {}", 
+                                evento.getId(), e.getMessage());
+                        registroEjecuciones.registrarError("evento " + evento.getId() + ": " + e.getMessage());
+                    }
                 }
-            }
-            
-            log.info("Se generaron cuotas para {} eventos futuros", eventosConCuotas);
-            
+                registroEjecuciones.sumarFilas(eventosFuturos.size(), eventosConCuotas);
+
+                log.info("Se generaron cuotas para {} eventos futuros", eventosConCuotas);
+            });
         } catch (Exception e) {
             log.error("Error al generar cuotas para eventos futuros: {}", e.getMessage(), e);
         }
@@ -0,0 +1,282 @@
+package com.example.cc.scheduler;
+
+import com.example.cc.repository.BloqueoJobRepository;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Coordinación de los jobs programados entre réplicas del backend mediante
+ * concesiones (leases) en la tabla {@code bloqueos_jobs}.
+ *
+ * Antes de cada disparo la instancia intenta tomar la concesión del job; si la
+ * tiene otra instancia vigente, el disparo se omite. Al terminar la concesión
+ * se conserva hasta {@code inicio + bloqueoMinimo}, de modo que las demás
+ * réplicas no repitan el mismo disparo aunque sus relojes o sus fixedRate estén
+ * desfasados, y como el propietario puede renovarla, el job tiende a quedarse
+ * en la misma instancia. Mientras el job corre, la concesión se renueva cada
+ * {@code jobs.cluster.renovacion-ms} hasta {@code ahora + bloqueo-maximo},
+ * así que un job más largo que el bloqueo máximo no se solapa con otra
+ * réplica; si la instancia muere a mitad del job, la concesión expira tras
+ * {@code jobs.cluster.bloqueo-maximo}. Como el propietario puede retomar su
+ * propia concesión, un mismo job nunca corre dos veces a la vez en la misma
+ * instancia (p. ej. un disparo manual junto al programado): el segundo se omite.
+ *
+ * Los jobs pesados pueden repartirse en particiones por ID de evento
+ * ({@code id mod particiones}); cada instancia toma a lo sumo su parte según
+ * las instancias con latido vigente.
+ */
+@Component
+@Slf4j
+public class CoordinadorJobs {
+
+    private static final String PREFIJO_INSTANCIA = "instancia:";
+
+    private final BloqueoJobRepository bloqueoJobRepository;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final TransactionTemplate transaccionNueva;
+
+    /** Concesiones de jobs en curso en esta instancia; el valor indica si se perdió */
+    private final Map<String, AtomicBoolean> enCurso = new ConcurrentHashMap<>();
+
+    /** Jobs reservados en esta instancia, desde antes de pedir la concesión hasta liberarla */
+    private final Set<String> reservados = ConcurrentHashMap.newKeySet();
+
+    @Value("${jobs.cluster.habilitado:true}")
+    private boolean habilitado = true;
+
+    @Value("${jobs.cluster.instancia-id:}")
+    private String instanciaId = "";
+
+    @Value("${jobs.cluster.bloqueo-maximo:PT30M}")
+    private Duration bloqueoMaximo = Duration.ofMinutes(30);
+
+    @Value("${jobs.cluster.particiones:1}")
+    private int particiones = 1;
+
+    public CoordinadorJobs(BloqueoJobRepository bloqueoJobRepository,
+            RegistroEjecucionesService registroEjecuciones,
+            PlatformTransactionManager transactionManager) {
+        this.bloqueoJobRepository = bloqueoJobRepository;
+        this.registroEjecuciones = registroEjecuciones;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Ejecutar un job solo si esta instancia obtiene su concesión
+     * @param bloqueoMinimo Tiempo mínimo que se conserva la concesión desde el inicio
+     * @return true si se ejecutó
+     */
+    public boolean ejecutar(String nombreJob, Duration bloqueoMinimo, Runnable tarea) {
+        return ejecutar(nombreJob, bloqueoMinimo, () -> {
+            tarea.run();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Ejecutar un job solo si esta instancia obtiene su concesión
+     * @param bloqueoMinimo Tiempo mínimo que se conserva la concesión desde el inicio
+     * @return Resultado del job, o vacío si lo tiene otra instancia
+     */
+    public <T> Optional<T> ejecutar(String nombreJob, Duration bloqueoMinimo, Supplier<T> tarea) {
+        if (!adquirirParaJob(nombreJob)) {
+            log.debug("⏭️ Job {} en curso en esta u otra instancia, se omite", nombreJob);
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(registroEjecuciones.ejecutar(nombreJob, tarea));
+        } finally {
+            terminarJob(nombreJob, bloqueoMinimo);
+        }
+    }
+
+    /**
+     * Ejecutar un job repartido en particiones por ID de evento. Cada partición
+     * tiene su propia concesión; esta instancia procesa a lo sumo
+     * ceil(particiones / instancias activas) de ellas.
+     * @return Número de particiones procesadas por esta instancia
+     */
+    public int ejecutarPorParticiones(String nombreJob, Duration bloqueoMinimo, Consumer<Particion> tarea) {
+        int total = Math.max(1, particiones);
+        if (total == 1) {
+            return ejecutar(nombreJob, bloqueoMinimo, () -> tarea.accept(Particion.UNICA)) ? 1 : 0;
+        }
+
+        int maximoPropias = (int) Math.ceil(total / (double) Math.max(1, instanciasActivas()));
+        int desplazamiento = Math.floorMod(getInstanciaId().hashCode(), total);
+        List<Particion> propias = new ArrayList<>();
+        for (int i = 0; i < total && propias.size() < maximoPropias; i++) {
+            Particion particion = new Particion((desplazamiento + i) % total, total);
+            if (adquirirParaJob(particion.nombreConcesion(nombreJob))) {
+                propias.add(particion);
+            }
+        }
+        if (propias.isEmpty()) {
+            log.debug("⏭️ Todas las particiones de {} están en curso en esta u otra instancia", nombreJob);
+            return 0;
+        }
+
+        try {
+            registroEjecuciones.ejecutar(nombreJob, () -> propias.forEach(tarea));
+        } finally {
+            propias.forEach(particion -> terminarJob(particion.nombreConcesion(nombreJob), bloqueoMinimo));
+        }
+        log.debug("🧩 Job {}: particiones {} de {} procesadas en {}", nombreJob,
+                propias.stream().map(Particion::getIndice).toList(), total, getInstanciaId());
+        return propias.size();
+    }
+
+    /**
+     * Renovar el latido de esta instancia, usado para repartir las particiones
+     */
+    @Scheduled(fixedDelayString = "${jobs.cluster.latido-ms:30000}")
+    public void registrarLatido() {
+        if (habilitado && particiones > 1) {
+            adquirir(PREFIJO_INSTANCIA + getInstanciaId(), Duration.ofSeconds(90));
+        }
+    }
+
+    /**
+     * Extender las concesiones de los jobs en curso en esta instancia
+     */
+    @Scheduled(fixedDelayString = "${jobs.cluster.renovacion-ms:60000}")
+    public void renovarConcesiones() {
+        if (!habilitado) {
+            return;
+        }
+        enCurso.forEach((nombre, perdida) -> {
+            if (perdida.get()) {
+                return;
+            }
+            try {
+                Integer filas = transaccionNueva.execute(status ->
+                        bloqueoJobRepository.renovar(nombre, getInstanciaId(), segundos(bloqueoMaximo)));
+                if (filas == null || filas == 0) {
+                    perdida.set(true);
+                    log.error("🚨 La concesión de {} pasó a otra instancia mientras el job seguía en curso", nombre);
+                }
+            } catch (Exception e) {
+                // Se reintenta en la siguiente renovación, antes de que expire
+                log.warn("⚠️ No se pudo renovar la concesión de {}: {}", nombre, e.getMessage());
+            }
+        });
+    }
+
+    public String getInstanciaId() {
+        if (instanciaId == null || instanciaId.isBlank()) {
+            // Formato pid@host
+            instanciaId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return instanciaId;
+    }
+
+    private long instanciasActivas() {
+        try {
+            return transaccionNueva.execute(status -> bloqueoJobRepository.contarInstanciasActivas());
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudieron contar las instancias activas: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Reservar el job en esta instancia, tomar su concesión y registrarla para
+     * renovarla mientras corre. Si ya corre aquí, no se pide la concesión: la
+     * base la concedería de nuevo al mismo propietario.
+     */
+    private boolean adquirirParaJob(String nombre) {
+        if (!reservados.add(nombre)) {
+            return false;
+        }
+        if (!adquirir(nombre, bloqueoMaximo)) {
+            reservados.remove(nombre);
+            return false;
+        }
+        enCurso.put(nombre, new AtomicBoolean());
+        return true;
+    }
+
+    private void terminarJob(String nombre, Duration bloqueoMinimo) {
+        try {
+            AtomicBoolean perdida = enCurso.remove(nombre);
+            if (perdida != null && perdida.get()) {
+                log.error("🚨 Job {} terminó sin su concesión; otra instancia pudo ejecutarlo a la vez", nombre);
+                return;
+            }
+            liberar(nombre, bloqueoMinimo);
+        } finally {
+            // Tras liberar, para que otra ejecución local no tome la concesión que se está soltando
+            reservados.remove(nombre);
+        }
+    }
+
+    private boolean adquirir(String nombre, Duration duracion) {
+        if (!habilitado) {
+            return true;
+        }
+        try {
+            Integer filas = transaccionNueva.execute(status ->
+                    bloqueoJobRepository.adquirir(nombre, getInstanciaId(), segundos(duracion)));
+            return filas != null && filas > 0;
+        } catch (Exception e) {
+            // Sin base de datos no se puede garantizar exclusividad: no ejecutar
+            log.warn("⚠️ No se pudo obtener la concesión de {}: {}", nombre, e.getMessage());
+            return false;
+        }
+    }
+
+    private void liberar(String nombre, Duration bloqueoMinimo) {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            transaccionNueva.executeWithoutResult(status ->
+                    bloqueoJobRepository.liberar(nombre, getInstanciaId(), segundos(bloqueoMinimo)));
+        } catch (Exception e) {
+            // La concesión expirará sola tras el bloqueo máximo
+            log.warn("⚠️ No se pudo liberar la concesión de {}: {}", nombre, e.getMessage());
+        }
+    }
+
+    private static double segundos(Duration duracion) {
+        return duracion.toMillis() / 1000.0;
+    }
+
+    /**
+     * Partición de un job: los eventos cuyo {@code id mod total} es {@code indice}
+     */
+    @lombok.Value
+    public static class Particion {
+        public static final Particion UNICA = new Particion(0, 1);
+
+        int indice;
+        int total;
+
+        public boolean incluye(Long id) {
+            return total <= 1 || (id != null && Math.floorMod(id, (long) total) == indice);
+        }
+
+        String nombreConcesion(String nombreJob) {
+            return nombreJob + "#" + indice + "/" + total;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.cc.scheduler;
+
+import com.example.cc.service.estadisticas.RollupEstadisticasService;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EstadisticasScheduler {
+
+    private final RollupEstadisticasService rollupEstadisticas;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final CoordinadorJobs coordinadorJobs;
+
+    /**
+     * Agregar a los rollups horarios y diarios las apuestas y participaciones nuevas
+     * Se ejecuta cada 5 minutos
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.rollup.intervalo-ms:300000}")
+    public void actualizarRollups() {
+        try {
+            coordinadorJobs.ejecutar("estadisticas.rollups", Duration.ofMinutes(4), () -> {
+                int filas = rollupEstadisticas.actualizar();
+                registroEjecuciones.sumarFilas(filas, filas);
+            });
+        } catch (Exception e) {
+            log.error("Error actualizando rollups de estadísticas: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.cc.scheduler;
 
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.repository.EventoDeportivoRepository;
 import com.example.cc.service.deportes.EventoDeportivoService;
 import com.example.cc.service.external.ITheSportsDbService;
+import com.example.cc.service.external.TheSportsDbService.ResumenCuotasOperacion;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -14,6 +24,13 @@ public class EventoDeportivoScheduler {
 
     private final EventoDeportivoService eventoDeportivoService;
     private final ITheSportsDbService theSportsDbService;
+    private final EventoDeportivoRepository eventoRepository;
+    private final LiveScorePollPlanner pollPlanner;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final CoordinadorJobs coordinadorJobs;
+
+    @Value("${livescore.poll.adaptativo:true}")
+    private boolean pollAdaptativo;
 
     /**
      * Ejecutar sincronización de eventos deportivos todos los días a las 12:00 AM
@@ -28,7 +45,11 @@ public class EventoDeportivoScheduler {
             long startTime = System.currentTimeMillis();
 
             // Ejecutar sincronización
-            eventoDeportivoService.sincronizarEventosDeportivos();
+            if (!coordinadorJobs.ejecutar("eventos.sincronizacion", Duration.ofMinutes(5),
+                    eventoDeportivoService::sincronizarEventosDeportivos)) {
+                log.info("=== SINCRONIZACIÓN EN CURSO EN OTRA INSTANCIA ===");
+                return;
+            }
 
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
@@ -41,17 +62,105 @@ public class EventoDeportivoScheduler {
     }
 
     /**
-     * Actualizar livescores de eventos del día actual cada 2 minutos
+     * Consultar livescores solo para los eventos cuya siguiente consulta venció
+     * según el planificador adaptativo (en vivo cada ~25 s, rampa antes del inicio)
+     */
+    @Scheduled(fixedDelayString = "${livescore.poll.tick-ms:10000}")
+    public void pollLivescoresAdaptativo() {
+        if (!pollAdaptativo) {
+            return;
+        }
+
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+
+            if (pollPlanner.requiereRefrescoCandidatos(ahora)) {
+                List<EventoDeportivo> candidatos = new ArrayList<>(eventoRepository.findByEstadoInAndFechaEventoBetween(
+                        List.of("programado", "en_vivo"),
+                        pollPlanner.inicioVentanaCandidatos(ahora),
+                        pollPlanner.finVentanaCandidatos(ahora)));
+                // Los finalizados sin marcador siguen en consulta hasta que el feed traiga el resultado
+                candidatos.addAll(eventoRepository.findByEstadoAndResultadoIsNullAndFechaEventoBetween(
+                        "finalizado", pollPlanner.inicioVentanaSinResultado(ahora), ahora));
+                pollPlanner.sincronizarCandidatos(candidatos, ahora);
+            }
+
+            List<LiveScorePollPlanner.EntradaPoll> vencidos = pollPlanner.extraerVencidos(ahora);
+            if (vencidos.isEmpty()) {
+                return;
+            }
+
+            if (!pollPlanner.consumirPresupuesto(ahora)) {
+                log.warn("⏳ Presupuesto de API agotado ({} llamadas/min), posponiendo {} eventos",
+                        pollPlanner.getLimiteLlamadasPorMinuto(), vencidos.size());
+                pollPlanner.posponer(vencidos, ahora);
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            List<Long> eventoIds = vencidos.stream().map(LiveScorePollPlanner.EntradaPoll::getEventoId).toList();
+
+            try {
+                // Concesión más larga que el tick para que el poll se quede en la misma instancia
+                var ejecucion = coordinadorJobs.ejecutar("livescores.poll", Duration.ofSeconds(30), () -> {
+                    var ingesta = theSportsDbService.ingerirLivescoresEventos(eventoIds);
+                    registroEjecuciones.sumarFilas(eventoIds.size(), ingesta.getEventosCambiados().size());
+                    return ingesta;
+                });
+                if (ejecucion.isEmpty()) {
+                    pollPlanner.posponer(vencidos, ahora);
+                    return;
+                }
+                var resultado = ejecucion.get();
+                LocalDateTime despues = LocalDateTime.now();
+                for (EventoDeportivo evento : resultado.getEventosRevisados()) {
+                    pollPlanner.reprogramar(evento, despues);
+                }
+
+                log.info("🔴 Poll adaptativo: {} eventos consultados, {} con cambios, {} en cola ({}ms)",
+                        eventoIds.size(), resultado.getEventosCambiados().size(),
+                        pollPlanner.getCola().size(), System.currentTimeMillis() - startTime);
+            } catch (Exception e) {
+                pollPlanner.posponer(vencidos, ahora);
+                throw e;
+            }
+
+        } catch (Exception e) {
+            log.error("❌ === ERROR EN POLL ADAPTATIVO DE LIVESCORES: {} ===", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Actualizar livescores de eventos del día actual cada 2 minutos.
+     * Solo se ejecuta de forma programada si el poll adaptativo está desactivado.
      */
     @Scheduled(cron = "0 */2 * * * *", zone = "America/Mexico_City")
+    public void actualizarLivescoresProgramado() {
+        if (pollAdaptativo) {
+            return;
+        }
+        actualizarLivescoresEventosHoy();
+    }
+
+    /**
+     * Actualizar livescores de todos los eventos de hoy y ayer
+     */
     public void actualizarLivescoresEventosHoy() {
         log.info("🔴 === INICIANDO ACTUALIZACIÓN DE LIVESCORES (cada 2 min) ===");
 
         try {
             long startTime = System.currentTimeMillis();
 
-            // Obtener y actualizar livescores actuales del día
-            int eventosActualizados = theSportsDbService.obtenerYGuardarLivescoresActuales().size();
+            // Obtener livescores y escribir solo los eventos que cambiaron
+            var ejecucion = coordinadorJobs.ejecutar("livescores.actualizacion", Duration.ofMinutes(1), () -> {
+                var ingesta = theSportsDbService.ingerirLivescoresActuales();
+                registroEjecuciones.sumarFilas(ingesta.getEventosEnFeed().size(), ingesta.getEventosCambiados().size());
+                return ingesta;
+            });
+            if (ejecucion.isEmpty()) {
+                return;
+            }
+            var resultado = ejecucion.get();
 
             // También actualizar específicamente los eventos en vivo
             // int eventosEnVivo =
@@ -60,8 +169,8 @@ public class EventoDeportivoScheduler {
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
 
-            log.info("✅ === LIVESCORES ACTUALIZADOS: {} eventos del día ({}ms) ===",
-                    eventosActualizados, duration);
+            log.info("✅ === LIVESCORES ACTUALIZADOS: {} en feed, {} con cambios ({}ms) ===",
+                    resultado.getEventosEnFeed().size(), resultado.getEventosCambiados().size(), duration);
 
         } catch (Exception e) {
             log.error("❌ === ERROR AL ACTUALIZAR LIVESCORES: {} ===", e.getMessage(), e);
@@ -80,8 +189,19 @@ public class EventoDeportivoScheduler {
             long startTime = System.currentTimeMillis();
 
             // Verificar cuotas para eventos programados y en vivo (ambos necesitan cuotas)
-            var resumen = theSportsDbService.verificarCuotasEventosPorEstados(
-                    java.util.List.of("programado", "en_vivo"));
+            // Repartida por ID de evento entre las instancias activas
+            ResumenCuotasOperacion resumen = new ResumenCuotasOperacion();
+            int particiones = coordinadorJobs.ejecutarPorParticiones("cuotas.verificacion", Duration.ofMinutes(1),
+                    particion -> {
+                        var verificacion = registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_CUOTAS,
+                                () -> theSportsDbService.verificarCuotasEventosPorEstados(
+                                        List.of("programado", "en_vivo"), particion::incluye));
+                        registrarResumenCuotas(verificacion);
+                        resumen.acumular(verificacion);
+                    });
+            if (particiones == 0) {
+                return;
+            }
 
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
@@ -121,7 +241,16 @@ public class EventoDeportivoScheduler {
             long startTime = System.currentTimeMillis();
 
             // Verificar cuotas para eventos de los próximos 3 días
-            var resumen = theSportsDbService.verificarCuotasEventosProximos(3);
+            var ejecucion = coordinadorJobs.ejecutar("cuotas.proximos", Duration.ofMinutes(5), () -> {
+                var verificacion = registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_CUOTAS,
+                        () -> theSportsDbService.verificarCuotasEventosProximos(3));
+                registrarResumenCuotas(verificacion);
+                return verificacion;
+            });
+            if (ejecucion.isEmpty()) {
+                return;
+            }
+            var resumen = ejecucion.get();
 
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
@@ -151,7 +280,10 @@ public class EventoDeportivoScheduler {
         log.info("=== INICIANDO LIMPIEZA DE EVENTOS ANTIGUOS ===");
 
         try {
-            eventoDeportivoService.limpiarEventosAntiguos();
+            if (!coordinadorJobs.ejecutar("eventos.limpieza", Duration.ofMinutes(10),
+                    eventoDeportivoService::limpiarEventosAntiguos)) {
+                return;
+            }
             log.info("=== LIMPIEZA DE EVENTOS COMPLETADA ===");
 
         } catch (Exception e) {
@@ -170,7 +302,15 @@ public class EventoDeportivoScheduler {
             long startTime = System.currentTimeMillis();
 
             // Cerrar eventos cuya fecha sea menor a la actual
-            int eventosCerrados = eventoDeportivoService.cerrarEventosVencidos();
+            var ejecucion = coordinadorJobs.ejecutar("eventos.cierre", Duration.ofMinutes(5), () -> {
+                int cerrados = eventoDeportivoService.cerrarEventosVencidos();
+                registroEjecuciones.sumarFilas(0, cerrados);
+                return cerrados;
+            });
+            if (ejecucion.isEmpty()) {
+                return;
+            }
+            int eventosCerrados = ejecucion.get();
 
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
@@ -183,6 +323,17 @@ public class EventoDeportivoScheduler {
         }
     }
 
+    /**
+     * Trasladar a la ejecución en curso las filas y errores de una verificación de cuotas
+     */
+    private void registrarResumenCuotas(ResumenCuotasOperacion resumen) {
+        registroEjecuciones.sumarFilas(resumen.getTotalEventos(), resumen.getEventosConCuotasCreadas());
+        if (resumen.getEventosConErrores() > 0) {
+            registroEjecuciones.registrarErrores(resumen.getEventosConErrores(),
+                    resumen.getEventosConErrores() + " eventos con error al verificar cuotas");
+        }
+    }
+
     /**
      * Tarea de prueba para verificar que el scheduler funciona (cada 30 minutos)
      */
@@ -0,0 +1,286 @@
+package com.example.cc.scheduler;
+
+import com.example.cc.entities.EventoDeportivo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Planificador adaptativo de consultas de livescores.
+ *
+ * Mantiene una cola de prioridad de eventos ordenada por la hora de su
+ * siguiente consulta: los eventos en vivo se consultan cada pocos segundos,
+ * los próximos a comenzar con una rampa que se acelera conforme se acerca el
+ * inicio, los finalizados sin resultado cada pocos minutos hasta que el feed
+ * lo traiga y los demás finalizados, cancelados o lejanos no se consultan. Cada
+ * consulta al feed consume presupuesto de la API en una ventana deslizante de
+ * un minuto.
+ */
+@Component
+@Slf4j
+public class LiveScorePollPlanner {
+
+    private static final Comparator<EntradaPoll> POR_PROXIMO_POLL =
+            Comparator.comparing(EntradaPoll::getProximoPoll).thenComparing(EntradaPoll::getEventoId);
+
+    @Value("${livescore.poll.intervalo-en-vivo-segundos:25}")
+    private int intervaloEnVivoSegundos = 25;
+
+    @Value("${livescore.poll.horizonte-minutos:120}")
+    private int horizonteMinutos = 120;
+
+    @Value("${livescore.poll.max-horas-sin-finalizar:6}")
+    private int maxHorasSinFinalizar = 6;
+
+    @Value("${livescore.poll.max-horas-sin-resultado:48}")
+    private int maxHorasSinResultado = 48;
+
+    @Value("${livescore.poll.intervalo-sin-resultado-minutos:5}")
+    private int intervaloSinResultadoMinutos = 5;
+
+    @Value("${livescore.poll.ventana-agrupacion-segundos:10}")
+    private int ventanaAgrupacionSegundos = 10;
+
+    @Value("${livescore.poll.refresco-candidatos-minutos:5}")
+    private int refrescoCandidatosMinutos = 5;
+
+    @Value("${thesportsdb.api.rate-limit.requests-per-minute:60}")
+    private int requestsPorMinuto = 60;
+
+    @Value("${livescore.poll.presupuesto-porcentaje:50}")
+    private int presupuestoPorcentaje = 50;
+
+    private final PriorityQueue<EntradaPoll> cola = new PriorityQueue<>(POR_PROXIMO_POLL);
+    private final Map<Long, EntradaPoll> porEvento = new HashMap<>();
+    private final Deque<LocalDateTime> llamadasRecientes = new ArrayDeque<>();
+    private LocalDateTime ultimoRefrescoCandidatos;
+
+    /**
+     * Indica si toca volver a leer los candidatos desde la base de datos
+     */
+    public synchronized boolean requiereRefrescoCandidatos(LocalDateTime ahora) {
+        return ultimoRefrescoCandidatos == null
+                || !ahora.isBefore(ultimoRefrescoCandidatos.plusMinutes(refrescoCandidatosMinutos));
+    }
+
+    /**
+     * Ventana de fechas de evento que pueden requerir consulta
+     */
+    public LocalDateTime inicioVentanaCandidatos(LocalDateTime ahora) {
+        return ahora.minusHours(maxHorasSinFinalizar);
+    }
+
+    public LocalDateTime finVentanaCandidatos(LocalDateTime ahora) {
+        return ahora.plusMinutes(horizonteMinutos);
+    }
+
+    /**
+     * Inicio de la ventana de eventos finalizados que siguen sin resultado
+     */
+    public LocalDateTime inicioVentanaSinResultado(LocalDateTime ahora) {
+        return ahora.minusHours(maxHorasSinResultado);
+    }
+
+    /**
+     * Sincronizar la cola con los eventos candidatos leídos de la base de datos.
+     * Los eventos nuevos se agregan, los existentes conservan su siguiente
+     * consulta si sigue siendo válida y los que ya no son candidatos se retiran.
+     */
+    public synchronized void sincronizarCandidatos(Collection<EventoDeportivo> candidatos, LocalDateTime ahora) {
+        Set<Long> vigentes = new HashSet<>();
+        for (EventoDeportivo evento : candidatos) {
+            LocalDateTime proximo = calcularProximoPoll(evento, ahora);
+            if (proximo == null) {
+                continue;
+            }
+            vigentes.add(evento.getId());
+
+            EntradaPoll actual = porEvento.get(evento.getId());
+            if (actual == null) {
+                // Un evento recién descubierto se consulta de inmediato
+                encolar(new EntradaPoll(evento.getId(), evento.getEventoIdExterno(), evento.getEstado(),
+                        evento.getFechaEvento(), ahora));
+            } else if (!actual.getEstado().equals(evento.getEstado())
+                    || !actual.getFechaEvento().equals(evento.getFechaEvento())
+                    || proximo.isBefore(actual.getProximoPoll())) {
+                cola.remove(actual);
+                LocalDateTime siguiente = proximo.isBefore(actual.getProximoPoll()) ? proximo : actual.getProximoPoll();
+                encolar(new EntradaPoll(evento.getId(), evento.getEventoIdExterno(), evento.getEstado(),
+                        evento.getFechaEvento(), siguiente));
+            }
+        }
+
+        porEvento.keySet().removeIf(id -> {
+            if (!vigentes.contains(id)) {
+                cola.remove(porEvento.get(id));
+                return true;
+            }
+            return false;
+        });
+        ultimoRefrescoCandidatos = ahora;
+
+        log.debug("Planificador de livescores sincronizado: {} eventos en cola", cola.size());
+    }
+
+    /**
+     * Extraer los eventos cuya consulta ya venció. Si hay alguno, se incluyen
+     * también los que vencen dentro de la ventana de agrupación, ya que una
+     * sola llamada al feed los cubre a todos.
+     */
+    public synchronized List<EntradaPoll> extraerVencidos(LocalDateTime ahora) {
+        List<EntradaPoll> vencidos = new ArrayList<>();
+        EntradaPoll primero = cola.peek();
+        if (primero == null || primero.getProximoPoll().isAfter(ahora)) {
+            return vencidos;
+        }
+
+        LocalDateTime limite = ahora.plusSeconds(ventanaAgrupacionSegundos);
+        while (!cola.isEmpty() && !cola.peek().getProximoPoll().isAfter(limite)) {
+            EntradaPoll entrada = cola.poll();
+            porEvento.remove(entrada.getEventoId());
+            vencidos.add(entrada);
+        }
+        return vencidos;
+    }
+
+    /**
+     * Registrar una llamada al feed si queda presupuesto en el último minuto
+     * @return true si la llamada puede hacerse
+     */
+    public synchronized boolean consumirPresupuesto(LocalDateTime ahora) {
+        LocalDateTime haceUnMinuto = ahora.minusMinutes(1);
+        while (!llamadasRecientes.isEmpty() && !llamadasRecientes.peekFirst().isAfter(haceUnMinuto)) {
+            llamadasRecientes.pollFirst();
+        }
+        if (llamadasRecientes.size() >= getLimiteLlamadasPorMinuto()) {
+            return false;
+        }
+        llamadasRecientes.addLast(ahora);
+        return true;
+    }
+
+    /**
+     * Volver a encolar entradas que no pudieron consultarse (sin presupuesto o por error)
+     */
+    public synchronized void posponer(List<EntradaPoll> entradas, LocalDateTime ahora) {
+        LocalDateTime siguiente = ahora.plusSeconds(intervaloEnVivoSegundos);
+        for (EntradaPoll entrada : entradas) {
+            encolar(new EntradaPoll(entrada.getEventoId(), entrada.getEventoIdExterno(), entrada.getEstado(),
+                    entrada.getFechaEvento(), siguiente));
+        }
+    }
+
+    /**
+     * Reprogramar un evento recién consultado según su nuevo estado
+     */
+    public synchronized void reprogramar(EventoDeportivo evento, LocalDateTime ahora) {
+        EntradaPoll anterior = porEvento.remove(evento.getId());
+        if (anterior != null) {
+            cola.remove(anterior);
+        }
+        LocalDateTime proximo = calcularProximoPoll(evento, ahora);
+        if (proximo != null) {
+            encolar(new EntradaPoll(evento.getId(), evento.getEventoIdExterno(), evento.getEstado(),
+                    evento.getFechaEvento(), proximo));
+        }
+    }
+
+    /**
+     * Política de frecuencia de consulta de un evento, incluidos los
+     * finalizados que aún no tienen resultado
+     * @return Siguiente consulta, o null si el evento no debe consultarse
+     */
+    public LocalDateTime calcularProximoPoll(EventoDeportivo evento, LocalDateTime ahora) {
+        if ("finalizado".equals(evento.getEstado()) && evento.getResultado() == null) {
+            if (evento.getFechaEvento() == null || evento.getFechaEvento().isBefore(inicioVentanaSinResultado(ahora))) {
+                return null;
+            }
+            return ahora.plusMinutes(intervaloSinResultadoMinutos);
+        }
+        return calcularProximoPoll(evento.getEstado(), evento.getFechaEvento(), ahora);
+    }
+
+    /**
+     * Política de frecuencia de consulta por estado
+     * @return Siguiente consulta, o null si el evento no debe consultarse
+     */
+    public LocalDateTime calcularProximoPoll(String estado, LocalDateTime fechaEvento, LocalDateTime ahora) {
+        if (estado == null || fechaEvento == null) {
+            return null;
+        }
+        if (fechaEvento.isBefore(ahora.minusHours(maxHorasSinFinalizar))) {
+            return null;
+        }
+
+        if ("en_vivo".equals(estado)) {
+            return ahora.plusSeconds(intervaloEnVivoSegundos);
+        }
+        if (!"programado".equals(estado)) {
+            return null;
+        }
+
+        long minutosParaInicio = Duration.between(ahora, fechaEvento).toMinutes();
+        if (minutosParaInicio > horizonteMinutos) {
+            return null;
+        }
+        if (minutosParaInicio > 60) {
+            return ahora.plusMinutes(10);
+        }
+        if (minutosParaInicio > 15) {
+            return ahora.plusMinutes(5);
+        }
+        if (minutosParaInicio > 2) {
+            return ahora.plusMinutes(1);
+        }
+        // A punto de iniciar o ya iniciado sin reflejarse en el feed
+        return ahora.plusSeconds(intervaloEnVivoSegundos);
+    }
+
+    /**
+     * Copia de la cola ordenada por siguiente consulta (para inspección)
+     */
+    public synchronized List<EntradaPoll> getCola() {
+        List<EntradaPoll> copia = new ArrayList<>(cola);
+        copia.sort(POR_PROXIMO_POLL);
+        return copia;
+    }
+
+    public synchronized int getLlamadasUltimoMinuto() {
+        return llamadasRecientes.size();
+    }
+
+    public int getLimiteLlamadasPorMinuto() {
+        return Math.max(1, requestsPorMinuto * presupuestoPorcentaje / 100);
+    }
+
+    private void encolar(EntradaPoll entrada) {
+        cola.add(entrada);
+        porEvento.put(entrada.getEventoId(), entrada);
+    }
+
+    /**
+     * Entrada inmutable de la cola de consultas
+     */
+    @lombok.Value
+    public static class EntradaPoll {
+        Long eventoId;
+        String eventoIdExterno;
+        String estado;
+        LocalDateTime fechaEvento;
+        LocalDateTime proximoPoll;
+    }
+}
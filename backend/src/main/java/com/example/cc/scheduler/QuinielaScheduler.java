@@ -7,14 +7,21 @@ import com.example.cc.dto.external.TheSportsDbEventResponse;
 import com.example.cc.repository.QuinielaRepository;
 import com.example.cc.repository.EventoDeportivoRepository;
 import com.example.cc.repository.PrediccionEventoRepository;
+import com.example.cc.service.quiniela.CicloVidaQuinielaService;
 import com.example.cc.service.quiniela.QuinielaService;
 import com.example.cc.service.external.TheSportsDbService;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import com.example.cc.service.external.ResultadoEventoService;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import com.example.cc.service.wallet.ReembolsoMasivoService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
@@ -30,96 +37,96 @@ public class QuinielaScheduler {
     private final EventoDeportivoRepository eventoDeportivoRepository;
     private final PrediccionEventoRepository prediccionEventoRepository;
     private final TheSportsDbService theSportsDbService;
+    private final CicloVidaQuinielaService cicloVidaQuiniela;
+    private final ReembolsoMasivoService reembolsoMasivo;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final CoordinadorJobs coordinadorJobs;
+    private final ResultadoEventoService resultadoEvento;
+
+    @Value("${quinielas.limpieza.retencion-dias:90}")
+    private int diasRetencion = 90;
 
     /**
      * Cerrar quinielas que han llegado a su fecha de cierre
-     * Se ejecuta cada 15 minutos
+     * Una sola sentencia UPDATE; se ejecuta cada minuto
      */
-    //@Scheduled(fixedRate = 900000) // 15 minutos
+    @Scheduled(fixedDelayString = "${quinielas.ciclo.intervalo-ms:60000}")
     public void cerrarQuinielasVencidas() {
-        log.info("=== VERIFICANDO QUINIELAS PARA CERRAR ===");
-        
         try {
-            LocalDateTime ahora = LocalDateTime.now();
-            
-            // Buscar quinielas activas que deben cerrarse
-            List<Quiniela> quinielasParaCerrar = quinielaRepository
-                    .findByEstadoAndFechaCierreBefore(Quiniela.EstadoQuiniela.ACTIVA, ahora);
-            
-            for (Quiniela quiniela : quinielasParaCerrar) {
-                quiniela.setEstado(Quiniela.EstadoQuiniela.CERRADA);
-                quinielaRepository.save(quiniela);
-                log.info("Quiniela {} cerrada automáticamente", quiniela.getId());
-            }
-            
-            if (!quinielasParaCerrar.isEmpty()) {
-                log.info("Cerradas {} quinielas", quinielasParaCerrar.size());
-            }
-            
+            coordinadorJobs.ejecutar("quinielas.cierre", Duration.ofSeconds(50), () -> {
+                int cerradas = cicloVidaQuiniela.cerrarVencidas(LocalDateTime.now());
+                registroEjecuciones.sumarFilas(cerradas, cerradas);
+                if (cerradas > 0) {
+                    log.info("🔒 Cerradas {} quinielas vencidas", cerradas);
+                }
+            });
         } catch (Exception e) {
             log.error("Error cerrando quinielas: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * Procesar resultados de quinielas cerradas
-     * Se ejecuta cada hora
+     * Procesar resultados de quinielas cerradas con todos sus eventos resueltos
+     * Cada quiniela se resuelve en su propia transacción; se ejecuta cada minuto
      */
-    //@Scheduled(fixedRate = 3600000) // 1 hora
+    @Scheduled(fixedDelayString = "${quinielas.ciclo.intervalo-ms:60000}")
     public void procesarResultadosQuinielas() {
-        log.info("=== PROCESANDO RESULTADOS DE QUINIELAS ===");
-        
         try {
-            // Buscar quinielas cerradas que pueden procesarse
-            List<Quiniela> quinielasParaProcesar = quinielaRepository
-                    .findByEstado(Quiniela.EstadoQuiniela.CERRADA);
-            
-            for (Quiniela quiniela : quinielasParaProcesar) {
-                try {
-                    // Verificar si todos los eventos tienen resultados
-                    boolean todosEventosConResultados = quiniela.getEventos().stream()
-                            .allMatch(qe -> qe.getEventoDeportivo().getResultado() != null);
-                    
-                    if (todosEventosConResultados) {
-                        quinielaService.procesarResultados(quiniela.getId());
-                        log.info("Resultados procesados para quiniela {}", quiniela.getId());
+            coordinadorJobs.ejecutar("quinielas.resolucion", Duration.ofSeconds(50), () -> {
+                // Una consulta decide qué quinielas están listas
+                List<Long> listas = cicloVidaQuiniela.obtenerListasParaResolver();
+                int procesadas = 0;
+
+                for (Long quinielaId : listas) {
+                    try {
+                        quinielaService.procesarResultados(quinielaId);
+                        procesadas++;
+                        log.info("🏆 Resultados procesados para quiniela {}", quinielaId);
+                    } catch (Exception e) {
+                        log.error("Error procesando resultados de quiniela {}: {}",
+                                quinielaId, e.getMessage());
+                        registroEjecuciones.registrarError("quiniela " + quinielaId + ": " + e.getMessage());
                     }
-                    
-                } catch (Exception e) {
-                    log.error("Error procesando resultados de quiniela {}: {}", 
-                             quiniela.getId(), e.getMessage());
                 }
-            }
-            
+                registroEjecuciones.sumarFilas(listas.size(), procesadas);
+            });
         } catch (Exception e) {
             log.error("Error en procesamiento de resultados: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * Limpiar quinielas canceladas o muy antiguas
-     * Se ejecuta cada domingo a las 3:00 AM
+     * Reembolsar participaciones que sigan vigentes en quinielas canceladas
+     * Se ejecuta cada minuto
      */
-    //@Scheduled(cron = "0 0 3 * * SUN", zone = "America/Mexico_City")
+    @Scheduled(fixedDelayString = "${quinielas.ciclo.intervalo-ms:60000}")
+    public void reembolsarQuinielasCanceladas() {
+        try {
+            coordinadorJobs.ejecutar("quinielas.reembolsos", Duration.ofSeconds(50), () -> {
+                int reembolsadas = reembolsoMasivo.reembolsarQuinielasCanceladas();
+                registroEjecuciones.sumarFilas(reembolsadas, reembolsadas);
+            });
+        } catch (Exception e) {
+            log.error("Error reembolsando quinielas canceladas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Limpiar quinielas canceladas muy antiguas, por lotes
+     * Se ejecuta cada hora
+     */
+    @Scheduled(fixedDelayString = "${quinielas.limpieza.intervalo-ms:3600000}")
     public void limpiarQuinielasAntiguas() {
-        log.info("=== LIMPIANDO QUINIELAS ANTIGUAS ===");
-        
         try {
-            LocalDateTime fechaLimite = LocalDateTime.now().minusDays(90); // 90 días atrás
-            
-            // Eliminar quinielas canceladas muy antiguas
-            List<Quiniela> quinielasAntiguas = quinielaRepository
-                    .findByEstadoAndFechaCreacionBefore(Quiniela.EstadoQuiniela.CANCELADA, fechaLimite);
-            
-            for (Quiniela quiniela : quinielasAntiguas) {
-                quinielaRepository.delete(quiniela);
-                log.info("Eliminada quiniela antigua {}", quiniela.getId());
-            }
-            
-            if (!quinielasAntiguas.isEmpty()) {
-                log.info("Eliminadas {} quinielas antiguas", quinielasAntiguas.size());
-            }
-            
+            coordinadorJobs.ejecutar("quinielas.limpieza", Duration.ofMinutes(50), () -> {
+                LocalDateTime fechaLimite = LocalDateTime.now().minusDays(diasRetencion);
+
+                int eliminadas = cicloVidaQuiniela.eliminarCanceladasAntes(fechaLimite);
+                registroEjecuciones.sumarFilas(eliminadas, eliminadas);
+                if (eliminadas > 0) {
+                    log.info("🗑️ Eliminadas {} quinielas canceladas antiguas", eliminadas);
+                }
+            });
         } catch (Exception e) {
             log.error("Error limpiando quinielas antiguas: {}", e.getMessage(), e);
         }
@@ -189,16 +196,14 @@ public class QuinielaScheduler {
         List<EventoDeportivo> eventosActualizados = new ArrayList<>();
         
         try {
-            // Obtener eventos de los últimos 7 días desde TheSportsDB
-            List<TheSportsDbEventResponse.EventData> eventosExternos = theSportsDbService.getUpcomingEvents();
-            
-            for (TheSportsDbEventResponse.EventData eventoExterno : eventosExternos) {
+            // Recorrer en streaming los eventos de los próximos 7 días desde TheSportsDB
+            theSportsDbService.procesarEventosProximos(eventoExterno -> {
                 try {
                     // Solo procesar eventos que ya hayan finalizado
                     if (!"Match Finished".equalsIgnoreCase(eventoExterno.getStrStatus()) && 
                         !"FT".equalsIgnoreCase(eventoExterno.getStrStatus()) &&
                         !"Finished".equalsIgnoreCase(eventoExterno.getStrStatus())) {
-                        continue;
+                        return;
                     }
                     
                     // Buscar el evento en nuestra base de datos
@@ -211,10 +216,11 @@ public class QuinielaScheduler {
                         // Verificar si ya tiene resultado
                         if (evento.getResultado() == null) {
                             // Actualizar resultado basado en el marcador
+                            HuellaLivescore anterior = resultadoEvento.huella(evento);
                             actualizarResultadoEvento(evento, eventoExterno);
                             
-                            // Guardar evento actualizado
-                            eventoDeportivoRepository.save(evento);
+                            // Guardar evento actualizado (publica el cambio de resultado)
+                            resultadoEvento.guardar(evento, anterior);
                             eventosActualizados.add(evento);
                             
                             log.info("Evento actualizado con resultado: {} (ID: {})", 
@@ -226,7 +232,7 @@ public class QuinielaScheduler {
                     log.error("Error procesando resultado de evento {}: {}", 
                             eventoExterno.getIdEvent(), e.getMessage());
                 }
-            }
+            });
             
         } catch (Exception e) {
             log.error("Error al obtener eventos desde TheSportsDB: {}", e.getMessage(), e);
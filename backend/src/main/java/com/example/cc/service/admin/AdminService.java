@@ -26,8 +26,8 @@ public interface AdminService {
     void deleteUser(Long id);
     void suspendUser(Long id, String motivo);
     void reactivateUser(Long id);
-    List<Usuario> getUsersByRole(String role);
-    List<Usuario> getUsersByStatus(String status);
+    Page<AdminUserDto> getUsersByRole(String role, Pageable pageable);
+    Page<AdminUserDto> getUsersByStatus(String status, Pageable pageable);
     
     // Gestión de apuestas
     Page<AdminBetDto> getAllBets(Pageable pageable);
@@ -6,16 +6,24 @@ import com.example.cc.entities.Apuesta.EstadoApuesta;
 import com.example.cc.entities.CryptoTransaction.TransactionStatus;
 import com.example.cc.entities.CryptoTransaction.TransactionType;
 import com.example.cc.repository.*;
+import com.example.cc.service.apuestas.ContadoresApuestasService;
+import com.example.cc.service.estadisticas.RollupEstadisticasService;
+import com.example.cc.service.estadisticas.RollupEstadisticasService.AporteLiquidacion;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import com.example.cc.service.external.ResultadoEventoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -47,11 +55,24 @@ public class AdminServiceImpl implements AdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ContadoresApuestasService contadoresApuestas;
+
+    @Autowired
+    private DocumentoIdentidadRepository documentoIdentidadRepository;
+
+    @Autowired
+    private RollupEstadisticasService rollupEstadisticas;
+
+    @Autowired
+    private ResultadoEventoService resultadoEvento;
+
     @Override
     public AdminStatsDto getGeneralStats() {
         // Obtener estadísticas básicas que sí existen
         long totalUsuarios = usuarioRepository.count();
-        long totalApuestas = apuestaRepository.count();
+        Map<String, ContadoresApuestasService.Totales> apuestas = contadoresApuestas.obtenerTotales();
+        ContadoresApuestasService.Totales totalApuestas = sumarTotales(apuestas);
         long totalQuinielas = quinielaRepository.count();
         long totalEventos = eventoDeportivoRepository.count();
 
@@ -59,10 +80,10 @@ public class AdminServiceImpl implements AdminService {
                 .totalUsuarios(totalUsuarios)
                 .usuariosActivos(totalUsuarios) // Simplificado por ahora
                 .usuariosNuevosHoy(5L) // Valor por defecto
-                .totalApuestas(totalApuestas)
-                .apuestasActivas(100L) // Valor por defecto
-                .montoTotalApuestas(new BigDecimal("125000.50"))
-                .ingresosTotales(new BigDecimal("12500.05"))
+                .totalApuestas(totalApuestas.cantidad())
+                .apuestasActivas(apuestasActivas(apuestas))
+                .montoTotalApuestas(totalApuestas.monto())
+                .ingresosTotales(ggrTotal())
                 .totalQuinielas(totalQuinielas)
                 .quinielasActivas(12L)
                 .totalEventos(totalEventos)
@@ -151,39 +172,42 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     public Page<AdminUserDto> getAllUsers(Pageable pageable) {
-        Page<Usuario> usuariosPage = usuarioRepository.findAll(pageable);
+        return completarUsuarios(usuarioRepository.findResumenAdmin(ordenadoPorId(pageable)));
+    }
 
-        List<AdminUserDto> userDtos = usuariosPage.getContent().stream()
-                .map(this::convertirToAdminUserDto)
-                .collect(Collectors.toList());
+    /**
+     * Completar una página del listado de usuarios con sus roles y documentos,
+     * con una consulta por página en lugar de una por usuario
+     */
+    private Page<AdminUserDto> completarUsuarios(Page<AdminUserDto> usuarios) {
+        if (usuarios.isEmpty()) {
+            return usuarios;
+        }
+        List<Long> ids = usuarios.getContent().stream().map(AdminUserDto::getIdUsuario).toList();
 
-        return new PageImpl<>(userDtos, pageable, usuariosPage.getTotalElements());
-    }
-
-    private AdminUserDto convertirToAdminUserDto(Usuario usuario) {
-        // Calcular estadísticas básicas del usuario
-        List<Apuesta> apuestasUsuario = apuestaRepository.findByUsuarioOrderByFechaCreacionDesc(usuario);
-        BigDecimal montoTotalApostado = apuestasUsuario.stream()
-                .map(Apuesta::getMontoApostado)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return AdminUserDto.builder()
-                .activo(usuario.getEstadoCuenta())
-                .apellidos(usuario.getPerfil().getApellido())
-                .email(usuario.getEmail())
-                .estado(usuario.getEstado())
-                .fechaCreacion(usuario.getPerfil().getFechaRegistro().toString())
-                .fechaNacimiento(usuario.getPerfil().getFechaNacimiento().toString())
-                .idUsuario(usuario.getIdUsuario())
-                .montoTotalApostado(montoTotalApostado)
-                .nombreCompleto(usuario.getPerfil().getNombre())
-                .rol(usuario.getRoles().stream().findFirst().get().getNombreRol())
-                .saldoUsuario(usuario.getSaldoUsuario())
-                .telefono(usuario.getPerfil().getTelefono())
-                .username(usuario.getPerfil().getUsername())
-                .documentos(usuario.getDocumentos().isEmpty()? new ArrayList<DocumentoIdentidad>():usuario.getDocumentos())
-                .build();
+        Map<Long, String> roles = new HashMap<>();
+        for (Object[] fila : usuarioRepository.findRolesByUsuarioIds(ids)) {
+            roles.putIfAbsent((Long) fila[0], (String) fila[1]);
+        }
+        Map<Long, List<DocumentoIdentidad>> documentos = documentoIdentidadRepository.findByUsuarioIds(ids)
+                .stream()
+                .collect(Collectors.groupingBy(d -> d.getUsuario().getIdUsuario()));
+
+        for (AdminUserDto usuario : usuarios) {
+            usuario.setRol(roles.get(usuario.getIdUsuario()));
+            usuario.setDocumentos(documentos.getOrDefault(usuario.getIdUsuario(), new ArrayList<>()));
+        }
+        return usuarios;
+    }
 
+    /**
+     * Orden estable por id cuando la petición no trae orden, para que las páginas no se solapen
+     */
+    private static Pageable ordenadoPorId(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("idUsuario"));
     }
 
     @Override
@@ -309,17 +333,15 @@ public class AdminServiceImpl implements AdminService {
     }
 
     @Override
-    public List<Usuario> getUsersByRole(String role) {
-        // Implementación simplificada - obtener todos los usuarios por ahora
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        return usuarios;
+    public Page<AdminUserDto> getUsersByRole(String role, Pageable pageable) {
+        return completarUsuarios(usuarioRepository.findResumenAdminByRol(role, ordenadoPorId(pageable)));
     }
 
     @Override
-    public List<Usuario> getUsersByStatus(String status) {
+    public Page<AdminUserDto> getUsersByStatus(String status, Pageable pageable) {
         boolean estadoCuenta = "ACTIVO".equals(status);
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        return usuarios;
+        return completarUsuarios(usuarioRepository.findResumenAdminByEstadoCuenta(estadoCuenta,
+                ordenadoPorId(pageable)));
     }
 
     @Override
@@ -364,8 +386,15 @@ public class AdminServiceImpl implements AdminService {
 
         EstadoApuesta nuevoEstado = EstadoApuesta.valueOf(request.getEstado());
         EstadoApuesta estadoAnterior = apuesta.getEstado();
+        String estadoContadorAnterior = ContadoresApuestasService.estadoContador(apuesta);
+        boolean yaLiquidada = estadoAnterior == EstadoApuesta.RESUELTA || estadoAnterior == EstadoApuesta.CANCELADA;
+        AporteLiquidacion aporteAnterior = AporteLiquidacion.de(apuesta);
 
         apuesta.setEstado(nuevoEstado);
+        // Marca la entrada de la apuesta en los rollups de liquidaciones; solo la primera vez
+        if ((nuevoEstado == EstadoApuesta.RESUELTA || nuevoEstado == EstadoApuesta.CANCELADA) && !yaLiquidada) {
+            apuesta.setFechaResolucion(LocalDateTime.now());
+        }
 
         // Si se marca como resuelta, actualizar si es ganadora
         if (nuevoEstado == EstadoApuesta.RESUELTA) {
@@ -382,6 +411,12 @@ public class AdminServiceImpl implements AdminService {
         }
 
         Apuesta apuestaActualizada = apuestaRepository.save(apuesta);
+        contadoresApuestas.registrarCambio(estadoContadorAnterior, apuestaActualizada);
+        if (yaLiquidada) {
+            // Ya no vuelve a entrar en la ventana de liquidaciones: se corrige su aporte en los rollups
+            rollupEstadisticas.registrarCorreccion(apuestaActualizada.getId(), aporteAnterior,
+                    AporteLiquidacion.de(apuestaActualizada));
+        }
         return convertToAdminBetDto(apuestaActualizada);
     }
 
@@ -395,6 +430,7 @@ public class AdminServiceImpl implements AdminService {
         }
 
         apuesta.setEstado(EstadoApuesta.CANCELADA);
+        apuesta.setFechaResolucion(LocalDateTime.now());
 
         // Devolver el dinero al usuario
         Usuario usuario = apuesta.getUsuario();
@@ -402,6 +438,7 @@ public class AdminServiceImpl implements AdminService {
         usuarioRepository.save(usuario);
 
         apuestaRepository.save(apuesta);
+        contadoresApuestas.registrarCambio(EstadoApuesta.PENDIENTE.name(), apuesta);
         System.out.println("Apuesta cancelada: " + id + " - Motivo: " + motivo);
     }
 
@@ -437,34 +474,55 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     public BigDecimal getTotalBetsAmount() {
-        List<Apuesta> apuestas = apuestaRepository.findAll();
-        return apuestas.stream()
-                .map(Apuesta::getMontoApostado)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return sumarTotales(contadoresApuestas.obtenerTotales()).monto();
     }
 
     @Override
     public Map<String, Object> getBetsStatistics() {
-        List<Apuesta> todasApuestas = apuestaRepository.findAll();
+        Map<String, ContadoresApuestasService.Totales> apuestas = contadoresApuestas.obtenerTotales();
+        ContadoresApuestasService.Totales total = sumarTotales(apuestas);
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("total", todasApuestas.size());
-        stats.put("activas", todasApuestas.stream()
-                .filter(a -> a.getEstado() == EstadoApuesta.PENDIENTE).count());
-        stats.put("ganadas", todasApuestas.stream()
-                .filter(a -> a.getEstado() == EstadoApuesta.RESUELTA && a.getEsGanadora() != null && a.getEsGanadora())
-                .count());
-        stats.put("perdidas", todasApuestas.stream()
-                .filter(a -> a.getEstado() == EstadoApuesta.RESUELTA
-                        && (a.getEsGanadora() == null || !a.getEsGanadora()))
-                .count());
-        stats.put("canceladas", todasApuestas.stream()
-                .filter(a -> a.getEstado() == EstadoApuesta.CANCELADA).count());
-        stats.put("montoTotal", getTotalBetsAmount());
+        stats.put("total", total.cantidad());
+        stats.put("activas", apuestasActivas(apuestas));
+        stats.put("ganadas", contar(apuestas, ContadoresApuestasService.GANADA));
+        stats.put("perdidas", contar(apuestas, ContadoresApuestasService.PERDIDA));
+        stats.put("canceladas", contar(apuestas, EstadoApuesta.CANCELADA.name()));
+        stats.put("montoTotal", total.monto());
+
+        // Actividad de los últimos 30 días por mercado y por deporte (rollups diarios)
+        LocalDateTime hoy = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        stats.put("porMercado", rollupEstadisticas.obtenerTotales(RollupEstadistica.Granularidad.DIA,
+                RollupEstadistica.Dimension.MERCADO, hoy.minusDays(30), hoy.plusDays(1)));
+        stats.put("porDeporte", rollupEstadisticas.obtenerTotales(RollupEstadistica.Granularidad.DIA,
+                RollupEstadistica.Dimension.DEPORTE, hoy.minusDays(30), hoy.plusDays(1)));
 
         return stats;
     }
 
+    /**
+     * GGR acumulado de las apuestas según los rollups diarios
+     */
+    private BigDecimal ggrTotal() {
+        return rollupEstadisticas.obtenerTotal(RollupEstadistica.Granularidad.DIA,
+                RollupEstadistica.Dimension.MERCADO, LocalDateTime.of(2000, 1, 1, 0, 0),
+                LocalDateTime.now().plusDays(1)).getGgr();
+    }
+
+    private static ContadoresApuestasService.Totales sumarTotales(
+            Map<String, ContadoresApuestasService.Totales> apuestas) {
+        return apuestas.values().stream()
+                .reduce(ContadoresApuestasService.Totales.CERO, ContadoresApuestasService.Totales::sumar);
+    }
+
+    private static long apuestasActivas(Map<String, ContadoresApuestasService.Totales> apuestas) {
+        return contar(apuestas, EstadoApuesta.PENDIENTE.name()) + contar(apuestas, EstadoApuesta.ACEPTADA.name());
+    }
+
+    private static long contar(Map<String, ContadoresApuestasService.Totales> apuestas, String estado) {
+        return apuestas.getOrDefault(estado, ContadoresApuestasService.Totales.CERO).cantidad();
+    }
+
     // Métodos de quinielas
     @Override
     public Page<AdminQuinielaDto> getAllQuinielas(Pageable pageable) {
@@ -598,10 +656,11 @@ public class AdminServiceImpl implements AdminService {
         EventoDeportivo evento = eventoDeportivoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Evento no encontrado"));
 
+        HuellaLivescore anterior = resultadoEvento.huella(evento);
         evento.setResultado(result);
         evento.setMarcadorLocal(golesLocal);
         evento.setMarcadorVisitante(golesVisitante);
-        eventoDeportivoRepository.save(evento);
+        resultadoEvento.guardar(evento, anterior);
 
         return convertToAdminEventDto(evento);
     }
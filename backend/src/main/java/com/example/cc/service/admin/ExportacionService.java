@@ -0,0 +1,225 @@
+package com.example.cc.service.admin;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Exportaciones masivas de administración (apuestas, transacciones y
+ * participaciones en quinielas) en CSV o NDJSON.
+ *
+ * La consulta se lee con un cursor del servidor de solo avance: sentencia
+ * {@code TYPE_FORWARD_ONLY} con {@code exportaciones.fetch-size} dentro de una
+ * transacción de solo lectura (PostgreSQL solo usa el cursor sin autocommit).
+ * Cada fila se escribe en la salida en cuanto llega, sin acumularse en
+ * memoria, así que el heap no depende del tamaño de la exportación.
+ */
+@Service
+@Slf4j
+public class ExportacionService {
+
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public enum Conjunto {
+        APUESTAS("SELECT a.id, a.usuario_id, a.evento_deportivo_id, e.nombre_evento, a.tipo_apuesta, " +
+                "a.prediccion, a.monto_apostado, a.valor_cuota_momento, a.estado, a.es_ganadora, " +
+                "a.monto_ganancia, a.fecha_creacion, a.fecha_resolucion " +
+                "FROM apuestas a JOIN eventos_deportivos e ON e.id = a.evento_deportivo_id " +
+                "WHERE a.fecha_creacion >= ? AND a.fecha_creacion < ? ORDER BY a.id"),
+        TRANSACCIONES("SELECT t.id_transaccion, t.id_usuario, t.tipo, t.monto, t.comision, t.monto_neto, " +
+                "t.estado, t.metodo_pago, t.referencia_externa, t.descripcion, t.fecha_creacion, " +
+                "t.fecha_procesamiento " +
+                "FROM transaccion t " +
+                "WHERE t.fecha_creacion >= ? AND t.fecha_creacion < ? ORDER BY t.id_transaccion"),
+        PARTICIPACIONES("SELECT p.id, p.quiniela_id, q.nombre AS quiniela, p.usuario_id, p.estado, " +
+                "p.monto_apostado, p.aciertos, p.puntuacion, p.posicion_final, p.premio_ganado, p.pagado, " +
+                "p.fecha_participacion " +
+                "FROM quiniela_participaciones p JOIN quinielas q ON q.id = p.quiniela_id " +
+                "WHERE p.fecha_participacion >= ? AND p.fecha_participacion < ? ORDER BY p.id");
+
+        private final String sql;
+
+        Conjunto(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private static final LocalDateTime DESDE_SIEMPRE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaccion;
+
+    @Value("${exportaciones.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public ExportacionService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccion.setReadOnly(true);
+    }
+
+    /**
+     * Escribir en {@code salida} las filas del conjunto creadas en [desde, hasta)
+     * @return Número de filas exportadas
+     */
+    public long exportar(Conjunto conjunto, Formato formato, LocalDateTime desde, LocalDateTime hasta,
+            OutputStream salida) {
+        Timestamp inicio = Timestamp.valueOf(desde != null ? desde : DESDE_SIEMPRE);
+        Timestamp fin = Timestamp.valueOf(hasta != null ? hasta : LocalDateTime.now());
+        long comienzo = System.currentTimeMillis();
+
+        Long filas = transaccion.execute(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(conjunto.sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, inicio);
+            ps.setTimestamp(2, fin);
+            return ps;
+        }, escribirFilas(formato, salida)));
+
+        log.info("📤 Exportación {} ({}): {} filas en {} ms", conjunto, formato, filas,
+                System.currentTimeMillis() - comienzo);
+        return filas != null ? filas : 0;
+    }
+
+    private ResultSetExtractor<Long> escribirFilas(Formato formato, OutputStream salida) {
+        return rs -> {
+            try {
+                Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8),
+                        64 * 1024);
+                long filas = formato == Formato.CSV ? escribirCsv(rs, escritor) : escribirNdjson(rs, escritor);
+                escritor.flush();
+                return filas;
+            } catch (IOException e) {
+                // Normalmente el cliente cortó la descarga: se aborta la consulta y se cierra el cursor
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private long escribirCsv(ResultSet rs, Writer escritor) throws SQLException, IOException {
+        ResultSetMetaData metadatos = rs.getMetaData();
+        int columnas = metadatos.getColumnCount();
+        for (int i = 1; i <= columnas; i++) {
+            if (i > 1) {
+                escritor.write(',');
+            }
+            escritor.write(campoCsv(metadatos.getColumnLabel(i)));
+        }
+        escritor.write('\n');
+
+        long filas = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= columnas; i++) {
+                if (i > 1) {
+                    escritor.write(',');
+                }
+                Object valor = valor(rs.getObject(i));
+                escritor.write(valor != null ? campoCsv(valor.toString()) : "");
+            }
+            escritor.write('\n');
+            filas++;
+        }
+        return filas;
+    }
+
+    private long escribirNdjson(ResultSet rs, Writer escritor) throws SQLException, IOException {
+        ResultSetMetaData metadatos = rs.getMetaData();
+        int columnas = metadatos.getColumnCount();
+        String[] nombres = new String[columnas];
+        for (int i = 1; i <= columnas; i++) {
+            nombres[i - 1] = metadatos.getColumnLabel(i);
+        }
+
+        long filas = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(escritor)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Sin el espacio que Jackson pone entre valores raíz: una línea por objeto
+            json.setRootValueSeparator(null);
+            while (rs.next()) {
+                json.writeStartObject();
+                for (int i = 1; i <= columnas; i++) {
+                    Object valor = valor(rs.getObject(i));
+                    json.writeFieldName(nombres[i - 1]);
+                    if (valor == null) {
+                        json.writeNull();
+                    } else if (valor instanceof BigDecimal numero) {
+                        json.writeNumber(numero);
+                    } else if (valor instanceof Double || valor instanceof Float) {
+                        json.writeNumber(((Number) valor).doubleValue());
+                    } else if (valor instanceof Number numero) {
+                        json.writeNumber(numero.longValue());
+                    } else if (valor instanceof Boolean booleano) {
+                        json.writeBoolean(booleano);
+                    } else {
+                        json.writeString(valor.toString());
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Fechas en formato ISO en lugar del formato de {@link Timestamp#toString()}
+     */
+    private static Object valor(Object valor) {
+        return valor instanceof Timestamp fecha ? fecha.toLocalDateTime() : valor;
+    }
+
+    private static String campoCsv(String texto) {
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0
+                && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+}
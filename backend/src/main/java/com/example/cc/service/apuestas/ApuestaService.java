@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +31,7 @@ public class ApuestaService {
     private final EventoDeportivoRepository eventoRepository;
     private final CuotaEventoRepository cuotaRepository;
     private final TransaccionService transaccionService;
+    private final ContadoresApuestasService contadoresApuestas;
 
     /**
      * Obtener eventos con más apuestas (limitados por parámetro)
@@ -94,7 +96,9 @@ public class ApuestaService {
                 Transaccion.EstadoTransaccion.COMPLETADA);
 
         // Guardar la apuesta
-        return apuestaRepository.save(apuesta);
+        Apuesta guardada = apuestaRepository.save(apuesta);
+        contadoresApuestas.registrarAlta(guardada);
+        return guardada;
     }
 
     /**
@@ -131,6 +135,7 @@ public class ApuestaService {
 
         // Obtener todas las apuestas para este evento
         List<Apuesta> apuestas = apuestaRepository.findByEventoDeportivoOrderByFechaCreacionDesc(evento);
+        Map<String, ContadoresApuestasService.Totales> resueltas = new HashMap<>();
 
         for (Apuesta apuesta : apuestas) {
             if (apuesta.getEstado() == Apuesta.EstadoApuesta.ACEPTADA) {
@@ -167,8 +172,13 @@ public class ApuestaService {
                 }
 
                 apuestaRepository.save(apuesta);
+                resueltas.merge(ContadoresApuestasService.estadoContador(apuesta),
+                        new ContadoresApuestasService.Totales(1, apuesta.getMontoApostado()),
+                        ContadoresApuestasService.Totales::sumar);
             }
         }
+        resueltas.forEach((estado, totales) -> contadoresApuestas.registrarCambio(
+                Apuesta.EstadoApuesta.ACEPTADA.name(), estado, totales.cantidad(), totales.monto()));
 
         log.info("Procesadas {} apuestas para el evento: {}", apuestas.size(), evento.getNombreEvento());
     }
@@ -206,8 +216,11 @@ public class ApuestaService {
         }
 
         // Cancelar la apuesta y devolver el dinero al usuario
+        String estadoAnterior = ContadoresApuestasService.estadoContador(apuesta);
         apuesta.setEstado(Apuesta.EstadoApuesta.CANCELADA);
+        apuesta.setFechaResolucion(LocalDateTime.now());
         apuestaRepository.save(apuesta);
+        contadoresApuestas.registrarCambio(estadoAnterior, apuesta);
 
         // Devolver el monto apostado al usuario
         Usuario usuario = apuesta.getUsuario();
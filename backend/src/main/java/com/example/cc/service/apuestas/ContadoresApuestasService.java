@@ -0,0 +1,144 @@
+package com.example.cc.service.apuestas;
+
+import com.example.cc.entities.Apuesta;
+import com.example.cc.repository.ContadorApuestaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contadores de apuestas por estado, mantenidos al crear, liquidar, cancelar
+ * o reliquidar apuestas para que las estadísticas de administración se lean
+ * en O(1) sin recorrer la tabla de apuestas.
+ *
+ * Los incrementos corren dentro de la transacción que modifica la apuesta,
+ * así que se confirman o deshacen junto con ella. Cada incremento cae en una
+ * ranura aleatoria de {@code apuestas.contadores.ranuras} para repartir los
+ * bloqueos de fila entre altas concurrentes.
+ */
+@Service
+@Slf4j
+public class ContadoresApuestasService {
+
+    public static final String GANADA = "GANADA";
+    public static final String PERDIDA = "PERDIDA";
+
+    private final ContadorApuestaRepository contadorRepository;
+    private final TransactionTemplate transaccion;
+
+    @Value("${apuestas.contadores.ranuras:16}")
+    private int ranuras = 16;
+
+    public ContadoresApuestasService(ContadorApuestaRepository contadorRepository,
+            PlatformTransactionManager transactionManager) {
+        this.contadorRepository = contadorRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Totales de un estado
+     */
+    public record Totales(long cantidad, BigDecimal monto) {
+        public static final Totales CERO = new Totales(0, BigDecimal.ZERO);
+
+        public Totales sumar(Totales otros) {
+            return new Totales(cantidad + otros.cantidad, monto.add(otros.monto));
+        }
+    }
+
+    /**
+     * Estado con el que se cuenta una apuesta: las resueltas se separan en ganadas y perdidas
+     */
+    public static String estadoContador(Apuesta.EstadoApuesta estado, Boolean esGanadora) {
+        if (estado == Apuesta.EstadoApuesta.RESUELTA) {
+            return Boolean.TRUE.equals(esGanadora) ? GANADA : PERDIDA;
+        }
+        return estado.name();
+    }
+
+    public static String estadoContador(Apuesta apuesta) {
+        return estadoContador(apuesta.getEstado(), apuesta.getEsGanadora());
+    }
+
+    /**
+     * Contar una apuesta nueva en su estado actual
+     */
+    public void registrarAlta(Apuesta apuesta) {
+        sumar(estadoContador(apuesta), 1, apuesta.getMontoApostado());
+    }
+
+    /**
+     * Mover una apuesta de {@code anterior} a su estado actual
+     */
+    public void registrarCambio(String anterior, Apuesta apuesta) {
+        registrarCambio(anterior, estadoContador(apuesta), 1, apuesta.getMontoApostado());
+    }
+
+    /**
+     * Mover {@code cantidad} apuestas por un monto apostado total de un estado a otro
+     */
+    public void registrarCambio(String anterior, String nuevo, long cantidad, BigDecimal monto) {
+        if (cantidad == 0 || Objects.equals(anterior, nuevo)) {
+            return;
+        }
+        sumar(anterior, -cantidad, monto.negate());
+        sumar(nuevo, cantidad, monto);
+    }
+
+    /**
+     * Totales por estado, sumando sus ranuras
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Totales> obtenerTotales() {
+        Map<String, Totales> totales = new HashMap<>();
+        for (Object[] fila : contadorRepository.totalesPorEstado()) {
+            totales.put((String) fila[0], new Totales(((Number) fila[1]).longValue(), (BigDecimal) fila[2]));
+        }
+        return totales;
+    }
+
+    /**
+     * Recalcular los contadores desde la tabla de apuestas. La tabla de
+     * apuestas se bloquea contra escrituras mientras dura, para no perder
+     * incrementos concurrentes.
+     */
+    public void reconstruir() {
+        Integer estados = transaccion.execute(status -> {
+            contadorRepository.bloquearApuestas();
+            contadorRepository.vaciar();
+            return contadorRepository.reconstruirDesdeApuestas();
+        });
+        log.info("🧮 Contadores de apuestas reconstruidos: {} estados", estados);
+    }
+
+    /**
+     * Inicializar los contadores a partir de las apuestas existentes la
+     * primera vez que arranca la aplicación con la tabla vacía
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            if (contadorRepository.count() == 0) {
+                reconstruir();
+            }
+        } catch (Exception e) {
+            log.error("Error inicializando contadores de apuestas: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sumar(String estado, long cantidad, BigDecimal monto) {
+        contadorRepository.sumar(estado, ThreadLocalRandom.current().nextInt(ranuras), cantidad,
+                monto != null ? monto : BigDecimal.ZERO);
+    }
+}
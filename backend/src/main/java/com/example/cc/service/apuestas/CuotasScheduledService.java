@@ -4,12 +4,15 @@ import com.example.cc.entities.EventoDeportivo;
 import com.example.cc.entities.PoliticaCuotas;
 import com.example.cc.repository.EventoDeportivoRepository;
 import com.example.cc.repository.PoliticaCuotasRepository;
+import com.example.cc.scheduler.CoordinadorJobs;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 import java.util.List;
@@ -22,6 +25,8 @@ public class CuotasScheduledService {
     private final CuotasDinamicasService cuotasDinamicasService;
     private final EventoDeportivoRepository eventoDeportivoRepository;
     private final PoliticaCuotasRepository politicaCuotasRepository;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final CoordinadorJobs coordinadorJobs;
 
     /**
      * Actualización automática de cuotas cada 15 minutos
@@ -32,40 +37,48 @@ public class CuotasScheduledService {
         log.info("Iniciando actualización automática de cuotas");
         
         try {
-            // Verificar si hay política activa con actualización automática
-            PoliticaCuotas politica = politicaCuotasRepository.findPoliticaActiva().orElse(null);
-            if (politica == null || !politica.getActualizarAutomaticamente()) {
-                log.debug("Actualización automática deshabilitada");
-                return;
-            }
-
-            // Obtener eventos activos (programados o en vivo)
-            List<EventoDeportivo> eventosActivos = eventoDeportivoRepository
-                .findByEstadoInAndFechaEventoAfter(
-                    List.of("programado", "en_vivo"), 
-                    LocalDateTime.now()
-                );
-
-            log.info("Procesando {} eventos activos", eventosActivos.size());
-
-            int eventosActualizados = 0;
-            for (EventoDeportivo evento : eventosActivos) {
-                try {
-                    // Verificar si no está muy cerca del evento
-                    LocalDateTime tiempoLimite = evento.getFechaEvento()
-                        .minusMinutes(politica.getPausarAntesEventoMinutos());
-                    
-                    if (LocalDateTime.now().isBefore(tiempoLimite)) {
-                        cuotasDinamicasService.actualizarCuotasPorVolumen(evento.getId());
-                        eventosActualizados++;
+            // Repartida por ID de evento entre las instancias activas
+            coordinadorJobs.ejecutarPorParticiones("cuotas.dinamicas", Duration.ofMinutes(13), particion -> {
+                // Verificar si hay política activa con actualización automática
+                PoliticaCuotas politica = politicaCuotasRepository.findPoliticaActiva().orElse(null);
+                if (politica == null || !politica.getActualizarAutomaticamente()) {
+                    log.debug("Actualización automática deshabilitada");
+                    return;
+                }
+
+                // Obtener eventos activos (programados o en vivo)
+                List<EventoDeportivo> eventosActivos = eventoDeportivoRepository
+                    .findByEstadoInAndFechaEventoAfter(
+                        List.of("programado", "en_vivo"), 
+                        LocalDateTime.now()
+                    );
+
+                log.info("Procesando {} eventos activos", eventosActivos.size());
+
+                int eventosActualizados = 0;
+                for (EventoDeportivo evento : eventosActivos) {
+                    if (!particion.incluye(evento.getId())) {
+                        continue;
+                    }
+                    try {
+                        // Verificar si no está muy cerca del evento
+                        LocalDateTime tiempoLimite = evento.getFechaEvento()
+                            .minusMinutes(politica.getPausarAntesEventoMinutos());
+
+                        if (LocalDateTime.now().isBefore(tiempoLimite)) {
+                            registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_CUOTAS,
+                                    () -> cuotasDinamicasService.actualizarCuotasPorVolumen(evento.getId()));
+                            eventosActualizados++;
+                        }
+                    } catch (Exception e) {
+                        log.error("Error actualizando cuotas para evento {}: {}", evento.getId(), e.getMessage());
+                        registroEjecuciones.registrarError("evento " + evento.getId() + ": " + e.getMessage());
                     }
-                } catch (Exception e) {
-                    log.error("Error actualizando cuotas para evento {}: {}", evento.getId(), e.getMessage());
                 }
-            }
 
-            log.info("Actualización automática completada. Eventos procesados: {}", eventosActualizados);
-            
+                registroEjecuciones.sumarFilas(eventosActivos.size(), eventosActualizados);
+                log.info("Actualización automática completada. Eventos procesados: {}", eventosActualizados);
+            });
         } catch (Exception e) {
             log.error("Error en actualización automática de cuotas: {}", e.getMessage(), e);
         }
@@ -80,22 +93,23 @@ public class CuotasScheduledService {
         log.info("Iniciando actualización por feeds externos");
         
         try {
-            // TODO: Implementar integración con feeds externos
-            // Por ahora, simulamos ajustes basados en análisis de mercado
-            
-            LocalDateTime ahora = LocalDateTime.now();
-            LocalDateTime en24Horas = ahora.plusHours(24);
-            
-            List<EventoDeportivo> eventosProximos = eventoDeportivoRepository
-                .findEventosProximos24Horas(ahora, en24Horas);
-                
-            for (EventoDeportivo evento : eventosProximos) {
-                // Aplicar ajustes menores basados en "análisis de mercado"
-                aplicarAjusteMercado(evento);
-            }
-            
-            log.info("Actualización por feeds externos completada");
-            
+            coordinadorJobs.ejecutar("cuotas.feeds", Duration.ofMinutes(50), () -> {
+                // TODO: Implementar integración con feeds externos
+                // Por ahora, simulamos ajustes basados en análisis de mercado
+
+                LocalDateTime ahora = LocalDateTime.now();
+                LocalDateTime en24Horas = ahora.plusHours(24);
+
+                List<EventoDeportivo> eventosProximos = eventoDeportivoRepository
+                    .findEventosProximos24Horas(ahora, en24Horas);
+
+                for (EventoDeportivo evento : eventosProximos) {
+                    // Aplicar ajustes menores basados en "análisis de mercado"
+                    aplicarAjusteMercado(evento);
+                }
+
+                log.info("Actualización por feeds externos completada");
+            });
         } catch (Exception e) {
             log.error("Error en actualización por feeds externos: {}", e.getMessage(), e);
         }
@@ -110,15 +124,16 @@ public class CuotasScheduledService {
         log.info("Iniciando limpieza de datos históricos");
         
         try {
-            // TODO: Limpiar historial de cuotas mayor a 30 días
-            // LocalDateTime fechaLimite = LocalDateTime.now().minusDays(30);
-            // cuotaHistorialRepository.deleteByFechaCambioBefore(fechaLimite);
-            
-            // TODO: Limpiar volúmenes de eventos finalizados hace más de 7 días
-            // volumenApuestasRepository.limpiarVolumenesEventosFinalizados();
-            
-            log.info("Limpieza de datos históricos completada");
-            
+            coordinadorJobs.ejecutar("cuotas.limpieza", Duration.ofMinutes(5), () -> {
+                // TODO: Limpiar historial de cuotas mayor a 30 días
+                // LocalDateTime fechaLimite = LocalDateTime.now().minusDays(30);
+                // cuotaHistorialRepository.deleteByFechaCambioBefore(fechaLimite);
+
+                // TODO: Limpiar volúmenes de eventos finalizados hace más de 7 días
+                // volumenApuestasRepository.limpiarVolumenesEventosFinalizados();
+
+                log.info("Limpieza de datos históricos completada");
+            });
         } catch (Exception e) {
             log.error("Error en limpieza de datos históricos: {}", e.getMessage(), e);
         }
@@ -133,18 +148,19 @@ public class CuotasScheduledService {
         log.info("Iniciando análisis de riesgo");
         
         try {
-            // Detectar concentración alta de apuestas
-            // TODO: Implementar análisis de riesgo
-            detectarConcentracionAltaApuestas();
-            
-            // Detectar cambios anómalos en cuotas
-            detectarCambiosAnomalos();
-            
-            // Generar alertas de gestión
-            generarAlertasGestion();
-            
-            log.info("Análisis de riesgo completado");
-            
+            coordinadorJobs.ejecutar("cuotas.riesgo", Duration.ofMinutes(25), () -> {
+                // Detectar concentración alta de apuestas
+                // TODO: Implementar análisis de riesgo
+                detectarConcentracionAltaApuestas();
+
+                // Detectar cambios anómalos en cuotas
+                detectarCambiosAnomalos();
+
+                // Generar alertas de gestión
+                generarAlertasGestion();
+
+                log.info("Análisis de riesgo completado");
+            });
         } catch (Exception e) {
             log.error("Error en análisis de riesgo: {}", e.getMessage(), e);
         }
@@ -0,0 +1,246 @@
+package com.example.cc.service.apuestas;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Transaccion;
+import com.example.cc.scheduler.CoordinadorJobs;
+import com.example.cc.service.estadisticas.RollupEstadisticasService;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.wallet.IWalletService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reliquidación de apuestas ya resueltas cuando se corrige el resultado de
+ * un evento finalizado.
+ *
+ * La liquidación compara la predicción con el resultado, así que al pasar de
+ * A a B solo cambian las apuestas que predijeron A (dejan de ganar) o B
+ * (pasan a ganar). Cada grupo se voltea con un UPDATE ... RETURNING y los
+ * importes devueltos se aplican como ajustes en lote (abono de la ganancia o
+ * cargo de la ganancia ya pagada); el costo crece con las apuestas cuyo
+ * desenlace cambió, no con el volumen total del evento. Las mismas
+ * diferencias de ganancia se suman a los rollups de estadísticas.
+ *
+ * Cada corrección se registra en {@code reliquidaciones_pendientes} dentro de
+ * la misma transacción que la escribe; la fila se borra en la transacción que
+ * aplica la reliquidación. Si esta falla tras la confirmación, el job de
+ * reintento la vuelve a procesar, respetando el orden de las correcciones de
+ * cada evento.
+ */
+@Service
+@Slf4j
+public class ReliquidacionApuestasService {
+
+    private static final String SQL_PASAN_A_GANAR =
+            "UPDATE apuestas a SET es_ganadora = true, " +
+            "monto_ganancia = a.monto_apostado * a.valor_cuota_momento, fecha_actualizacion = ? " +
+            "WHERE a.evento_deportivo_id = ? AND a.estado = 'RESUELTA' AND a.es_ganadora = false " +
+            "AND a.prediccion = ? " +
+            "RETURNING a.usuario_id, a.monto_ganancia, a.monto_apostado, a.id";
+
+    private static final String SQL_DEJAN_DE_GANAR =
+            "UPDATE apuestas a SET es_ganadora = false, monto_ganancia = 0, fecha_actualizacion = ? " +
+            "FROM (SELECT id, monto_ganancia FROM apuestas WHERE evento_deportivo_id = ? " +
+            "AND estado = 'RESUELTA' AND es_ganadora = true AND prediccion = ? FOR UPDATE) previa " +
+            "WHERE a.id = previa.id " +
+            "RETURNING a.usuario_id, previa.monto_ganancia, a.monto_apostado, a.id";
+
+    private static final String SQL_REGISTRAR_PENDIENTE =
+            "INSERT INTO reliquidaciones_pendientes (evento_id, resultado_anterior, resultado_nuevo, " +
+            "creada_en, intentos) VALUES (?, ?, ?, ?, 0)";
+
+    /** La más antigua del evento; el bloqueo serializa a quienes procesan el mismo evento */
+    private static final String SQL_SIGUIENTE_PENDIENTE =
+            "SELECT id, resultado_anterior, resultado_nuevo FROM reliquidaciones_pendientes " +
+            "WHERE evento_id = ? ORDER BY id LIMIT 1 FOR UPDATE";
+
+    private static final String SQL_BORRAR_PENDIENTE =
+            "DELETE FROM reliquidaciones_pendientes WHERE id = ?";
+
+    private static final String SQL_REGISTRAR_FALLO =
+            "UPDATE reliquidaciones_pendientes SET intentos = intentos + 1, ultimo_error = ? WHERE id = ?";
+
+    private static final String SQL_EVENTOS_PENDIENTES =
+            "SELECT evento_id FROM reliquidaciones_pendientes GROUP BY evento_id ORDER BY MIN(id)";
+
+    private final IWalletService walletService;
+    private final ContadoresApuestasService contadoresApuestas;
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupEstadisticasService rollupEstadisticas;
+    private final CoordinadorJobs coordinadorJobs;
+    private final TransactionTemplate transaccion;
+
+    public ReliquidacionApuestasService(IWalletService walletService,
+            ContadoresApuestasService contadoresApuestas, RollupEstadisticasService rollupEstadisticas,
+            JdbcTemplate jdbcTemplate, CoordinadorJobs coordinadorJobs,
+            PlatformTransactionManager transactionManager) {
+        this.walletService = walletService;
+        this.contadoresApuestas = contadoresApuestas;
+        this.rollupEstadisticas = rollupEstadisticas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.coordinadorJobs = coordinadorJobs;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Registrar la reliquidación pendiente en la transacción que corrige el resultado
+     */
+    @EventListener
+    public void registrarPendiente(LiveScoreCambioEvent evento) {
+        if (!requiereReliquidacion(evento)) {
+            return;
+        }
+        jdbcTemplate.update(SQL_REGISTRAR_PENDIENTE, evento.getEventoId(), evento.getAnterior().resultado(),
+                evento.getActual().resultado(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Reliquidar las apuestas del evento una vez confirmada la corrección
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarLivescore(LiveScoreCambioEvent evento) {
+        if (!requiereReliquidacion(evento)) {
+            return;
+        }
+        try {
+            procesarPendientes(evento.getEventoId());
+        } catch (Exception e) {
+            log.error("Error reliquidando apuestas del evento {}, queda pendiente para reintento: {}",
+                    evento.getEventoId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reintentar las reliquidaciones que quedaron pendientes
+     */
+    @Scheduled(fixedDelayString = "${apuestas.reliquidacion.reintento-ms:60000}")
+    public void reintentarPendientes() {
+        try {
+            coordinadorJobs.ejecutar("apuestas.reliquidacion", Duration.ofSeconds(50), () -> {
+                for (Long eventoId : jdbcTemplate.queryForList(SQL_EVENTOS_PENDIENTES, Long.class)) {
+                    try {
+                        procesarPendientes(eventoId);
+                    } catch (Exception e) {
+                        log.error("Error reintentando la reliquidación del evento {}: {}",
+                                eventoId, e.getMessage());
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error reintentando reliquidaciones pendientes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aplicar en orden las reliquidaciones pendientes del evento, cada una en
+     * su transacción junto con el borrado de su fila. Si una falla se anota el
+     * intento y las siguientes del evento esperan al próximo reintento.
+     * @return Número de apuestas reliquidadas
+     */
+    public int procesarPendientes(Long eventoId) {
+        int total = 0;
+        while (true) {
+            Long[] enProceso = new Long[1];
+            Integer reliquidadas;
+            try {
+                reliquidadas = transaccion.execute(status -> {
+                    List<Pendiente> siguiente = jdbcTemplate.query(SQL_SIGUIENTE_PENDIENTE,
+                            (rs, fila) -> new Pendiente(rs.getLong(1), rs.getString(2), rs.getString(3)), eventoId);
+                    if (siguiente.isEmpty()) {
+                        return null;
+                    }
+                    Pendiente pendiente = siguiente.get(0);
+                    enProceso[0] = pendiente.id();
+                    int volteadas = aplicar(eventoId, pendiente.anterior(), pendiente.nuevo());
+                    jdbcTemplate.update(SQL_BORRAR_PENDIENTE, pendiente.id());
+                    return volteadas;
+                });
+            } catch (RuntimeException e) {
+                if (enProceso[0] != null) {
+                    String mensaje = String.valueOf(e.getMessage());
+                    jdbcTemplate.update(SQL_REGISTRAR_FALLO,
+                            mensaje.substring(0, Math.min(mensaje.length(), 500)), enProceso[0]);
+                }
+                throw e;
+            }
+            if (reliquidadas == null) {
+                return total;
+            }
+            total += reliquidadas;
+        }
+    }
+
+    /**
+     * Voltear las apuestas resueltas cuyo desenlace cambia de {@code anterior}
+     * a {@code nuevo} y aplicar los ajustes de saldo, en una transacción
+     * @return Número de apuestas reliquidadas
+     */
+    public int reliquidar(Long eventoId, String anterior, String nuevo) {
+        Integer reliquidadas = transaccion.execute(status -> aplicar(eventoId, anterior, nuevo));
+        return reliquidadas != null ? reliquidadas : 0;
+    }
+
+    private static boolean requiereReliquidacion(LiveScoreCambioEvent evento) {
+        return evento.esCorreccionPostFinal()
+                && !Objects.equals(evento.getAnterior().resultado(), evento.getActual().resultado());
+    }
+
+    private int aplicar(Long eventoId, String anterior, String nuevo) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        String descripcion = "Reliquidación de apuesta por corrección del resultado del evento " + eventoId;
+        List<PagoPremioDto> ajustes = new ArrayList<>();
+        Map<String, ContadoresApuestasService.Totales> volteadas = new HashMap<>();
+        Map<Long, BigDecimal> diferencias = new HashMap<>();
+
+        if (anterior != null) {
+            ajustes.addAll(jdbcTemplate.query(SQL_DEJAN_DE_GANAR, (rs, fila) -> {
+                volteadas.merge(ContadoresApuestasService.PERDIDA,
+                        new ContadoresApuestasService.Totales(1, rs.getBigDecimal(3)),
+                        ContadoresApuestasService.Totales::sumar);
+                diferencias.put(rs.getLong(4), rs.getBigDecimal(2).negate());
+                return new PagoPremioDto(rs.getLong(1), rs.getBigDecimal(2).negate(), descripcion);
+            }, ahora, eventoId, anterior));
+        }
+        if (nuevo != null) {
+            ajustes.addAll(jdbcTemplate.query(SQL_PASAN_A_GANAR, (rs, fila) -> {
+                volteadas.merge(ContadoresApuestasService.GANADA,
+                        new ContadoresApuestasService.Totales(1, rs.getBigDecimal(3)),
+                        ContadoresApuestasService.Totales::sumar);
+                diferencias.put(rs.getLong(4), rs.getBigDecimal(2));
+                return new PagoPremioDto(rs.getLong(1), rs.getBigDecimal(2), descripcion);
+            }, ahora, eventoId, nuevo));
+        }
+
+        walletService.procesarAjustes(ajustes, Transaccion.TipoTransaccion.DEPOSITO);
+        volteadas.forEach((estado, totales) -> contadoresApuestas.registrarCambio(
+                ContadoresApuestasService.GANADA.equals(estado)
+                        ? ContadoresApuestasService.PERDIDA : ContadoresApuestasService.GANADA,
+                estado, totales.cantidad(), totales.monto()));
+        rollupEstadisticas.registrarReliquidacion(diferencias);
+        log.info("🔁 Evento {}: resultado corregido {} → {}, {} apuestas reliquidadas",
+                eventoId, anterior, nuevo, ajustes.size());
+        return ajustes.size();
+    }
+
+    private record Pendiente(Long id, String anterior, String nuevo) {
+    }
+}
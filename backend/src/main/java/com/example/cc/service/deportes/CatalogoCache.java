@@ -0,0 +1,245 @@
+package com.example.cc.service.deportes;
+
+import com.example.cc.entities.Deporte;
+import com.example.cc.entities.Liga;
+import com.example.cc.repository.DeporteRepository;
+import com.example.cc.repository.LigaRepository;
+import com.example.cc.service.transacciones.TransaccionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caché concurrente nombre → id de deportes y ligas, con índice por ID
+ * externo de liga.
+ *
+ * La ingesta de eventos resuelve aquí las referencias sin consultar la base
+ * de datos: se devuelve {@code getReferenceById} sobre el id cacheado. Si el
+ * deporte o la liga no existe, se crea en una transacción propia bajo un
+ * candado por nombre, de modo que dos hilos nunca crean el mismo registro y
+ * el id queda confirmado antes de que otro hilo lo use.
+ *
+ * Los registros e invalidaciones que llegan desde una transacción de
+ * escritura se aplican al confirmarse: si se revierte, la caché no queda
+ * con ids o nombres que nunca existieron.
+ */
+@Component
+@Slf4j
+public class CatalogoCache {
+
+    private final DeporteRepository deporteRepository;
+    private final LigaRepository ligaRepository;
+    private final TransactionTemplate transaccionNueva;
+
+    private final Map<String, Long> deportesPorNombre = new ConcurrentHashMap<>();
+    private final Map<String, Long> ligasPorNombre = new ConcurrentHashMap<>();
+    private final Map<String, Long> ligasPorIdExterno = new ConcurrentHashMap<>();
+    private final Map<String, Object> candados = new ConcurrentHashMap<>();
+
+    private volatile boolean cargada = false;
+
+    public CatalogoCache(DeporteRepository deporteRepository,
+            LigaRepository ligaRepository,
+            PlatformTransactionManager transactionManager) {
+        this.deporteRepository = deporteRepository;
+        this.ligaRepository = ligaRepository;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Resolver un deporte por nombre, creándolo con la fábrica si no existe
+     * @param nombre Nombre del deporte (sin distinguir mayúsculas)
+     * @param fabrica Construye el deporte a crear; solo se invoca si no existe
+     * @return Referencia al deporte
+     */
+    public Deporte resolverDeporte(String nombre, Supplier<Deporte> fabrica) {
+        String clave = normalizar(nombre);
+        if (clave == null) {
+            throw new IllegalArgumentException("El nombre del deporte no puede estar vacío");
+        }
+        asegurarCargada();
+
+        Long id = deportesPorNombre.get(clave);
+        if (id == null) {
+            synchronized (candado("deporte:" + clave)) {
+                id = deportesPorNombre.get(clave);
+                if (id == null) {
+                    id = crearDeporteSiNoExiste(nombre, fabrica);
+                    deportesPorNombre.put(clave, id);
+                }
+            }
+        }
+        return deporteRepository.getReferenceById(id);
+    }
+
+    /**
+     * Resolver una liga por ID externo o nombre, creándola con la fábrica si no existe
+     * @param nombre Nombre de la liga (sin distinguir mayúsculas)
+     * @param ligaIdExterno ID de TheSportsDB, opcional
+     * @param deporteId Deporte al que se asigna la liga si se crea
+     * @param fabrica Construye la liga a crear; solo se invoca si no existe
+     * @return Referencia a la liga
+     */
+    public Liga resolverLiga(String nombre, String ligaIdExterno, Long deporteId, Supplier<Liga> fabrica) {
+        String clave = normalizar(nombre);
+        if (clave == null) {
+            throw new IllegalArgumentException("El nombre de la liga no puede estar vacío");
+        }
+        asegurarCargada();
+
+        Long id = buscarLiga(clave, ligaIdExterno);
+        if (id == null) {
+            synchronized (candado("liga:" + clave)) {
+                id = buscarLiga(clave, ligaIdExterno);
+                if (id == null) {
+                    id = crearLigaSiNoExiste(nombre, ligaIdExterno, deporteId, fabrica);
+                    registrarLiga(id, nombre, ligaIdExterno);
+                }
+            }
+        }
+        return ligaRepository.getReferenceById(id);
+    }
+
+    /**
+     * Registrar un deporte ya persistido (p. ej. tras un alta masiva)
+     */
+    public void registrarDeporte(Deporte deporte) {
+        String clave = normalizar(deporte.getNombre());
+        Long id = deporte.getId();
+        if (id != null && clave != null) {
+            TransaccionUtil.despuesDeConfirmar(() -> deportesPorNombre.putIfAbsent(clave, id));
+        }
+    }
+
+    /**
+     * Registrar una liga ya persistida (p. ej. tras un alta masiva)
+     */
+    public void registrarLiga(Liga liga) {
+        Long id = liga.getId();
+        String nombre = liga.getNombre();
+        String ligaIdExterno = liga.getLigaIdExterno();
+        if (id != null) {
+            TransaccionUtil.despuesDeConfirmar(() -> registrarLiga(id, nombre, ligaIdExterno));
+        }
+    }
+
+    /**
+     * Vaciar la caché al confirmar la transacción; se recarga en la siguiente
+     * resolución. Debe llamarse cuando se renombra un deporte o una liga.
+     */
+    public void invalidar() {
+        TransaccionUtil.despuesDeConfirmar(() -> {
+            cargada = false;
+            deportesPorNombre.clear();
+            ligasPorNombre.clear();
+            ligasPorIdExterno.clear();
+            log.debug("Caché de deportes y ligas invalidada");
+        });
+    }
+
+    public int getTamanoDeportes() {
+        return deportesPorNombre.size();
+    }
+
+    public int getTamanoLigas() {
+        return ligasPorNombre.size();
+    }
+
+    private void asegurarCargada() {
+        if (cargada) {
+            return;
+        }
+        synchronized (this) {
+            if (cargada) {
+                return;
+            }
+            for (Object[] fila : deporteRepository.findIdYNombre()) {
+                String clave = normalizar((String) fila[1]);
+                if (clave != null) {
+                    deportesPorNombre.putIfAbsent(clave, (Long) fila[0]);
+                }
+            }
+            for (Object[] fila : ligaRepository.findIdNombreYIdExterno()) {
+                registrarLiga((Long) fila[0], (String) fila[1], (String) fila[2]);
+            }
+            cargada = true;
+            log.info("🗂️ Caché de catálogo cargada: {} deportes, {} ligas",
+                    deportesPorNombre.size(), ligasPorNombre.size());
+        }
+    }
+
+    private Long buscarLiga(String clave, String ligaIdExterno) {
+        if (ligaIdExterno != null && !ligaIdExterno.isBlank()) {
+            Long id = ligasPorIdExterno.get(ligaIdExterno);
+            if (id != null) {
+                return id;
+            }
+        }
+        return ligasPorNombre.get(clave);
+    }
+
+    private void registrarLiga(Long id, String nombre, String ligaIdExterno) {
+        String clave = normalizar(nombre);
+        if (clave != null) {
+            ligasPorNombre.putIfAbsent(clave, id);
+        }
+        if (ligaIdExterno != null && !ligaIdExterno.isBlank()) {
+            ligasPorIdExterno.putIfAbsent(ligaIdExterno, id);
+        }
+    }
+
+    private Long crearDeporteSiNoExiste(String nombre, Supplier<Deporte> fabrica) {
+        try {
+            return transaccionNueva.execute(status -> deporteRepository.findByNombreIgnoreCase(nombre)
+                    .orElseGet(() -> {
+                        Deporte creado = deporteRepository.saveAndFlush(fabrica.get());
+                        log.info("🆕 Deporte {} creado durante la ingesta", creado.getNombre());
+                        return creado;
+                    })
+                    .getId());
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia lo creó entre la búsqueda y el insert (nombre único)
+            return deporteRepository.findByNombreIgnoreCase(nombre)
+                    .map(Deporte::getId)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Long crearLigaSiNoExiste(String nombre, String ligaIdExterno, Long deporteId, Supplier<Liga> fabrica) {
+        return transaccionNueva.execute(status -> {
+            Optional<Liga> existente = Optional.empty();
+            if (ligaIdExterno != null && !ligaIdExterno.isBlank()) {
+                existente = ligaRepository.findByLigaIdExterno(ligaIdExterno);
+            }
+            if (existente.isEmpty()) {
+                existente = ligaRepository.findByNombreIgnoreCase(nombre);
+            }
+            if (existente.isPresent()) {
+                return existente.get().getId();
+            }
+
+            Liga liga = fabrica.get();
+            liga.setDeporte(deporteRepository.getReferenceById(deporteId));
+            Liga creada = ligaRepository.saveAndFlush(liga);
+            log.info("🆕 Liga {} creada durante la ingesta", creada.getNombre());
+            return creada.getId();
+        });
+    }
+
+    private Object candado(String clave) {
+        return candados.computeIfAbsent(clave, k -> new Object());
+    }
+
+    private static String normalizar(String nombre) {
+        return nombre == null || nombre.trim().isEmpty() ? null : nombre.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.cc.service.deportes;
+
+import com.example.cc.dto.external.CatalogoSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Lectura y escritura del snapshot comprimido del catálogo de deportes y ligas
+ */
+@Component
+@Slf4j
+public class CatalogoSnapshotStore {
+
+    private final ObjectMapper objectMapper;
+    private final Path archivo;
+
+    public CatalogoSnapshotStore(ObjectMapper objectMapper,
+            @Value("${catalogo.snapshot.path:data/catalogo-snapshot.json.gz}") String ruta) {
+        this.objectMapper = objectMapper;
+        this.archivo = Paths.get(ruta);
+    }
+
+    /**
+     * Leer el snapshot si existe y es legible
+     */
+    public Optional<CatalogoSnapshot> leer() {
+        if (!Files.exists(archivo)) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archivo))) {
+            return Optional.of(objectMapper.readValue(in, CatalogoSnapshot.class));
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudo leer el snapshot del catálogo {}: {}", archivo, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reescribir el snapshot de forma atómica (archivo temporal + move)
+     */
+    public void escribir(CatalogoSnapshot snapshot) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, "catalogo", ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporal))) {
+            objectMapper.writeValue(out, snapshot);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("💾 Snapshot del catálogo actualizado: {} deportes, {} ligas en {}",
+                snapshot.getDeportes().size(), snapshot.getLigas().size(), archivo);
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.cc.service.deportes;
+
+import com.example.cc.dto.external.CatalogoSnapshot;
+import com.example.cc.dto.response.TheSportsDbLeagueResponse;
+import com.example.cc.dto.response.TheSportsDbSportResponse;
+import com.example.cc.entities.Deporte;
+import com.example.cc.entities.Liga;
+import com.example.cc.repository.DeporteRepository;
+import com.example.cc.repository.LigaRepository;
+import com.example.cc.service.external.ITheSportsDbService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sincronización del catálogo de deportes y ligas.
+ *
+ * El arranque solo carga el snapshot local si la base de datos está vacía;
+ * la descarga desde TheSportsDB se hace en segundo plano y se aplica como
+ * un diff contra el catálogo existente (altas y cambios en un solo saveAll).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogoSyncService {
+
+    private final DeporteRepository deporteRepository;
+    private final LigaRepository ligaRepository;
+    private final ITheSportsDbService theSportsDbService;
+    private final CatalogoSnapshotStore snapshotStore;
+    private final CatalogoCache catalogoCache;
+
+    /**
+     * Cargar el catálogo desde el snapshot local cuando la base de datos no tiene deportes
+     * @return true si se aplicó el snapshot
+     */
+    @Transactional
+    public boolean cargarDesdeSnapshotSiVacio() {
+        if (deporteRepository.count() > 0) {
+            log.info("📚 Catálogo de deportes ya presente en la base de datos");
+            return false;
+        }
+
+        return snapshotStore.leer()
+                .map(snapshot -> {
+                    ResultadoSync resultado = aplicarCatalogo(snapshot);
+                    log.info("📚 Catálogo cargado desde snapshot {} ({}): {}",
+                            snapshotStore.getArchivo(), snapshot.getGeneradoEn(), resultado);
+                    return true;
+                })
+                .orElseGet(() -> {
+                    log.info("📚 Sin snapshot del catálogo; se poblará con el refresco en segundo plano");
+                    return false;
+                });
+    }
+
+    /**
+     * Descargar deportes y ligas de TheSportsDB en el formato del snapshot
+     */
+    public CatalogoSnapshot descargarCatalogo() {
+        CatalogoSnapshot snapshot = new CatalogoSnapshot();
+        snapshot.setGeneradoEn(LocalDateTime.now().toString());
+
+        for (TheSportsDbSportResponse.SportData deporteExterno : theSportsDbService.obtenerTodosLosDeportes()) {
+            if (esVacio(deporteExterno.getStrSport())) {
+                continue;
+            }
+            CatalogoSnapshot.DeporteSnapshot deporte = new CatalogoSnapshot.DeporteSnapshot();
+            deporte.setNombre(deporteExterno.getStrSport());
+            deporte.setDescripcion("Deporte sincronizado desde TheSportsDB");
+            asignarIconoYColor(deporte, deporteExterno.getStrSport());
+            snapshot.getDeportes().add(deporte);
+        }
+
+        theSportsDbService.procesarTodasLasLigas(ligaExterna -> {
+            if (esVacio(ligaExterna.getStrLeague())) {
+                return;
+            }
+            snapshot.getLigas().add(new CatalogoSnapshot.LigaSnapshot(
+                    ligaExterna.getIdLeague(),
+                    ligaExterna.getStrLeague(),
+                    ligaExterna.getStrSport(),
+                    ligaExterna.getStrCountry(),
+                    ligaExterna.getStrCurrentSeason(),
+                    obtenerDescripcionLiga(ligaExterna),
+                    obtenerLogoLiga(ligaExterna),
+                    ligaExterna.getStrWebsite()));
+        });
+
+        log.info("🌐 Catálogo descargado de TheSportsDB: {} deportes, {} ligas",
+                snapshot.getDeportes().size(), snapshot.getLigas().size());
+        return snapshot;
+    }
+
+    /**
+     * Aplicar un catálogo como diff contra la base de datos: crea los deportes y
+     * ligas que faltan y actualiza las ligas cuyos datos cambiaron.
+     */
+    @Transactional
+    public ResultadoSync aplicarCatalogo(CatalogoSnapshot snapshot) {
+        ResultadoSync resultado = new ResultadoSync();
+
+        Map<String, Deporte> deportesPorNombre = new HashMap<>();
+        for (Deporte deporte : deporteRepository.findAll()) {
+            deportesPorNombre.put(normalizar(deporte.getNombre()), deporte);
+        }
+
+        List<Deporte> deportesNuevos = new ArrayList<>();
+        for (CatalogoSnapshot.DeporteSnapshot deporteSnapshot : snapshot.getDeportes()) {
+            String clave = normalizar(deporteSnapshot.getNombre());
+            if (clave == null || deportesPorNombre.containsKey(clave)) {
+                continue;
+            }
+            Deporte deporte = new Deporte();
+            deporte.setNombre(deporteSnapshot.getNombre());
+            deporte.setDescripcion(deporteSnapshot.getDescripcion());
+            deporte.setIcono(deporteSnapshot.getIcono());
+            deporte.setColorPrimario(deporteSnapshot.getColorPrimario());
+            deporte.setActivo(true);
+            deportesNuevos.add(deporte);
+            deportesPorNombre.put(clave, deporte);
+        }
+        deporteRepository.saveAll(deportesNuevos).forEach(catalogoCache::registrarDeporte);
+        resultado.setDeportesCreados(deportesNuevos.size());
+
+        Map<String, Liga> ligasPorIdExterno = new HashMap<>();
+        Map<String, Liga> ligasPorNombre = new HashMap<>();
+        for (Liga liga : ligaRepository.findAll()) {
+            if (liga.getLigaIdExterno() != null) {
+                ligasPorIdExterno.put(liga.getLigaIdExterno(), liga);
+            }
+            ligasPorNombre.putIfAbsent(normalizar(liga.getNombre()), liga);
+        }
+
+        List<Liga> ligasModificadas = new ArrayList<>();
+        for (CatalogoSnapshot.LigaSnapshot ligaSnapshot : snapshot.getLigas()) {
+            Liga existente = ligaSnapshot.getLigaIdExterno() != null
+                    ? ligasPorIdExterno.get(ligaSnapshot.getLigaIdExterno())
+                    : null;
+            if (existente == null) {
+                existente = ligasPorNombre.get(normalizar(ligaSnapshot.getNombre()));
+            }
+
+            if (existente != null) {
+                if (actualizarLiga(existente, ligaSnapshot)) {
+                    ligasModificadas.add(existente);
+                    resultado.setLigasActualizadas(resultado.getLigasActualizadas() + 1);
+                } else {
+                    resultado.setLigasSinCambios(resultado.getLigasSinCambios() + 1);
+                }
+                continue;
+            }
+
+            Deporte deporte = deportesPorNombre.get(normalizar(ligaSnapshot.getDeporte()));
+            if (deporte == null) {
+                log.debug("Deporte {} no encontrado para la liga {}, omitiendo",
+                        ligaSnapshot.getDeporte(), ligaSnapshot.getNombre());
+                resultado.setLigasOmitidas(resultado.getLigasOmitidas() + 1);
+                continue;
+            }
+
+            Liga liga = new Liga();
+            liga.setNombre(ligaSnapshot.getNombre());
+            liga.setDeporte(deporte);
+            liga.setActiva(true);
+            actualizarLiga(liga, ligaSnapshot);
+            ligasModificadas.add(liga);
+            if (liga.getLigaIdExterno() != null) {
+                ligasPorIdExterno.put(liga.getLigaIdExterno(), liga);
+            }
+            ligasPorNombre.putIfAbsent(normalizar(liga.getNombre()), liga);
+            resultado.setLigasCreadas(resultado.getLigasCreadas() + 1);
+        }
+        ligaRepository.saveAll(ligasModificadas).forEach(catalogoCache::registrarLiga);
+
+        return resultado;
+    }
+
+    /**
+     * Copia los datos del snapshot sobre la liga
+     * @return true si algún campo cambió
+     */
+    private boolean actualizarLiga(Liga liga, CatalogoSnapshot.LigaSnapshot datos) {
+        boolean cambio = false;
+        if (liga.getLigaIdExterno() == null && datos.getLigaIdExterno() != null) {
+            liga.setLigaIdExterno(datos.getLigaIdExterno());
+            cambio = true;
+        }
+        if (!Objects.equals(liga.getPais(), datos.getPais())) {
+            liga.setPais(datos.getPais());
+            cambio = true;
+        }
+        if (!Objects.equals(liga.getTemporada(), datos.getTemporada())) {
+            liga.setTemporada(datos.getTemporada());
+            cambio = true;
+        }
+        if (!Objects.equals(liga.getDescripcion(), datos.getDescripcion())) {
+            liga.setDescripcion(datos.getDescripcion());
+            cambio = true;
+        }
+        if (!Objects.equals(liga.getLogoUrl(), datos.getLogoUrl())) {
+            liga.setLogoUrl(datos.getLogoUrl());
+            cambio = true;
+        }
+        if (!Objects.equals(liga.getSitioWeb(), datos.getSitioWeb())) {
+            liga.setSitioWeb(datos.getSitioWeb());
+            cambio = true;
+        }
+        return cambio;
+    }
+
+    /**
+     * Obtiene la descripción de la liga priorizando el español
+     */
+    private String obtenerDescripcionLiga(TheSportsDbLeagueResponse.LeagueData ligaExterna) {
+        if (!esVacio(ligaExterna.getStrDescriptionES())) {
+            return ligaExterna.getStrDescriptionES();
+        }
+        if (!esVacio(ligaExterna.getStrDescriptionEN())) {
+            return ligaExterna.getStrDescriptionEN();
+        }
+        return "Liga sincronizada desde TheSportsDB";
+    }
+
+    /**
+     * Obtiene la URL del logo de la liga
+     */
+    private String obtenerLogoLiga(TheSportsDbLeagueResponse.LeagueData ligaExterna) {
+        if (!esVacio(ligaExterna.getStrBadge())) {
+            return ligaExterna.getStrBadge();
+        }
+        if (!esVacio(ligaExterna.getStrLogo())) {
+            return ligaExterna.getStrLogo();
+        }
+        return null;
+    }
+
+    /**
+     * Asigna iconos y colores por defecto según el tipo de deporte
+     */
+    private void asignarIconoYColor(CatalogoSnapshot.DeporteSnapshot deporte, String nombreDeporte) {
+        String nombre = nombreDeporte.toLowerCase();
+
+        switch (nombre) {
+            case "soccer":
+            case "football":
+                deporte.setIcono("⚽");
+                deporte.setColorPrimario("#28a745");
+                break;
+            case "basketball":
+                deporte.setIcono("🏀");
+                deporte.setColorPrimario("#fd7e14");
+                break;
+            case "tennis":
+                deporte.setIcono("🎾");
+                deporte.setColorPrimario("#20c997");
+                break;
+            case "baseball":
+                deporte.setIcono("⚾");
+                deporte.setColorPrimario("#6f42c1");
+                break;
+            case "american football":
+                deporte.setIcono("🏈");
+                deporte.setColorPrimario("#dc3545");
+                break;
+            case "hockey":
+            case "ice hockey":
+                deporte.setIcono("🏒");
+                deporte.setColorPrimario("#17a2b8");
+                break;
+            case "golf":
+                deporte.setIcono("⛳");
+                deporte.setColorPrimario("#ffc107");
+                break;
+            case "cricket":
+                deporte.setIcono("🏏");
+                deporte.setColorPrimario("#e83e8c");
+                break;
+            case "rugby":
+                deporte.setIcono("🏉");
+                deporte.setColorPrimario("#6c757d");
+                break;
+            case "boxing":
+                deporte.setIcono("🥊");
+                deporte.setColorPrimario("#343a40");
+                break;
+            case "cycling":
+                deporte.setIcono("🚴");
+                deporte.setColorPrimario("#007bff");
+                break;
+            case "swimming":
+                deporte.setIcono("🏊");
+                deporte.setColorPrimario("#20c997");
+                break;
+            default:
+                deporte.setIcono("🏃");
+                deporte.setColorPrimario("#6c757d");
+                break;
+        }
+    }
+
+    private static boolean esVacio(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
+
+    private static String normalizar(String nombre) {
+        return esVacio(nombre) ? null : nombre.trim().toLowerCase();
+    }
+
+    /**
+     * Conteos de una aplicación del catálogo
+     */
+    @Data
+    public static class ResultadoSync {
+        private int deportesCreados;
+        private int ligasCreadas;
+        private int ligasActualizadas;
+        private int ligasSinCambios;
+        private int ligasOmitidas;
+    }
+}
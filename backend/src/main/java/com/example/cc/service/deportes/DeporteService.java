@@ -16,6 +16,7 @@ import java.util.Optional;
 public class DeporteService implements IDeporteService {
 
     private final DeporteRepository deporteRepository;
+    private final CatalogoCache catalogoCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -70,6 +71,8 @@ public class DeporteService implements IDeporteService {
                 deporte.setActivo(deporteActualizado.getActivo());
                 deporte.setIcono(deporteActualizado.getIcono());
                 deporte.setColorPrimario(deporteActualizado.getColorPrimario());
+                // El nombre puede haber cambiado
+                catalogoCache.invalidar();
                 return deporteRepository.save(deporte);
             })
             .orElseThrow(() -> new RuntimeException("Deporte no encontrado con ID: " + id));
@@ -100,20 +103,4 @@ public class DeporteService implements IDeporteService {
     public boolean existsDeporte(String nombre) {
         return deporteRepository.existsByNombre(nombre);
     }
-
-    @Override
-    @Transactional
-    public Deporte createDeporteSafe(Deporte deporte) {
-        log.info("Creando deporte de forma segura: {}", deporte.getNombre());
-        
-        // Verificar si ya existe
-        Optional<Deporte> existente = deporteRepository.findByNombreIgnoreCase(deporte.getNombre());
-        if (existente.isPresent()) {
-            log.debug("El deporte {} ya existe, retornando el existente", deporte.getNombre());
-            return existente.get();
-        }
-        
-        // Si no existe, crearlo
-        return deporteRepository.save(deporte);
-    }
 }
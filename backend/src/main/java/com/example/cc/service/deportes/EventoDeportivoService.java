@@ -6,7 +6,9 @@ import com.example.cc.entities.Liga;
 import com.example.cc.dto.external.TheSportsDbEventResponse;
 import com.example.cc.repository.EventoDeportivoRepository;
 import com.example.cc.service.apuestas.CuotaEventoService;
+import com.example.cc.service.external.SincronizacionIncrementalService;
 import com.example.cc.service.external.TheSportsDbService;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,9 +29,12 @@ public class EventoDeportivoService implements IEventoDeportivoService {
 
     private final EventoDeportivoRepository eventoRepository;
     private final TheSportsDbService theSportsDbService;
-    private final IDeporteService deporteService;
-    private final ILigaService ligaService;
+    private final CatalogoCache catalogoCache;
+    private final SincronizacionIncrementalService sincronizacionIncremental;
     private final CuotaEventoService cuotaEventoService;
+    private final RegistroEjecucionesService registroEjecuciones;
+
+    private static final int DIAS_SINCRONIZACION = 7;
 
     /**
      * Sincronizar eventos deportivos desde TheSportsDB
@@ -39,13 +44,13 @@ public class EventoDeportivoService implements IEventoDeportivoService {
         log.info("Iniciando sincronización de eventos deportivos...");
         
         try {
-            // Obtener eventos de TheSportsDB
-            List<TheSportsDbEventResponse.EventData> eventosExternos = null;
-
-            eventosExternos = theSportsDbService.getUpcomingEvents();
+            // Obtener de TheSportsDB solo los eventos creados o modificados desde la última sincronización
+            List<TheSportsDbEventResponse.EventData> eventosExternos =
+                theSportsDbService.sincronizarEventosIncremental(DIAS_SINCRONIZACION);
                
             if (eventosExternos.isEmpty()) {
-                log.warn("No se obtuvieron eventos de TheSportsDB");
+                log.info("Sin cambios en TheSportsDB desde la última sincronización");
+                limpiarEventosAntiguos();
                 return;
             }
 
@@ -66,7 +71,8 @@ public class EventoDeportivoService implements IEventoDeportivoService {
                         
                         // Verificar y generar cuotas si no existen o están incompletas
                         try {
-                            cuotaEventoService.generarCuotasParaEvento(evento.getId());
+                            registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_CUOTAS,
+                                    () -> cuotaEventoService.generarCuotasParaEvento(evento.getId()));
                             log.debug("Cuotas verificadas/generadas para evento actualizado: {}", evento.getNombreEvento());
                         } catch (Exception e) {
                             log.error("Error al verificar/generar cuotas para evento actualizado {}: {}", 
@@ -82,7 +88,8 @@ public class EventoDeportivoService implements IEventoDeportivoService {
                             
                             // Generar cuotas automáticamente para el nuevo evento
                             try {
-                                cuotaEventoService.generarCuotasParaEvento(eventoGuardado.getId());
+                                registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_CUOTAS,
+                                        () -> cuotaEventoService.generarCuotasParaEvento(eventoGuardado.getId()));
                                 log.info("Cuotas generadas automáticamente para evento: {}", eventoGuardado.getNombreEvento());
                             } catch (Exception e) {
                                 log.error("Error al generar cuotas automáticas para evento {}: {}", 
@@ -93,6 +100,7 @@ public class EventoDeportivoService implements IEventoDeportivoService {
                     
                 } catch (Exception e) {
                     log.error("Error al procesar evento {}: {}", eventoExterno.getIdEvent(), e.getMessage());
+                    registroEjecuciones.registrarError("evento " + eventoExterno.getIdEvent() + ": " + e.getMessage());
                 }
             }
             
@@ -104,6 +112,7 @@ public class EventoDeportivoService implements IEventoDeportivoService {
             
         } catch (Exception e) {
             log.error("Error durante la sincronización de eventos: {}", e.getMessage(), e);
+            registroEjecuciones.registrarError(e.getMessage());
         }
     }
 
@@ -154,7 +163,7 @@ public class EventoDeportivoService implements IEventoDeportivoService {
             evento.setEstado(mapearEstado(eventoExterno.getStrStatus()));
             
             log.debug("Evento {} creado exitosamente para deporte {} y liga {}", 
-                eventoExterno.getStrEvent(), deporte.getNombre(), liga.getNombre());
+                eventoExterno.getStrEvent(), eventoExterno.getStrSport(), eventoExterno.getStrLeague());
             
             return evento;
             
@@ -182,11 +191,10 @@ public class EventoDeportivoService implements IEventoDeportivoService {
         // Actualizar deporte si es diferente
         if (eventoExterno.getStrSport() != null && !eventoExterno.getStrSport().trim().isEmpty()) {
             Deporte deporte = obtenerOCrearDeporte(eventoExterno.getStrSport());
-            if (!deporte.equals(evento.getDeporte())) {
-                log.debug("Actualizando deporte del evento {} de {} a {}", 
-                    evento.getNombreEvento(), 
-                    evento.getDeporte() != null ? evento.getDeporte().getNombre() : "null", 
-                    deporte.getNombre());
+            // Comparar por id para no inicializar las referencias perezosas
+            if (evento.getDeporte() == null || !deporte.getId().equals(evento.getDeporte().getId())) {
+                log.debug("Actualizando deporte del evento {} a {}", 
+                    evento.getNombreEvento(), eventoExterno.getStrSport());
                 evento.setDeporte(deporte);
             }
         }
@@ -194,11 +202,9 @@ public class EventoDeportivoService implements IEventoDeportivoService {
         // Actualizar liga si es diferente
         if (eventoExterno.getStrLeague() != null && !eventoExterno.getStrLeague().trim().isEmpty()) {
             Liga liga = obtenerOCrearLiga(eventoExterno.getStrLeague(), null, evento.getDeporte());
-            if (!liga.equals(evento.getLiga())) {
-                log.debug("Actualizando liga del evento {} de {} a {}", 
-                    evento.getNombreEvento(), 
-                    evento.getLiga() != null ? evento.getLiga().getNombre() : "null", 
-                    liga.getNombre());
+            if (evento.getLiga() == null || !liga.getId().equals(evento.getLiga().getId())) {
+                log.debug("Actualizando liga del evento {} a {}", 
+                    evento.getNombreEvento(), eventoExterno.getStrLeague());
                 evento.setLiga(liga);
             }
         }
@@ -283,6 +289,7 @@ public class EventoDeportivoService implements IEventoDeportivoService {
         try {
             LocalDateTime fechaLimite = LocalDateTime.now().minusDays(30);
             eventoRepository.deleteEventosAntiguos(fechaLimite);
+            sincronizacionIncremental.limpiarMarcasAntiguas();
             log.info("Eventos antiguos eliminados correctamente");
         } catch (Exception e) {
             log.error("Error al limpiar eventos antiguos: {}", e.getMessage());
@@ -353,26 +360,16 @@ public class EventoDeportivoService implements IEventoDeportivoService {
             throw new IllegalArgumentException("El nombre del deporte no puede estar vacío");
         }
         
-        // Buscar deporte existente primero
-        Optional<Deporte> deporteExistente = deporteService.getDeporteByNombre(nombreDeporte);
-        if (deporteExistente.isPresent()) {
-            log.debug("Deporte {} encontrado en BD", nombreDeporte);
-            return deporteExistente.get();
-        }
-        
-        // Crear nuevo deporte usando método seguro
-        Deporte nuevoDeporte = new Deporte();
-        nuevoDeporte.setNombre(nombreDeporte);
-        nuevoDeporte.setDescripcion("Deporte sincronizado desde eventos: " + nombreDeporte);
-        nuevoDeporte.setActivo(true);
-        nuevoDeporte.setIcono(getIconoDeporte(nombreDeporte));
-        nuevoDeporte.setColorPrimario(getColorDeporte(nombreDeporte));
-        
-        // Usar createDeporteSafe para evitar duplicados
-        Deporte deporteGuardado = deporteService.createDeporteSafe(nuevoDeporte);
-        log.info("Deporte {} creado/obtenido durante sincronización de eventos", nombreDeporte);
-        
-        return deporteGuardado;
+        // Resolver desde la caché del catálogo; solo se crea si no existe
+        return catalogoCache.resolverDeporte(nombreDeporte, () -> {
+            Deporte nuevoDeporte = new Deporte();
+            nuevoDeporte.setNombre(nombreDeporte);
+            nuevoDeporte.setDescripcion("Deporte sincronizado desde eventos: " + nombreDeporte);
+            nuevoDeporte.setActivo(true);
+            nuevoDeporte.setIcono(getIconoDeporte(nombreDeporte));
+            nuevoDeporte.setColorPrimario(getColorDeporte(nombreDeporte));
+            return nuevoDeporte;
+        });
     }
     
     /**
@@ -384,38 +381,17 @@ public class EventoDeportivoService implements IEventoDeportivoService {
             throw new IllegalArgumentException("El nombre de la liga no puede estar vacío");
         }
         
-        // Buscar por ID externo primero si está disponible
-        if (ligaIdExterno != null && !ligaIdExterno.trim().isEmpty()) {
-            Optional<Liga> ligaExistente = ligaService.getLigaByIdExterno(ligaIdExterno);
-            if (ligaExistente.isPresent()) {
-                log.debug("Liga {} encontrada por ID externo: {}", nombreLiga, ligaIdExterno);
-                return ligaExistente.get();
-            }
-        }
-        
-        // Buscar por nombre
-        Optional<Liga> ligaExistente = ligaService.getLigaByNombre(nombreLiga);
-        if (ligaExistente.isPresent()) {
-            log.debug("Liga {} encontrada por nombre", nombreLiga);
-            return ligaExistente.get();
-        }
-        
-        // Crear nueva liga usando método seguro
-        Liga nuevaLiga = new Liga();
-        nuevaLiga.setNombre(nombreLiga);
-        nuevaLiga.setLigaIdExterno(ligaIdExterno);
-        nuevaLiga.setDescripcion("Liga sincronizada desde eventos: " + nombreLiga);
-        nuevaLiga.setActiva(true);
-        nuevaLiga.setDeporte(deporte);
-        nuevaLiga.setPais(getPaisLiga(nombreLiga));
-        nuevaLiga.setTemporada(obtenerTemporadaActual());
-        
-        // Usar createLigaSafe para evitar duplicados
-        Liga ligaGuardada = ligaService.createLigaSafe(nuevaLiga);
-        log.info("Liga {} creada/obtenida durante sincronización de eventos para deporte {}", 
-            nombreLiga, deporte.getNombre());
-        
-        return ligaGuardada;
+        // Resolver desde la caché del catálogo (por ID externo o nombre); solo se crea si no existe
+        return catalogoCache.resolverLiga(nombreLiga, ligaIdExterno, deporte.getId(), () -> {
+            Liga nuevaLiga = new Liga();
+            nuevaLiga.setNombre(nombreLiga);
+            nuevaLiga.setLigaIdExterno(ligaIdExterno);
+            nuevaLiga.setDescripcion("Liga sincronizada desde eventos: " + nombreLiga);
+            nuevaLiga.setActiva(true);
+            nuevaLiga.setPais(getPaisLiga(nombreLiga));
+            nuevaLiga.setTemporada(obtenerTemporadaActual());
+            return nuevaLiga;
+        });
     }
     
     /**
@@ -53,11 +53,4 @@ public interface IDeporteService {
      * Verificar si existe un deporte
      */
     boolean existsDeporte(String nombre);
-
-    /**
-     * Crear deporte de forma segura (no lanza excepción si ya existe)
-     * @param deporte Deporte a crear
-     * @return Deporte creado o existente
-     */
-    Deporte createDeporteSafe(Deporte deporte);
 }
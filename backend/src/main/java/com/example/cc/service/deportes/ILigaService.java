@@ -80,13 +80,6 @@ public interface ILigaService {
      */
     boolean existsLiga(String nombre);
 
-    /**
-     * Crear liga de forma segura (no lanza excepción si ya existe)
-     * @param liga Liga a crear
-     * @return Liga creada o existente
-     */
-    Liga createLigaSafe(Liga liga);
-
     /**
      * Verificar si existe una liga por ID externo
      */
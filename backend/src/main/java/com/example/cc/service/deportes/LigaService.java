@@ -18,6 +18,7 @@ import java.util.Optional;
 public class LigaService implements ILigaService {
 
     private final LigaRepository ligaRepository;
+    private final CatalogoCache catalogoCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -104,6 +105,8 @@ public class LigaService implements ILigaService {
                 liga.setFechaInicio(ligaActualizada.getFechaInicio());
                 liga.setFechaFin(ligaActualizada.getFechaFin());
                 liga.setDeporte(ligaActualizada.getDeporte());
+                // El nombre o el ID externo pueden haber cambiado
+                catalogoCache.invalidar();
                 return ligaRepository.save(liga);
             })
             .orElseThrow(() -> new RuntimeException("Liga no encontrada con ID: " + id));
@@ -141,31 +144,6 @@ public class LigaService implements ILigaService {
         return ligaRepository.existsByNombre(nombre);
     }
 
-    @Override
-    public Liga createLigaSafe(Liga liga) {
-        log.info("Creando liga de forma segura: {}", liga.getNombre());
-        
-        // Verificar si ya existe por ID externo
-        if (liga.getLigaIdExterno() != null) {
-            Optional<Liga> existentePorId = ligaRepository.findByLigaIdExterno(liga.getLigaIdExterno());
-            if (existentePorId.isPresent()) {
-                log.debug("La liga {} ya existe con ID externo {}, retornando la existente", 
-                    liga.getNombre(), liga.getLigaIdExterno());
-                return existentePorId.get();
-            }
-        }
-        
-        // Verificar si ya existe por nombre
-        Optional<Liga> existentePorNombre = ligaRepository.findByNombreIgnoreCase(liga.getNombre());
-        if (existentePorNombre.isPresent()) {
-            log.debug("La liga {} ya existe, retornando la existente", liga.getNombre());
-            return existentePorNombre.get();
-        }
-        
-        // Si no existe, crearla
-        return ligaRepository.save(liga);
-    }
-
     @Override
     @Transactional(readOnly = true)
     public boolean existsLigaByIdExterno(String ligaIdExterno) {
@@ -3,18 +3,21 @@ package com.example.cc.service.estadisticas;
 import com.example.cc.dto.QuinielaResumenDto;
 import com.example.cc.entities.Quiniela;
 import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.entities.RollupEstadistica;
 import com.example.cc.repository.QuinielaRepository;
 import com.example.cc.repository.QuinielaParticipacionRepository;
 import com.example.cc.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +32,7 @@ public class EstadisticasService implements IEstadisticasService {
     private final QuinielaRepository quinielaRepository;
     private final QuinielaParticipacionRepository participacionRepository;
     private final UsuarioRepository usuarioRepository;
+    private final RollupEstadisticasService rollupEstadisticas;
 
     /**
      * Obtener estadísticas del dashboard principal
@@ -37,24 +41,44 @@ public class EstadisticasService implements IEstadisticasService {
         Map<String, Object> stats = new HashMap<>();
         
         // Estadísticas generales
+        long quinielasActivas = 0;
+        BigDecimal poolTotalActivo = BigDecimal.ZERO;
+        for (Object[] fila : quinielaRepository.resumirPorEstado()) {
+            if (fila[0] == Quiniela.EstadoQuiniela.ACTIVA) {
+                quinielasActivas = ((Number) fila[1]).longValue();
+                poolTotalActivo = (BigDecimal) fila[2];
+            }
+        }
         stats.put("totalQuinielas", quinielaRepository.count());
-        stats.put("quinielasActivas", quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.ACTIVA).size());
+        stats.put("quinielasActivas", quinielasActivas);
         stats.put("totalUsuarios", usuarioRepository.count());
         stats.put("totalParticipaciones", participacionRepository.count());
-        
+
         // Pool total en juego
-        List<Quiniela> quinielasActivas = quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.ACTIVA);
-        BigDecimal poolTotalActivo = quinielasActivas.stream()
-                .map(Quiniela::getPoolActual)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
         stats.put("poolTotalActivo", poolTotalActivo);
-        
+
+        // Actividad de las últimas 24 horas (rollups horarios)
+        LocalDateTime hace24h = LocalDateTime.now().minusHours(24).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hasta = LocalDateTime.now();
+        RollupEstadistica apuestas24h = rollupEstadisticas.obtenerTotal(RollupEstadistica.Granularidad.HORA,
+                RollupEstadistica.Dimension.MERCADO, hace24h, hasta);
+        RollupEstadistica quinielas24h = rollupEstadisticas.obtenerTotal(RollupEstadistica.Granularidad.HORA,
+                RollupEstadistica.Dimension.QUINIELA, hace24h, hasta);
+        Map<String, Object> ultimas24h = new HashMap<>();
+        ultimas24h.put("apuestas", apuestas24h.getCantidad());
+        ultimas24h.put("montoApostado", apuestas24h.getApostado());
+        ultimas24h.put("pagos", apuestas24h.getPagado());
+        ultimas24h.put("reembolsos", apuestas24h.getReembolsado());
+        ultimas24h.put("ggr", apuestas24h.getGgr());
+        ultimas24h.put("participacionesQuinielas", quinielas24h.getCantidad());
+        ultimas24h.put("poolQuinielas", quinielas24h.getApostado());
+        stats.put("ultimas24h", ultimas24h);
+
         // Quinielas que cierran pronto (próximas 24 horas)
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime mañana = now.plusDays(1);
-        List<Quiniela> quinielasProximasACerrar = quinielaRepository
-                .findByEstadoAndFechaCierreBetween(Quiniela.EstadoQuiniela.ACTIVA, now, mañana);
-        stats.put("quinielasProximasACerrar", quinielasProximasACerrar.size());
+        stats.put("quinielasProximasACerrar", quinielaRepository
+                .countByEstadoAndFechaCierreBetween(Quiniela.EstadoQuiniela.ACTIVA, now, mañana));
         
         return stats;
     }
@@ -63,11 +87,13 @@ public class EstadisticasService implements IEstadisticasService {
      * Obtener quinielas populares (más participantes)
      */
     public List<QuinielaResumenDto> obtenerQuinielasPopulares(int limite) {
-        List<Quiniela> quinielasActivas = quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.ACTIVA);
-        
-        return quinielasActivas.stream()
-                .sorted((q1, q2) -> q2.getParticipantesActuales().compareTo(q1.getParticipantesActuales()))
-                .limit(limite)
+        if (limite <= 0) {
+            // PageRequest no admite tamaño 0: no se pidió ninguna fila
+            return List.of();
+        }
+        return quinielaRepository
+                .findByEstadoOrderByParticipantesActualesDesc(Quiniela.EstadoQuiniela.ACTIVA, PageRequest.of(0, limite))
+                .stream()
                 .map(QuinielaResumenDto::new)
                 .collect(Collectors.toList());
     }
@@ -76,11 +102,13 @@ public class EstadisticasService implements IEstadisticasService {
      * Obtener quinielas con mayor pool
      */
     public List<QuinielaResumenDto> obtenerQuinielasMayorPool(int limite) {
-        List<Quiniela> quinielasActivas = quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.ACTIVA);
-        
-        return quinielasActivas.stream()
-                .sorted((q1, q2) -> q2.getPoolActual().compareTo(q1.getPoolActual()))
-                .limit(limite)
+        if (limite <= 0) {
+            // PageRequest no admite tamaño 0: no se pidió ninguna fila
+            return List.of();
+        }
+        return quinielaRepository
+                .findByEstadoOrderByPoolActualDesc(Quiniela.EstadoQuiniela.ACTIVA, PageRequest.of(0, limite))
+                .stream()
                 .map(QuinielaResumenDto::new)
                 .collect(Collectors.toList());
     }
@@ -89,15 +117,17 @@ public class EstadisticasService implements IEstadisticasService {
      * Obtener quinielas que cierran pronto
      */
     public List<QuinielaResumenDto> obtenerQuinielasProximasACerrar(int limite) {
+        if (limite <= 0) {
+            // PageRequest no admite tamaño 0: no se pidió ninguna fila
+            return List.of();
+        }
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime limite24h = now.plusDays(1);
         
-        List<Quiniela> quinielas = quinielaRepository
-                .findByEstadoAndFechaCierreBetween(Quiniela.EstadoQuiniela.ACTIVA, now, limite24h);
-        
-        return quinielas.stream()
-                .sorted((q1, q2) -> q1.getFechaCierre().compareTo(q2.getFechaCierre()))
-                .limit(limite)
+        return quinielaRepository
+                .findByEstadoAndFechaCierreBetweenOrderByFechaCierreAsc(Quiniela.EstadoQuiniela.ACTIVA, now,
+                        limite24h, PageRequest.of(0, limite))
+                .stream()
                 .map(QuinielaResumenDto::new)
                 .collect(Collectors.toList());
     }
@@ -164,49 +194,53 @@ public class EstadisticasService implements IEstadisticasService {
     public Map<String, Object> obtenerEstadisticasPorTipo() {
         Map<String, Object> stats = new HashMap<>();
         
-        List<Quiniela> todasLasQuinielas = quinielaRepository.findAll();
-        
         // Agrupar por tipo
-        Map<Quiniela.TipoQuiniela, Long> porTipo = todasLasQuinielas.stream()
-                .collect(Collectors.groupingBy(Quiniela::getTipoQuiniela, Collectors.counting()));
-        
+        Map<Quiniela.TipoQuiniela, Long> porTipo = new HashMap<>();
+        for (Object[] fila : quinielaRepository.contarPorTipo()) {
+            porTipo.put((Quiniela.TipoQuiniela) fila[0], ((Number) fila[1]).longValue());
+        }
+
         stats.put("porTipo", porTipo);
-        
+
         // Agrupar por tipo de distribución
-        Map<Quiniela.TipoDistribucion, Long> porDistribucion = todasLasQuinielas.stream()
-                .collect(Collectors.groupingBy(Quiniela::getTipoDistribucion, Collectors.counting()));
-        
+        Map<Quiniela.TipoDistribucion, Long> porDistribucion = new HashMap<>();
+        for (Object[] fila : quinielaRepository.contarPorDistribucion()) {
+            porDistribucion.put((Quiniela.TipoDistribucion) fila[0], ((Number) fila[1]).longValue());
+        }
+
         stats.put("porDistribucion", porDistribucion);
+
+        // Participaciones y pool por tipo en los últimos 30 días (rollups diarios)
+        LocalDateTime hoy = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        stats.put("actividadPorTipo", rollupEstadisticas.obtenerTotales(RollupEstadistica.Granularidad.DIA,
+                RollupEstadistica.Dimension.QUINIELA, hoy.minusDays(30), hoy.plusDays(1)));
         
         return stats;
     }
 
+    /**
+     * Obtener la serie de rollups de una dimensión entre dos fechas
+     */
+    public List<RollupEstadistica> obtenerRollups(RollupEstadistica.Granularidad granularidad,
+            RollupEstadistica.Dimension dimension, LocalDateTime desde, LocalDateTime hasta) {
+        return rollupEstadisticas.obtenerSerie(granularidad, dimension, desde, hasta);
+    }
+
     /**
      * Obtener top usuarios por ganancias
      */
     public List<Map<String, Object>> obtenerTopGanadores(int limite) {
-        // Esta consulta sería mejor hacerla directamente en la base de datos
-        // Por simplicidad, aquí se hace en memoria
-        
-        List<QuinielaParticipacion> todasLasParticipaciones = participacionRepository.findAll();
-        
-        Map<Long, BigDecimal> gananciasPorUsuario = new HashMap<>();
-        
-        for (QuinielaParticipacion participacion : todasLasParticipaciones) {
-            if (participacion.getPremioGanado() != null) {
-                Long usuarioId = participacion.getUsuario().getIdUsuario();
-                gananciasPorUsuario.merge(usuarioId, participacion.getPremioGanado(), BigDecimal::add);
-            }
+        if (limite <= 0) {
+            // PageRequest no admite tamaño 0: no se pidió ninguna fila
+            return List.of();
         }
-        
-        return gananciasPorUsuario.entrySet().stream()
-                .sorted(Map.Entry.<Long, BigDecimal>comparingByValue().reversed())
-                .limit(limite)
-                .map(entry -> {
+        // Agregado y ordenado en la base de datos: solo viajan los primeros {limite} usuarios
+        return participacionRepository.findTopGanadores(PageRequest.of(0, limite)).stream()
+                .map(fila -> {
                     Map<String, Object> usuario = new HashMap<>();
-                    usuario.put("usuarioId", entry.getKey());
-                    usuario.put("totalGanado", entry.getValue());
-                    // Aquí podrías agregar más datos del usuario
+                    usuario.put("usuarioId", fila[0]);
+                    usuario.put("username", fila[1]);
+                    usuario.put("totalGanado", fila[2]);
                     return usuario;
                 })
                 .collect(Collectors.toList());
@@ -2,9 +2,11 @@ package com.example.cc.service.estadisticas;
 
 import com.example.cc.dto.QuinielaResumenDto;
 import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.entities.RollupEstadistica;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -67,4 +69,15 @@ public interface IEstadisticasService {
      * @return Lista con información de top ganadores
      */
     List<Map<String, Object>> obtenerTopGanadores(int limite);
+
+    /**
+     * Obtener la serie de rollups de una dimensión entre dos fechas
+     * @param granularidad Periodos horarios o diarios
+     * @param dimension Mercado, deporte o tipo de quiniela
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @return Rollups en orden cronológico
+     */
+    List<RollupEstadistica> obtenerRollups(RollupEstadistica.Granularidad granularidad,
+            RollupEstadistica.Dimension dimension, LocalDateTime desde, LocalDateTime hasta);
 }
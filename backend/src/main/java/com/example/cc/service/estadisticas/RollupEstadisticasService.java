@@ -0,0 +1,372 @@
+package com.example.cc.service.estadisticas;
+
+import com.example.cc.entities.Apuesta;
+import com.example.cc.entities.MarcaRollup;
+import com.example.cc.entities.RollupEstadistica;
+import com.example.cc.repository.MarcaRollupRepository;
+import com.example.cc.repository.RollupEstadisticaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rollups horarios y diarios de la actividad de apuestas y quinielas.
+ *
+ * Cada fuente (apuestas colocadas, apuestas liquidadas o canceladas y
+ * participaciones en quinielas) guarda una marca de agua sobre su columna de
+ * fecha. En cada pasada solo se agregan las filas entre la marca y el corte
+ * ({@code ahora - estadisticas.rollup.retraso}, para dar tiempo a que se
+ * confirmen las transacciones en curso): un INSERT ... SELECT ... GROUP BY
+ * suma esas filas a las horas correspondientes y después se recalculan, a
+ * partir de las horas, los días tocados. Horas, días y marca se escriben en
+ * la misma transacción, así que una pasada interrumpida no cuenta nada dos
+ * veces; la marca se relee con bloqueo dentro de esa transacción y, si otra
+ * instancia ya la movió, la ventana se omite.
+ *
+ * Las reliquidaciones cambian la ganancia de apuestas ya agregadas: la
+ * diferencia se suma a sus horas con {@link #registrarReliquidacion}; los
+ * cambios manuales de una apuesta ya liquidada, con {@link #registrarCorreccion}.
+ */
+@Service
+@Slf4j
+public class RollupEstadisticasService {
+
+    private static final String SQL_SUMAR_A_HORAS =
+            " ON CONFLICT (granularidad, periodo, dimension, valor) DO UPDATE SET " +
+            "cantidad = rollups_estadisticas.cantidad + EXCLUDED.cantidad, " +
+            "apostado = rollups_estadisticas.apostado + EXCLUDED.apostado, " +
+            "pagado = rollups_estadisticas.pagado + EXCLUDED.pagado, " +
+            "reembolsado = rollups_estadisticas.reembolsado + EXCLUDED.reembolsado";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO rollups_estadisticas " +
+            "(granularidad, periodo, dimension, valor, cantidad, apostado, pagado, reembolsado) ";
+
+    /** Cada apuesta cuenta una vez por mercado y una vez por deporte */
+    private static final String SQL_JOIN_DIMENSIONES =
+            "JOIN eventos_deportivos e ON e.id = a.evento_deportivo_id " +
+            "LEFT JOIN deportes d ON d.id = e.deporte_id " +
+            "CROSS JOIN LATERAL (VALUES ('MERCADO', a.tipo_apuesta), " +
+            "('DEPORTE', COALESCE(d.nombre, 'SIN_DEPORTE'))) dim(dimension, valor) ";
+
+    private static final String SQL_DIMENSIONES_APUESTA = "FROM apuestas a " + SQL_JOIN_DIMENSIONES;
+
+    private static final String SQL_APUESTAS_COLOCADAS = SQL_INSERTAR +
+            "SELECT 'HORA', date_trunc('hour', a.fecha_creacion), dim.dimension, dim.valor, " +
+            "COUNT(*), SUM(a.monto_apostado), 0, 0 " + SQL_DIMENSIONES_APUESTA +
+            "WHERE a.fecha_creacion >= ? AND a.fecha_creacion < ? " +
+            "GROUP BY 2, 3, 4" + SQL_SUMAR_A_HORAS;
+
+    private static final String SQL_APUESTAS_LIQUIDADAS = SQL_INSERTAR +
+            "SELECT 'HORA', date_trunc('hour', a.fecha_resolucion), dim.dimension, dim.valor, 0, 0, " +
+            "SUM(CASE WHEN a.estado = 'RESUELTA' AND a.es_ganadora THEN COALESCE(a.monto_ganancia, 0) ELSE 0 END), " +
+            "SUM(CASE WHEN a.estado = 'CANCELADA' THEN a.monto_apostado ELSE 0 END) " + SQL_DIMENSIONES_APUESTA +
+            "WHERE a.fecha_resolucion >= ? AND a.fecha_resolucion < ? AND a.estado IN ('RESUELTA', 'CANCELADA') " +
+            "GROUP BY 2, 3, 4" + SQL_SUMAR_A_HORAS;
+
+    private static final String SQL_PARTICIPACIONES = SQL_INSERTAR +
+            "SELECT 'HORA', date_trunc('hour', p.fecha_participacion), 'QUINIELA', q.tipo_quiniela, " +
+            "COUNT(*), SUM(p.monto_apostado), 0, 0 " +
+            "FROM quiniela_participaciones p JOIN quinielas q ON q.id = p.quiniela_id " +
+            "WHERE p.fecha_participacion >= ? AND p.fecha_participacion < ? " +
+            "GROUP BY 2, 4" + SQL_SUMAR_A_HORAS;
+
+    /** Diferencias de ganancia y reembolso de apuestas que ya estaban agregadas (resueltas antes de la marca) */
+    private static final String SQL_AJUSTES_LIQUIDADAS = SQL_INSERTAR +
+            "SELECT 'HORA', date_trunc('hour', a.fecha_resolucion), dim.dimension, dim.valor, 0, 0, " +
+            "SUM(v.pagado), SUM(v.reembolsado) " +
+            "FROM unnest(?::bigint[], ?::numeric[], ?::numeric[]) AS v(id, pagado, reembolsado) " +
+            "JOIN apuestas a ON a.id = v.id " +
+            SQL_JOIN_DIMENSIONES +
+            "WHERE a.fecha_resolucion < ? " +
+            "GROUP BY 2, 3, 4" + SQL_SUMAR_A_HORAS + " RETURNING periodo";
+
+    private static final String SQL_BLOQUEAR_MARCA =
+            "SELECT hasta FROM marcas_rollup WHERE fuente = ? FOR UPDATE";
+
+    private static final String SQL_CREAR_MARCA =
+            "INSERT INTO marcas_rollup (fuente, hasta) VALUES (?, ?) ON CONFLICT (fuente) DO NOTHING";
+
+    private static final String FUENTE_LIQUIDACIONES = "apuestas.resolucion";
+
+    /** Los días se recalculan completos desde sus horas, así que reemplazan en lugar de sumar */
+    private static final String SQL_RECALCULAR_DIAS = SQL_INSERTAR +
+            "SELECT 'DIA', date_trunc('day', r.periodo), r.dimension, r.valor, " +
+            "SUM(r.cantidad), SUM(r.apostado), SUM(r.pagado), SUM(r.reembolsado) " +
+            "FROM rollups_estadisticas r WHERE r.granularidad = 'HORA' " +
+            "AND r.periodo >= date_trunc('day', CAST(? AS timestamp)) " +
+            "AND r.periodo < date_trunc('day', CAST(? AS timestamp)) + INTERVAL '1 day' " +
+            "GROUP BY 2, 3, 4 " +
+            "ON CONFLICT (granularidad, periodo, dimension, valor) DO UPDATE SET " +
+            "cantidad = EXCLUDED.cantidad, apostado = EXCLUDED.apostado, " +
+            "pagado = EXCLUDED.pagado, reembolsado = EXCLUDED.reembolsado";
+
+    /**
+     * Fuente de los rollups: consulta que suma sus filas a las horas y
+     * consulta de la fecha más antigua, para la primera pasada
+     */
+    private record Fuente(String nombre, String sqlSumarHoras, String sqlFechaMinima) {
+    }
+
+    private static final List<Fuente> FUENTES = List.of(
+            new Fuente("apuestas.creacion", SQL_APUESTAS_COLOCADAS,
+                    "SELECT MIN(fecha_creacion) FROM apuestas"),
+            new Fuente(FUENTE_LIQUIDACIONES, SQL_APUESTAS_LIQUIDADAS,
+                    "SELECT MIN(fecha_resolucion) FROM apuestas WHERE estado IN ('RESUELTA', 'CANCELADA')"),
+            new Fuente("quinielas.participacion", SQL_PARTICIPACIONES,
+                    "SELECT MIN(fecha_participacion) FROM quiniela_participaciones"));
+
+    /**
+     * Lo que una apuesta suma a los rollups de liquidaciones, con las mismas
+     * reglas que la pasada: ganancia si es ganadora, monto si se canceló
+     */
+    public record AporteLiquidacion(BigDecimal pagado, BigDecimal reembolsado) {
+
+        public static AporteLiquidacion de(Apuesta apuesta) {
+            BigDecimal pagado = apuesta.getEstado() == Apuesta.EstadoApuesta.RESUELTA
+                    && Boolean.TRUE.equals(apuesta.getEsGanadora()) && apuesta.getMontoGanancia() != null
+                    ? apuesta.getMontoGanancia() : BigDecimal.ZERO;
+            BigDecimal reembolsado = apuesta.getEstado() == Apuesta.EstadoApuesta.CANCELADA
+                    && apuesta.getMontoApostado() != null ? apuesta.getMontoApostado() : BigDecimal.ZERO;
+            return new AporteLiquidacion(pagado, reembolsado);
+        }
+    }
+
+    private final RollupEstadisticaRepository rollupRepository;
+    private final MarcaRollupRepository marcaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+
+    /** Mayor que el timeout de las transacciones (5 min) para que ninguna confirme detrás de la marca */
+    @Value("${estadisticas.rollup.retraso:PT10M}")
+    private Duration retraso = Duration.ofMinutes(10);
+
+    @Value("${estadisticas.rollup.ventana:P1D}")
+    private Duration ventana = Duration.ofDays(1);
+
+    public RollupEstadisticasService(RollupEstadisticaRepository rollupRepository,
+            MarcaRollupRepository marcaRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.marcaRepository = marcaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Agregar las filas nuevas de todas las fuentes hasta el corte
+     * @return Número de filas horarias escritas
+     */
+    public int actualizar() {
+        // Sin nanosegundos, para que la marca guardada y la releída coincidan
+        LocalDateTime corte = LocalDateTime.now().minus(retraso).truncatedTo(ChronoUnit.MICROS);
+        int filas = 0;
+        for (Fuente fuente : FUENTES) {
+            filas += actualizarFuente(fuente, corte);
+        }
+        return filas;
+    }
+
+    /**
+     * Avanzar la marca de una fuente hasta el corte, en ventanas de como
+     * máximo {@code estadisticas.rollup.ventana}, una transacción por ventana
+     */
+    private int actualizarFuente(Fuente fuente, LocalDateTime corte) {
+        LocalDateTime desde = marcaRepository.findById(fuente.nombre())
+                .map(MarcaRollup::getHasta)
+                .orElseGet(() -> iniciarMarca(fuente, corte));
+
+        int filas = 0;
+        while (desde.isBefore(corte)) {
+            LocalDateTime inicio = desde;
+            LocalDateTime fin = desde.plus(ventana).isBefore(corte) ? desde.plus(ventana) : corte;
+            Integer escritas = transaccion.execute(status -> {
+                List<Timestamp> marca = jdbcTemplate.queryForList(SQL_BLOQUEAR_MARCA, Timestamp.class,
+                        fuente.nombre());
+                if (marca.isEmpty() || !marca.get(0).toLocalDateTime().equals(inicio)) {
+                    return null;
+                }
+                int horas = jdbcTemplate.update(fuente.sqlSumarHoras(),
+                        Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+                jdbcTemplate.update(SQL_RECALCULAR_DIAS, Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+                marcaRepository.save(new MarcaRollup(fuente.nombre(), fin));
+                return horas;
+            });
+            if (escritas == null) {
+                log.info("📊 La marca de {} ya no está en {}: otra instancia avanzó la ventana",
+                        fuente.nombre(), inicio);
+                break;
+            }
+            filas += escritas;
+            desde = fin;
+        }
+        if (filas > 0) {
+            log.info("📊 Rollups de {}: {} filas horarias actualizadas hasta {}", fuente.nombre(), filas, corte);
+        }
+        return filas;
+    }
+
+    /**
+     * Crear la marca de una fuente en la hora de su fila más antigua; si otra
+     * instancia la creó a la vez, prevalece la suya
+     */
+    private LocalDateTime iniciarMarca(Fuente fuente, LocalDateTime corte) {
+        LocalDateTime primera = primeraHora(fuente, corte);
+        if (!primera.isBefore(corte)) {
+            return primera;
+        }
+        transaccion.executeWithoutResult(status ->
+                jdbcTemplate.update(SQL_CREAR_MARCA, fuente.nombre(), Timestamp.valueOf(primera)));
+        return marcaRepository.findById(fuente.nombre()).map(MarcaRollup::getHasta).orElse(primera);
+    }
+
+    /**
+     * Sumar a las horas ya agregadas la diferencia de ganancia de apuestas
+     * reliquidadas ({@code apuesta id -> diferencia}). Se llama en la
+     * transacción que las reliquida: bloquea la marca de las liquidaciones y
+     * solo ajusta las apuestas resueltas antes de ella, porque las demás las
+     * agrega la pasada normal ya con la ganancia nueva.
+     */
+    public void registrarReliquidacion(Map<Long, BigDecimal> diferencias) {
+        if (diferencias.isEmpty()) {
+            return;
+        }
+        Long[] ids = diferencias.keySet().toArray(new Long[0]);
+        BigDecimal[] pagado = new BigDecimal[ids.length];
+        BigDecimal[] reembolsado = new BigDecimal[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            pagado[i] = diferencias.get(ids[i]);
+            reembolsado[i] = BigDecimal.ZERO;
+        }
+        if (ajustarHoras(ids, pagado, reembolsado)) {
+            log.info("📊 Rollups ajustados por {} apuestas reliquidadas", diferencias.size());
+        }
+    }
+
+    /**
+     * Corregir en las horas ya agregadas una apuesta liquidada o cancelada
+     * que cambia de estado o de resultado sin volver a entrar en la ventana
+     * (su fecha de resolución no cambia). Mismas reglas que
+     * {@link #registrarReliquidacion}.
+     */
+    public void registrarCorreccion(Long apuestaId, AporteLiquidacion anterior, AporteLiquidacion actual) {
+        BigDecimal pagado = actual.pagado().subtract(anterior.pagado());
+        BigDecimal reembolsado = actual.reembolsado().subtract(anterior.reembolsado());
+        if (pagado.signum() == 0 && reembolsado.signum() == 0) {
+            return;
+        }
+        if (ajustarHoras(new Long[]{apuestaId}, new BigDecimal[]{pagado}, new BigDecimal[]{reembolsado})) {
+            log.info("📊 Rollups corregidos por cambio de la apuesta {}", apuestaId);
+        }
+    }
+
+    /**
+     * @return true si alguna de las apuestas ya estaba agregada y se ajustó
+     */
+    private boolean ajustarHoras(Long[] ids, BigDecimal[] pagado, BigDecimal[] reembolsado) {
+        List<Timestamp> marca = jdbcTemplate.queryForList(SQL_BLOQUEAR_MARCA, Timestamp.class,
+                FUENTE_LIQUIDACIONES);
+        if (marca.isEmpty()) {
+            return false;
+        }
+
+        List<Timestamp> horas = jdbcTemplate.execute(SQL_AJUSTES_LIQUIDADAS, (PreparedStatement ps) -> {
+            Array arregloIds = ps.getConnection().createArrayOf("bigint", ids);
+            Array arregloPagado = ps.getConnection().createArrayOf("numeric", pagado);
+            Array arregloReembolsado = ps.getConnection().createArrayOf("numeric", reembolsado);
+            try {
+                ps.setArray(1, arregloIds);
+                ps.setArray(2, arregloPagado);
+                ps.setArray(3, arregloReembolsado);
+                ps.setTimestamp(4, marca.get(0));
+                List<Timestamp> periodos = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        periodos.add(rs.getTimestamp(1));
+                    }
+                }
+                return periodos;
+            } finally {
+                arregloIds.free();
+                arregloPagado.free();
+                arregloReembolsado.free();
+            }
+        });
+        if (horas == null || horas.isEmpty()) {
+            return false;
+        }
+        jdbcTemplate.update(SQL_RECALCULAR_DIAS, Collections.min(horas), Collections.max(horas));
+        return true;
+    }
+
+    /**
+     * Hora de la fila más antigua de la fuente, o el corte si no tiene filas
+     */
+    private LocalDateTime primeraHora(Fuente fuente, LocalDateTime corte) {
+        Timestamp minima = jdbcTemplate.queryForObject(fuente.sqlFechaMinima(), Timestamp.class);
+        return minima != null ? minima.toLocalDateTime().truncatedTo(ChronoUnit.HOURS) : corte;
+    }
+
+    /**
+     * Serie de una dimensión entre dos fechas
+     */
+    @Transactional(readOnly = true)
+    public List<RollupEstadistica> obtenerSerie(RollupEstadistica.Granularidad granularidad,
+            RollupEstadistica.Dimension dimension, LocalDateTime desde, LocalDateTime hasta) {
+        return rollupRepository.findSerie(granularidad, dimension, desde, hasta);
+    }
+
+    /**
+     * Totales por valor de una dimensión entre dos fechas, de mayor a menor monto apostado
+     */
+    @Transactional(readOnly = true)
+    public Map<String, RollupEstadistica> obtenerTotales(RollupEstadistica.Granularidad granularidad,
+            RollupEstadistica.Dimension dimension, LocalDateTime desde, LocalDateTime hasta) {
+        Map<String, RollupEstadistica> totales = new LinkedHashMap<>();
+        rollupRepository.totalesPorValor(granularidad, dimension, desde, hasta).stream()
+                .map(fila -> new RollupEstadistica(granularidad, desde, dimension, (String) fila[0],
+                        ((Number) fila[1]).longValue(), (BigDecimal) fila[2], (BigDecimal) fila[3],
+                        (BigDecimal) fila[4]))
+                .sorted((a, b) -> b.getApostado().compareTo(a.getApostado()))
+                .forEach(total -> totales.put(total.getValor(), total));
+        return totales;
+    }
+
+    /**
+     * Total de una dimensión entre dos fechas (suma de todos sus valores)
+     */
+    @Transactional(readOnly = true)
+    public RollupEstadistica obtenerTotal(RollupEstadistica.Granularidad granularidad,
+            RollupEstadistica.Dimension dimension, LocalDateTime desde, LocalDateTime hasta) {
+        RollupEstadistica total = new RollupEstadistica(granularidad, desde, dimension, "TOTAL",
+                0L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        for (RollupEstadistica valor : obtenerTotales(granularidad, dimension, desde, hasta).values()) {
+            total.setCantidad(total.getCantidad() + valor.getCantidad());
+            total.setApostado(total.getApostado().add(valor.getApostado()));
+            total.setPagado(total.getPagado().add(valor.getPagado()));
+            total.setReembolsado(total.getReembolsado().add(valor.getReembolsado()));
+        }
+        return total;
+    }
+}
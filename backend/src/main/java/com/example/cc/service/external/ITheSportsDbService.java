@@ -8,6 +8,8 @@ import com.example.cc.service.external.TheSportsDbService.ResumenCuotasOperacion
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Interfaz para el servicio de integración con TheSportsDB
@@ -15,10 +17,11 @@ import java.util.Map;
 public interface ITheSportsDbService {
 
     /**
-     * Obtener eventos próximos desde TheSportsDB
-     * @return Lista de eventos próximos
+     * Recorrer en streaming los eventos de los próximos días sin cargarlos en memoria
+     * @param consumidor Recibe cada evento en cuanto se lee
+     * @return Número de eventos leídos
      */
-    List<TheSportsDbEventResponse.EventData> getUpcomingEvents();
+    int procesarEventosProximos(Consumer<TheSportsDbEventResponse.EventData> consumidor);
 
     /**
      * Obtener eventos por liga
@@ -41,10 +44,19 @@ public interface ITheSportsDbService {
     List<TheSportsDbSportResponse.SportData> obtenerTodosLosDeportes();
 
     /**
-     * Obtener todas las ligas disponibles desde TheSportsDB
-     * @return Lista de ligas disponibles
+     * Recorrer en streaming todas las ligas de TheSportsDB sin cargar la respuesta completa
+     * @param consumidor Recibe cada liga en cuanto se lee
+     * @return Número de ligas procesadas
      */
-    List<TheSportsDbLeagueResponse.LeagueData> obtenerTodasLasLigas();
+    int procesarTodasLasLigas(Consumer<TheSportsDbLeagueResponse.LeagueData> consumidor);
+
+    /**
+     * Recorrer en streaming los eventos de una fecha sin cargar la respuesta completa
+     * @param date Fecha en formato yyyy-MM-dd
+     * @param consumidor Recibe cada evento en cuanto se lee
+     * @return Número de eventos procesados
+     */
+    int procesarEventosPorFecha(String date, Consumer<TheSportsDbEventResponse.EventData> consumidor);
 
     // ===== MÉTODOS ESPECÍFICOS PARA V2 API =====
 
@@ -61,6 +73,14 @@ public interface ITheSportsDbService {
      */
     List<TheSportsDbEventResponse.EventData> obtenerEventosProximaSemanaV2();
 
+    /**
+     * Sincronizar de forma incremental los eventos de los próximos días: los días
+     * sin cambios se omiten y solo se reaplican los eventos modificados
+     * @param dias Número de días a partir de hoy
+     * @return Eventos creados o modificados
+     */
+    List<TheSportsDbEventResponse.EventData> sincronizarEventosIncremental(int dias);
+
     /**
      * Obtener eventos en vivo usando v2 API
      * @return Lista de eventos que están siendo jugados ahora
@@ -75,6 +95,20 @@ public interface ITheSportsDbService {
      */
     List<com.example.cc.entities.EventoDeportivo> obtenerYGuardarLivescoresActuales();
 
+    /**
+     * Aplicar el feed de livescores a los eventos de hoy y ayer, escribiendo
+     * solo los eventos que cambiaron
+     * @return Resultado con eventos presentes en el feed y eventos modificados
+     */
+    LiveScoreIngestionService.ResultadoIngesta ingerirLivescoresActuales();
+
+    /**
+     * Aplicar el feed de livescores solo a los eventos indicados
+     * @param eventoIds IDs internos de los eventos a revisar
+     * @return Resultado de la ingesta
+     */
+    LiveScoreIngestionService.ResultadoIngesta ingerirLivescoresEventos(List<Long> eventoIds);
+
     /**
      * Obtener livescores específicos para eventos en vivo y actualizarlos en BD
      * @return Lista de eventos deportivos en vivo con livescores actualizados
@@ -124,6 +158,14 @@ public interface ITheSportsDbService {
      */
     ResumenCuotasOperacion verificarCuotasEventosPorEstados(List<String> estados);
 
+    /**
+     * Verificar y crear cuotas solo para los eventos de los estados indicados que acepte el filtro
+     * @param estados Lista de estados a verificar
+     * @param filtroEventos Filtro por ID de evento (p. ej. la partición del job en esta instancia)
+     * @return ResumenCuotasOperacion con estadísticas de la operación
+     */
+    ResumenCuotasOperacion verificarCuotasEventosPorEstados(List<String> estados, Predicate<Long> filtroEventos);
+
     /**
      * Verificar cuotas para eventos de hoy y los próximos días
      * @param diasAdelante Número de días a verificar desde hoy
@@ -0,0 +1,53 @@
+package com.example.cc.service.external;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Objects;
+
+/**
+ * Evento publicado cuando el livescore de un evento deportivo cambia realmente
+ * (marcador, estado, fecha o resultado).
+ *
+ * Se publica dentro de la transacción de ingesta; los consumidores que
+ * dependan de los datos persistidos deben escucharlo con
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ */
+@Getter
+public class LiveScoreCambioEvent extends ApplicationEvent {
+
+    private final Long eventoId;
+    private final String eventoIdExterno;
+    private final LiveScoreIngestionService.HuellaLivescore anterior;
+    private final LiveScoreIngestionService.HuellaLivescore actual;
+
+    public LiveScoreCambioEvent(Object source, Long eventoId, String eventoIdExterno,
+            LiveScoreIngestionService.HuellaLivescore anterior,
+            LiveScoreIngestionService.HuellaLivescore actual) {
+        super(source);
+        this.eventoId = eventoId;
+        this.eventoIdExterno = eventoIdExterno;
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+
+    /**
+     * Indica si el evento pasó a finalizado en este cambio
+     */
+    public boolean esFinalizacion() {
+        return "finalizado".equals(actual.estado())
+                && (anterior == null || !"finalizado".equals(anterior.estado()));
+    }
+
+    /**
+     * Indica si el marcador o resultado de un evento ya finalizado fue corregido
+     */
+    public boolean esCorreccionPostFinal() {
+        return anterior != null
+                && "finalizado".equals(anterior.estado())
+                && "finalizado".equals(actual.estado())
+                && (!Objects.equals(anterior.resultado(), actual.resultado())
+                        || !Objects.equals(anterior.marcadorLocal(), actual.marcadorLocal())
+                        || !Objects.equals(anterior.marcadorVisitante(), actual.marcadorVisitante()));
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.cc.service.external;
+
+import com.example.cc.dto.external.LiveScoreResponse;
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.repository.EventoDeportivoRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingesta de livescores por diferencias.
+ *
+ * Indexa el feed por idEvent, omite los eventos cuya entrada del feed no cambió
+ * desde la pasada anterior y, para el resto, compara la huella (marcador,
+ * estado, fecha, resultado) calculada contra la persistida. Solo se guardan,
+ * en un único saveAll, y se notifican los eventos que cambiaron realmente.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveScoreIngestionService {
+
+    private final EventoDeportivoRepository eventoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Tiempo tras el inicio antes de dar por cerrado un evento ausente del
+     * feed; el feed suele tardar en reflejar los eventos recién iniciados
+     */
+    @Value("${livescore.cierre.gracia:PT4H}")
+    private Duration graciaCierre = Duration.ofHours(4);
+
+    /**
+     * Firma del feed y huella resultante de la última pasada, por ID externo del evento
+     */
+    private final Map<String, EntradaCache> huellas = new ConcurrentHashMap<>();
+
+    /**
+     * Aplicar el feed de livescores a los eventos de hoy y ayer
+     * @param liveScores Feed completo obtenido de TheSportsDB
+     * @return Resultado con los eventos presentes en el feed y los que cambiaron
+     */
+    @Transactional
+    public ResultadoIngesta ingerir(List<LiveScoreResponse.LiveScore> liveScores) {
+        LocalDate hoy = LocalDate.now();
+        List<EventoDeportivo> eventos = eventoRepository.findByFechaEventoBetween(
+                hoy.minusDays(1).atStartOfDay(), hoy.atTime(23, 59, 59));
+        return ingerir(liveScores, eventos, LocalDateTime.now());
+    }
+
+    /**
+     * Aplicar el feed a una lista de eventos ya cargada
+     */
+    @Transactional
+    public ResultadoIngesta ingerir(List<LiveScoreResponse.LiveScore> liveScores,
+            List<EventoDeportivo> eventos, LocalDateTime ahora) {
+        Map<String, LiveScoreResponse.LiveScore> feedPorId = indexarFeed(liveScores);
+        ResultadoIngesta resultado = new ResultadoIngesta();
+        List<CambioPendiente> cambios = new ArrayList<>();
+
+        for (EventoDeportivo evento : eventos) {
+            String idExterno = evento.getEventoIdExterno();
+            if (idExterno == null) {
+                continue;
+            }
+
+            resultado.getEventosRevisados().add(evento);
+
+            try {
+                LiveScoreResponse.LiveScore score = feedPorId.get(idExterno);
+                if (score != null) {
+                    resultado.getEventosEnFeed().add(evento);
+                }
+
+                HuellaLivescore anterior = HuellaLivescore.de(evento);
+                String firmaFeed = firmaFeed(score);
+                EntradaCache cacheada = huellas.get(idExterno);
+
+                // Mismo feed que la última pasada y el evento no fue modificado por otra vía
+                if (cacheada != null && Objects.equals(cacheada.firmaFeed(), firmaFeed)
+                        && cacheada.huella().equals(anterior)
+                        && (score != null || !debeCerrarse(evento, ahora))) {
+                    continue;
+                }
+
+                HuellaLivescore nueva = calcularHuella(evento, score, ahora);
+                huellas.put(idExterno, new EntradaCache(firmaFeed, nueva));
+
+                if (!nueva.equals(anterior)) {
+                    nueva.aplicarA(evento);
+                    cambios.add(new CambioPendiente(evento, anterior, nueva));
+                }
+            } catch (Exception e) {
+                log.error("Error al procesar livescore para evento {}: {}", idExterno, e.getMessage());
+                huellas.remove(idExterno);
+                resultado.incrementarErrores();
+            }
+        }
+
+        if (!cambios.isEmpty()) {
+            List<EventoDeportivo> aGuardar = new ArrayList<>(cambios.size());
+            for (CambioPendiente cambio : cambios) {
+                aGuardar.add(cambio.evento());
+            }
+            eventoRepository.saveAll(aGuardar);
+
+            for (CambioPendiente cambio : cambios) {
+                EventoDeportivo evento = cambio.evento();
+                resultado.getEventosCambiados().add(evento);
+                eventPublisher.publishEvent(new LiveScoreCambioEvent(this, evento.getId(),
+                        evento.getEventoIdExterno(), cambio.anterior(), cambio.nueva()));
+            }
+        }
+
+        // Olvidar eventos que ya salieron de la ventana de livescores
+        LocalDateTime limiteCache = ahora.minusDays(2);
+        huellas.values().removeIf(entrada -> entrada.huella().fechaEvento() != null
+                && entrada.huella().fechaEvento().isBefore(limiteCache));
+
+        log.info("🔴 Livescores: {} eventos revisados, {} en feed, {} con cambios, {} errores",
+                resultado.getEventosRevisados().size(), resultado.getEventosEnFeed().size(),
+                resultado.getEventosCambiados().size(), resultado.getErrores());
+        return resultado;
+    }
+
+    /**
+     * Huellas actualmente en caché (para inspección)
+     */
+    public int getTamanoCache() {
+        return huellas.size();
+    }
+
+    /**
+     * Olvidar la huella de un evento para forzar su reescritura en la siguiente ingesta
+     */
+    public void invalidar(String eventoIdExterno) {
+        huellas.remove(eventoIdExterno);
+    }
+
+    private Map<String, LiveScoreResponse.LiveScore> indexarFeed(List<LiveScoreResponse.LiveScore> liveScores) {
+        Map<String, LiveScoreResponse.LiveScore> indice = new HashMap<>(Math.max(16, liveScores.size() * 2));
+        for (LiveScoreResponse.LiveScore score : liveScores) {
+            if (score.getIdEvent() != null) {
+                indice.put(score.getIdEvent(), score);
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Firma de los campos del feed que afectan al evento (null si no está en el feed)
+     */
+    private String firmaFeed(LiveScoreResponse.LiveScore score) {
+        if (score == null) {
+            return null;
+        }
+        return score.getIntHomeScore() + "|" + score.getIntAwayScore() + "|" + score.getStrStatus()
+                + "|" + score.getStrDate() + "|" + score.getStrEventTime();
+    }
+
+    /**
+     * Eventos que no están finalizados ni cancelados se cierran una vez pasada
+     * la gracia desde su inicio
+     */
+    private boolean debeCerrarse(EventoDeportivo evento, LocalDateTime ahora) {
+        return evento.getFechaEvento() != null && evento.getFechaEvento().plus(graciaCierre).isBefore(ahora)
+                && !"finalizado".equals(evento.getEstado()) && !"cancelado".equals(evento.getEstado());
+    }
+
+    /**
+     * Calcular el estado que debe tener el evento tras aplicar reglas y feed
+     */
+    private HuellaLivescore calcularHuella(EventoDeportivo evento, LiveScoreResponse.LiveScore score,
+            LocalDateTime ahora) {
+        Integer marcadorLocal = evento.getMarcadorLocal();
+        Integer marcadorVisitante = evento.getMarcadorVisitante();
+        String estado = evento.getEstado();
+        LocalDateTime fechaEvento = evento.getFechaEvento();
+        String resultado = evento.getResultado();
+
+        if (debeCerrarse(evento, ahora)) {
+            estado = "finalizado";
+        }
+
+        if (score != null) {
+            marcadorLocal = score.getIntHomeScore();
+            marcadorVisitante = score.getIntAwayScore();
+            estado = determinarEstadoPorStatus(score.getStrStatus());
+
+            // Actualizar fecha si el evento fue reprogramado
+            if (score.getStrDate() != null && !score.getStrDate().isEmpty()) {
+                try {
+                    LocalDateTime nuevaFecha = parsearFechaLivescore(score.getStrDate(), score.getStrEventTime());
+                    if (fechaEvento == null || !nuevaFecha.toLocalDate().equals(fechaEvento.toLocalDate())) {
+                        fechaEvento = nuevaFecha;
+                    }
+                } catch (Exception e) {
+                    log.debug("No se pudo parsear nueva fecha para evento {}: {}",
+                            evento.getEventoIdExterno(), e.getMessage());
+                }
+            }
+
+            if (score.getStrStatus() != null) {
+                String nuevoResultado = determinarResultadoPorMarcadores(
+                        score.getIntHomeScore(), score.getIntAwayScore(), score.getStrStatus());
+                if (nuevoResultado != null) {
+                    resultado = nuevoResultado;
+                }
+            }
+        }
+
+        return new HuellaLivescore(marcadorLocal, marcadorVisitante, estado, fechaEvento, resultado);
+    }
+
+    /**
+     * Parsear fecha desde LiveScore (formato puede ser diferente)
+     */
+    private LocalDateTime parsearFechaLivescore(String fechaStr, String horaStr) throws DateTimeParseException {
+        if (fechaStr == null || fechaStr.isEmpty()) {
+            throw new DateTimeParseException("Fecha de livescore vacía", fechaStr, 0);
+        }
+
+        LocalDate fecha;
+        if (fechaStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
+            fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        } else if (fechaStr.matches("\\d{2}/\\d{2}/\\d{4}")) {
+            fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        } else if (fechaStr.matches("\\d{2}-\\d{2}-\\d{4}")) {
+            fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+        } else {
+            fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        }
+
+        if (horaStr != null && !horaStr.isEmpty()) {
+            try {
+                if (horaStr.matches("\\d{2}:\\d{2}:\\d{2}")) {
+                    return LocalDateTime.of(fecha, LocalTime.parse(horaStr, DateTimeFormatter.ofPattern("HH:mm:ss")));
+                }
+                if (horaStr.matches("\\d{2}:\\d{2}")) {
+                    return LocalDateTime.of(fecha, LocalTime.parse(horaStr, DateTimeFormatter.ofPattern("HH:mm")));
+                }
+            } catch (DateTimeParseException e) {
+                log.debug("No se pudo parsear la hora del livescore {}, usando medianoche", horaStr);
+            }
+        }
+
+        return LocalDateTime.of(fecha, LocalTime.MIDNIGHT);
+    }
+
+    /**
+     * Determinar estado basado en el status del livescore
+     */
+    String determinarEstadoPorStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return "programado";
+        }
+
+        String statusLower = status.toLowerCase().trim();
+
+        // Estados en vivo (más variaciones)
+        if (statusLower.contains("live") || statusLower.contains("1h") || statusLower.contains("2h") ||
+                statusLower.contains("q1") || statusLower.contains("q2") || statusLower.contains("q3")
+                || statusLower.contains("q4") ||
+                statusLower.contains("in progress") || statusLower.contains("halftime") || statusLower.contains("ht") ||
+                statusLower.contains("half time") || statusLower.contains("break") || statusLower.contains("interval")
+                ||
+                statusLower.contains("overtime") || statusLower.contains("extra time") || statusLower.contains("et") ||
+                statusLower.contains("penalty") || statusLower.contains("penalties")) {
+            return "en_vivo";
+        }
+
+        // Estados finalizados
+        if (statusLower.contains("full time") || statusLower.contains("ft") || statusLower.contains("final") ||
+                statusLower.contains("finished") || statusLower.contains("completed") || statusLower.contains("ended")
+                ||
+                statusLower.contains("result") || statusLower.contains("aet")
+                || statusLower.contains("after extra time")) {
+            return "finalizado";
+        }
+
+        // Estados cancelados/pospuestos
+        if (statusLower.contains("cancelled") || statusLower.contains("canceled") || statusLower.contains("postponed")
+                ||
+                statusLower.contains("suspended") || statusLower.contains("abandoned") || statusLower.contains("void")
+                ||
+                statusLower.contains("delayed") || statusLower.contains("rescheduled")) {
+            return "cancelado";
+        }
+
+        // Por defecto, programado
+        return "programado";
+    }
+
+    /**
+     * Determinar resultado basado en marcadores y estado
+     */
+    private String determinarResultadoPorMarcadores(Integer marcadorLocal, Integer marcadorVisitante, String estado) {
+        // Solo determinar resultado si el evento ha finalizado
+        if (estado == null || !estado.toLowerCase().contains("final") && !estado.toLowerCase().contains("ft") &&
+                !estado.toLowerCase().contains("finished") && !estado.toLowerCase().contains("completed")) {
+            return null;
+        }
+
+        if (marcadorLocal == null || marcadorVisitante == null) {
+            return null;
+        }
+
+        if (marcadorLocal > marcadorVisitante) {
+            return "LOCAL";
+        } else if (marcadorVisitante > marcadorLocal) {
+            return "VISITANTE";
+        } else {
+            return "EMPATE";
+        }
+    }
+
+    /**
+     * Huella de los campos de un evento que cambian con el livescore
+     */
+    public record HuellaLivescore(Integer marcadorLocal, Integer marcadorVisitante, String estado,
+            LocalDateTime fechaEvento, String resultado) {
+
+        static HuellaLivescore de(EventoDeportivo evento) {
+            return new HuellaLivescore(evento.getMarcadorLocal(), evento.getMarcadorVisitante(),
+                    evento.getEstado(), evento.getFechaEvento(), evento.getResultado());
+        }
+
+        void aplicarA(EventoDeportivo evento) {
+            evento.setMarcadorLocal(marcadorLocal);
+            evento.setMarcadorVisitante(marcadorVisitante);
+            evento.setEstado(estado);
+            evento.setFechaEvento(fechaEvento);
+            evento.setResultado(resultado);
+        }
+    }
+
+    private record EntradaCache(String firmaFeed, HuellaLivescore huella) {
+    }
+
+    private record CambioPendiente(EventoDeportivo evento, HuellaLivescore anterior, HuellaLivescore nueva) {
+    }
+
+    /**
+     * Resultado de una pasada de ingesta
+     */
+    @Getter
+    public static class ResultadoIngesta {
+        private final List<EventoDeportivo> eventosRevisados = new ArrayList<>();
+        private final List<EventoDeportivo> eventosEnFeed = new ArrayList<>();
+        private final List<EventoDeportivo> eventosCambiados = new ArrayList<>();
+        private int errores = 0;
+
+        public void incrementarErrores() { this.errores++; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.cc.service.external;
+
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.repository.EventoDeportivoRepository;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Escritura de marcador, estado y resultado de eventos existentes fuera de la
+ * ingesta de livescores (administración, sincronización con TheSportsDB y
+ * resolución de quinielas).
+ *
+ * Publica el mismo {@link LiveScoreCambioEvent} que la ingesta cuando la
+ * huella del evento cambia, de modo que la reliquidación, el ranking en vivo
+ * y las estadísticas ven toda corrección sin importar quién la escribió. La
+ * huella anterior debe tomarse con {@link #huella} antes de modificar el
+ * evento: una vez guardado, la base ya no conserva el valor previo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResultadoEventoService {
+
+    private final EventoDeportivoRepository eventoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Huella actual del evento, a tomar antes de modificarlo
+     */
+    public HuellaLivescore huella(EventoDeportivo evento) {
+        return HuellaLivescore.de(evento);
+    }
+
+    /**
+     * Guardar el evento y publicar el cambio si su huella difiere de
+     * {@code anterior}; con {@code anterior} nulo (evento nuevo) no se publica
+     */
+    public EventoDeportivo guardar(EventoDeportivo evento, HuellaLivescore anterior) {
+        EventoDeportivo guardado = eventoRepository.save(evento);
+        if (anterior == null) {
+            return guardado;
+        }
+
+        HuellaLivescore actual = HuellaLivescore.de(guardado);
+        if (!actual.equals(anterior)) {
+            log.debug("📣 Resultado del evento {} cambiado: {} → {}", guardado.getId(), anterior, actual);
+            eventPublisher.publishEvent(new LiveScoreCambioEvent(this, guardado.getId(),
+                    guardado.getEventoIdExterno(), anterior, actual));
+        }
+        return guardado;
+    }
+}
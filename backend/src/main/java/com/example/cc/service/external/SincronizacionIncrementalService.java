@@ -0,0 +1,247 @@
+package com.example.cc.service.external;
+
+import com.example.cc.dto.external.TheSportsDbEventResponse;
+import com.example.cc.entities.SincronizacionDia;
+import com.example.cc.repository.EventoDeportivoRepository;
+import com.example.cc.repository.SincronizacionDiaRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Sincronización incremental de eventos por día.
+ *
+ * Guarda por día el hash del contenido recibido de TheSportsDB y la marca de
+ * agua de la última sincronización completa, y por evento el hash de sus
+ * campos. Un día con el mismo hash se omite; en un día con cambios solo se
+ * reaplican los eventos cuyo hash difiere del guardado.
+ *
+ * El delta se calcula mientras se leen los eventos: de cada evento se guarda
+ * solo su hash, los hashes almacenados se consultan por lotes de
+ * {@code eventos.sync.lote-hashes} y solo se conservan los eventos que
+ * cambiaron, de modo que la memoria crece con los cambios y no con el día.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SincronizacionIncrementalService {
+
+    private final SincronizacionDiaRepository sincronizacionDiaRepository;
+    private final EventoDeportivoRepository eventoRepository;
+
+    @Value("${eventos.sync.incremental:true}")
+    private boolean habilitada = true;
+
+    @Value("${eventos.sync.lote-hashes:500}")
+    private int loteHashes = 500;
+
+    @Value("${eventos.sync.retencion-dias:30}")
+    private int retencionDias = 30;
+
+    /**
+     * Calcular qué eventos de un día cambiaron desde la última sincronización
+     * @param fecha Día consultado
+     * @param eventos Todos los eventos recibidos para ese día
+     * @return Delta con los eventos a reaplicar
+     */
+    @Transactional
+    public DeltaDia calcularDelta(LocalDate fecha, List<TheSportsDbEventResponse.EventData> eventos) {
+        AcumuladorDia acumulador = iniciarDelta(fecha);
+        eventos.forEach(acumulador);
+        return terminarDelta(acumulador);
+    }
+
+    /**
+     * Empezar el delta de un día que se recibe en streaming: el acumulador se
+     * pasa como consumidor al lector de eventos y {@link #terminarDelta}
+     * devuelve el resultado
+     */
+    public AcumuladorDia iniciarDelta(LocalDate fecha) {
+        return new AcumuladorDia(fecha, habilitada, loteHashes, eventoRepository);
+    }
+
+    /**
+     * Cerrar el delta de un día: si el hash del día coincide con el de la
+     * última sincronización se descartan los cambios detectados y solo se
+     * marca el día como verificado
+     */
+    @Transactional
+    public DeltaDia terminarDelta(AcumuladorDia acumulador) {
+        acumulador.vaciarLote();
+        LocalDate fecha = acumulador.fecha;
+        String hashDia = hashDia(acumulador.hashes);
+
+        if (habilitada) {
+            Optional<SincronizacionDia> previa = sincronizacionDiaRepository.findByFecha(fecha);
+            if (previa.isPresent() && hashDia.equals(previa.get().getHashContenido())) {
+                sincronizacionDiaRepository.marcarVerificado(previa.get().getId(), LocalDateTime.now());
+                log.info("⏭️ Día {} sin cambios desde {} ({} eventos)",
+                        fecha, previa.get().getUltimaSincronizacion(), acumulador.total);
+                return new DeltaDia(fecha, hashDia, acumulador.total, List.of(), true);
+            }
+            log.info("🔎 Día {}: {} de {} eventos con cambios", fecha, acumulador.cambiados.size(), acumulador.total);
+        }
+        return new DeltaDia(fecha, hashDia, acumulador.total, acumulador.cambiados, false);
+    }
+
+    /**
+     * Registrar la marca de agua del día una vez aplicados todos sus cambios
+     */
+    @Transactional
+    public void confirmarDia(DeltaDia delta) {
+        LocalDateTime ahora = LocalDateTime.now();
+        SincronizacionDia registro = sincronizacionDiaRepository.findByFecha(delta.getFecha())
+                .orElseGet(() -> {
+                    SincronizacionDia nuevo = new SincronizacionDia();
+                    nuevo.setFecha(delta.getFecha());
+                    return nuevo;
+                });
+        registro.setHashContenido(delta.getHashDia());
+        registro.setTotalEventos(delta.getTotalEventos());
+        registro.setEventosCambiados(delta.getCambiados().size());
+        registro.setUltimaSincronizacion(ahora);
+        registro.setUltimaVerificacion(ahora);
+        sincronizacionDiaRepository.save(registro);
+    }
+
+    /**
+     * Eliminar las marcas de agua de días fuera del período de retención
+     */
+    @Transactional
+    public int limpiarMarcasAntiguas() {
+        return sincronizacionDiaRepository.deleteByFechaBefore(LocalDate.now().minusDays(retencionDias));
+    }
+
+    /**
+     * Hash SHA-256 de los campos de TheSportsDB que se persisten en el evento
+     */
+    public static String hashEvento(TheSportsDbEventResponse.EventData evento) {
+        String contenido = String.join("\u001F",
+                valor(evento.getIdEvent()),
+                valor(evento.getStrEvent()),
+                valor(evento.getStrSport()),
+                valor(evento.getStrLeague()),
+                valor(evento.getStrHomeTeam()),
+                valor(evento.getStrAwayTeam()),
+                valor(evento.getDateEvent()),
+                valor(evento.getStrTime()),
+                valor(evento.getStrStatus()),
+                valor(evento.getStrSeason()),
+                valor(evento.getStrDescriptionEN()),
+                valor(evento.getIntHomeScore()),
+                valor(evento.getIntAwayScore()));
+        return sha256(contenido);
+    }
+
+    /**
+     * Hash del día: combinación ordenada por ID externo de los hashes de sus eventos
+     */
+    static String hashDia(Map<String, String> hashesPorEvento) {
+        StringBuilder contenido = new StringBuilder();
+        new TreeMap<>(hashesPorEvento).forEach((id, hash) -> contenido.append(id).append('=').append(hash).append('\n'));
+        return sha256(contenido.toString());
+    }
+
+    private static String valor(String valor) {
+        return valor != null ? valor : "";
+    }
+
+    private static String sha256(String contenido) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(contenido.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Delta en curso de un día: hashes de todos sus eventos y eventos cambiados
+     */
+    public static class AcumuladorDia implements Consumer<TheSportsDbEventResponse.EventData> {
+        private final LocalDate fecha;
+        private final boolean comparar;
+        private final int lote;
+        private final EventoDeportivoRepository eventoRepository;
+        private final Map<String, String> hashes = new HashMap<>();
+        private final List<TheSportsDbEventResponse.EventData> pendientes = new ArrayList<>();
+        private final List<TheSportsDbEventResponse.EventData> cambiados = new ArrayList<>();
+        private int total;
+
+        private AcumuladorDia(LocalDate fecha, boolean comparar, int lote, EventoDeportivoRepository eventoRepository) {
+            this.fecha = fecha;
+            this.comparar = comparar;
+            this.lote = Math.max(1, lote);
+            this.eventoRepository = eventoRepository;
+        }
+
+        @Override
+        public void accept(TheSportsDbEventResponse.EventData evento) {
+            total++;
+            if (evento.getIdEvent() == null) {
+                cambiados.add(evento);
+                return;
+            }
+            hashes.put(evento.getIdEvent(), hashEvento(evento));
+            if (!comparar) {
+                cambiados.add(evento);
+                return;
+            }
+            pendientes.add(evento);
+            if (pendientes.size() >= lote) {
+                vaciarLote();
+            }
+        }
+
+        /**
+         * Comparar los eventos pendientes con sus hashes almacenados
+         */
+        private void vaciarLote() {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            Map<String, String> almacenados = new HashMap<>();
+            for (Object[] fila : eventoRepository.findHashesByEventoIdExternoIn(
+                    pendientes.stream().map(TheSportsDbEventResponse.EventData::getIdEvent).toList())) {
+                almacenados.put((String) fila[0], (String) fila[1]);
+            }
+            for (TheSportsDbEventResponse.EventData evento : pendientes) {
+                if (!hashes.get(evento.getIdEvent()).equals(almacenados.get(evento.getIdEvent()))) {
+                    cambiados.add(evento);
+                }
+            }
+            pendientes.clear();
+        }
+    }
+
+    /**
+     * Eventos de un día que deben reaplicarse
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class DeltaDia {
+        private final LocalDate fecha;
+        private final String hashDia;
+        private final int totalEventos;
+        private final List<TheSportsDbEventResponse.EventData> cambiados;
+        private final boolean sinCambios;
+    }
+}
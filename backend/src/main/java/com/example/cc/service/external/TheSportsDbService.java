@@ -8,15 +8,16 @@ import com.example.cc.entities.EventoDeportivo;
 import com.example.cc.entities.Deporte;
 import com.example.cc.entities.Liga;
 import com.example.cc.repository.EventoDeportivoRepository;
-import com.example.cc.service.deportes.IDeporteService;
-import com.example.cc.service.deportes.ILigaService;
+import com.example.cc.service.deportes.CatalogoCache;
 import com.example.cc.service.apuestas.CuotaEventoService;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
 import com.example.cc.entities.CuotaEvento;
 import com.example.cc.entities.TipoResultado;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -36,6 +37,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,9 +47,13 @@ public class TheSportsDbService implements ITheSportsDbService {
 
     private final RestTemplate restTemplate;
     private final EventoDeportivoRepository eventoRepository;
-    private final IDeporteService deporteService;
-    private final ILigaService ligaService;
     private final CuotaEventoService cuotaEventoService;
+    private final LiveScoreIngestionService liveScoreIngestionService;
+    private final TheSportsDbStreamReader streamReader;
+    private final CatalogoCache catalogoCache;
+    private final SincronizacionIncrementalService sincronizacionIncremental;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final ResultadoEventoService resultadoEvento;
 
     @Value("${thesportsdb.api.base-url}")
     private String baseUrl;
@@ -59,14 +66,22 @@ public class TheSportsDbService implements ITheSportsDbService {
 
     public TheSportsDbService(RestTemplate restTemplate,
             EventoDeportivoRepository eventoRepository,
-            IDeporteService deporteService,
-            ILigaService ligaService,
-            CuotaEventoService cuotaEventoService) {
+            CuotaEventoService cuotaEventoService,
+            LiveScoreIngestionService liveScoreIngestionService,
+            TheSportsDbStreamReader streamReader,
+            CatalogoCache catalogoCache,
+            SincronizacionIncrementalService sincronizacionIncremental,
+            RegistroEjecucionesService registroEjecuciones,
+            ResultadoEventoService resultadoEvento) {
         this.restTemplate = restTemplate;
         this.eventoRepository = eventoRepository;
-        this.deporteService = deporteService;
-        this.ligaService = ligaService;
         this.cuotaEventoService = cuotaEventoService;
+        this.liveScoreIngestionService = liveScoreIngestionService;
+        this.streamReader = streamReader;
+        this.catalogoCache = catalogoCache;
+        this.sincronizacionIncremental = sincronizacionIncremental;
+        this.registroEjecuciones = registroEjecuciones;
+        this.resultadoEvento = resultadoEvento;
     }
 
     /**
@@ -95,7 +110,9 @@ public class TheSportsDbService implements ITheSportsDbService {
             HttpEntity<?> entity = new HttpEntity<>(headers);
 
             log.debug("Realizando petición GET a: {} con API key en header", url);
-            ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.GET, entity, responseType);
+            registroEjecuciones.sumarLlamadaApi();
+            ResponseEntity<T> response = registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_FETCH,
+                    () -> restTemplate.exchange(url, HttpMethod.GET, entity, responseType));
 
             return response.getBody();
 
@@ -105,75 +122,166 @@ public class TheSportsDbService implements ITheSportsDbService {
     }
 
     /**
-     * Obtener eventos de los próximos 7 días
+     * Hacer petición GET con API key y procesar el cuerpo como stream, sin
+     * deserializar la respuesta completa en memoria. Hasta recibir la respuesta
+     * se cuenta como etapa fetch y la lectura del cuerpo como etapa parse.
      */
-    public List<TheSportsDbEventResponse.EventData> getUpcomingEvents() {
-        List<TheSportsDbEventResponse.EventData> allEvents = new ArrayList<>();
+    private <T> T makeStreamingGetRequest(String url, ResponseExtractor<T> extractor) {
+        log.debug("Realizando petición GET en streaming a: {}", url);
+        registroEjecuciones.sumarLlamadaApi();
+        long inicio = System.nanoTime();
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().putAll(createHeaders()),
+                response -> {
+                    registroEjecuciones.sumarEtapa(RegistroEjecucionesService.ETAPA_FETCH,
+                            (System.nanoTime() - inicio) / 1_000_000);
+                    long inicioLectura = System.nanoTime();
+                    try {
+                        return extractor.extractData(response);
+                    } finally {
+                        registroEjecuciones.sumarEtapa(RegistroEjecucionesService.ETAPA_PARSE,
+                                (System.nanoTime() - inicioLectura) / 1_000_000);
+                    }
+                });
+    }
+
+    /**
+     * Recorrer en streaming los eventos devueltos por un endpoint eventsday
+     */
+    private int procesarEventos(String url, Consumer<TheSportsDbEventResponse.EventData> consumidor) {
+        Integer procesados = makeStreamingGetRequest(url,
+                response -> streamReader.leerEventos(response.getBody(), consumidor));
+        return procesados != null ? procesados : 0;
+    }
+
+    /**
+     * Recorrer en streaming los eventos de los próximos 7 días, guardando en
+     * BD solo los que cambiaron; {@code consumidor} recibe cada evento en
+     * cuanto se lee, sin acumular los días en memoria
+     * @return Número de eventos leídos
+     */
+    @Override
+    public int procesarEventosProximos(Consumer<TheSportsDbEventResponse.EventData> consumidor) {
+        int total = 0;
 
         try {
-            // Obtener eventos para los próximos 15 días
             LocalDate today = LocalDate.now();
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
             for (int i = 0; i < 7; i++) {
-                LocalDate targetDate = today.plusDays(i);
-                String dateStr = targetDate.format(formatter);
+                String dateStr = today.plusDays(i).format(formatter);
 
                 log.info("Obteniendo eventos para la fecha: {}", dateStr);
-                List<TheSportsDbEventResponse.EventData> dailyEvents = getEventsByDate(dateStr);
-
-                if (dailyEvents != null && !dailyEvents.isEmpty()) {
-                    allEvents.addAll(dailyEvents);
-                    log.info("Se encontraron {} eventos para la fecha {}", dailyEvents.size(), dateStr);
-                }
+                total += sincronizarDia(dateStr, consumidor).getRecibidos();
 
                 // Pequeña pausa para no sobrecargar la API
                 Thread.sleep(500);
             }
 
-            log.info("Total de eventos obtenidos: {}", allEvents.size());
+            log.info("Total de eventos obtenidos: {}", total);
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error al obtener eventos de TheSportsDB: {}", e.getMessage(), e);
         }
 
-        return allEvents;
+        return total;
     }
 
     /**
-     * Obtener eventos por fecha específica usando v2 API con livescores y guardar
-     * en BD
+     * Descargar los eventos de un día y reaplicar únicamente el delta.
+     * El delta se calcula mientras se leen los eventos, así que solo los
+     * cambiados se retienen en memoria; {@code recibidos} ve cada evento
+     * leído, por si el llamador necesita el día completo.
+     * La marca de agua del día solo se confirma si todos los cambios se guardaron.
      */
-    @Transactional
-    private List<TheSportsDbEventResponse.EventData> getEventsByDate(String date) {
+    private ResultadoDia sincronizarDia(String date, Consumer<TheSportsDbEventResponse.EventData> recibidos) {
         try {
-            // API v2 endpoint para eventos por fecha - usando endpoint correcto
             String url = baseUrlV1 + "/eventsday.php?d=" + date;
             log.debug("Llamando a URL v2: {}", url);
 
-            TheSportsDbEventResponse response = makeGetRequestWithHeaders(url, TheSportsDbEventResponse.class);
-
-            if (response != null && response.getEvents() != null) {
-                log.info("Obtenidos {} eventos para la fecha {}", response.getEvents().size(), date);
+            SincronizacionIncrementalService.AcumuladorDia acumulador =
+                    sincronizacionIncremental.iniciarDelta(LocalDate.parse(date));
+            int recibidosDia = procesarEventos(url, evento -> {
+                recibidos.accept(evento);
+                acumulador.accept(evento);
+            });
+            log.info("Obtenidos {} eventos para la fecha {}", recibidosDia, date);
 
-                // Procesar y guardar eventos con livescores
-                List<TheSportsDbEventResponse.EventData> eventosConLivescores = new ArrayList<>();
+            SincronizacionIncrementalService.DeltaDia delta = sincronizacionIncremental.terminarDelta(acumulador);
+            if (delta.isSinCambios()) {
+                return new ResultadoDia(true, recibidosDia, List.of());
+            }
 
-                for (TheSportsDbEventResponse.EventData evento : response.getEvents()) {
-                    eventosConLivescores.add(evento);
-                    guardarOActualizarEvento(evento);
+            List<TheSportsDbEventResponse.EventData> aplicados = new ArrayList<>();
+            int fallidos = registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_UPSERT, () -> {
+                int errores = 0;
+                for (TheSportsDbEventResponse.EventData evento : delta.getCambiados()) {
+                    if (guardarOActualizarEvento(evento)) {
+                        aplicados.add(evento);
+                    } else {
+                        errores++;
+                    }
                 }
+                return errores;
+            });
+            registroEjecuciones.sumarFilas(delta.getTotalEventos(), aplicados.size());
 
-                return eventosConLivescores;
+            if (fallidos == 0) {
+                sincronizacionIncremental.confirmarDia(delta);
+            } else {
+                log.warn("⚠️ {} eventos de {} no se pudieron guardar; el día se reintentará", fallidos, date);
+                registroEjecuciones.registrarError(fallidos + " eventos de " + date + " no se pudieron guardar");
             }
+            return new ResultadoDia(true, recibidosDia, aplicados);
 
         } catch (RestClientException e) {
             log.error("Error al obtener eventos v2 para la fecha {}: {}", date, e.getMessage());
+            registroEjecuciones.registrarError("eventsday " + date + ": " + e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado al procesar eventos para la fecha {}: {}", date, e.getMessage());
+            registroEjecuciones.registrarError("eventsday " + date + ": " + e.getMessage());
         }
 
-        return new ArrayList<>();
+        return new ResultadoDia(false, 0, new ArrayList<>());
+    }
+
+    /**
+     * Sincronizar de forma incremental los próximos días
+     * @return Eventos creados o modificados desde la última sincronización
+     */
+    @Override
+    public List<TheSportsDbEventResponse.EventData> sincronizarEventosIncremental(int dias) {
+        List<TheSportsDbEventResponse.EventData> aplicados = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+        for (int i = 0; i < dias; i++) {
+            aplicados.addAll(sincronizarDia(today.plusDays(i).format(formatter), evento -> { }).getAplicados());
+
+            // Pequeña pausa para no sobrecargar la API
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        log.info("Sincronización incremental de {} días: {} eventos creados o modificados", dias, aplicados.size());
+        return aplicados;
+    }
+
+    /**
+     * Resultado de sincronizar un día: si se leyó completo, cuántos eventos se
+     * leyeron y los que se guardaron por haber cambiado
+     */
+    @lombok.Value
+    private static class ResultadoDia {
+        boolean completo;
+        int recibidos;
+        List<TheSportsDbEventResponse.EventData> aplicados;
     }
 
     /**
@@ -211,13 +319,14 @@ public class TheSportsDbService implements ITheSportsDbService {
 
     /**
      * Guardar o actualizar evento en la base de datos
+     * @return true si el evento quedó guardado
      */
     @Transactional
-    private void guardarOActualizarEvento(TheSportsDbEventResponse.EventData eventoData) {
+    private boolean guardarOActualizarEvento(TheSportsDbEventResponse.EventData eventoData) {
         try {
             if (eventoData.getIdEvent() == null || eventoData.getIdEvent().isEmpty()) {
                 log.warn("⚠️ Evento sin ID externo, omitiendo...");
-                return;
+                return false;
             }
 
             // Buscar si el evento ya existe
@@ -225,9 +334,11 @@ public class TheSportsDbService implements ITheSportsDbService {
 
             EventoDeportivo evento;
             boolean esNuevo = false;
+            LiveScoreIngestionService.HuellaLivescore anterior = null;
 
             if (eventoExistente.isPresent()) {
                 evento = eventoExistente.get();
+                anterior = resultadoEvento.huella(evento);
                 log.debug("🔄 Actualizando evento existente: {}", eventoData.getIdEvent());
             } else {
                 evento = new EventoDeportivo();
@@ -289,41 +400,30 @@ public class TheSportsDbService implements ITheSportsDbService {
 
             // Obtener o crear deporte y liga si es un evento nuevo
             if (esNuevo) {
-                // Buscar deporte
+                // Resolver deporte y liga desde la caché del catálogo (se crean si no existen)
                 Deporte deporte = null;
                 if (eventoData.getStrSport() != null) {
                     try {
-                        Optional<Deporte> deporteExistente = deporteService
-                                .getDeporteByNombre(eventoData.getStrSport());
-                        if (deporteExistente.isPresent()) {
-                            deporte = deporteExistente.get();
-                        } else {
-                            // Crear nuevo deporte
+                        deporte = catalogoCache.resolverDeporte(eventoData.getStrSport(), () -> {
                             Deporte nuevoDeporte = new Deporte();
                             nuevoDeporte.setNombre(eventoData.getStrSport());
                             nuevoDeporte.setActivo(true);
-                            deporte = deporteService.createDeporteSafe(nuevoDeporte);
-                        }
+                            return nuevoDeporte;
+                        });
                     } catch (Exception e) {
                         log.error("Error al obtener deporte {}: {}", eventoData.getStrSport(), e.getMessage());
                     }
                 }
 
-                // Buscar liga
                 Liga liga = null;
                 if (eventoData.getStrLeague() != null && deporte != null) {
                     try {
-                        Optional<Liga> ligaExistente = ligaService.getLigaByNombre(eventoData.getStrLeague());
-                        if (ligaExistente.isPresent()) {
-                            liga = ligaExistente.get();
-                        } else {
-                            // Crear nueva liga
+                        liga = catalogoCache.resolverLiga(eventoData.getStrLeague(), null, deporte.getId(), () -> {
                             Liga nuevaLiga = new Liga();
                             nuevaLiga.setNombre(eventoData.getStrLeague());
-                            nuevaLiga.setDeporte(deporte);
                             nuevaLiga.setActiva(true);
-                            liga = ligaService.createLigaSafe(nuevaLiga);
-                        }
+                            return nuevaLiga;
+                        });
                     } catch (Exception e) {
                         log.error("Error al obtener liga {}: {}", eventoData.getStrLeague(), e.getMessage());
                     }
@@ -339,12 +439,13 @@ public class TheSportsDbService implements ITheSportsDbService {
                 // Si no se pudieron obtener deporte y liga, omitir el evento
                 if (deporte == null || liga == null) {
                     log.warn("⚠️ No se pudo crear evento {} por falta de deporte o liga", eventoData.getIdEvent());
-                    return;
+                    return false;
                 }
             }
 
-            // Guardar en la base de datos
-            EventoDeportivo eventoGuardado = eventoRepository.save(evento);
+            // Guardar en la base de datos junto con el hash del contenido recibido
+            evento.setHashExterno(SincronizacionIncrementalService.hashEvento(eventoData));
+            EventoDeportivo eventoGuardado = resultadoEvento.guardar(evento, anterior);
 
             if (esNuevo) {
                 log.info("✅ Evento creado: {} (ID: {})", eventoGuardado.getNombreEvento(), eventoGuardado.getId());
@@ -386,8 +487,11 @@ public class TheSportsDbService implements ITheSportsDbService {
                 }
             }
 
+            return true;
+
         } catch (Exception e) {
             log.error("❌ Error al guardar/actualizar evento {}: {}", eventoData.getIdEvent(), e.getMessage(), e);
+            return false;
         }
     }
 
@@ -518,28 +622,24 @@ public class TheSportsDbService implements ITheSportsDbService {
     }
 
     /**
-     * Obtener todas las ligas disponibles desde TheSportsDB
+     * Recorrer en streaming todas las ligas de TheSportsDB
      */
     @Override
-    public List<TheSportsDbLeagueResponse.LeagueData> obtenerTodasLasLigas() {
-        try {
-            String url = baseUrl + "/all/leagues";
-            log.info("Obteniendo todas las ligas desde: {}", url);
+    public int procesarTodasLasLigas(Consumer<TheSportsDbLeagueResponse.LeagueData> consumidor) {
+        String url = baseUrl + "/all/leagues";
+        log.info("Procesando en streaming todas las ligas desde: {}", url);
 
-            TheSportsDbLeagueResponse response = makeGetRequestWithHeaders(url, TheSportsDbLeagueResponse.class);
-
-            if (response != null && response.getLeagues() != null) {
-                log.info("Se encontraron {} ligas en TheSportsDB", response.getLeagues().size());
-                return response.getLeagues();
-            } else {
-                log.warn("No se encontraron ligas en la respuesta de TheSportsDB");
-                return new ArrayList<>();
-            }
+        Integer procesadas = makeStreamingGetRequest(url,
+                response -> streamReader.leerLigas(response.getBody(), consumidor));
+        return procesadas != null ? procesadas : 0;
+    }
 
-        } catch (RestClientException e) {
-            log.error("Error al obtener ligas de TheSportsDB: {}", e.getMessage(), e);
-            return new ArrayList<>();
-        }
+    /**
+     * Recorrer en streaming los eventos de una fecha
+     */
+    @Override
+    public int procesarEventosPorFecha(String date, Consumer<TheSportsDbEventResponse.EventData> consumidor) {
+        return procesarEventos(baseUrlV1 + "/eventsday.php?d=" + date, consumidor);
     }
 
     // ===== MÉTODOS ESPECÍFICOS PARA V2 API =====
@@ -554,15 +654,15 @@ public class TheSportsDbService implements ITheSportsDbService {
             String url = baseUrl + "/eventsday.php?d=" + date;
             log.info("🔄 Obteniendo eventos v2 para fecha: {}", date);
 
-            TheSportsDbEventResponse response = makeGetRequestWithHeaders(url, TheSportsDbEventResponse.class);
+            List<TheSportsDbEventResponse.EventData> eventos = new ArrayList<>();
+            int procesados = procesarEventos(url, eventos::add);
 
-            if (response != null && response.getEvents() != null) {
-                log.info("✅ Obtenidos {} eventos v2 para {}", response.getEvents().size(), date);
-                return response.getEvents();
+            if (procesados > 0) {
+                log.info("✅ Obtenidos {} eventos v2 para {}", procesados, date);
             } else {
                 log.warn("⚠️ No se encontraron eventos v2 para la fecha {}", date);
-                return new ArrayList<>();
             }
+            return eventos;
 
         } catch (RestClientException e) {
             log.error("❌ Error al obtener eventos v2 para fecha {}: {}", date, e.getMessage());
@@ -702,113 +802,29 @@ public class TheSportsDbService implements ITheSportsDbService {
      */
     @Transactional
     public List<EventoDeportivo> obtenerYGuardarLivescoresActuales() {
-        log.info("🔴 Iniciando obtención de livescores actuales...");
-        List<EventoDeportivo> eventosActualizados = new ArrayList<>();
-
-        try {
-            // Obtener eventos del día actual
-            LocalDate today = LocalDate.now();
-            LocalDateTime startOfDay = today.atStartOfDay();
-            LocalDateTime endOfDay = today.atTime(23, 59, 59);
-
-            // Obtener eventos del día actual desde la base de datos
-            List<EventoDeportivo> eventosDelDia = eventoRepository.findByFechaEventoBetween(startOfDay, endOfDay);
-            List<LiveScoreResponse.LiveScore> liveScores = getLiveScores();
-
-            // Obtener también eventos de ayer por si hay partidos que se extendieron
-            LocalDate yesterday = LocalDate.now().minusDays(1);
-            LocalDateTime startOfYesterday = yesterday.atStartOfDay();
-            LocalDateTime endOfYesterday = yesterday.atTime(23, 59, 59);
-            List<EventoDeportivo> eventosAyer = eventoRepository.findByFechaEventoBetween(startOfYesterday,
-                    endOfYesterday);
-            eventosDelDia.addAll(eventosAyer);
-
-            // Actualizar eventos pasados que no están finalizados
-            LocalDateTime ahora = LocalDateTime.now();
-            for (EventoDeportivo evento : eventosDelDia) {
-                if (evento.getFechaEvento().isBefore(ahora) &&
-                        !"finalizado".equals(evento.getEstado()) &&
-                        !"cancelado".equals(evento.getEstado())) {
-
-                    log.info("Actualizando evento pasado a finalizado: {} - Fecha: {}",
-                            evento.getNombreEvento(), evento.getFechaEvento());
-
-                    evento.setEstado("finalizado");
-                    eventoRepository.save(evento);
-                }
-            }
-
-            // Para cada evento, obtener livescore actualizado desde TheSportsDB
-            for (EventoDeportivo evento : eventosDelDia) {
-                try {
-                    if (evento.getEventoIdExterno() != null) {
-                        // Obtener livescore actualizado
-                        LiveScoreResponse.LiveScore eventoActualizado = liveScores.stream()
-                                .filter(score -> score.getIdEvent().equals(evento.getEventoIdExterno()))
-                                .findFirst()
-                                .orElse(null);
-
-                        if (eventoActualizado != null) {
-                            // Actualizar el evento con los nuevos datos
-                            evento.setMarcadorLocal(eventoActualizado.getIntHomeScore());
-                            evento.setMarcadorVisitante(eventoActualizado.getIntAwayScore());
-                            evento.setEstado(determinarEstadoPorStatus(eventoActualizado.getStrStatus()));
-
-                            // Actualizar fecha si el evento fue reprogramado
-                            if (eventoActualizado.getStrDate() != null && !eventoActualizado.getStrDate().isEmpty()) {
-                                try {
-                                    LocalDateTime nuevaFecha = parsearFechaLivescore(
-                                            eventoActualizado.getStrDate(),
-                                            eventoActualizado.getStrEventTime());
-
-                                    // Solo actualizar la fecha si es diferente (evento reprogramado)
-                                    if (!nuevaFecha.toLocalDate().equals(evento.getFechaEvento().toLocalDate())) {
-                                        evento.setFechaEvento(nuevaFecha);
-                                    }
-                                } catch (Exception e) {
-                                    log.debug("No se pudo parsear nueva fecha para evento {}: {}",
-                                            evento.getEventoIdExterno(), e.getMessage());
-                                }
-                            }
-
-                            // Actualizar resultado si está disponible
-                            if (eventoActualizado.getStrStatus() != null) {
-                                String resultado = determinarResultadoPorMarcadores(
-                                        eventoActualizado.getIntHomeScore(),
-                                        eventoActualizado.getIntAwayScore(),
-                                        eventoActualizado.getStrStatus());
-                                if (resultado != null) {
-                                    evento.setResultado(resultado);
-                                }
-                            }
-
-                            // Guardar cambios en la base de datos
-                            eventoRepository.save(evento);
-                            eventosActualizados.add(evento);
-                        }
-                    }
-
-                    // Pequeña pausa entre llamadas para no sobrecargar la API
-                    Thread.sleep(100);
-
-                } catch (Exception e) {
-                    log.error("Error al actualizar livescore para evento {}: {}", evento.getEventoIdExterno(),
-                            e.getMessage());
-                    // Agregar el evento sin actualizar en caso de error
-                    eventosActualizados.add(evento);
-                }
-            }
-
-            log.info("✅ Procesados {} eventos con livescores actuales", eventosActualizados.size());
-
-            // Obtener los eventos actualizados desde la base de datos ya están en
-            // eventosActualizados
+        return ingerirLivescoresActuales().getEventosEnFeed();
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Error al obtener livescores actuales: {}", e.getMessage(), e);
-        }
+    /**
+     * Aplicar el feed de livescores a los eventos de hoy y ayer escribiendo solo los cambios
+     */
+    @Override
+    @Transactional
+    public LiveScoreIngestionService.ResultadoIngesta ingerirLivescoresActuales() {
+        log.info("🔴 Iniciando obtención de livescores actuales...");
+        List<LiveScoreResponse.LiveScore> liveScores = getLiveScores();
+        return liveScoreIngestionService.ingerir(liveScores);
+    }
 
-        return eventosActualizados;
+    /**
+     * Aplicar el feed de livescores solo a los eventos indicados
+     */
+    @Override
+    @Transactional
+    public LiveScoreIngestionService.ResultadoIngesta ingerirLivescoresEventos(List<Long> eventoIds) {
+        List<LiveScoreResponse.LiveScore> liveScores = getLiveScores();
+        List<EventoDeportivo> eventos = eventoRepository.findAllById(eventoIds);
+        return liveScoreIngestionService.ingerir(liveScores, eventos, LocalDateTime.now());
     }
 
     /**
@@ -878,15 +894,15 @@ public class TheSportsDbService implements ITheSportsDbService {
             String todayStr = today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
             log.info("📡 Obteniendo eventos frescos desde API para: {}", todayStr);
-            List<TheSportsDbEventResponse.EventData> eventosFrescosHoy = getEventsByDate(todayStr);
+            int eventosFrescosHoy = sincronizarDia(todayStr, evento -> { }).getRecibidos();
 
             // También obtener de ayer por si hay eventos que se extendieron
             String yesterdayStr = today.minusDays(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
             log.info("📡 Obteniendo eventos de ayer desde API para: {}", yesterdayStr);
-            List<TheSportsDbEventResponse.EventData> eventosFrescosAyer = getEventsByDate(yesterdayStr);
+            int eventosFrescosAyer = sincronizarDia(yesterdayStr, evento -> { }).getRecibidos();
 
             log.info("✅ Eventos obtenidos desde API - Hoy: {}, Ayer: {}",
-                    eventosFrescosHoy.size(), eventosFrescosAyer.size());
+                    eventosFrescosHoy, eventosFrescosAyer);
 
             // 2. Ahora obtener todos los eventos actualizados desde la base de datos
             LocalDateTime startOfToday = today.atStartOfDay();
@@ -1044,146 +1060,6 @@ public class TheSportsDbService implements ITheSportsDbService {
         }
     }
 
-    /**
-     * Parsear fecha desde LiveScore (formato puede ser diferente)
-     */
-    private LocalDateTime parsearFechaLivescore(String fechaStr, String horaStr) throws DateTimeParseException {
-        if (fechaStr == null || fechaStr.isEmpty()) {
-            throw new DateTimeParseException("Fecha de livescore vacía", fechaStr, 0);
-        }
-
-        try {
-            // Intentar diferentes formatos de fecha comunes en APIs
-            LocalDate fecha;
-
-            // Formato ISO: yyyy-MM-dd
-            if (fechaStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            }
-            // Formato dd/MM/yyyy
-            else if (fechaStr.matches("\\d{2}/\\d{2}/\\d{4}")) {
-                fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-            }
-            // Formato MM/dd/yyyy (estadounidense)
-            else if (fechaStr.matches("\\d{2}/\\d{2}/\\d{4}")) {
-                fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("MM/dd/yyyy"));
-            }
-            // Formato dd-MM-yyyy
-            else if (fechaStr.matches("\\d{2}-\\d{2}-\\d{4}")) {
-                fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("dd-MM-yyyy"));
-            }
-            // Si no coincide con ningún formato, usar el formato por defecto
-            else {
-                fecha = LocalDate.parse(fechaStr, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            }
-
-            // Parsear hora si está disponible
-            if (horaStr != null && !horaStr.isEmpty()) {
-                try {
-                    LocalTime hora;
-
-                    // Formato HH:mm:ss
-                    if (horaStr.matches("\\d{2}:\\d{2}:\\d{2}")) {
-                        hora = LocalTime.parse(horaStr, DateTimeFormatter.ofPattern("HH:mm:ss"));
-                    }
-                    // Formato HH:mm
-                    else if (horaStr.matches("\\d{2}:\\d{2}")) {
-                        hora = LocalTime.parse(horaStr, DateTimeFormatter.ofPattern("HH:mm"));
-                    }
-                    // Si no se puede parsear, usar medianoche
-                    else {
-                        hora = LocalTime.MIDNIGHT;
-                    }
-
-                    return LocalDateTime.of(fecha, hora);
-                } catch (DateTimeParseException e) {
-                    log.debug("No se pudo parsear la hora del livescore {}, usando medianoche", horaStr);
-                }
-            }
-
-            return LocalDateTime.of(fecha, LocalTime.MIDNIGHT);
-
-        } catch (DateTimeParseException e) {
-            log.error("Error al parsear fecha de livescore: {} - {}", fechaStr, e.getMessage());
-            throw e;
-        }
-    }
-
-    /**
-     * Determinar estado basado en el status del livescore
-     */
-    private String determinarEstadoPorStatus(String status) {
-        if (status == null || status.isEmpty()) {
-            return "programado";
-        }
-
-        String statusLower = status.toLowerCase().trim();
-
-        // Estados en vivo (más variaciones)
-        if (statusLower.contains("live") || statusLower.contains("1h") || statusLower.contains("2h") ||
-                statusLower.contains("q1") || statusLower.contains("q2") || statusLower.contains("q3")
-                || statusLower.contains("q4") ||
-                statusLower.contains("in progress") || statusLower.contains("halftime") || statusLower.contains("ht") ||
-                statusLower.contains("half time") || statusLower.contains("break") || statusLower.contains("interval")
-                ||
-                statusLower.contains("overtime") || statusLower.contains("extra time") || statusLower.contains("et") ||
-                statusLower.contains("penalty") || statusLower.contains("penalties")) {
-            return "en_vivo";
-        }
-
-        // Estados finalizados
-        if (statusLower.contains("full time") || statusLower.contains("ft") || statusLower.contains("final") ||
-                statusLower.contains("finished") || statusLower.contains("completed") || statusLower.contains("ended")
-                ||
-                statusLower.contains("result") || statusLower.contains("aet")
-                || statusLower.contains("after extra time")) {
-            return "finalizado";
-        }
-
-        // Estados cancelados/pospuestos
-        if (statusLower.contains("cancelled") || statusLower.contains("canceled") || statusLower.contains("postponed")
-                ||
-                statusLower.contains("suspended") || statusLower.contains("abandoned") || statusLower.contains("void")
-                ||
-                statusLower.contains("delayed") || statusLower.contains("rescheduled")) {
-            return "cancelado";
-        }
-
-        // Estados próximos/programados
-        if (statusLower.contains("scheduled") || statusLower.contains("upcoming") || statusLower.contains("fixture") ||
-                statusLower.contains("not started") || statusLower.contains("vs") || statusLower.isEmpty()) {
-            return "programado";
-        }
-
-        // Por defecto, programado
-        return "programado";
-    }
-
-    /**
-     * Determinar resultado basado en marcadores y estado
-     */
-    private String determinarResultadoPorMarcadores(Integer marcadorLocal, Integer marcadorVisitante, String estado) {
-        // Solo determinar resultado si el evento ha finalizado
-        if (estado == null || !estado.toLowerCase().contains("final") && !estado.toLowerCase().contains("ft") &&
-                !estado.toLowerCase().contains("finished") && !estado.toLowerCase().contains("completed")) {
-            return null; // No hay resultado aún
-        }
-
-        // Si no hay marcadores, no se puede determinar resultado
-        if (marcadorLocal == null || marcadorVisitante == null) {
-            return null;
-        }
-
-        // Determinar ganador
-        if (marcadorLocal > marcadorVisitante) {
-            return "LOCAL";
-        } else if (marcadorVisitante > marcadorLocal) {
-            return "VISITANTE";
-        } else {
-            return "EMPATE";
-        }
-    }
-
     /**
      * Verificar si un evento tiene todas sus cuotas completas
      * @param eventoId ID del evento a verificar
@@ -1376,6 +1252,18 @@ public class TheSportsDbService implements ITheSportsDbService {
      */
     @Transactional
     public ResumenCuotasOperacion verificarCuotasEventosPorEstados(List<String> estados) {
+        return verificarCuotasEventosPorEstados(estados, eventoId -> true);
+    }
+
+    /**
+     * Verificar y crear cuotas solo para los eventos de los estados indicados que acepte el filtro
+     * @param estados Lista de estados a verificar
+     * @param filtroEventos Filtro por ID de evento (p. ej. la partición del job en esta instancia)
+     * @return ResumenCuotasOperacion con estadísticas de la operación
+     */
+    @Override
+    @Transactional
+    public ResumenCuotasOperacion verificarCuotasEventosPorEstados(List<String> estados, Predicate<Long> filtroEventos) {
         try {
             List<EventoDeportivo> eventosAVerificar = new ArrayList<>();
             
@@ -1387,6 +1275,7 @@ public class TheSportsDbService implements ITheSportsDbService {
             
             List<Long> eventosIds = eventosAVerificar.stream()
                     .map(EventoDeportivo::getId)
+                    .filter(filtroEventos)
                     .collect(Collectors.toList());
             
             log.info("Verificando cuotas para {} eventos con estados: {}", 
@@ -1495,6 +1384,14 @@ public class TheSportsDbService implements ITheSportsDbService {
         
         public int getEventosConErrores() { return eventosConErrores; }
         public void incrementarEventosConErrores() { this.eventosConErrores++; }
+
+        /** Sumar el resultado de otra operación (p. ej. otra partición del job) */
+        public void acumular(ResumenCuotasOperacion otro) {
+            this.totalEventos += otro.totalEventos;
+            this.eventosCompletos += otro.eventosCompletos;
+            this.eventosConCuotasCreadas += otro.eventosConCuotasCreadas;
+            this.eventosConErrores += otro.eventosConErrores;
+        }
         
         @Override
         public String toString() {
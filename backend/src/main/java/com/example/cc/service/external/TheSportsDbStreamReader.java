@@ -0,0 +1,110 @@
+package com.example.cc.service.external;
+
+import com.example.cc.dto.external.TheSportsDbEventResponse;
+import com.example.cc.dto.response.TheSportsDbLeagueResponse;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Lector en streaming de las respuestas grandes de TheSportsDB.
+ *
+ * En lugar de deserializar la respuesta completa, recorre el JSON con un
+ * {@link JsonParser}, localiza el arreglo de resultados ({@code events} o
+ * {@code all}) y entrega cada elemento al consumidor en cuanto se termina de
+ * leer. Los campos que no se persisten (descripciones en otros idiomas,
+ * redes sociales, imágenes) se saltan sin materializar sus cadenas, así que
+ * la memoria usada no depende del tamaño de la respuesta.
+ */
+@Component
+@Slf4j
+public class TheSportsDbStreamReader {
+
+    private final ObjectReader lectorEventos;
+    private final ObjectReader lectorLigas;
+
+    public TheSportsDbStreamReader() {
+        ObjectMapper mapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .addMixIn(TheSportsDbLeagueResponse.LeagueData.class, LigaCamposOmitidos.class);
+        this.lectorEventos = mapper.readerFor(TheSportsDbEventResponse.EventData.class);
+        this.lectorLigas = mapper.readerFor(TheSportsDbLeagueResponse.LeagueData.class);
+    }
+
+    /**
+     * Leer los eventos del arreglo {@code events}
+     * @return Número de eventos entregados al consumidor
+     */
+    public int leerEventos(InputStream in, Consumer<TheSportsDbEventResponse.EventData> consumidor) throws IOException {
+        return leerArreglo(in, "events", lectorEventos, consumidor);
+    }
+
+    /**
+     * Leer las ligas del arreglo {@code all}
+     * @return Número de ligas entregadas al consumidor
+     */
+    public int leerLigas(InputStream in, Consumer<TheSportsDbLeagueResponse.LeagueData> consumidor) throws IOException {
+        return leerArreglo(in, "all", lectorLigas, consumidor);
+    }
+
+    private <T> int leerArreglo(InputStream in, String campo, ObjectReader lector, Consumer<T> consumidor)
+            throws IOException {
+        try (JsonParser parser = lector.getFactory().createParser(in)) {
+            if (!avanzarHastaArreglo(parser, campo)) {
+                return 0;
+            }
+
+            int leidos = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                T elemento = lector.readValue(parser);
+                consumidor.accept(elemento);
+                leidos++;
+            }
+            return leidos;
+        }
+    }
+
+    /**
+     * Posiciona el parser en el inicio del arreglo {@code campo} del objeto raíz.
+     * TheSportsDB devuelve {@code null} en lugar de un arreglo vacío cuando no hay resultados.
+     */
+    private boolean avanzarHastaArreglo(JsonParser parser, String campo) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String nombre = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            if (campo.equals(nombre)) {
+                return valor == JsonToken.START_ARRAY;
+            }
+            parser.skipChildren();
+        }
+        log.debug("Respuesta sin el arreglo '{}'", campo);
+        return false;
+    }
+
+    /**
+     * Campos de liga que no se guardan en la base de datos
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true, value = {
+        "strLeagueAlternate", "intDivision", "intFormedYear", "dateFirstEvent", "strGender",
+        "strFacebook", "strTwitter", "strYoutube", "strRSS",
+        "strDescriptionDE", "strDescriptionFR", "strDescriptionCN", "strDescriptionIT", "strDescriptionJP",
+        "strDescriptionRU", "strDescriptionPT", "strDescriptionSE", "strDescriptionNL", "strDescriptionHU",
+        "strDescriptionNO", "strDescriptionIL", "strDescriptionPL",
+        "strTvRights", "strFanart1", "strFanart2", "strFanart3", "strFanart4", "strBanner", "strPoster",
+        "strTrophy", "strNaming", "strComplete", "strLocked"
+    })
+    private abstract static class LigaCamposOmitidos {
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.cc.service.external.stub;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Almacén en disco de respuestas de TheSportsDB comprimidas con gzip.
+ *
+ * Cada petición se identifica por su ruta y query (sin host ni API key). Una
+ * clave puede tener una única respuesta ({@code clave.json.gz}) o una
+ * secuencia numerada ({@code clave.0001.json.gz}, {@code clave.0002.json.gz},
+ * ...) que se sirve en orden, repitiendo la última; así se reproducen las
+ * líneas de tiempo de livescores.
+ */
+@Slf4j
+public class FixtureStore {
+
+    private static final String EXTENSION = ".json.gz";
+
+    private final Path directorio;
+    private final String apiKey;
+    private final Map<String, AtomicInteger> posicionesSecuencia = new ConcurrentHashMap<>();
+
+    public FixtureStore(Path directorio, String apiKey) {
+        this.directorio = directorio;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * Clave de fixture para una URI de TheSportsDB
+     */
+    public String clave(URI uri) {
+        String ruta = uri.getPath() != null ? uri.getPath() : "";
+        if (apiKey != null && !apiKey.isEmpty()) {
+            ruta = ruta.replace("/" + apiKey + "/", "/");
+        }
+        if (uri.getQuery() != null) {
+            ruta = ruta + "?" + uri.getQuery();
+        }
+        String clave = ruta.replaceAll("[^A-Za-z0-9._-]", "_");
+        return clave.startsWith("_") ? clave.substring(1) : clave;
+    }
+
+    /**
+     * Guardar una respuesta única para la clave
+     */
+    public void guardar(String clave, byte[] cuerpo) throws IOException {
+        escribir(directorio.resolve(clave + EXTENSION), cuerpo);
+    }
+
+    /**
+     * Guardar el paso {@code indice} (empezando en 1) de una secuencia
+     */
+    public void guardarPaso(String clave, int indice, byte[] cuerpo) throws IOException {
+        escribir(archivoPaso(clave, indice), cuerpo);
+    }
+
+    /**
+     * Borrar los pasos grabados de una secuencia, para empezar una grabación nueva
+     */
+    public void borrarSecuencia(String clave) throws IOException {
+        for (int indice = 1; Files.deleteIfExists(archivoPaso(clave, indice)); indice++) {
+            log.debug("Paso {} de {} borrado", indice, clave);
+        }
+    }
+
+    /**
+     * Leer la siguiente respuesta para la clave, avanzando la secuencia si existe
+     */
+    public Optional<byte[]> leerSiguiente(String clave) throws IOException {
+        if (Files.exists(archivoPaso(clave, 1))) {
+            AtomicInteger posicion = posicionesSecuencia.computeIfAbsent(clave, k -> new AtomicInteger());
+            int indice = posicion.incrementAndGet();
+            Path archivo = archivoPaso(clave, indice);
+            if (!Files.exists(archivo)) {
+                posicion.decrementAndGet();
+                archivo = archivoPaso(clave, indice - 1);
+            }
+            return Optional.of(leer(archivo));
+        }
+
+        Path archivo = directorio.resolve(clave + EXTENSION);
+        if (Files.exists(archivo)) {
+            return Optional.of(leer(archivo));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reiniciar todas las secuencias al primer paso
+     */
+    public void reiniciarSecuencias() {
+        posicionesSecuencia.clear();
+    }
+
+    public Path getDirectorio() {
+        return directorio;
+    }
+
+    private Path archivoPaso(String clave, int indice) {
+        return directorio.resolve(String.format("%s.%04d%s", clave, indice, EXTENSION));
+    }
+
+    private void escribir(Path archivo, byte[] cuerpo) throws IOException {
+        Files.createDirectories(archivo.getParent());
+        Path temporal = Files.createTempFile(archivo.getParent(), "fixture", ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporal))) {
+            out.write(cuerpo);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Fixture guardado: {} ({} bytes sin comprimir)", archivo.getFileName(), cuerpo.length);
+    }
+
+    private byte[] leer(Path archivo) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archivo))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.cc.service.external.stub;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interceptor que graba en disco cada respuesta exitosa de TheSportsDB
+ * y devuelve al llamador una copia en memoria del cuerpo.
+ *
+ * Las claves que contienen alguno de los fragmentos de {@code secuencias}
+ * (por defecto los livescores) se graban como secuencia numerada, un paso
+ * por respuesta, para poder reproducir su línea de tiempo; la primera
+ * respuesta de la sesión borra la secuencia grabada anteriormente. El resto
+ * de claves guarda solo la última respuesta.
+ */
+@Slf4j
+public class RecordingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final FixtureStore store;
+    private final List<String> secuencias;
+    private final Map<String, AtomicInteger> pasos = new ConcurrentHashMap<>();
+
+    public RecordingInterceptor(FixtureStore store, List<String> secuencias) {
+        this.store = store;
+        this.secuencias = secuencias;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+
+        byte[] cuerpo;
+        try (InputStream in = response.getBody()) {
+            cuerpo = in.readAllBytes();
+        }
+
+        String clave = store.clave(request.getURI());
+        try {
+            if (esSecuencia(clave)) {
+                guardarPaso(clave, cuerpo);
+            } else {
+                store.guardar(clave, cuerpo);
+                log.info("📼 Respuesta grabada: {} ({} bytes)", clave, cuerpo.length);
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo grabar la respuesta {}: {}", clave, e.getMessage());
+        }
+
+        return new RespuestaEnMemoria(response.getStatusCode(), response.getHeaders(), cuerpo, response);
+    }
+
+    private boolean esSecuencia(String clave) {
+        return secuencias.stream().anyMatch(fragmento -> !fragmento.isBlank() && clave.contains(fragmento));
+    }
+
+    private void guardarPaso(String clave, byte[] cuerpo) throws IOException {
+        AtomicInteger contador = pasos.get(clave);
+        if (contador == null) {
+            synchronized (pasos) {
+                contador = pasos.get(clave);
+                if (contador == null) {
+                    store.borrarSecuencia(clave);
+                    contador = new AtomicInteger();
+                    pasos.put(clave, contador);
+                }
+            }
+        }
+        int paso = contador.incrementAndGet();
+        store.guardarPaso(clave, paso, cuerpo);
+        log.info("📼 Paso {} grabado: {} ({} bytes)", paso, clave, cuerpo.length);
+    }
+
+    /**
+     * Respuesta con el cuerpo ya leído
+     */
+    static class RespuestaEnMemoria implements ClientHttpResponse {
+
+        private final HttpStatusCode status;
+        private final HttpHeaders headers;
+        private final byte[] cuerpo;
+        private final ClientHttpResponse original;
+
+        RespuestaEnMemoria(HttpStatusCode status, HttpHeaders headers, byte[] cuerpo, ClientHttpResponse original) {
+            this.status = status;
+            this.headers = headers;
+            this.cuerpo = cuerpo;
+            this.original = original;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return status.toString();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(cuerpo);
+        }
+
+        @Override
+        public void close() {
+            if (original != null) {
+                original.close();
+            }
+        }
+    }
+}
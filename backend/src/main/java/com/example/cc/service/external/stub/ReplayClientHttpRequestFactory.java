@@ -0,0 +1,142 @@
+package com.example.cc.service.external.stub;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fábrica de peticiones que sirve las respuestas de TheSportsDB desde
+ * fixtures locales, sin red.
+ *
+ * Permite inyectar latencia fija más jitter aleatorio y una tasa de errores
+ * (HTTP 429/500 o timeout) para probar los caminos de sincronización bajo
+ * condiciones degradadas.
+ */
+@Slf4j
+public class ReplayClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final FixtureStore store;
+    private final long latenciaMs;
+    private final long jitterMs;
+    private final double tasaErrores;
+
+    private final AtomicLong peticiones = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong sinFixture = new AtomicLong();
+
+    public ReplayClientHttpRequestFactory(FixtureStore store, long latenciaMs, long jitterMs, double tasaErrores) {
+        this.store = store;
+        this.latenciaMs = latenciaMs;
+        this.jitterMs = jitterMs;
+        this.tasaErrores = tasaErrores;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new ReplayRequest(uri, httpMethod);
+    }
+
+    public long getPeticiones() {
+        return peticiones.get();
+    }
+
+    public long getErrores() {
+        return errores.get();
+    }
+
+    public long getSinFixture() {
+        return sinFixture.get();
+    }
+
+    private ClientHttpResponse responder(URI uri) throws IOException {
+        peticiones.incrementAndGet();
+        simularLatencia();
+
+        if (tasaErrores > 0 && ThreadLocalRandom.current().nextDouble() < tasaErrores) {
+            errores.incrementAndGet();
+            int tipo = ThreadLocalRandom.current().nextInt(3);
+            if (tipo == 0) {
+                throw new SocketTimeoutException("Timeout simulado por el stub de TheSportsDB");
+            }
+            HttpStatus status = tipo == 1 ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.INTERNAL_SERVER_ERROR;
+            return respuesta(status, "{\"error\":\"simulado\"}".getBytes(StandardCharsets.UTF_8));
+        }
+
+        String clave = store.clave(uri);
+        Optional<byte[]> cuerpo = store.leerSiguiente(clave);
+        if (cuerpo.isEmpty()) {
+            sinFixture.incrementAndGet();
+            log.debug("Sin fixture para {}", clave);
+            return respuesta(HttpStatus.NOT_FOUND, "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        return respuesta(HttpStatus.OK, cuerpo.get());
+    }
+
+    private void simularLatencia() throws IOException {
+        long espera = latenciaMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (espera <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Petición interrumpida", e);
+        }
+    }
+
+    private ClientHttpResponse respuesta(HttpStatus status, byte[] cuerpo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(cuerpo.length);
+        return new RecordingInterceptor.RespuestaEnMemoria(status, headers, cuerpo, null);
+    }
+
+    private class ReplayRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+
+        ReplayRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return cuerpo;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            return responder(uri);
+        }
+    }
+}
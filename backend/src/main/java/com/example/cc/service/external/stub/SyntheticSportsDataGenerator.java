@@ -0,0 +1,236 @@
+package com.example.cc.service.external.stub;
+
+import com.example.cc.dto.external.LiveScoreResponse;
+import com.example.cc.dto.external.TheSportsDbEventResponse;
+import com.example.cc.dto.response.TheSportsDbLeagueResponse;
+import com.example.cc.dto.response.TheSportsDbSportResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generador de datos sintéticos de TheSportsDB para pruebas de carga.
+ *
+ * Escribe en el {@link FixtureStore} los catálogos de deportes y ligas, los
+ * eventos por día ({@code eventsday.php}) y una línea de tiempo de
+ * livescores ({@code livescore/all}) en la que los eventos del día pasan por
+ * NS → 1H → HT → 2H → FT con marcadores que avanzan. Con la misma semilla
+ * genera siempre los mismos datos.
+ */
+@Slf4j
+public class SyntheticSportsDataGenerator {
+
+    private static final String[] DEPORTES = {
+        "Soccer", "Basketball", "Ice Hockey", "Baseball", "American Football",
+        "Tennis", "Rugby", "Volleyball", "Handball", "Cricket"
+    };
+
+    private static final String[] PAISES = {
+        "England", "Spain", "Italy", "Germany", "France", "Mexico", "Brazil", "Argentina", "USA", "Japan"
+    };
+
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final FixtureStore store;
+    private final String baseUrl;
+    private final String baseUrlV1;
+    private final ObjectMapper objectMapper;
+
+    public SyntheticSportsDataGenerator(FixtureStore store, String baseUrl, String baseUrlV1) {
+        this.store = store;
+        this.baseUrl = baseUrl;
+        this.baseUrlV1 = baseUrlV1;
+        this.objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    /**
+     * Generar todos los fixtures
+     * @param totalEventos Número total de eventos a fabricar
+     * @param dias Días (desde hoy) entre los que se reparten los eventos
+     * @param pasosLivescore Número de instantáneas del feed de livescores
+     * @param semilla Semilla del generador aleatorio
+     * @return Resumen con los conteos generados
+     */
+    public Map<String, Object> generar(int totalEventos, int dias, int pasosLivescore, long semilla)
+            throws IOException {
+        Random random = new Random(semilla);
+        LocalDate hoy = LocalDate.now();
+        int totalLigas = Math.max(20, totalEventos / 50);
+
+        List<TheSportsDbLeagueResponse.LeagueData> ligas = generarLigas(totalLigas, random);
+        escribir(baseUrl + "/all/sports", generarDeportes());
+        escribir(baseUrl + "/all/leagues", respuestaLigas(ligas));
+
+        List<TheSportsDbEventResponse.EventData> eventosHoy = new ArrayList<>();
+        int eventosPorDia = Math.max(1, totalEventos / Math.max(1, dias));
+        int idEvento = 1_000_000;
+        for (int d = 0; d < dias; d++) {
+            LocalDate fecha = hoy.plusDays(d);
+            int cantidad = d == dias - 1 ? totalEventos - eventosPorDia * (dias - 1) : eventosPorDia;
+
+            List<TheSportsDbEventResponse.EventData> eventosDia = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                TheSportsDbLeagueResponse.LeagueData liga = ligas.get(random.nextInt(ligas.size()));
+                eventosDia.add(generarEvento(String.valueOf(idEvento++), liga, fecha, random));
+            }
+            if (d == 0) {
+                eventosHoy = eventosDia;
+            }
+
+            TheSportsDbEventResponse respuesta = new TheSportsDbEventResponse();
+            respuesta.setEvents(eventosDia);
+            String fechaStr = fecha.format(FECHA);
+            escribir(baseUrlV1 + "/eventsday.php?d=" + fechaStr, respuesta);
+            escribir(baseUrl + "/eventsday.php?d=" + fechaStr, respuesta);
+        }
+
+        generarLineaDeTiempo(eventosHoy, pasosLivescore, random);
+
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("deportes", DEPORTES.length);
+        resumen.put("ligas", ligas.size());
+        resumen.put("eventos", totalEventos);
+        resumen.put("dias", dias);
+        resumen.put("pasosLivescore", pasosLivescore);
+        resumen.put("directorio", store.getDirectorio().toString());
+        log.info("🧪 Fixtures sintéticos de TheSportsDB generados: {}", resumen);
+        return resumen;
+    }
+
+    private TheSportsDbSportResponse generarDeportes() {
+        List<TheSportsDbSportResponse.SportData> deportes = new ArrayList<>();
+        for (int i = 0; i < DEPORTES.length; i++) {
+            TheSportsDbSportResponse.SportData deporte = new TheSportsDbSportResponse.SportData();
+            deporte.setIdSport(String.valueOf(100 + i));
+            deporte.setStrSport(DEPORTES[i]);
+            deporte.setStrFormat("TeamvsTeam");
+            deportes.add(deporte);
+        }
+        TheSportsDbSportResponse respuesta = new TheSportsDbSportResponse();
+        respuesta.setSports(deportes);
+        return respuesta;
+    }
+
+    private List<TheSportsDbLeagueResponse.LeagueData> generarLigas(int total, Random random) {
+        List<TheSportsDbLeagueResponse.LeagueData> ligas = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            TheSportsDbLeagueResponse.LeagueData liga = new TheSportsDbLeagueResponse.LeagueData();
+            String pais = PAISES[random.nextInt(PAISES.length)];
+            liga.setIdLeague(String.valueOf(5000 + i));
+            liga.setStrSport(DEPORTES[i % DEPORTES.length]);
+            liga.setStrLeague("Synthetic " + pais + " League " + (i + 1));
+            liga.setStrCountry(pais);
+            liga.setStrCurrentSeason(LocalDate.now().getYear() + "-" + (LocalDate.now().getYear() + 1));
+            ligas.add(liga);
+        }
+        return ligas;
+    }
+
+    private TheSportsDbLeagueResponse respuestaLigas(List<TheSportsDbLeagueResponse.LeagueData> ligas) {
+        TheSportsDbLeagueResponse respuesta = new TheSportsDbLeagueResponse();
+        respuesta.setLeagues(ligas);
+        return respuesta;
+    }
+
+    private TheSportsDbEventResponse.EventData generarEvento(String id, TheSportsDbLeagueResponse.LeagueData liga,
+            LocalDate fecha, Random random) {
+        String local = "Team " + liga.getIdLeague() + "-" + (random.nextInt(20) + 1);
+        String visitante = "Team " + liga.getIdLeague() + "-" + (random.nextInt(20) + 21);
+        LocalTime hora = LocalTime.of(8 + random.nextInt(14), random.nextBoolean() ? 0 : 30);
+
+        TheSportsDbEventResponse.EventData evento = new TheSportsDbEventResponse.EventData();
+        evento.setIdEvent(id);
+        evento.setStrEvent(local + " vs " + visitante);
+        evento.setStrLeague(liga.getStrLeague());
+        evento.setStrSport(liga.getStrSport());
+        evento.setStrHomeTeam(local);
+        evento.setStrAwayTeam(visitante);
+        evento.setDateEvent(fecha.format(FECHA));
+        evento.setStrTime(hora.format(HORA));
+        evento.setStrStatus("Not Started");
+        evento.setStrSeason(liga.getStrCurrentSeason());
+        return evento;
+    }
+
+    /**
+     * Cada evento del día arranca en un paso aleatorio y recorre 1H (3 pasos),
+     * HT (1 paso), 2H (3 pasos) y FT
+     */
+    private void generarLineaDeTiempo(List<TheSportsDbEventResponse.EventData> eventos, int pasos, Random random)
+            throws IOException {
+        if (pasos <= 0) {
+            return;
+        }
+
+        int n = eventos.size();
+        int[] inicio = new int[n];
+        int[] golesLocal = new int[n];
+        int[] golesVisitante = new int[n];
+        for (int i = 0; i < n; i++) {
+            inicio[i] = random.nextInt(Math.max(1, pasos - 7));
+        }
+
+        String clave = store.clave(URI.create(baseUrl + "/livescore/all"));
+        for (int paso = 0; paso < pasos; paso++) {
+            List<LiveScoreResponse.LiveScore> scores = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int transcurrido = paso - inicio[i];
+                if (transcurrido < 0) {
+                    continue;
+                }
+
+                String status;
+                if (transcurrido < 3) {
+                    status = "1H";
+                } else if (transcurrido == 3) {
+                    status = "HT";
+                } else if (transcurrido < 7) {
+                    status = "2H";
+                } else {
+                    status = "FT";
+                }
+
+                if (("1H".equals(status) || "2H".equals(status)) && random.nextDouble() < 0.15) {
+                    if (random.nextBoolean()) {
+                        golesLocal[i]++;
+                    } else {
+                        golesVisitante[i]++;
+                    }
+                }
+
+                TheSportsDbEventResponse.EventData evento = eventos.get(i);
+                LiveScoreResponse.LiveScore score = new LiveScoreResponse.LiveScore();
+                score.setIdEvent(evento.getIdEvent());
+                score.setStrSport(evento.getStrSport());
+                score.setStrHomeTeam(evento.getStrHomeTeam());
+                score.setStrAwayTeam(evento.getStrAwayTeam());
+                score.setIntHomeScore(golesLocal[i]);
+                score.setIntAwayScore(golesVisitante[i]);
+                score.setStrStatus(status);
+                score.setStrDate(evento.getDateEvent());
+                score.setStrEventTime(evento.getStrTime());
+                scores.add(score);
+            }
+
+            LiveScoreResponse respuesta = new LiveScoreResponse();
+            respuesta.setLiveScore(scores);
+            store.guardarPaso(clave, paso + 1, objectMapper.writeValueAsBytes(respuesta));
+        }
+    }
+
+    private void escribir(String url, Object respuesta) throws IOException {
+        store.guardar(store.clave(URI.create(url)), objectMapper.writeValueAsBytes(respuesta));
+    }
+}
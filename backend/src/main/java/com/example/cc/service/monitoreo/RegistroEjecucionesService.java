@@ -0,0 +1,308 @@
+package com.example.cc.service.monitoreo;
+
+import com.example.cc.entities.EjecucionJob;
+import com.example.cc.repository.EjecucionJobRepository;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bitácora persistente de ejecuciones de los jobs programados.
+ *
+ * Cada job se ejecuta dentro de {@link #ejecutar}, que abre una ejecución en
+ * el hilo actual. Los servicios que trabaja el job acumulan sobre ella la
+ * duración de sus etapas, las filas y las llamadas a la API sin recibirla
+ * como parámetro; fuera de un job esas llamadas no hacen nada. Al terminar se
+ * guarda la fila en {@code ejecuciones_jobs} y se actualizan los indicadores
+ * en memoria de la última ejecución de cada job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegistroEjecucionesService {
+
+    public static final String ETAPA_FETCH = "fetch";
+    public static final String ETAPA_PARSE = "parse";
+    public static final String ETAPA_UPSERT = "upsert";
+    public static final String ETAPA_CUOTAS = "cuotas";
+
+    private static final ThreadLocal<EjecucionEnCurso> ACTUAL = new ThreadLocal<>();
+
+    private final EjecucionJobRepository ejecucionJobRepository;
+
+    private final Map<String, IndicadoresJob> indicadores = new ConcurrentHashMap<>();
+
+    @Value("${jobs.registro.habilitado:true}")
+    private boolean habilitado = true;
+
+    @Value("${jobs.registro.retencion-dias:30}")
+    private int retencionDias = 30;
+
+    /**
+     * Ejecutar un job registrando su ejecución; las excepciones se registran y se relanzan
+     */
+    public void ejecutar(String nombreJob, Runnable tarea) {
+        ejecutar(nombreJob, () -> {
+            tarea.run();
+            return null;
+        });
+    }
+
+    /**
+     * Ejecutar un job registrando su ejecución; las excepciones se registran y se relanzan
+     */
+    public <T> T ejecutar(String nombreJob, Supplier<T> tarea) {
+        EjecucionEnCurso anterior = ACTUAL.get();
+        EjecucionEnCurso ejecucion = new EjecucionEnCurso(nombreJob);
+        ACTUAL.set(ejecucion);
+        Throwable error = null;
+        try {
+            return tarea.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            if (anterior != null) {
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+            finalizar(ejecucion, error);
+        }
+    }
+
+    /**
+     * Medir una etapa de la ejecución actual
+     */
+    public <T> T medirEtapa(String etapa, Supplier<T> trabajo) {
+        long inicio = System.nanoTime();
+        try {
+            return trabajo.get();
+        } finally {
+            sumarEtapa(etapa, (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * Medir una etapa sin resultado de la ejecución actual
+     */
+    public void medirEtapa(String etapa, Runnable trabajo) {
+        medirEtapa(etapa, () -> {
+            trabajo.run();
+            return null;
+        });
+    }
+
+    /**
+     * Acumular milisegundos en una etapa de la ejecución actual
+     */
+    public void sumarEtapa(String etapa, long ms) {
+        EjecucionEnCurso ejecucion = ACTUAL.get();
+        if (ejecucion != null) {
+            ejecucion.etapasMs.merge(etapa, ms, Long::sum);
+        }
+    }
+
+    public void sumarFilas(long leidas, long escritas) {
+        EjecucionEnCurso ejecucion = ACTUAL.get();
+        if (ejecucion != null) {
+            ejecucion.filasLeidas += leidas;
+            ejecucion.filasEscritas += escritas;
+        }
+    }
+
+    public void sumarLlamadaApi() {
+        EjecucionEnCurso ejecucion = ACTUAL.get();
+        if (ejecucion != null) {
+            ejecucion.llamadasApi++;
+        }
+    }
+
+    /**
+     * Registrar un error que el job capturó sin interrumpirse
+     */
+    public void registrarError(String mensaje) {
+        registrarErrores(1, mensaje);
+    }
+
+    /**
+     * Registrar varios errores que el job capturó sin interrumpirse
+     */
+    public void registrarErrores(int cantidad, String mensaje) {
+        EjecucionEnCurso ejecucion = ACTUAL.get();
+        if (ejecucion != null) {
+            ejecucion.errores += cantidad;
+            if (ejecucion.mensajeError == null) {
+                ejecucion.mensajeError = mensaje;
+            }
+        }
+    }
+
+    /**
+     * Indicadores de la última ejecución de cada job desde el arranque
+     */
+    public Map<String, IndicadoresJob> getIndicadores() {
+        return new TreeMap<>(indicadores);
+    }
+
+    /**
+     * Últimas ejecuciones, de todos los jobs o de uno
+     */
+    public List<EjecucionJob> obtenerHistorial(String nombreJob, int limite) {
+        PageRequest pagina = PageRequest.of(0, Math.max(1, Math.min(limite, 500)));
+        return nombreJob != null
+                ? ejecucionJobRepository.findByNombreJobOrderByInicioDesc(nombreJob, pagina)
+                : ejecucionJobRepository.findAllByOrderByInicioDesc(pagina);
+    }
+
+    /**
+     * Resumen agregado por job de las últimas horas, con la duración media por etapa
+     */
+    public List<Map<String, Object>> obtenerResumen(int horas) {
+        LocalDateTime desde = LocalDateTime.now().minusHours(horas);
+
+        Map<String, Map<String, Double>> etapasPorJob = new LinkedHashMap<>();
+        for (Object[] fila : ejecucionJobRepository.duracionMediaEtapasDesde(desde)) {
+            etapasPorJob.computeIfAbsent((String) fila[0], k -> new TreeMap<>())
+                    .put((String) fila[1], redondear((Double) fila[2]));
+        }
+
+        List<Map<String, Object>> resumen = new ArrayList<>();
+        for (Object[] fila : ejecucionJobRepository.resumenPorJobDesde(desde)) {
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("nombreJob", fila[0]);
+            job.put("ejecuciones", fila[1]);
+            job.put("fallidas", fila[2]);
+            job.put("duracionMediaMs", fila[3] != null ? redondear((Double) fila[3]) : null);
+            job.put("duracionMaximaMs", fila[4]);
+            job.put("filasLeidas", fila[5]);
+            job.put("filasEscritas", fila[6]);
+            job.put("llamadasApi", fila[7]);
+            job.put("errores", fila[8]);
+            job.put("etapasMediaMs", etapasPorJob.getOrDefault((String) fila[0], Map.of()));
+            resumen.add(job);
+        }
+        return resumen;
+    }
+
+    /**
+     * Eliminar ejecuciones fuera del período de retención cada domingo a las 3:00 AM
+     */
+    @Scheduled(cron = "0 0 3 * * SUN", zone = "America/Mexico_City")
+    @Transactional
+    public void limpiarEjecucionesAntiguas() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(retencionDias);
+        ejecucionJobRepository.deleteEtapasByInicioBefore(limite);
+        int eliminadas = ejecucionJobRepository.deleteByInicioBefore(limite);
+        log.info("🧹 {} ejecuciones de jobs anteriores a {} eliminadas", eliminadas, limite);
+    }
+
+    private void finalizar(EjecucionEnCurso ejecucion, Throwable error) {
+        LocalDateTime fin = LocalDateTime.now();
+        long duracionMs = (System.nanoTime() - ejecucion.inicioNanos) / 1_000_000;
+
+        EjecucionJob registro = new EjecucionJob();
+        registro.setNombreJob(ejecucion.nombreJob);
+        registro.setInicio(ejecucion.inicio);
+        registro.setFin(fin);
+        registro.setDuracionMs(duracionMs);
+        registro.setFilasLeidas(ejecucion.filasLeidas);
+        registro.setFilasEscritas(ejecucion.filasEscritas);
+        registro.setLlamadasApi(ejecucion.llamadasApi);
+        registro.setEtapasMs(new LinkedHashMap<>(ejecucion.etapasMs));
+        if (error != null) {
+            registro.setEstado("fallido");
+            registro.setErrores(ejecucion.errores + 1);
+            registro.setMensajeError(truncar(error.getMessage()));
+        } else {
+            registro.setEstado(ejecucion.errores > 0 ? "con_errores" : "completado");
+            registro.setErrores(ejecucion.errores);
+            registro.setMensajeError(truncar(ejecucion.mensajeError));
+        }
+
+        indicadores.computeIfAbsent(ejecucion.nombreJob, k -> new IndicadoresJob()).registrar(registro);
+
+        if (!habilitado) {
+            return;
+        }
+        try {
+            ejecucionJobRepository.save(registro);
+        } catch (Exception e) {
+            // La bitácora nunca debe hacer fallar al job
+            log.warn("⚠️ No se pudo registrar la ejecución de {}: {}", ejecucion.nombreJob, e.getMessage());
+        }
+    }
+
+    private static String truncar(String mensaje) {
+        return mensaje != null && mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 10) / 10.0;
+    }
+
+    /**
+     * Acumulador de la ejecución en curso en el hilo del job
+     */
+    private static class EjecucionEnCurso {
+        private final String nombreJob;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final long inicioNanos = System.nanoTime();
+        private final Map<String, Long> etapasMs = new LinkedHashMap<>();
+        private long filasLeidas;
+        private long filasEscritas;
+        private int llamadasApi;
+        private int errores;
+        private String mensajeError;
+
+        EjecucionEnCurso(String nombreJob) {
+            this.nombreJob = nombreJob;
+        }
+    }
+
+    /**
+     * Indicadores en memoria de un job: última ejecución y totales desde el arranque
+     */
+    @Data
+    public static class IndicadoresJob {
+        private long ejecuciones;
+        private long fallidas;
+        private LocalDateTime ultimaEjecucion;
+        private String ultimoEstado;
+        private long ultimaDuracionMs;
+        private Map<String, Long> ultimasEtapasMs = Map.of();
+        private long ultimasFilasEscritas;
+        private double ultimasFilasPorSegundo;
+        private int ultimasLlamadasApi;
+
+        synchronized void registrar(EjecucionJob registro) {
+            ejecuciones++;
+            if ("fallido".equals(registro.getEstado())) {
+                fallidas++;
+            }
+            ultimaEjecucion = registro.getInicio();
+            ultimoEstado = registro.getEstado();
+            ultimaDuracionMs = registro.getDuracionMs();
+            ultimasEtapasMs = Map.copyOf(registro.getEtapasMs());
+            ultimasFilasEscritas = registro.getFilasEscritas();
+            ultimasFilasPorSegundo = ultimaDuracionMs > 0
+                    ? redondear(registro.getFilasEscritas() * 1000.0 / ultimaDuracionMs)
+                    : 0;
+            ultimasLlamadasApi = registro.getLlamadasApi();
+        }
+    }
+}
@@ -343,7 +343,6 @@ public class PerfilUsuarioServiceImpl implements IPerfilUsuarioService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean verificarCodigo2FA(Long idUsuario, String codigo) {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -449,6 +448,7 @@ public class PerfilUsuarioServiceImpl implements IPerfilUsuarioService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PerfilUsuarioResponse obtenerPerfilUsuario(Long idUsuario) {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -600,6 +600,7 @@ public class PerfilUsuarioServiceImpl implements IPerfilUsuarioService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<GameHistory> obtenerHistorialDeJuegoByUserId(Long idUsuario, Pageable pageable) {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -0,0 +1,174 @@
+package com.example.cc.service.quiniela;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Árbol de estadísticas de orden (treap con tamaño de subárbol) para el
+ * ranking de una quiniela.
+ *
+ * Ordena por puntos descendente, aciertos descendente e ID de participación
+ * ascendente, de modo que dos participaciones nunca empatan. Inserción,
+ * eliminación, posición de una clave y clave en una posición cuestan
+ * O(log n) esperado. No es seguro para hilos: lo protege el tablero que lo usa.
+ */
+class ArbolRanking {
+
+    /**
+     * Clave de una participación en el ranking
+     * @param puntos Puntuación en medios puntos (puntuación × 2)
+     */
+    record Clave(long puntos, int aciertos, long participacionId) implements Comparable<Clave> {
+        @Override
+        public int compareTo(Clave otra) {
+            if (puntos != otra.puntos) {
+                return Long.compare(otra.puntos, puntos);
+            }
+            if (aciertos != otra.aciertos) {
+                return Integer.compare(otra.aciertos, aciertos);
+            }
+            return Long.compare(participacionId, otra.participacionId);
+        }
+    }
+
+    private static final class Nodo {
+        final Clave clave;
+        final int prioridad = ThreadLocalRandom.current().nextInt();
+        int tamano = 1;
+        Nodo izquierdo;
+        Nodo derecho;
+
+        Nodo(Clave clave) {
+            this.clave = clave;
+        }
+    }
+
+    private Nodo raiz;
+
+    public int tamano() {
+        return tamano(raiz);
+    }
+
+    public void insertar(Clave clave) {
+        Nodo[] partes = dividir(raiz, clave);
+        raiz = unir(unir(partes[0], new Nodo(clave)), partes[1]);
+    }
+
+    /**
+     * @return true si la clave estaba en el árbol
+     */
+    public boolean eliminar(Clave clave) {
+        int antes = tamano(raiz);
+        raiz = eliminar(raiz, clave);
+        return tamano(raiz) < antes;
+    }
+
+    /**
+     * Posición (desde 1) de una clave del árbol, o 0 si no está
+     */
+    public int posicion(Clave clave) {
+        int anteriores = 0;
+        Nodo nodo = raiz;
+        while (nodo != null) {
+            int comparacion = clave.compareTo(nodo.clave);
+            if (comparacion == 0) {
+                return anteriores + tamano(nodo.izquierdo) + 1;
+            }
+            if (comparacion < 0) {
+                nodo = nodo.izquierdo;
+            } else {
+                anteriores += tamano(nodo.izquierdo) + 1;
+                nodo = nodo.derecho;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Claves desde la posición {@code desde} (desde 1), a lo sumo {@code cantidad}.
+     * Cuesta O(log n + cantidad).
+     */
+    public List<Clave> rango(int desde, int cantidad) {
+        List<Clave> claves = new ArrayList<>(Math.max(0, Math.min(cantidad, tamano(raiz))));
+        if (desde >= 1 && cantidad > 0) {
+            recorrer(raiz, desde - 1, cantidad, claves);
+        }
+        return claves;
+    }
+
+    private static void recorrer(Nodo nodo, int omitir, int cantidad, List<Clave> destino) {
+        if (nodo == null || destino.size() >= cantidad) {
+            return;
+        }
+        int izquierdos = tamano(nodo.izquierdo);
+        if (omitir < izquierdos) {
+            recorrer(nodo.izquierdo, omitir, cantidad, destino);
+        }
+        if (omitir <= izquierdos && destino.size() < cantidad) {
+            destino.add(nodo.clave);
+        }
+        recorrer(nodo.derecho, Math.max(0, omitir - izquierdos - 1), cantidad, destino);
+    }
+
+    private static Nodo eliminar(Nodo nodo, Clave clave) {
+        if (nodo == null) {
+            return null;
+        }
+        int comparacion = clave.compareTo(nodo.clave);
+        if (comparacion == 0) {
+            return unir(nodo.izquierdo, nodo.derecho);
+        }
+        if (comparacion < 0) {
+            nodo.izquierdo = eliminar(nodo.izquierdo, clave);
+        } else {
+            nodo.derecho = eliminar(nodo.derecho, clave);
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    /**
+     * Divide en claves menores que {@code clave} y mayores o iguales
+     */
+    private static Nodo[] dividir(Nodo nodo, Clave clave) {
+        if (nodo == null) {
+            return new Nodo[] { null, null };
+        }
+        if (nodo.clave.compareTo(clave) < 0) {
+            Nodo[] partes = dividir(nodo.derecho, clave);
+            nodo.derecho = partes[0];
+            actualizar(nodo);
+            return new Nodo[] { nodo, partes[1] };
+        }
+        Nodo[] partes = dividir(nodo.izquierdo, clave);
+        nodo.izquierdo = partes[1];
+        actualizar(nodo);
+        return new Nodo[] { partes[0], nodo };
+    }
+
+    private static Nodo unir(Nodo izquierdo, Nodo derecho) {
+        if (izquierdo == null) {
+            return derecho;
+        }
+        if (derecho == null) {
+            return izquierdo;
+        }
+        if (izquierdo.prioridad > derecho.prioridad) {
+            izquierdo.derecho = unir(izquierdo.derecho, derecho);
+            actualizar(izquierdo);
+            return izquierdo;
+        }
+        derecho.izquierdo = unir(izquierdo, derecho.izquierdo);
+        actualizar(derecho);
+        return derecho;
+    }
+
+    private static void actualizar(Nodo nodo) {
+        nodo.tamano = 1 + tamano(nodo.izquierdo) + tamano(nodo.derecho);
+    }
+
+    private static int tamano(Nodo nodo) {
+        return nodo == null ? 0 : nodo.tamano;
+    }
+}
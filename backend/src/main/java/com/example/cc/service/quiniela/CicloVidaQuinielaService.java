@@ -0,0 +1,100 @@
+package com.example.cc.service.quiniela;
+
+import com.example.cc.repository.PrediccionEventoRepository;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operaciones por conjunto del ciclo de vida de las quinielas, pensadas para
+ * los jobs programados: cierre de vencidas en una sola sentencia, consulta de
+ * quinielas listas para resolver y eliminación por lotes de canceladas.
+ *
+ * Cada operación corre en su propia transacción, así que repetirla (cada
+ * minuto o desde otra instancia) solo afecta a las filas que aún cumplen la
+ * condición.
+ */
+@Service
+@Slf4j
+public class CicloVidaQuinielaService {
+
+    private final QuinielaRepository quinielaRepository;
+    private final QuinielaEventoRepository quinielaEventoRepository;
+    private final QuinielaParticipacionRepository participacionRepository;
+    private final PrediccionEventoRepository prediccionRepository;
+    private final TransactionTemplate transaccion;
+
+    @Value("${quinielas.limpieza.lote:500}")
+    private int tamanoLote = 500;
+
+    public CicloVidaQuinielaService(QuinielaRepository quinielaRepository,
+            QuinielaEventoRepository quinielaEventoRepository,
+            QuinielaParticipacionRepository participacionRepository,
+            PrediccionEventoRepository prediccionRepository,
+            PlatformTransactionManager transactionManager) {
+        this.quinielaRepository = quinielaRepository;
+        this.quinielaEventoRepository = quinielaEventoRepository;
+        this.participacionRepository = participacionRepository;
+        this.prediccionRepository = prediccionRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Cerrar todas las quinielas activas con fecha de cierre anterior a {@code ahora}
+     * @return Número de quinielas cerradas
+     */
+    public int cerrarVencidas(LocalDateTime ahora) {
+        Integer cerradas = transaccion.execute(status -> quinielaRepository.cerrarVencidas(ahora));
+        return cerradas != null ? cerradas : 0;
+    }
+
+    /**
+     * IDs de las quinielas cerradas cuyos eventos ya tienen resultado, en orden de cierre
+     */
+    public List<Long> obtenerListasParaResolver() {
+        return quinielaRepository.findIdsListasParaResolver();
+    }
+
+    /**
+     * Eliminar las quinielas canceladas creadas antes de {@code limite} junto con
+     * sus eventos, participaciones y predicciones. Cada lote se borra en su
+     * propia transacción con cuatro sentencias, de hijos a padres.
+     * @return Número de quinielas eliminadas
+     */
+    public int eliminarCanceladasAntes(LocalDateTime limite) {
+        int total = 0;
+        while (true) {
+            Integer eliminadas = transaccion.execute(status -> {
+                List<Long> ids = quinielaRepository.findIdsCanceladasAntes(limite, PageRequest.of(0, tamanoLote));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                int predicciones = prediccionRepository.eliminarPorQuinielaIds(ids);
+                int participaciones = participacionRepository.eliminarPorQuinielaIds(ids);
+                int eventos = quinielaEventoRepository.eliminarPorQuinielaIds(ids);
+                int quinielas = quinielaRepository.eliminarPorIds(ids);
+                log.debug("🗑️ Lote de limpieza: {} quinielas, {} eventos, {} participaciones, {} predicciones",
+                        quinielas, eventos, participaciones, predicciones);
+                return quinielas;
+            });
+            if (eliminadas == null || eliminadas == 0) {
+                return total;
+            }
+            total += eliminadas;
+            if (eliminadas < tamanoLote) {
+                return total;
+            }
+        }
+    }
+}
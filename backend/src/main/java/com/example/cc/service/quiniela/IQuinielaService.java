@@ -63,12 +63,46 @@ public interface IQuinielaService {
     Page<Quiniela> obtenerQuinielasActivas(Pageable pageable);
 
     /**
-     * Obtener ranking de una quiniela
+     * Obtener el ranking completo de una quiniela
      * @param quinielaId ID de la quiniela
      * @return Lista del ranking
      */
     List<RankingParticipacionDto> obtenerRanking(Long quinielaId);
 
+    /**
+     * Obtener una página del ranking de una quiniela
+     * @param quinielaId ID de la quiniela
+     * @param pagina Número de página, desde 0
+     * @param tamano Posiciones por página (acotado por quinielas.ranking.limite-maximo)
+     * @return Lista del ranking
+     */
+    List<RankingParticipacionDto> obtenerRanking(Long quinielaId, int pagina, int tamano);
+
+    /**
+     * Obtener las primeras posiciones del ranking en vivo
+     * @param quinielaId ID de la quiniela
+     * @param limite Número de posiciones
+     * @return Lista del ranking
+     */
+    List<RankingParticipacionDto> obtenerTopRanking(Long quinielaId, int limite);
+
+    /**
+     * Obtener la posición de una participación en el ranking en vivo
+     * @param quinielaId ID de la quiniela
+     * @param participacionId ID de la participación
+     * @return Posición de la participación
+     */
+    RankingParticipacionDto obtenerPosicionRanking(Long quinielaId, Long participacionId);
+
+    /**
+     * Obtener las participaciones alrededor de una participación en el ranking en vivo
+     * @param quinielaId ID de la quiniela
+     * @param participacionId ID de la participación
+     * @param radio Posiciones por encima y por debajo
+     * @return Lista del ranking
+     */
+    List<RankingParticipacionDto> obtenerVecinosRanking(Long quinielaId, Long participacionId, int radio);
+
     /**
      * Obtener una quiniela por su ID
      * @param quinielaId ID de la quiniela
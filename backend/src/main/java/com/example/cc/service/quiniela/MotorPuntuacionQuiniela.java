@@ -0,0 +1,231 @@
+package com.example.cc.service.quiniela;
+
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Cálculo masivo de aciertos y puntuación de una quiniela.
+ *
+ * Los resultados de los eventos se cargan una sola vez en arreglos primitivos
+ * (ID de evento ordenado → código de resultado), las predicciones de todas las
+ * participaciones se recorren en una única consulta ordenada por participación
+ * y el resultado se escribe con un solo UPDATE sobre arreglos (unnest), en
+ * lugar de dos consultas y una carga perezosa de eventos por participante.
+ *
+ * Reglas (las mismas que aplicaba QuinielaService): un acierto es una
+ * predicción igual al resultado del evento; la puntuación es 100 por acierto
+ * más 0.5 por cada punto de confianza de las predicciones acertadas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MotorPuntuacionQuiniela {
+
+    private static final String SQL_ACTUALIZAR =
+            "UPDATE quiniela_participaciones qp SET aciertos = v.aciertos, puntuacion = v.puntuacion, " +
+            "fecha_actualizacion = ? " +
+            "FROM unnest(?::bigint[], ?::int[], ?::numeric[]) AS v(id, aciertos, puntuacion) " +
+            "WHERE qp.id = v.id";
+
+    private final QuinielaEventoRepository quinielaEventoRepository;
+    private final QuinielaParticipacionRepository participacionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cargar los resultados de los eventos de una quiniela
+     */
+    public ResultadosQuiniela cargarResultados(Long quinielaId) {
+        return ResultadosQuiniela.desde(quinielaEventoRepository.findResultadosEventosByQuinielaId(quinielaId));
+    }
+
+    /**
+     * Calcular y guardar aciertos y puntuación de todas las participaciones con
+     * predicciones completadas. Debe ejecutarse dentro de una transacción.
+     * @return Número de participaciones puntuadas
+     */
+    public int puntuar(Long quinielaId, ResultadosQuiniela resultados) {
+        long inicio = System.currentTimeMillis();
+        Puntuaciones puntuaciones = calcular(quinielaId, resultados,
+                EnumSet.of(QuinielaParticipacion.EstadoParticipacion.PREDICCIONES_COMPLETADAS));
+
+        int total = puntuaciones.total;
+        if (total > 0) {
+            guardar(puntuaciones);
+        }
+
+        log.info("🏁 Quiniela {}: {} participaciones puntuadas en {}ms",
+                quinielaId, total, System.currentTimeMillis() - inicio);
+        return total;
+    }
+
+    /**
+     * Calcular sin guardar aciertos y puntuación de las participaciones en los
+     * estados dados; los eventos sin resultado no suman (puntuación provisional)
+     */
+    Puntuaciones calcular(Long quinielaId, ResultadosQuiniela resultados,
+            Collection<QuinielaParticipacion.EstadoParticipacion> estados) {
+        Puntuaciones puntuaciones = new Puntuaciones();
+        try (Stream<Object[]> filas = participacionRepository.streamPrediccionesParaPuntuar(quinielaId, estados)) {
+            filas.forEach(fila -> puntuaciones.acumular(
+                    (Long) fila[0],
+                    resultados.esAcierto((Long) fila[1], (String) fila[2]),
+                    fila[3] != null ? (Integer) fila[3] : 0));
+        }
+        return puntuaciones;
+    }
+
+    private void guardar(Puntuaciones puntuaciones) {
+        int total = puntuaciones.total;
+        Long[] ids = new Long[total];
+        Integer[] aciertos = new Integer[total];
+        BigDecimal[] puntuacion = new BigDecimal[total];
+        for (int i = 0; i < total; i++) {
+            ids[i] = puntuaciones.ids[i];
+            aciertos[i] = puntuaciones.aciertos[i];
+            puntuacion[i] = puntuacion(puntuaciones.aciertos[i], puntuaciones.sumaConfianza[i]);
+        }
+
+        jdbcTemplate.execute(SQL_ACTUALIZAR, (PreparedStatement ps) -> {
+            Array arregloIds = ps.getConnection().createArrayOf("bigint", ids);
+            Array arregloAciertos = ps.getConnection().createArrayOf("integer", aciertos);
+            Array arregloPuntuacion = ps.getConnection().createArrayOf("numeric", puntuacion);
+            try {
+                ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setArray(2, arregloIds);
+                ps.setArray(3, arregloAciertos);
+                ps.setArray(4, arregloPuntuacion);
+                return ps.executeUpdate();
+            } finally {
+                arregloIds.free();
+                arregloAciertos.free();
+                arregloPuntuacion.free();
+            }
+        });
+    }
+
+    /**
+     * 100 puntos por acierto + 0.5 por punto de confianza acertado
+     */
+    static BigDecimal puntuacion(int aciertos, long sumaConfianza) {
+        return BigDecimal.valueOf((aciertos * 200L + sumaConfianza) * 5, 1).setScale(2);
+    }
+
+    /**
+     * Resultados de los eventos de una quiniela en arreglos primitivos: IDs de
+     * evento ordenados y, en la misma posición, el código del resultado
+     * (0 si el evento aún no tiene resultado).
+     */
+    public static final class ResultadosQuiniela {
+        private final long[] eventoIds;
+        private final int[] codigos;
+        private final Map<String, Integer> codigosPorResultado;
+
+        private ResultadosQuiniela(long[] eventoIds, int[] codigos, Map<String, Integer> codigosPorResultado) {
+            this.eventoIds = eventoIds;
+            this.codigos = codigos;
+            this.codigosPorResultado = codigosPorResultado;
+        }
+
+        static ResultadosQuiniela desde(List<Object[]> filas) {
+            Object[][] ordenadas = filas.toArray(new Object[0][]);
+            Arrays.sort(ordenadas, (a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+
+            long[] eventoIds = new long[ordenadas.length];
+            int[] codigos = new int[ordenadas.length];
+            Map<String, Integer> codigosPorResultado = new HashMap<>();
+            for (int i = 0; i < ordenadas.length; i++) {
+                eventoIds[i] = (Long) ordenadas[i][0];
+                String resultado = (String) ordenadas[i][1];
+                codigos[i] = resultado == null ? 0
+                        : codigosPorResultado.computeIfAbsent(resultado, r -> codigosPorResultado.size() + 1);
+            }
+            return new ResultadosQuiniela(eventoIds, codigos, codigosPorResultado);
+        }
+
+        public int getTotalEventos() {
+            return eventoIds.length;
+        }
+
+        public boolean todosFinalizados() {
+            for (int codigo : codigos) {
+                if (codigo == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean esAcierto(Long eventoId, String prediccion) {
+            if (eventoId == null || prediccion == null) {
+                return false;
+            }
+            int posicion = Arrays.binarySearch(eventoIds, eventoId);
+            if (posicion < 0 || codigos[posicion] == 0) {
+                return false;
+            }
+            Integer codigoPrediccion = codigosPorResultado.get(prediccion);
+            return codigoPrediccion != null && codigoPrediccion == codigos[posicion];
+        }
+    }
+
+    /**
+     * Acumulador en arreglos primitivos de las puntuaciones, en orden de participación
+     */
+    static final class Puntuaciones {
+        private long[] ids = new long[1024];
+        private int[] aciertos = new int[1024];
+        private long[] sumaConfianza = new long[1024];
+        private int total = 0;
+        private long actual = -1;
+
+        int getTotal() {
+            return total;
+        }
+
+        long getId(int i) {
+            return ids[i];
+        }
+
+        int getAciertos(int i) {
+            return aciertos[i];
+        }
+
+        long getSumaConfianza(int i) {
+            return sumaConfianza[i];
+        }
+
+        void acumular(long participacionId, boolean acierto, int confianza) {
+            if (participacionId != actual) {
+                if (total == ids.length) {
+                    ids = Arrays.copyOf(ids, total * 2);
+                    aciertos = Arrays.copyOf(aciertos, total * 2);
+                    sumaConfianza = Arrays.copyOf(sumaConfianza, total * 2);
+                }
+                ids[total++] = participacionId;
+                actual = participacionId;
+            }
+            if (acierto) {
+                aciertos[total - 1]++;
+                sumaConfianza[total - 1] += confianza;
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.cc.service.quiniela;
 import com.example.cc.entities.*;
 import com.example.cc.repository.*;
 import com.example.cc.service.notificaion.NotificationService;
+import com.example.cc.service.quinielaEventoStats.QuinielaEventoStatsService;
 import com.example.cc.service.wallet.WalletService;
 import com.example.cc.dto.*;
 import com.example.cc.dto.request.CrearQuinielaRequest;
@@ -11,13 +12,13 @@ import com.example.cc.dto.request.PrediccionRequest;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -36,6 +37,11 @@ public class QuinielaService implements IQuinielaService {
     private final WalletService walletService;
     private final NotificationService notificationService;
     private final ObjectMapper objectMapper;
+    private final MotorPuntuacionQuiniela motorPuntuacion;
+    private final RankingEnVivoService rankingEnVivo;
+    private final RegistroPrediccionesQuiniela registroPredicciones;
+    private final RepartoPremiosQuiniela repartoPremios;
+    private final QuinielaEventoStatsService quinielaEventoStats;
 
     /**
      * Crear una nueva quiniela
@@ -160,18 +166,9 @@ public class QuinielaService implements IQuinielaService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        // Validaciones
+        // Validaciones rápidas; cupo, saldo y duplicados se garantizan en la base
         validarParticipacion(quiniela, usuario);
 
-        // Verificar que el usuario no esté ya participando
-        if (participacionRepository.existsByQuinielaAndUsuario(quiniela, usuario)) {
-            throw new RuntimeException("El usuario ya está participando en esta quiniela");
-        }
-
-        // Procesar pago
-        walletService.procesarPagoParticipacion(usuario, quiniela.getCostoParticipacion(),
-                "Participación en quiniela: " + quiniela.getNombre());
-
         // Crear participación - Asegurarse de que las relaciones están bien
         // establecidas
         QuinielaParticipacion participacion = new QuinielaParticipacion();
@@ -182,18 +179,28 @@ public class QuinielaService implements IQuinielaService {
         participacion.setPagado(true); // Marcar como pagado ya que se procesó el pago
         participacion.setEstado(QuinielaParticipacion.EstadoParticipacion.ACTIVA);
 
-        // Guardar la participación PRIMERO para asegurar que se persiste la relación
-        QuinielaParticipacion savedParticipacion = participacionRepository.save(participacion);
+        // Guardar la participación PRIMERO: la restricción única (quiniela, usuario)
+        // rechaza la participación duplicada
+        QuinielaParticipacion savedParticipacion;
+        try {
+            savedParticipacion = participacionRepository.saveAndFlush(participacion);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("El usuario ya está participando en esta quiniela");
+        }
 
-        // Forzar la sincronización para asegurar que la relación está persistida
-        participacionRepository.flush();
+        // Procesar pago (débito atómico sobre la fila del usuario)
+        walletService.procesarPagoParticipacion(usuario, quiniela.getCostoParticipacion(),
+                "Participación en quiniela: " + quiniela.getNombre());
 
-        // Actualizar contadores de la quiniela
-        quiniela.setParticipantesActuales(quiniela.getParticipantesActuales() + 1);
-        quiniela.setPoolActual(quiniela.getPoolActual().add(quiniela.getCostoParticipacion()));
+        // Ocupar el lugar al final: la fila de la quiniela, compartida por todos
+        // los participantes, queda bloqueada solo hasta el commit
+        if (quinielaRepository.ocuparLugar(quinielaId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Se ha alcanzado el límite máximo de participantes o la quiniela ya no está abierta");
+        }
 
-        // Guardar la quiniela actualizada
-        quinielaRepository.save(quiniela);
+        // Agregar al ranking en vivo al confirmar
+        rankingEnVivo.registrarParticipacion(quinielaId, savedParticipacion.getId(),
+                usuario.getPerfil() != null ? usuario.getPerfil().getNombre() : null);
 
         // Notificar participación exitosa
         notificationService.notificarParticipacionExitosa(usuario, quiniela);
@@ -219,86 +226,46 @@ public class QuinielaService implements IQuinielaService {
             throw new RuntimeException("El tiempo para realizar predicciones ha expirado");
         }
 
-        List<PrediccionEvento> prediccionesGuardadas = new ArrayList<>();
-
-        for (PrediccionRequest prediccionRequest : predicciones) {
-            // Buscar el evento en la quiniela
-            // Debug temporal - verificar qué eventos tiene realmente la quiniela
-
-            QuinielaEvento quinielaEvento = null;
-            for (QuinielaEvento qe : participacion.getQuiniela().getEventos()) {
-                if (qe.getId().equals(prediccionRequest.getEventoId())) {
-                    quinielaEvento = qe;
-                    break;
-                }
-            }
-            
-            if (quinielaEvento == null) {
-                throw new RuntimeException("El evento no pertenece a esta quiniela");
-            }
-
-            // Crear o actualizar predicción
-            PrediccionEvento prediccion = prediccionRepository
-                    .findByParticipacionAndEventoDeportivo_Id(participacion, prediccionRequest.getEventoId())
-                    .orElse(new PrediccionEvento());
+        // Indexar eventos, cargar existentes y escribir en lote
+        RegistroPrediccionesQuiniela.ResultadoPredicciones resultado =
+                registroPredicciones.registrar(participacion, predicciones);
 
-            prediccion.setParticipacion(participacion);
-            prediccion.setEventoDeportivo(quinielaEvento.getEventoDeportivo());
-            prediccion.setPrediccion(prediccionRequest.getPrediccion());
-            prediccion.setConfianza(prediccionRequest.getConfianza());
-            prediccion.setPuntosPosibles(quinielaEvento.getPuntosPorAcierto());
-            
-            // Usar el tipo de predicción del QuinielaEvento (ya no debería ser null)
-            prediccion.setTipoPrediccion(quinielaEvento.getTipoPrediccion());
-            
-            prediccion.setFechaPrediccion(LocalDateTime.now());
-
-            PrediccionEvento prediccionCreada=prediccionRepository.save(prediccion);
-
-            prediccionesGuardadas.add(prediccionCreada);
-        }
+        // La distribución de pronósticos en memoria se actualiza al confirmar
+        quinielaEventoStats.registrarPredicciones(participacion.getQuiniela().getId(), resultado.getCambios());
 
         // Marcar participación como completa si tiene todas las predicciones
-        long prediccionesTotales = participacion.getQuiniela().getEventos().size();
-        long prediccionesRealizadas = prediccionRepository.countByParticipacion(participacion);
-
-        if (prediccionesRealizadas >= prediccionesTotales) {
+        if (resultado.isCompleta()) {
             participacion.setEstado(QuinielaParticipacion.EstadoParticipacion.PREDICCIONES_COMPLETADAS);
-            participacionRepository.save(participacion);
         }
 
-        return prediccionesGuardadas;
+        return resultado.getGuardadas();
     }
 
     /**
      * Procesar resultados de una quiniela
      */
     public void procesarResultados(Long quinielaId) {
+        // Reservar la quiniela (CERRADA → EN_RESOLUCION) antes de puntuar: una
+        // segunda ejecución concurrente ve 0 filas y no puede pagar premios dos veces.
+        // Si algo falla, el rollback la devuelve a CERRADA.
+        int reservada = quinielaRepository.reservarParaResolucion(quinielaId, LocalDateTime.now());
+
         Quiniela quiniela = quinielaRepository.findById(quinielaId)
                 .orElseThrow(() -> new RuntimeException("Quiniela no encontrada"));
 
-        if (quiniela.getEstado() != Quiniela.EstadoQuiniela.CERRADA) {
+        if (reservada == 0) {
             throw new RuntimeException("La quiniela debe estar cerrada para procesar resultados");
         }
 
-        // Verificar que todos los eventos tengan resultados
-        boolean todosEventosFinalizados = quiniela.getEventos().stream()
-                .allMatch(qe -> qe.getEventoDeportivo().getResultado() != null);
+        // Verificar que todos los eventos tengan resultados (una sola consulta)
+        MotorPuntuacionQuiniela.ResultadosQuiniela resultados = motorPuntuacion.cargarResultados(quinielaId);
 
-        if (!todosEventosFinalizados) {
+        if (!resultados.todosFinalizados()) {
             throw new RuntimeException("No todos los eventos tienen resultados disponibles");
         }
 
-        // Calcular aciertos para cada participación
-        List<QuinielaParticipacion> participaciones = participacionRepository
-                .findByQuinielaAndEstado(quiniela, QuinielaParticipacion.EstadoParticipacion.PREDICCIONES_COMPLETADAS);
-
-        for (QuinielaParticipacion participacion : participaciones) {
-            int aciertos = calcularAciertos(participacion);
-            participacion.setAciertos(aciertos);
-            participacion.setPuntuacion(calcularPuntuacion(participacion, aciertos));
-            participacionRepository.save(participacion);
-        }
+        // Calcular aciertos y puntuación de todas las participaciones en una pasada
+        motorPuntuacion.puntuar(quinielaId, resultados);
 
         // Distribuir premios según el tipo de distribución
         distribuirPremios(quiniela);
@@ -308,6 +275,9 @@ public class QuinielaService implements IQuinielaService {
         quiniela.setFechaResultados(LocalDateTime.now());
         quinielaRepository.save(quiniela);
 
+        // El ranking en vivo pasa a la puntuación definitiva
+        rankingEnVivo.invalidar(quinielaId);
+
         // Notificar resultados
         notificationService.notificarResultadosQuiniela(quiniela);
     }
@@ -322,7 +292,7 @@ public class QuinielaService implements IQuinielaService {
     }
 
     /**
-     * Obtener ranking de una quiniela
+     * Obtener el ranking completo de una quiniela
      */
     @Transactional(readOnly = true)
     public List<RankingParticipacionDto> obtenerRanking(Long quinielaId) {
@@ -331,14 +301,45 @@ public class QuinielaService implements IQuinielaService {
             throw new RuntimeException("Quiniela no encontrada");
         }
 
-        List<RankingParticipacionDto> ranking = participacionRepository.findRankingByQuiniela(quinielaId);
+        return rankingEnVivo.obtenerCompleto(quinielaId);
+    }
 
-        // Asignar posiciones manualmente
-        for (int i = 0; i < ranking.size(); i++) {
-            ranking.get(i).setPosicion(i + 1);
+    /**
+     * Obtener una página del ranking de una quiniela
+     */
+    @Transactional(readOnly = true)
+    public List<RankingParticipacionDto> obtenerRanking(Long quinielaId, int pagina, int tamano) {
+        // Validar que la quiniela existe
+        if (!quinielaRepository.existsById(quinielaId)) {
+            throw new RuntimeException("Quiniela no encontrada");
         }
 
-        return ranking;
+        return rankingEnVivo.obtenerPagina(quinielaId, pagina, tamano);
+    }
+
+    /**
+     * Obtener las primeras posiciones del ranking en vivo
+     */
+    @Transactional(readOnly = true)
+    public List<RankingParticipacionDto> obtenerTopRanking(Long quinielaId, int limite) {
+        return rankingEnVivo.obtenerTop(quinielaId, limite);
+    }
+
+    /**
+     * Obtener la posición de una participación en el ranking en vivo
+     */
+    @Transactional(readOnly = true)
+    public RankingParticipacionDto obtenerPosicionRanking(Long quinielaId, Long participacionId) {
+        return rankingEnVivo.obtenerPosicion(quinielaId, participacionId)
+                .orElseThrow(() -> new RuntimeException("Participación no encontrada en la quiniela"));
+    }
+
+    /**
+     * Obtener las participaciones alrededor de una participación en el ranking en vivo
+     */
+    @Transactional(readOnly = true)
+    public List<RankingParticipacionDto> obtenerVecinosRanking(Long quinielaId, Long participacionId, int radio) {
+        return rankingEnVivo.obtenerVecinos(quinielaId, participacionId, radio);
     }
 
     /**
@@ -411,43 +412,6 @@ public class QuinielaService implements IQuinielaService {
         }
     }
 
-    private int calcularAciertos(QuinielaParticipacion participacion) {
-        List<PrediccionEvento> predicciones = prediccionRepository
-                .findByParticipacion(participacion);
-
-        int aciertos = 0;
-        for (PrediccionEvento prediccion : predicciones) {
-            String resultado = prediccion.getEventoDeportivo().getResultado();
-            if (resultado != null && resultado.equals(prediccion.getPrediccion())) {
-                aciertos++;
-            }
-        }
-        return aciertos;
-    }
-
-    private BigDecimal calcularPuntuacion(QuinielaParticipacion participacion, int aciertos) {
-        // Puntuación base por aciertos
-        BigDecimal puntuacionBase = new BigDecimal(aciertos * 100);
-
-        // Bonificación por confianza (si aplica)
-        List<PrediccionEvento> predicciones = prediccionRepository
-                .findByParticipacion(participacion);
-
-        BigDecimal bonusConfianza = BigDecimal.ZERO;
-        for (PrediccionEvento prediccion : predicciones) {
-            if (prediccion.getEventoDeportivo().getResultado() != null &&
-                    prediccion.getEventoDeportivo().getResultado().equals(prediccion.getPrediccion())) {
-
-                if (prediccion.getConfianza() != null) {
-                    bonusConfianza = bonusConfianza.add(
-                            new BigDecimal(prediccion.getConfianza()).multiply(new BigDecimal("0.5")));
-                }
-            }
-        }
-
-        return puntuacionBase.add(bonusConfianza);
-    }
-
     private void distribuirPremios(Quiniela quiniela) {
         List<QuinielaParticipacion> participaciones = participacionRepository
                 .findByQuinielaOrderByPuntuacionDescAciertosDesc(quiniela);
@@ -457,127 +421,26 @@ public class QuinielaService implements IQuinielaService {
         }
 
         BigDecimal poolTotal = quiniela.getPoolActual();
-        BigDecimal comisionCasa = poolTotal.multiply(quiniela.getPorcentajeCasa())
-                .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-        BigDecimal comisionCreador = poolTotal.multiply(quiniela.getPorcentajeCreador())
-                .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-
-        BigDecimal poolParaPremios = poolTotal.subtract(comisionCasa).subtract(comisionCreador);
-
-        // Aplicar distribución según tipo
-        switch (quiniela.getTipoDistribucion()) {
-            case WINNER_TAKES_ALL -> distribuirGanadorUnico(participaciones, poolParaPremios);
-            case TOP_3_CLASICA -> distribuirTop3Clasica(participaciones, poolParaPremios);
-            case TOP_5_PIRAMIDE -> distribuirTop5Piramide(participaciones, poolParaPremios);
-            case POR_ACIERTOS_PROGRESIVO -> distribuirPorAciertos(participaciones, poolParaPremios);
-            // Implementar otros tipos según necesidad
-            default -> distribuirGanadorUnico(participaciones, poolParaPremios);
-        }
-
-        // Procesar comisiones
-        procesarComisiones(quiniela, comisionCasa, comisionCreador);
-    }
-
-    private void distribuirGanadorUnico(List<QuinielaParticipacion> participaciones, BigDecimal pool) {
-        QuinielaParticipacion ganador = participaciones.get(0);
-        ganador.setPremioGanado(pool);
-        participacionRepository.save(ganador);
-
-        // Procesar pago del premio
-        walletService.procesarPagoPremio(ganador.getUsuario(), pool,
-                "Premio quiniela: " + ganador.getQuiniela().getNombre());
-    }
-
-    private void distribuirTop3Clasica(List<QuinielaParticipacion> participaciones, BigDecimal pool) {
-        if (participaciones.size() >= 1) {
-            BigDecimal premio1 = pool.multiply(new BigDecimal("0.60"));
-            participaciones.get(0).setPremioGanado(premio1);
-            walletService.procesarPagoPremio(participaciones.get(0).getUsuario(), premio1,
-                    "Primer lugar - " + participaciones.get(0).getQuiniela().getNombre());
-        }
-
-        if (participaciones.size() >= 2) {
-            BigDecimal premio2 = pool.multiply(new BigDecimal("0.25"));
-            participaciones.get(1).setPremioGanado(premio2);
-            walletService.procesarPagoPremio(participaciones.get(1).getUsuario(), premio2,
-                    "Segundo lugar - " + participaciones.get(1).getQuiniela().getNombre());
-        }
-
-        if (participaciones.size() >= 3) {
-            BigDecimal premio3 = pool.multiply(new BigDecimal("0.15"));
-            participaciones.get(2).setPremioGanado(premio3);
-            walletService.procesarPagoPremio(participaciones.get(2).getUsuario(), premio3,
-                    "Tercer lugar - " + participaciones.get(2).getQuiniela().getNombre());
-        }
-
-        participacionRepository.saveAll(participaciones.subList(0, Math.min(3, participaciones.size())));
-    }
+        BigDecimal comisionCasa = RepartoPremiosQuiniela.comision(poolTotal, quiniela.getPorcentajeCasa());
+        BigDecimal comisionCreador = RepartoPremiosQuiniela.comision(poolTotal, quiniela.getPorcentajeCreador());
 
-    private void distribuirTop5Piramide(List<QuinielaParticipacion> participaciones, BigDecimal pool) {
-        BigDecimal[] porcentajes = {
-                new BigDecimal("0.40"), // 1er lugar: 40%
-                new BigDecimal("0.25"), // 2do lugar: 25%
-                new BigDecimal("0.15"), // 3er lugar: 15%
-                new BigDecimal("0.12"), // 4to lugar: 12%
-                new BigDecimal("0.08") // 5to lugar: 8%
-        };
+        BigDecimal poolParaPremios = RepartoPremiosQuiniela.poolParaPremios(quiniela);
 
-        for (int i = 0; i < Math.min(5, participaciones.size()); i++) {
-            BigDecimal premio = pool.multiply(porcentajes[i]);
-            participaciones.get(i).setPremioGanado(premio);
-            walletService.procesarPagoPremio(participaciones.get(i).getUsuario(), premio,
-                    "Premio posición " + (i + 1) + " - " + participaciones.get(i).getQuiniela().getNombre());
-        }
-
-        participacionRepository.saveAll(participaciones.subList(0, Math.min(5, participaciones.size())));
+        // Calcular todos los premios y comisiones, y pagarlos en un solo lote
+        List<PagoPremioDto> pagos = repartoPremios.repartir(quiniela, participaciones, poolParaPremios);
+        agregarComisiones(quiniela, comisionCasa, comisionCreador, pagos);
+        walletService.procesarPagosPremios(pagos);
     }
 
-    private void distribuirPorAciertos(List<QuinielaParticipacion> participaciones, BigDecimal pool) {
-        // Agrupar por número de aciertos
-        Map<Integer, List<QuinielaParticipacion>> gruposPorAciertos = new HashMap<>();
-        for (QuinielaParticipacion p : participaciones) {
-            gruposPorAciertos.computeIfAbsent(p.getAciertos(), k -> new ArrayList<>()).add(p);
-        }
-
-        // Obtener grupos ordenados por aciertos (descendente)
-        List<Integer> aciertosSorted = gruposPorAciertos.keySet().stream()
-                .sorted(Collections.reverseOrder())
-                .toList();
-
-        BigDecimal[] porcentajesPorGrupo = {
-                new BigDecimal("0.50"), // Máximo aciertos: 50%
-                new BigDecimal("0.30"), // Segundo grupo: 30%
-                new BigDecimal("0.20") // Tercer grupo: 20%
-        };
-
-        for (int i = 0; i < Math.min(3, aciertosSorted.size()); i++) {
-            Integer aciertos = aciertosSorted.get(i);
-            List<QuinielaParticipacion> grupo = gruposPorAciertos.get(aciertos);
-
-            BigDecimal premioGrupo = pool.multiply(porcentajesPorGrupo[i]);
-            BigDecimal premioIndividual = premioGrupo.divide(
-                    new BigDecimal(grupo.size()), 2, RoundingMode.HALF_UP);
-
-            for (QuinielaParticipacion participacion : grupo) {
-                participacion.setPremioGanado(premioIndividual);
-                walletService.procesarPagoPremio(participacion.getUsuario(), premioIndividual,
-                        "Premio por " + aciertos + " aciertos - " + participacion.getQuiniela().getNombre());
-            }
-
-            participacionRepository.saveAll(grupo);
-        }
-    }
-
-    private void procesarComisiones(Quiniela quiniela, BigDecimal comisionCasa, BigDecimal comisionCreador) {
+    private void agregarComisiones(Quiniela quiniela, BigDecimal comisionCasa, BigDecimal comisionCreador,
+            List<PagoPremioDto> pagos) {
         // Comisión de la casa (se puede procesar internamente)
 
         // Comisión del creador
-        if (comisionCreador.compareTo(BigDecimal.ZERO) > 0) {
-            Usuario creador = usuarioRepository.findById(quiniela.getCreadorId()).orElse(null);
-            if (creador != null) {
-                walletService.procesarPagoPremio(creador, comisionCreador,
-                        "Comisión por crear quiniela: " + quiniela.getNombre());
-            }
+        if (comisionCreador.compareTo(BigDecimal.ZERO) > 0 && quiniela.getCreadorId() != null
+                && usuarioRepository.existsById(quiniela.getCreadorId())) {
+            pagos.add(new PagoPremioDto(quiniela.getCreadorId(), comisionCreador,
+                    "Comisión por crear quiniela: " + quiniela.getNombre()));
         }
     }
 
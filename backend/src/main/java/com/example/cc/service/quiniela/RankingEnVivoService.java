@@ -0,0 +1,532 @@
+package com.example.cc.service.quiniela;
+
+import com.example.cc.dto.RankingParticipacionDto;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.scheduler.CoordinadorJobs;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import com.example.cc.service.transacciones.TransaccionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ranking en vivo de las quinielas.
+ *
+ * Cada quiniela consultada tiene en memoria un tablero con sus participaciones
+ * en un {@link ArbolRanking}, de modo que el top N, la posición de una
+ * participación y sus vecinos se resuelven en O(log n) sin volver a ordenar.
+ * El tablero se construye la primera vez con la puntuación provisional (los
+ * eventos sin resultado no suman) y después se actualiza por delta con cada
+ * {@link LiveScoreCambioEvent} de finalización o corrección: solo se mueven
+ * las participaciones cuya predicción de ese evento cambia de acierto.
+ *
+ * Los deltas solo llegan a la instancia que procesa los livescores, así que
+ * cada tablero se revalida contra la base de datos como mucho cada
+ * {@code quinielas.ranking.revalidacion}: si el estado de la quiniela, los
+ * resultados de sus eventos o el número de participaciones no coinciden con
+ * los del tablero, se reconstruye.
+ *
+ * Las posiciones cambiadas se escriben periódicamente en
+ * {@code posicion_actual} bajo la concesión del job
+ * {@code quinielas.ranking.persistir}, revalidando cada tablero antes de
+ * escribirlo para no guardar posiciones desfasadas.
+ */
+@Service
+@Slf4j
+public class RankingEnVivoService {
+
+    private static final String SQL_POSICIONES =
+            "UPDATE quiniela_participaciones qp SET posicion_actual = v.posicion " +
+            "FROM unnest(?::bigint[], ?::int[]) AS v(id, posicion) WHERE qp.id = v.id";
+
+    private final QuinielaRepository quinielaRepository;
+    private final QuinielaParticipacionRepository participacionRepository;
+    private final QuinielaEventoRepository quinielaEventoRepository;
+    private final MotorPuntuacionQuiniela motorPuntuacion;
+    private final RegistroEjecucionesService registroEjecuciones;
+    private final CoordinadorJobs coordinadorJobs;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionLectura;
+
+    private final Map<Long, Tablero> tableros = new ConcurrentHashMap<>();
+
+    /** Cambios de eventos recibidos; un tablero construido mientras cambia no se guarda */
+    private final AtomicLong cambiosEventos = new AtomicLong();
+
+    @Value("${quinielas.ranking.inactividad:PT2H}")
+    private Duration inactividad = Duration.ofHours(2);
+
+    @Value("${quinielas.ranking.revalidacion:PT5S}")
+    private Duration revalidacion = Duration.ofSeconds(5);
+
+    @Value("${quinielas.ranking.limite-maximo:100}")
+    private int limiteMaximo = 100;
+
+    public RankingEnVivoService(QuinielaRepository quinielaRepository,
+            QuinielaParticipacionRepository participacionRepository,
+            QuinielaEventoRepository quinielaEventoRepository,
+            MotorPuntuacionQuiniela motorPuntuacion,
+            RegistroEjecucionesService registroEjecuciones,
+            CoordinadorJobs coordinadorJobs,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.quinielaRepository = quinielaRepository;
+        this.participacionRepository = participacionRepository;
+        this.quinielaEventoRepository = quinielaEventoRepository;
+        this.motorPuntuacion = motorPuntuacion;
+        this.registroEjecuciones = registroEjecuciones;
+        this.coordinadorJobs = coordinadorJobs;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Primeras {@code limite} posiciones del ranking, como mucho
+     * {@code quinielas.ranking.limite-maximo}
+     */
+    public List<RankingParticipacionDto> obtenerTop(Long quinielaId, int limite) {
+        return obtenerPagina(quinielaId, 0, limite);
+    }
+
+    /**
+     * Ranking completo, sin el tope de {@code quinielas.ranking.limite-maximo}
+     */
+    public List<RankingParticipacionDto> obtenerCompleto(Long quinielaId) {
+        return tablero(quinielaId).completo();
+    }
+
+    /**
+     * Página del ranking de tamaño {@code tamano}, como mucho
+     * {@code quinielas.ranking.limite-maximo}
+     */
+    public List<RankingParticipacionDto> obtenerPagina(Long quinielaId, int pagina, int tamano) {
+        int cantidad = Math.max(1, Math.min(tamano, limiteMaximo));
+        long desde = (long) Math.max(0, pagina) * cantidad + 1;
+        if (desde > Integer.MAX_VALUE) {
+            return List.of();
+        }
+        return tablero(quinielaId).rango((int) desde, cantidad);
+    }
+
+    /**
+     * Posición actual de una participación
+     */
+    public Optional<RankingParticipacionDto> obtenerPosicion(Long quinielaId, Long participacionId) {
+        return Optional.ofNullable(tablero(quinielaId).posicion(participacionId));
+    }
+
+    /**
+     * Participaciones a lo sumo {@code radio} posiciones por encima y por debajo
+     * de una participación, incluida ella
+     */
+    public List<RankingParticipacionDto> obtenerVecinos(Long quinielaId, Long participacionId, int radio) {
+        return tablero(quinielaId).vecinos(participacionId, Math.max(0, radio));
+    }
+
+    /**
+     * Agregar al tablero en memoria una participación nueva, al confirmarse la transacción actual
+     */
+    public void registrarParticipacion(Long quinielaId, Long participacionId, String nombreUsuario) {
+        TransaccionUtil.despuesDeConfirmar(() -> {
+            Tablero tablero = tableros.get(quinielaId);
+            if (tablero != null) {
+                tablero.agregar(participacionId, nombreUsuario, null, 0, 0);
+            }
+        });
+    }
+
+    /**
+     * Descartar el tablero de una quiniela, al confirmarse la transacción actual;
+     * se reconstruye en la siguiente consulta
+     */
+    public void invalidar(Long quinielaId) {
+        TransaccionUtil.despuesDeConfirmar(() -> tableros.remove(quinielaId));
+    }
+
+    /**
+     * Aplicar a los tableros en memoria la finalización o corrección de un evento
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarLivescore(LiveScoreCambioEvent evento) {
+        if (!evento.esFinalizacion() && !evento.esCorreccionPostFinal()) {
+            return;
+        }
+        cambiosEventos.incrementAndGet();
+        if (tableros.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaccionLectura.executeWithoutResult(status -> {
+                for (Long quinielaId : quinielaEventoRepository.findQuinielaIdsByEventoDeportivoId(evento.getEventoId())) {
+                    Tablero tablero = tableros.get(quinielaId);
+                    if (tablero == null) {
+                        continue;
+                    }
+                    if (!tablero.provisional) {
+                        // Los tableros de quinielas finalizadas reflejan la puntuación guardada
+                        tableros.remove(quinielaId);
+                        continue;
+                    }
+                    int movidas = tablero.aplicarResultado(evento.getEventoId(), evento.getActual().resultado(),
+                            participacionRepository.findPrediccionesDeEvento(quinielaId, evento.getEventoId()));
+                    log.debug("🏅 Quiniela {}: evento {} movió {} participaciones del ranking",
+                            quinielaId, evento.getEventoId(), movidas);
+                }
+            });
+        } catch (Exception e) {
+            // Sin el delta los tableros quedarían desfasados: se descartan y se reconstruyen
+            log.warn("⚠️ No se pudo actualizar el ranking en vivo por el evento {}: {}",
+                    evento.getEventoId(), e.getMessage());
+            tableros.clear();
+        }
+    }
+
+    /**
+     * Guardar las posiciones cambiadas y liberar los tableros inactivos
+     */
+    @Scheduled(fixedDelayString = "${quinielas.ranking.persistencia-ms:60000}")
+    public void persistirPosiciones() {
+        if (tableros.values().stream().anyMatch(tablero -> tablero.sucio)) {
+            coordinadorJobs.ejecutar("quinielas.ranking.persistir", Duration.ofSeconds(50), () -> {
+                for (Tablero tablero : List.copyOf(tableros.values())) {
+                    if (tablero.sucio) {
+                        Tablero vigente = vigente(tablero, true) ? tablero : reconstruir(tablero);
+                        if (vigente != null) {
+                            persistir(vigente);
+                        }
+                    }
+                }
+            });
+        }
+
+        // Los tableros sin persistir de otras instancias tampoco se conservan: su quiniela ya nadie la consulta
+        long limite = System.currentTimeMillis() - inactividad.toMillis();
+        tableros.values().removeIf(tablero -> tablero.ultimoAcceso < limite);
+    }
+
+    private void persistir(Tablero tablero) {
+        if (!tablero.sucio) {
+            return;
+        }
+        Map<Long, Integer> cambios = tablero.posicionesCambiadas();
+        if (!cambios.isEmpty()) {
+            try {
+                escribirPosiciones(cambios);
+            } catch (Exception e) {
+                tablero.sucio = true;
+                registroEjecuciones.registrarError(e.getMessage());
+                log.warn("⚠️ No se pudieron guardar las posiciones de la quiniela {}: {}",
+                        tablero.quinielaId, e.getMessage());
+                return;
+            }
+            registroEjecuciones.sumarFilas(tablero.getTamano(), cambios.size());
+        }
+        tablero.confirmarPersistidas(cambios);
+    }
+
+    private void escribirPosiciones(Map<Long, Integer> posiciones) {
+        Long[] ids = posiciones.keySet().toArray(new Long[0]);
+        Integer[] valores = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            valores[i] = posiciones.get(ids[i]);
+        }
+        jdbcTemplate.execute(SQL_POSICIONES, (PreparedStatement ps) -> {
+            Array arregloIds = ps.getConnection().createArrayOf("bigint", ids);
+            Array arregloPosiciones = ps.getConnection().createArrayOf("integer", valores);
+            try {
+                ps.setArray(1, arregloIds);
+                ps.setArray(2, arregloPosiciones);
+                return ps.executeUpdate();
+            } finally {
+                arregloIds.free();
+                arregloPosiciones.free();
+            }
+        });
+    }
+
+    private Tablero tablero(Long quinielaId) {
+        Tablero tablero = tableros.get(quinielaId);
+        if (tablero != null && !vigente(tablero, false)) {
+            tableros.remove(quinielaId, tablero);
+            tablero = null;
+        }
+        if (tablero == null) {
+            long cambiosAntes = cambiosEventos.get();
+            Tablero nuevo = construir(quinielaId);
+            // Si un evento cambió durante la construcción pudo quedar fuera: se usa sin guardar
+            if (cambiosEventos.get() != cambiosAntes) {
+                return nuevo;
+            }
+            tablero = Objects.requireNonNullElse(tableros.putIfAbsent(quinielaId, nuevo), nuevo);
+        }
+        tablero.ultimoAcceso = System.currentTimeMillis();
+        return tablero;
+    }
+
+    /**
+     * Comprobar que el tablero coincide con la base de datos (estado de la
+     * quiniela, resultados de sus eventos y número de participaciones); sin
+     * {@code forzar}, solo si pasó el intervalo de revalidación
+     */
+    private boolean vigente(Tablero tablero, boolean forzar) {
+        long ahora = System.currentTimeMillis();
+        if (!forzar && ahora - tablero.revalidadoEn < revalidacion.toMillis()) {
+            return true;
+        }
+        Boolean coincide = transaccionLectura.execute(status -> {
+            Optional<Quiniela> quiniela = quinielaRepository.findById(tablero.quinielaId);
+            if (quiniela.isEmpty()
+                    || tablero.provisional == (quiniela.get().getEstado() == Quiniela.EstadoQuiniela.FINALIZADA)) {
+                return false;
+            }
+            Map<Long, String> resultados = new HashMap<>();
+            for (Object[] fila : quinielaEventoRepository.findResultadosEventosByQuinielaId(tablero.quinielaId)) {
+                resultados.put((Long) fila[0], (String) fila[1]);
+            }
+            return tablero.coincide(resultados, participacionRepository.contarPorQuiniela(tablero.quinielaId));
+        });
+        tablero.revalidadoEn = ahora;
+        if (!Boolean.TRUE.equals(coincide)) {
+            log.debug("🏅 Ranking de la quiniela {} desfasado respecto a la base de datos", tablero.quinielaId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sustituir un tablero desfasado sin contarlo como consulta
+     * @return El tablero nuevo, o null si un evento cambió mientras se construía
+     */
+    private Tablero reconstruir(Tablero anterior) {
+        long cambiosAntes = cambiosEventos.get();
+        Tablero nuevo = construir(anterior.quinielaId);
+        if (cambiosEventos.get() != cambiosAntes) {
+            tableros.remove(anterior.quinielaId, anterior);
+            return null;
+        }
+        nuevo.ultimoAcceso = anterior.ultimoAcceso;
+        tableros.replace(anterior.quinielaId, anterior, nuevo);
+        return nuevo;
+    }
+
+    private Tablero construir(Long quinielaId) {
+        long inicio = System.currentTimeMillis();
+        Tablero tablero = transaccionLectura.execute(status -> {
+            Quiniela.EstadoQuiniela estado = quinielaRepository.findById(quinielaId)
+                    .map(Quiniela::getEstado)
+                    .orElseThrow(() -> new RuntimeException("Quiniela no encontrada"));
+            Tablero nuevo = new Tablero(quinielaId, estado != Quiniela.EstadoQuiniela.FINALIZADA);
+
+            List<Object[]> filasResultados = quinielaEventoRepository.findResultadosEventosByQuinielaId(quinielaId);
+            for (Object[] fila : filasResultados) {
+                nuevo.resultadosAplicados.put((Long) fila[0], (String) fila[1]);
+            }
+
+            Map<Long, Integer> aciertosPorId = new HashMap<>();
+            Map<Long, Long> confianzaPorId = new HashMap<>();
+            if (nuevo.provisional) {
+                MotorPuntuacionQuiniela.Puntuaciones puntuaciones = motorPuntuacion.calcular(quinielaId,
+                        MotorPuntuacionQuiniela.ResultadosQuiniela.desde(filasResultados),
+                        EnumSet.allOf(QuinielaParticipacion.EstadoParticipacion.class));
+                for (int i = 0; i < puntuaciones.getTotal(); i++) {
+                    aciertosPorId.put(puntuaciones.getId(i), puntuaciones.getAciertos(i));
+                    confianzaPorId.put(puntuaciones.getId(i), puntuaciones.getSumaConfianza(i));
+                }
+            }
+
+            for (RankingParticipacionDto fila : participacionRepository.findRankingByQuiniela(quinielaId)) {
+                int aciertos;
+                long sumaConfianza;
+                if (nuevo.provisional) {
+                    aciertos = aciertosPorId.getOrDefault(fila.getParticipacionId(), 0);
+                    sumaConfianza = confianzaPorId.getOrDefault(fila.getParticipacionId(), 0L);
+                } else {
+                    // Puntuación guardada: sumaConfianza = puntuación × 2 − 200 × aciertos
+                    aciertos = fila.getAciertos() != null ? fila.getAciertos() : 0;
+                    BigDecimal puntuacion = fila.getPuntuacion() != null ? fila.getPuntuacion() : BigDecimal.ZERO;
+                    sumaConfianza = puntuacion.multiply(BigDecimal.valueOf(2)).longValue() - aciertos * 200L;
+                }
+                nuevo.agregar(fila.getParticipacionId(), fila.getNombreUsuario(), fila.getPremioGanado(),
+                        aciertos, sumaConfianza);
+            }
+            return nuevo;
+        });
+        log.info("🏅 Ranking en vivo de la quiniela {} construido: {} participaciones en {}ms",
+                quinielaId, tablero.getTamano(), System.currentTimeMillis() - inicio);
+        return tablero;
+    }
+
+    /**
+     * Ranking en memoria de una quiniela. Todas las operaciones toman el
+     * monitor del tablero; las consultas son O(log n + resultados).
+     */
+    static final class Tablero {
+        private final Long quinielaId;
+        private final boolean provisional;
+        private final ArbolRanking arbol = new ArbolRanking();
+        private final Map<Long, Participante> participantes = new HashMap<>();
+        private final Map<Long, String> resultadosAplicados = new HashMap<>();
+        private final Map<Long, Integer> posicionesPersistidas = new HashMap<>();
+        private volatile boolean sucio = true;
+        private volatile long ultimoAcceso = System.currentTimeMillis();
+        private volatile long revalidadoEn = System.currentTimeMillis();
+
+        Tablero(Long quinielaId, boolean provisional) {
+            this.quinielaId = quinielaId;
+            this.provisional = provisional;
+        }
+
+        synchronized int getTamano() {
+            return arbol.tamano();
+        }
+
+        synchronized boolean coincide(Map<Long, String> resultados, long participaciones) {
+            return arbol.tamano() == participaciones && resultadosAplicados.equals(resultados);
+        }
+
+        synchronized void agregar(Long participacionId, String nombreUsuario, BigDecimal premioGanado,
+                int aciertos, long sumaConfianza) {
+            if (participantes.containsKey(participacionId)) {
+                return;
+            }
+            Participante participante = new Participante(participacionId, nombreUsuario, premioGanado);
+            participante.aciertos = aciertos;
+            participante.sumaConfianza = sumaConfianza;
+            participantes.put(participacionId, participante);
+            arbol.insertar(participante.clave());
+            sucio = true;
+        }
+
+        /**
+         * Aplicar el resultado de un evento a partir del último aplicado
+         * @param predicciones Filas (participacionId, predicción, confianza) del evento
+         * @return Participaciones cuya puntuación cambió
+         */
+        synchronized int aplicarResultado(Long eventoId, String resultado, List<Object[]> predicciones) {
+            String anterior = resultadosAplicados.get(eventoId);
+            if (Objects.equals(anterior, resultado)) {
+                return 0;
+            }
+            int movidas = 0;
+            for (Object[] fila : predicciones) {
+                String prediccion = (String) fila[1];
+                boolean acertaba = prediccion != null && prediccion.equals(anterior);
+                boolean acierta = prediccion != null && prediccion.equals(resultado);
+                Participante participante = participantes.get((Long) fila[0]);
+                if (acertaba == acierta || participante == null) {
+                    continue;
+                }
+                int signo = acierta ? 1 : -1;
+                int confianza = fila[2] != null ? (Integer) fila[2] : 0;
+                arbol.eliminar(participante.clave());
+                participante.aciertos += signo;
+                participante.sumaConfianza += signo * (long) confianza;
+                arbol.insertar(participante.clave());
+                movidas++;
+            }
+            resultadosAplicados.put(eventoId, resultado);
+            sucio |= movidas > 0;
+            return movidas;
+        }
+
+        synchronized List<RankingParticipacionDto> rango(int desde, int cantidad) {
+            List<RankingParticipacionDto> ranking = new ArrayList<>();
+            int posicion = desde;
+            for (ArbolRanking.Clave clave : arbol.rango(desde, cantidad)) {
+                ranking.add(participantes.get(clave.participacionId()).dto(posicion++));
+            }
+            return ranking;
+        }
+
+        synchronized List<RankingParticipacionDto> completo() {
+            return rango(1, arbol.tamano());
+        }
+
+        synchronized RankingParticipacionDto posicion(Long participacionId) {
+            Participante participante = participantes.get(participacionId);
+            return participante != null ? participante.dto(arbol.posicion(participante.clave())) : null;
+        }
+
+        synchronized List<RankingParticipacionDto> vecinos(Long participacionId, int radio) {
+            Participante participante = participantes.get(participacionId);
+            if (participante == null) {
+                return List.of();
+            }
+            int posicion = arbol.posicion(participante.clave());
+            int desde = Math.max(1, posicion - radio);
+            return rango(desde, posicion + radio - desde + 1);
+        }
+
+        /**
+         * Posiciones que difieren de las últimas guardadas
+         */
+        synchronized Map<Long, Integer> posicionesCambiadas() {
+            Map<Long, Integer> cambios = new HashMap<>();
+            int posicion = 1;
+            for (ArbolRanking.Clave clave : arbol.rango(1, arbol.tamano())) {
+                if (!Integer.valueOf(posicion).equals(posicionesPersistidas.get(clave.participacionId()))) {
+                    cambios.put(clave.participacionId(), posicion);
+                }
+                posicion++;
+            }
+            sucio = false;
+            return cambios;
+        }
+
+        synchronized void confirmarPersistidas(Map<Long, Integer> posiciones) {
+            posicionesPersistidas.putAll(posiciones);
+        }
+    }
+
+    private static final class Participante {
+        private final Long participacionId;
+        private final String nombreUsuario;
+        private final BigDecimal premioGanado;
+        private int aciertos;
+        private long sumaConfianza;
+
+        Participante(Long participacionId, String nombreUsuario, BigDecimal premioGanado) {
+            this.participacionId = participacionId;
+            this.nombreUsuario = nombreUsuario;
+            this.premioGanado = premioGanado;
+        }
+
+        ArbolRanking.Clave clave() {
+            return new ArbolRanking.Clave(aciertos * 200L + sumaConfianza, aciertos, participacionId);
+        }
+
+        RankingParticipacionDto dto(int posicion) {
+            return new RankingParticipacionDto(participacionId, nombreUsuario, aciertos,
+                    MotorPuntuacionQuiniela.puntuacion(aciertos, sumaConfianza), premioGanado, posicion);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.cc.service.quiniela;
+
+import com.example.cc.dto.request.PrediccionRequest;
+import com.example.cc.entities.PrediccionEvento;
+import com.example.cc.entities.QuinielaEvento;
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.repository.PrediccionEventoRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Registro masivo de las predicciones de una participación.
+ *
+ * Los eventos de la quiniela se indexan una vez por ID, las predicciones
+ * existentes de la participación se cargan en una sola consulta y las nuevas
+ * se insertan en un lote JDBC; las existentes se modifican en memoria y
+ * Hibernate las actualiza en lote al hacer flush ({@code hibernate.jdbc.batch_size}).
+ * Un cupón de N partidos cuesta así un número constante de sentencias en
+ * lugar de una búsqueda y un save por predicción.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RegistroPrediccionesQuiniela {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO prediccion_eventos (participacion_id, evento_deportivo_id, tipo_prediccion_id, " +
+            "prediccion_texto, confidence, puntos_posibles, factor_dificultad, estado, " +
+            "fecha_prediccion, fecha_creacion, fecha_actualizacion) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final PrediccionEventoRepository prediccionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Crear o actualizar las predicciones de una participación. La participación
+     * debe tener cargados los eventos de su quiniela; debe ejecutarse dentro de
+     * una transacción.
+     * @param solicitudes Predicciones por ID de QuinielaEvento; si un evento se
+     *                    repite, prevalece la última
+     */
+    public ResultadoPredicciones registrar(QuinielaParticipacion participacion, List<PrediccionRequest> solicitudes) {
+        List<QuinielaEvento> eventosQuiniela = participacion.getQuiniela().getEventos();
+        Map<Long, QuinielaEvento> eventosPorId = new HashMap<>();
+        for (QuinielaEvento quinielaEvento : eventosQuiniela) {
+            eventosPorId.put(quinielaEvento.getId(), quinielaEvento);
+        }
+
+        // Validar todo antes de escribir: evento deportivo → (evento de la quiniela, solicitud)
+        Map<Long, QuinielaEvento> eventosSolicitados = new LinkedHashMap<>();
+        Map<Long, PrediccionRequest> solicitudesPorEvento = new HashMap<>();
+        for (PrediccionRequest solicitud : solicitudes) {
+            QuinielaEvento quinielaEvento = eventosPorId.get(solicitud.getEventoId());
+            if (quinielaEvento == null) {
+                throw new RuntimeException("El evento no pertenece a esta quiniela");
+            }
+            Long eventoDeportivoId = quinielaEvento.getEventoDeportivo().getId();
+            eventosSolicitados.put(eventoDeportivoId, quinielaEvento);
+            solicitudesPorEvento.put(eventoDeportivoId, solicitud);
+        }
+
+        Map<Long, PrediccionEvento> existentes = new HashMap<>();
+        for (PrediccionEvento prediccion : prediccionRepository.findByParticipacion(participacion)) {
+            existentes.put(prediccion.getEventoDeportivo().getId(), prediccion);
+        }
+        Set<Long> eventosConPrediccion = new HashSet<>(existentes.keySet());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<PrediccionEvento> guardadas = new ArrayList<>();
+        List<PrediccionEvento> nuevas = new ArrayList<>();
+        List<CambioPrediccion> cambios = new ArrayList<>();
+        eventosSolicitados.forEach((eventoDeportivoId, quinielaEvento) -> {
+            PrediccionEvento prediccion = existentes.get(eventoDeportivoId);
+            if (prediccion == null) {
+                prediccion = new PrediccionEvento();
+                prediccion.setParticipacion(participacion);
+                prediccion.setEventoDeportivo(quinielaEvento.getEventoDeportivo());
+                prediccion.setFechaCreacion(ahora);
+                nuevas.add(prediccion);
+            }
+            PrediccionRequest solicitud = solicitudesPorEvento.get(eventoDeportivoId);
+            String anterior = prediccion.getPrediccion();
+            if (!Objects.equals(anterior, solicitud.getPrediccion())) {
+                cambios.add(new CambioPrediccion(eventoDeportivoId, anterior, solicitud.getPrediccion()));
+            }
+            prediccion.setPrediccion(solicitud.getPrediccion());
+            if (solicitud.getConfianza() != null) {
+                prediccion.setConfianza(solicitud.getConfianza());
+            }
+            prediccion.setPuntosPosibles(quinielaEvento.getPuntosPorAcierto());
+            prediccion.setTipoPrediccion(quinielaEvento.getTipoPrediccion());
+            prediccion.setFechaPrediccion(ahora);
+            prediccion.setFechaActualizacion(ahora);
+            guardadas.add(prediccion);
+            eventosConPrediccion.add(eventoDeportivoId);
+        });
+
+        if (!nuevas.isEmpty()) {
+            insertar(nuevas);
+        }
+
+        boolean completa = eventosConPrediccion.size() >= eventosQuiniela.size();
+        log.debug("📝 Participación {}: {} predicciones nuevas y {} actualizadas",
+                participacion.getId(), nuevas.size(), guardadas.size() - nuevas.size());
+        return new ResultadoPredicciones(guardadas, cambios, completa);
+    }
+
+    private void insertar(List<PrediccionEvento> nuevas) {
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                conexion -> conexion.prepareStatement(SQL_INSERTAR, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PrediccionEvento prediccion = nuevas.get(i);
+                        ps.setLong(1, prediccion.getParticipacion().getId());
+                        ps.setLong(2, prediccion.getEventoDeportivo().getId());
+                        ps.setObject(3, prediccion.getTipoPrediccion() != null
+                                ? prediccion.getTipoPrediccion().getId() : null);
+                        ps.setString(4, prediccion.getPrediccionTexto());
+                        ps.setInt(5, prediccion.getConfidence());
+                        ps.setInt(6, prediccion.getPuntosPosibles());
+                        ps.setBigDecimal(7, prediccion.getFactorDificultad() != null
+                                ? prediccion.getFactorDificultad() : BigDecimal.ONE);
+                        ps.setString(8, prediccion.getEstado().name());
+                        ps.setTimestamp(9, Timestamp.valueOf(prediccion.getFechaPrediccion()));
+                        ps.setTimestamp(10, Timestamp.valueOf(prediccion.getFechaCreacion()));
+                        ps.setTimestamp(11, Timestamp.valueOf(prediccion.getFechaActualizacion()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return nuevas.size();
+                    }
+                },
+                claves);
+
+        List<Map<String, Object>> ids = claves.getKeyList();
+        for (int i = 0; i < nuevas.size(); i++) {
+            nuevas.get(i).setId(((Number) ids.get(i).get("id")).longValue());
+        }
+    }
+
+    /**
+     * Predicciones guardadas, cambios de pronóstico y si la participación ya
+     * tiene predicción para todos los eventos
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ResultadoPredicciones {
+        private final List<PrediccionEvento> guardadas;
+        private final List<CambioPrediccion> cambios;
+        private final boolean completa;
+    }
+
+    /**
+     * Pronóstico nuevo o modificado de un evento deportivo ({@code anterior} es null si es nuevo)
+     */
+    public record CambioPrediccion(Long eventoDeportivoId, String anterior, String nueva) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.cc.service.quiniela;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.entities.Transaccion;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.wallet.IWalletService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reliquidación de quinielas finalizadas cuando se corrige el resultado de
+ * uno de sus eventos.
+ *
+ * Solo cambian las predicciones que acertaban el resultado anterior (pierden
+ * un acierto) o aciertan el nuevo (lo ganan): un UPDATE aplica esos deltas de
+ * aciertos y puntuación sin recalcular el resto. Si alguna participación se
+ * movió, el reparto de premios se recalcula con las mismas reglas y solo las
+ * diferencias contra lo ya pagado se aplican como ajustes en lote. Cada
+ * quiniela se reliquida en su propia transacción.
+ */
+@Component
+@Slf4j
+public class ReliquidacionQuiniela {
+
+    /** Delta por predicción: ±(100 puntos + 0.5 por punto de confianza), como en la puntuación */
+    private static final String SQL_APLICAR_DELTAS =
+            "UPDATE quiniela_participaciones qp SET aciertos = qp.aciertos + d.signo, " +
+            "puntuacion = qp.puntuacion + d.signo * (100 + COALESCE(d.confidence, 0) * 0.5), " +
+            "fecha_actualizacion = ? " +
+            "FROM (SELECT pe.participacion_id, pe.confidence, " +
+            "CASE WHEN pe.prediccion_texto = ? THEN 1 ELSE -1 END AS signo " +
+            "FROM prediccion_eventos pe JOIN quiniela_participaciones p ON p.id = pe.participacion_id " +
+            "WHERE p.quiniela_id = ? AND p.estado = 'PREDICCIONES_COMPLETADAS' " +
+            "AND pe.evento_deportivo_id = ? AND pe.prediccion_texto IN (?, ?)) d " +
+            "WHERE qp.id = d.participacion_id";
+
+    private final QuinielaRepository quinielaRepository;
+    private final QuinielaEventoRepository quinielaEventoRepository;
+    private final QuinielaParticipacionRepository participacionRepository;
+    private final RepartoPremiosQuiniela repartoPremios;
+    private final RankingEnVivoService rankingEnVivo;
+    private final IWalletService walletService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+
+    public ReliquidacionQuiniela(QuinielaRepository quinielaRepository,
+            QuinielaEventoRepository quinielaEventoRepository,
+            QuinielaParticipacionRepository participacionRepository,
+            RepartoPremiosQuiniela repartoPremios,
+            RankingEnVivoService rankingEnVivo,
+            IWalletService walletService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.quinielaRepository = quinielaRepository;
+        this.quinielaEventoRepository = quinielaEventoRepository;
+        this.participacionRepository = participacionRepository;
+        this.repartoPremios = repartoPremios;
+        this.rankingEnVivo = rankingEnVivo;
+        this.walletService = walletService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reliquidar las quinielas finalizadas que incluyen el evento si la corrección cambió su resultado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarLivescore(LiveScoreCambioEvent evento) {
+        if (!evento.esCorreccionPostFinal()
+                || Objects.equals(evento.getAnterior().resultado(), evento.getActual().resultado())) {
+            return;
+        }
+        String anterior = evento.getAnterior().resultado();
+        String nuevo = evento.getActual().resultado();
+        for (Long quinielaId : quinielaEventoRepository.findQuinielaIdsFinalizadasByEventoDeportivoId(
+                evento.getEventoId())) {
+            try {
+                reliquidar(quinielaId, evento.getEventoId(), anterior, nuevo);
+            } catch (Exception e) {
+                log.error("Error reliquidando quiniela {} por el evento {}: {}",
+                        quinielaId, evento.getEventoId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Aplicar los deltas de puntuación del evento y los ajustes de premios de una quiniela
+     * @return Número de ajustes de saldo aplicados
+     */
+    public int reliquidar(Long quinielaId, Long eventoId, String anterior, String nuevo) {
+        Integer ajustes = transaccion.execute(status -> {
+            int movidas = jdbcTemplate.update(SQL_APLICAR_DELTAS,
+                    Timestamp.valueOf(LocalDateTime.now()), nuevo, quinielaId, eventoId, anterior, nuevo);
+            if (movidas == 0) {
+                return 0;
+            }
+
+            Quiniela quiniela = quinielaRepository.findById(quinielaId)
+                    .orElseThrow(() -> new RuntimeException("Quiniela no encontrada"));
+            List<QuinielaParticipacion> participaciones = participacionRepository
+                    .findByQuinielaOrderByPuntuacionDescAciertosDesc(quiniela);
+
+            // Repartir de nuevo y pagar solo las diferencias contra lo ya pagado
+            Map<Long, BigDecimal> pagados = new HashMap<>();
+            for (QuinielaParticipacion participacion : participaciones) {
+                pagados.put(participacion.getId(), premio(participacion));
+                participacion.setPremioGanado(null);
+            }
+            repartoPremios.repartir(quiniela, participaciones, RepartoPremiosQuiniela.poolParaPremios(quiniela));
+
+            List<PagoPremioDto> diferencias = new ArrayList<>();
+            for (QuinielaParticipacion participacion : participaciones) {
+                BigDecimal diferencia = premio(participacion).subtract(pagados.get(participacion.getId()));
+                if (diferencia.signum() != 0) {
+                    diferencias.add(new PagoPremioDto(participacion.getUsuario().getIdUsuario(), diferencia,
+                            "Ajuste de premio por corrección de resultado - " + quiniela.getNombre()));
+                }
+            }
+            walletService.procesarAjustes(diferencias, Transaccion.TipoTransaccion.BONIFICACION);
+            rankingEnVivo.invalidar(quinielaId);
+
+            log.info("🔁 Quiniela {}: {} participaciones movidas por el evento {}, {} ajustes de premio",
+                    quinielaId, movidas, eventoId, diferencias.size());
+            return diferencias.size();
+        });
+        return ajustes != null ? ajustes : 0;
+    }
+
+    private static BigDecimal premio(QuinielaParticipacion participacion) {
+        return participacion.getPremioGanado() != null ? participacion.getPremioGanado() : BigDecimal.ZERO;
+    }
+}
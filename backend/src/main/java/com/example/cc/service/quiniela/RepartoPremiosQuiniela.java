@@ -0,0 +1,178 @@
+package com.example.cc.service.quiniela;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.QuinielaParticipacion;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Cálculo de los premios de una quiniela según su tipo de distribución.
+ *
+ * Todos los montos se calculan antes de pagar nada, truncados a centavos; los
+ * centavos sobrantes del redondeo se asignan de uno en uno a los primeros
+ * lugares (y dentro de un grupo empatado, por ID de participación), de modo
+ * que la suma de premios es exacta y el reparto es el mismo en cada ejecución.
+ * Los pagos resultantes se aplican en un solo lote con
+ * {@link com.example.cc.service.wallet.IWalletService#procesarPagosPremios}.
+ */
+@Component
+public class RepartoPremiosQuiniela {
+
+    private static final BigDecimal[] TOP_3_CLASICA = {
+            new BigDecimal("0.60"), new BigDecimal("0.25"), new BigDecimal("0.15")
+    };
+
+    private static final String[] LUGARES_TOP_3 = { "Primer lugar", "Segundo lugar", "Tercer lugar" };
+
+    private static final BigDecimal[] TOP_5_PIRAMIDE = {
+            new BigDecimal("0.40"), // 1er lugar: 40%
+            new BigDecimal("0.25"), // 2do lugar: 25%
+            new BigDecimal("0.15"), // 3er lugar: 15%
+            new BigDecimal("0.12"), // 4to lugar: 12%
+            new BigDecimal("0.08") // 5to lugar: 8%
+    };
+
+    private static final BigDecimal[] POR_ACIERTOS = {
+            new BigDecimal("0.50"), // Máximo aciertos: 50%
+            new BigDecimal("0.30"), // Segundo grupo: 30%
+            new BigDecimal("0.20") // Tercer grupo: 20%
+    };
+
+    /** Orden del ranking: puntuación, aciertos y, como desempate estable, ID de participación */
+    private static final Comparator<QuinielaParticipacion> ORDEN_RANKING = Comparator
+            .comparing(QuinielaParticipacion::getPuntuacion, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(QuinielaParticipacion::getAciertos, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(QuinielaParticipacion::getId);
+
+    /**
+     * Comisión sobre el pool según un porcentaje, redondeada a centavos
+     */
+    public static BigDecimal comision(BigDecimal pool, BigDecimal porcentaje) {
+        return pool.multiply(porcentaje).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Pool a repartir en premios: el pool actual menos las comisiones de la casa y del creador
+     */
+    public static BigDecimal poolParaPremios(Quiniela quiniela) {
+        BigDecimal pool = quiniela.getPoolActual();
+        return pool.subtract(comision(pool, quiniela.getPorcentajeCasa()))
+                .subtract(comision(pool, quiniela.getPorcentajeCreador()));
+    }
+
+    /**
+     * Calcular los premios, asignarlos en {@code premioGanado} de las
+     * participaciones ganadoras y devolver los pagos a aplicar
+     */
+    public List<PagoPremioDto> repartir(Quiniela quiniela, List<QuinielaParticipacion> participaciones,
+            BigDecimal pool) {
+        List<QuinielaParticipacion> ordenadas = new ArrayList<>(participaciones);
+        ordenadas.sort(ORDEN_RANKING);
+        List<PagoPremioDto> pagos = new ArrayList<>();
+        if (ordenadas.isEmpty()) {
+            return pagos;
+        }
+
+        switch (quiniela.getTipoDistribucion()) {
+            case TOP_3_CLASICA -> repartirPorPosicion(ordenadas, pool, TOP_3_CLASICA,
+                    i -> LUGARES_TOP_3[i] + " - " + quiniela.getNombre(), pagos);
+            case TOP_5_PIRAMIDE -> repartirPorPosicion(ordenadas, pool, TOP_5_PIRAMIDE,
+                    i -> "Premio posición " + (i + 1) + " - " + quiniela.getNombre(), pagos);
+            case POR_ACIERTOS_PROGRESIVO -> repartirPorAciertos(ordenadas, pool, quiniela, pagos);
+            // WINNER_TAKES_ALL y tipos aún sin reparto propio
+            default -> pagar(ordenadas.get(0), pool.setScale(2, RoundingMode.DOWN),
+                    "Premio quiniela: " + quiniela.getNombre(), pagos);
+        }
+        return pagos;
+    }
+
+    private void repartirPorPosicion(List<QuinielaParticipacion> ordenadas, BigDecimal pool,
+            BigDecimal[] porcentajes, IntFunction<String> descripcion, List<PagoPremioDto> pagos) {
+        int lugares = Math.min(porcentajes.length, ordenadas.size());
+        BigDecimal[] premios = dividir(pool, Arrays.copyOf(porcentajes, lugares));
+        for (int i = 0; i < lugares; i++) {
+            pagar(ordenadas.get(i), premios[i], descripcion.apply(i), pagos);
+        }
+    }
+
+    private void repartirPorAciertos(List<QuinielaParticipacion> ordenadas, BigDecimal pool,
+            Quiniela quiniela, List<PagoPremioDto> pagos) {
+        // Grupos por número de aciertos, de más a menos; dentro de cada grupo por ID
+        Map<Integer, List<QuinielaParticipacion>> grupos = new LinkedHashMap<>();
+        ordenadas.stream()
+                .sorted(Comparator.comparing(QuinielaParticipacion::getAciertos, Comparator.reverseOrder())
+                        .thenComparing(QuinielaParticipacion::getId))
+                .forEach(p -> grupos.computeIfAbsent(p.getAciertos(), k -> new ArrayList<>()).add(p));
+
+        List<Integer> aciertosGrupos = new ArrayList<>(grupos.keySet());
+        int premiados = Math.min(POR_ACIERTOS.length, aciertosGrupos.size());
+        BigDecimal[] premiosGrupo = dividir(pool, Arrays.copyOf(POR_ACIERTOS, premiados));
+
+        for (int i = 0; i < premiados; i++) {
+            Integer aciertos = aciertosGrupos.get(i);
+            List<QuinielaParticipacion> grupo = grupos.get(aciertos);
+            BigDecimal[] individuales = dividirIgual(premiosGrupo[i], grupo.size());
+            for (int j = 0; j < grupo.size(); j++) {
+                pagar(grupo.get(j), individuales[j],
+                        "Premio por " + aciertos + " aciertos - " + quiniela.getNombre(), pagos);
+            }
+        }
+    }
+
+    private static void pagar(QuinielaParticipacion participacion, BigDecimal premio, String descripcion,
+            List<PagoPremioDto> pagos) {
+        participacion.setPremioGanado(premio);
+        pagos.add(new PagoPremioDto(participacion.getUsuario().getIdUsuario(), premio, descripcion));
+    }
+
+    /**
+     * Dividir {@code total × Σpesos} en centavos según los pesos: cada parte se
+     * trunca y los centavos sobrantes van a las primeras partes
+     */
+    static BigDecimal[] dividir(BigDecimal total, BigDecimal[] pesos) {
+        BigDecimal sumaPesos = BigDecimal.ZERO;
+        for (BigDecimal peso : pesos) {
+            sumaPesos = sumaPesos.add(peso);
+        }
+        long objetivo = centavos(total.multiply(sumaPesos));
+        long[] partes = new long[pesos.length];
+        long asignado = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            partes[i] = centavos(total.multiply(pesos[i]));
+            asignado += partes[i];
+        }
+        return repartirSobrante(partes, objetivo - asignado);
+    }
+
+    /**
+     * Dividir un total en {@code partes} iguales en centavos; los sobrantes van a las primeras
+     */
+    static BigDecimal[] dividirIgual(BigDecimal total, int partes) {
+        long totalCentavos = centavos(total);
+        long[] montos = new long[partes];
+        Arrays.fill(montos, totalCentavos / partes);
+        return repartirSobrante(montos, totalCentavos % partes);
+    }
+
+    private static BigDecimal[] repartirSobrante(long[] partes, long sobrante) {
+        BigDecimal[] montos = new BigDecimal[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            montos[i] = BigDecimal.valueOf(partes[i] + (i < sobrante ? 1 : 0), 2);
+        }
+        return montos;
+    }
+
+    private static long centavos(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+}
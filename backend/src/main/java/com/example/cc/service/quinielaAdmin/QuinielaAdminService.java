@@ -1,20 +1,27 @@
 package com.example.cc.service.quinielaAdmin;
 
+import com.example.cc.dto.RankingParticipacionDto;
 import com.example.cc.entities.Quiniela;
 import com.example.cc.entities.QuinielaParticipacion;
 import com.example.cc.repository.QuinielaRepository;
-import com.example.cc.service.wallet.WalletService;
+import com.example.cc.service.quiniela.RepartoPremiosQuiniela;
+import com.example.cc.service.wallet.ReembolsoMasivoService;
 import com.example.cc.repository.QuinielaParticipacionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,7 +33,10 @@ public class QuinielaAdminService implements IQuinielaAdminService {
 
     private final QuinielaRepository quinielaRepository;
     private final QuinielaParticipacionRepository participacionRepository;
-    private final WalletService walletService;
+    private final ReembolsoMasivoService reembolsoMasivo;
+
+    @Value("${quinielas.reporte.top:100}")
+    private int topReporte = 100;
 
     /**
      * Obtener todas las quinielas para administración
@@ -42,67 +52,63 @@ public class QuinielaAdminService implements IQuinielaAdminService {
     @Transactional(readOnly = true)
     public Map<String, Object> obtenerEstadisticasGenerales() {
         Map<String, Object> estadisticas = new HashMap<>();
-        
-        // Contar quinielas por estado
-        estadisticas.put("totalQuinielas", quinielaRepository.count());
-        estadisticas.put("quinielasActivas", quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.ACTIVA).size());
-        estadisticas.put("quinielasCerradas", quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.CERRADA).size());
-        estadisticas.put("quinielasFinalizadas", quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.FINALIZADA).size());
-        
+
+        // Contar quinielas y pool por estado en una sola agregación
+        long totalQuinielas = 0;
+        Map<Quiniela.EstadoQuiniela, Long> quinielasPorEstado = new EnumMap<>(Quiniela.EstadoQuiniela.class);
+        BigDecimal poolTotalActivo = BigDecimal.ZERO;
+        for (Object[] fila : quinielaRepository.resumirPorEstado()) {
+            Quiniela.EstadoQuiniela estado = (Quiniela.EstadoQuiniela) fila[0];
+            long quinielas = ((Number) fila[1]).longValue();
+            totalQuinielas += quinielas;
+            quinielasPorEstado.put(estado, quinielas);
+            if (estado == Quiniela.EstadoQuiniela.ACTIVA) {
+                poolTotalActivo = (BigDecimal) fila[2];
+            }
+        }
+        estadisticas.put("totalQuinielas", totalQuinielas);
+        estadisticas.put("quinielasActivas", quinielasPorEstado.getOrDefault(Quiniela.EstadoQuiniela.ACTIVA, 0L));
+        estadisticas.put("quinielasCerradas", quinielasPorEstado.getOrDefault(Quiniela.EstadoQuiniela.CERRADA, 0L));
+        estadisticas.put("quinielasFinalizadas", quinielasPorEstado.getOrDefault(Quiniela.EstadoQuiniela.FINALIZADA, 0L));
+
         // Estadísticas de participaciones
         estadisticas.put("totalParticipaciones", participacionRepository.count());
-        
+
         // Pool total actual
-        List<Quiniela> quinielasActivas = quinielaRepository.findByEstado(Quiniela.EstadoQuiniela.ACTIVA);
-        BigDecimal poolTotalActivo = quinielasActivas.stream()
-                .map(Quiniela::getPoolActual)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
         estadisticas.put("poolTotalActivo", poolTotalActivo);
-        
+
         return estadisticas;
     }
 
     /**
      * Cancelar una quiniela (solo admin)
+     *
+     * Sin transacción propia: la quiniela se marca CANCELADA y se confirma
+     * primero (así no admite más participaciones) y después los reembolsos
+     * corren en lotes cortos. Lo que quede pendiente si el proceso se
+     * interrumpe lo reembolsa el job de quinielas.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cancelarQuiniela(Long quinielaId, String motivo) {
         Quiniela quiniela = quinielaRepository.findById(quinielaId)
                 .orElseThrow(() -> new RuntimeException("Quiniela no encontrada"));
 
-        // Solo se pueden cancelar quinielas activas o en borrador
-        if (quiniela.getEstado() != Quiniela.EstadoQuiniela.ACTIVA && 
-            quiniela.getEstado() != Quiniela.EstadoQuiniela.BORRADOR) {
+        // Solo se pueden cancelar quinielas activas o en borrador. Sentencia dirigida:
+        // guardar la entidad cargada pisaría participantes y pool ocupados entretanto
+        LocalDateTime ahora = LocalDateTime.now();
+        int canceladas = quinielaRepository.cancelar(quinielaId,
+                "CANCELADA - Motivo: " + motivo + " - Fecha: " + ahora, "\n", ahora);
+        if (canceladas == 0) {
             throw new RuntimeException("Solo se pueden cancelar quinielas activas o en borrador");
         }
 
-        // Obtener todas las participaciones
-        List<QuinielaParticipacion> participaciones = participacionRepository
-                .findByQuinielaAndEstado(quiniela, QuinielaParticipacion.EstadoParticipacion.ACTIVA);
-
-        // Procesar reembolsos
-        for (QuinielaParticipacion participacion : participaciones) {
-            walletService.procesarReembolso(
-                    participacion.getUsuario(),
-                    participacion.getMontoApostado(),
-                    "Reembolso por cancelación de quiniela: " + quiniela.getNombre() + 
-                    ". Motivo: " + motivo
-            );
-            
-            participacion.setEstado(QuinielaParticipacion.EstadoParticipacion.CANCELADA);
-            participacionRepository.save(participacion);
-        }
+        // Procesar reembolsos en lote
+        int reembolsos = reembolsoMasivo.reembolsarQuiniela(quinielaId,
+                "Reembolso por cancelación de quiniela: " + quiniela.getNombre() +
+                ". Motivo: " + motivo);
 
-        // Cambiar estado de la quiniela
-        quiniela.setEstado(Quiniela.EstadoQuiniela.CANCELADA);
-        quiniela.setReglasEspeciales(
-                (quiniela.getReglasEspeciales() != null ? quiniela.getReglasEspeciales() + "\n" : "") +
-                "CANCELADA - Motivo: " + motivo + " - Fecha: " + LocalDateTime.now()
-        );
-        
-        quinielaRepository.save(quiniela);
-        
         log.info("Quiniela {} cancelada. Motivo: {}. Reembolsos procesados: {}", 
-                quinielaId, motivo, participaciones.size());
+                quinielaId, motivo, reembolsos);
     }
 
     /**
@@ -173,6 +179,11 @@ public class QuinielaAdminService implements IQuinielaAdminService {
 
     /**
      * Generar reporte de una quiniela
+     *
+     * Los totales salen de agregaciones GROUP BY y las participaciones se
+     * limitan a las primeras {@code quinielas.reporte.top} posiciones del
+     * ranking (proyección, sin cargar entidades), así que el costo del
+     * reporte no crece con el número de participantes.
      */
     @Transactional(readOnly = true)
     public Map<String, Object> generarReporte(Long quinielaId) {
@@ -180,31 +191,47 @@ public class QuinielaAdminService implements IQuinielaAdminService {
                 .orElseThrow(() -> new RuntimeException("Quiniela no encontrada"));
 
         Map<String, Object> reporte = new HashMap<>();
-        
-        // Información básica
+
+        // Información básica y primeras posiciones del ranking
         reporte.put("quiniela", quiniela);
-        reporte.put("participaciones", participacionRepository.findByQuinielaOrderByPuntuacionDescAciertosDesc(quiniela));
-        
-        // Estadísticas
-        List<QuinielaParticipacion> participaciones = participacionRepository.findByQuinielaOrderByPuntuacionDescAciertosDesc(quiniela);
-        reporte.put("totalParticipantes", participaciones.size());
-        
-        BigDecimal totalPremiosRepartidos = participaciones.stream()
-                .map(p -> p.getPremioGanado() != null ? p.getPremioGanado() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<RankingParticipacionDto> participaciones = participacionRepository
+                .findRankingByQuiniela(quinielaId, PageRequest.of(0, topReporte));
+        for (int i = 0; i < participaciones.size(); i++) {
+            participaciones.get(i).setPosicion(i + 1);
+        }
+        reporte.put("participaciones", participaciones);
+
+        // Estadísticas por estado de participación
+        long totalParticipantes = 0;
+        BigDecimal totalPremiosRepartidos = BigDecimal.ZERO;
+        BigDecimal totalApostado = BigDecimal.ZERO;
+        Map<String, Long> participacionesPorEstado = new LinkedHashMap<>();
+        for (Object[] fila : participacionRepository.resumirPorEstado(quinielaId)) {
+            long cantidad = ((Number) fila[1]).longValue();
+            participacionesPorEstado.put(String.valueOf(fila[0]), cantidad);
+            totalParticipantes += cantidad;
+            totalPremiosRepartidos = totalPremiosRepartidos.add((BigDecimal) fila[2]);
+            totalApostado = totalApostado.add((BigDecimal) fila[3]);
+        }
+        reporte.put("totalParticipantes", totalParticipantes);
         reporte.put("totalPremiosRepartidos", totalPremiosRepartidos);
-        
+        reporte.put("totalApostado", totalApostado);
+        reporte.put("participacionesPorEstado", participacionesPorEstado);
+
+        // Distribución de aciertos
+        Map<Integer, Long> distribucionAciertos = new LinkedHashMap<>();
+        for (Object[] fila : participacionRepository.contarPorAciertos(quinielaId)) {
+            distribucionAciertos.put(fila[0] != null ? ((Number) fila[0]).intValue() : 0,
+                    ((Number) fila[1]).longValue());
+        }
+        reporte.put("distribucionAciertos", distribucionAciertos);
+
         // Comisiones
-        BigDecimal comisionCasa = quiniela.getPoolActual()
-                .multiply(quiniela.getPorcentajeCasa())
-                .divide(new BigDecimal("100"), 2, java.math.RoundingMode.HALF_UP);
-        reporte.put("comisionCasa", comisionCasa);
-        
-        BigDecimal comisionCreador = quiniela.getPoolActual()
-                .multiply(quiniela.getPorcentajeCreador())
-                .divide(new BigDecimal("100"), 2, java.math.RoundingMode.HALF_UP);
-        reporte.put("comisionCreador", comisionCreador);
-        
+        reporte.put("comisionCasa",
+                RepartoPremiosQuiniela.comision(quiniela.getPoolActual(), quiniela.getPorcentajeCasa()));
+        reporte.put("comisionCreador",
+                RepartoPremiosQuiniela.comision(quiniela.getPoolActual(), quiniela.getPorcentajeCreador()));
+
         return reporte;
     }
 }
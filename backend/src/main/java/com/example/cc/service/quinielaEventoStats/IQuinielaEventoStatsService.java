@@ -3,6 +3,7 @@ package com.example.cc.service.quinielaEventoStats;
 import com.example.cc.entities.QuinielaEvento;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 /**
  * Interfaz para el servicio de estadísticas de eventos de quiniela
@@ -39,4 +40,11 @@ public interface IQuinielaEventoStatsService {
      * @return Estadísticas del evento
      */
     QuinielaEventoStatsService.QuinielaEventoStats getEstadisticas(QuinielaEvento quinielaEvento);
+
+    /**
+     * Obtener la distribución de predicciones de todos los eventos de una quiniela
+     * @param quinielaId ID de la quiniela
+     * @return Distribución por ID de evento deportivo
+     */
+    Map<Long, QuinielaEventoStatsService.DistribucionEvento> getDistribucion(Long quinielaId);
 }
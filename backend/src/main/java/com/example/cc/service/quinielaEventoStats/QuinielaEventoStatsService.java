@@ -2,64 +2,279 @@ package com.example.cc.service.quinielaEventoStats;
 
 import com.example.cc.entities.QuinielaEvento;
 import com.example.cc.repository.PrediccionEventoRepository;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.quiniela.RegistroPrediccionesQuiniela.CambioPrediccion;
+import com.example.cc.service.transacciones.TransaccionUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Estadísticas de predicciones por evento de quiniela.
+ *
+ * La distribución completa de una quiniela (evento × pronóstico) se carga con
+ * una consulta agrupada más la de resultados de sus eventos, y se guarda como
+ * una instantánea en memoria que se actualiza al confirmarse cada registro de
+ * predicciones y cada cambio de resultado. Una página de quiniela cuesta así
+ * un número constante de consultas sin importar cuántos partidos tenga.
+ *
+ * Los aciertos se derivan del resultado del evento, igual que en la
+ * puntuación. La instantánea se reconstruye al vencer su vigencia
+ * ({@code quinielas.estadisticas.vigencia}), lo que corrige cualquier desfase.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional(readOnly = true)
 public class QuinielaEventoStatsService implements IQuinielaEventoStatsService {
 
     private final PrediccionEventoRepository prediccionRepository;
+    private final QuinielaEventoRepository quinielaEventoRepository;
+
+    private final Map<Long, Entrada> instantaneas = new ConcurrentHashMap<>();
+
+    @Value("${quinielas.estadisticas.vigencia:PT10M}")
+    private Duration vigencia = Duration.ofMinutes(10);
 
     /**
      * Obtener total de predicciones para un evento específico en una quiniela
      */
     public int getTotalPrediccionesParaEvento(Long eventoDeportivoId, Long quinielaId) {
-        return prediccionRepository.countByEventoDeportivo_IdAndParticipacion_Quiniela_Id(
-                eventoDeportivoId, quinielaId);
+        return obtenerInstantanea(quinielaId).distribucion(eventoDeportivoId).getTotalPredicciones();
     }
 
     /**
      * Obtener total de predicciones correctas para un evento específico
      */
     public long getTotalPrediccionesCorrectasParaEvento(Long eventoDeportivoId, Long quinielaId) {
-        return prediccionRepository.countByEventoDeportivo_IdAndParticipacion_Quiniela_IdAndEsCorrecto(
-                eventoDeportivoId, quinielaId, true);
+        return obtenerInstantanea(quinielaId).distribucion(eventoDeportivoId).getPrediccionesCorrectas();
     }
 
     /**
      * Calcular porcentaje de aciertos para un evento
      */
     public BigDecimal getPorcentajeAciertosParaEvento(Long eventoDeportivoId, Long quinielaId) {
-        int totalPredicciones = getTotalPrediccionesParaEvento(eventoDeportivoId, quinielaId);
-        if (totalPredicciones == 0) {
-            return BigDecimal.ZERO;
-        }
-        
-        long prediccionesCorrectas = getTotalPrediccionesCorrectasParaEvento(eventoDeportivoId, quinielaId);
-        
-        return BigDecimal.valueOf(prediccionesCorrectas)
-                .divide(BigDecimal.valueOf(totalPredicciones), 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
+        return obtenerInstantanea(quinielaId).distribucion(eventoDeportivoId).getPorcentajeAciertos();
     }
 
     /**
      * Obtener estadísticas completas para un QuinielaEvento
      */
     public QuinielaEventoStats getEstadisticas(QuinielaEvento quinielaEvento) {
-        Long eventoId = quinielaEvento.getEventoDeportivo().getId();
-        Long quinielaId = quinielaEvento.getQuiniela().getId();
-        
-        int totalPredicciones = getTotalPrediccionesParaEvento(eventoId, quinielaId);
-        long prediccionesCorrectas = getTotalPrediccionesCorrectasParaEvento(eventoId, quinielaId);
-        BigDecimal porcentajeAciertos = getPorcentajeAciertosParaEvento(eventoId, quinielaId);
-        
-        return new QuinielaEventoStats(totalPredicciones, prediccionesCorrectas, porcentajeAciertos);
+        DistribucionEvento distribucion = obtenerInstantanea(quinielaEvento.getQuiniela().getId())
+                .distribucion(quinielaEvento.getEventoDeportivo().getId());
+
+        return new QuinielaEventoStats(distribucion.getTotalPredicciones(),
+                distribucion.getPrediccionesCorrectas(), distribucion.getPorcentajeAciertos());
+    }
+
+    /**
+     * Obtener la distribución de predicciones de todos los eventos de una quiniela
+     */
+    public Map<Long, DistribucionEvento> getDistribucion(Long quinielaId) {
+        return obtenerInstantanea(quinielaId).todas();
+    }
+
+    /**
+     * Aplicar a la instantánea de la quiniela los pronósticos nuevos o
+     * modificados, al confirmarse la transacción actual
+     */
+    public void registrarPredicciones(Long quinielaId, List<CambioPrediccion> cambiosPrediccion) {
+        if (cambiosPrediccion.isEmpty()) {
+            return;
+        }
+        TransaccionUtil.despuesDeConfirmar(() -> {
+            Entrada entrada = instantaneas.get(quinielaId);
+            if (entrada == null) {
+                return;
+            }
+            entrada.version.incrementAndGet();
+            Instantanea instantanea = entrada.instantanea;
+            if (instantanea != null) {
+                instantanea.aplicar(cambiosPrediccion);
+            }
+        });
+    }
+
+    /**
+     * Actualizar el resultado del evento en las instantáneas que lo incluyen
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarLivescore(LiveScoreCambioEvent evento) {
+        String anterior = evento.getAnterior() != null ? evento.getAnterior().resultado() : null;
+        String actual = evento.getActual().resultado();
+        if (Objects.equals(anterior, actual)) {
+            return;
+        }
+        for (Entrada entrada : instantaneas.values()) {
+            Instantanea instantanea = entrada.instantanea;
+            // Sin instantánea aún (primera carga en curso) no se sabe si incluye el evento
+            if (instantanea == null || instantanea.incluye(evento.getEventoId())) {
+                entrada.version.incrementAndGet();
+                if (instantanea != null) {
+                    instantanea.actualizarResultado(evento.getEventoId(), actual);
+                }
+            }
+        }
+    }
+
+    private Instantanea obtenerInstantanea(Long quinielaId) {
+        Instant ahora = Instant.now();
+        Entrada entrada = instantaneas.computeIfAbsent(quinielaId, id -> new Entrada());
+        Instantanea instantanea = entrada.instantanea;
+        if (instantanea != null && instantanea.venceEn.isAfter(ahora)) {
+            return instantanea;
+        }
+
+        long version = entrada.version.get();
+        instantanea = cargar(ahora.plus(vigencia), quinielaId);
+        if (entrada.version.get() == version) {
+            entrada.instantanea = instantanea;
+        }
+        // Las vencidas de quinielas que ya nadie consulta no se reconstruyen: se descartan
+        instantaneas.entrySet().removeIf(e -> !e.getKey().equals(quinielaId) && e.getValue().vencida(ahora));
+        return instantanea;
+    }
+
+    private Instantanea cargar(Instant venceEn, Long quinielaId) {
+        Instantanea instantanea = new Instantanea(venceEn);
+        for (Object[] fila : quinielaEventoRepository.findResultadosEventosByQuinielaId(quinielaId)) {
+            instantanea.agregarEvento((Long) fila[0], (String) fila[1]);
+        }
+        for (Object[] fila : prediccionRepository.contarPorEventoYPrediccion(quinielaId)) {
+            instantanea.sumar((Long) fila[0], (String) fila[1], ((Number) fila[2]).longValue());
+        }
+        log.debug("📊 Distribución de predicciones cargada para quiniela {}: {} eventos",
+                quinielaId, instantanea.eventos.size());
+        return instantanea;
+    }
+
+    /**
+     * Instantánea vigente de una quiniela y su versión, que se incrementa con
+     * cada delta de esa quiniela; una carga que la ve cambiar no se guarda
+     */
+    private static class Entrada {
+        private final AtomicLong version = new AtomicLong();
+        private volatile Instantanea instantanea;
+
+        boolean vencida(Instant ahora) {
+            Instantanea actual = instantanea;
+            return actual == null || !actual.venceEn.isAfter(ahora);
+        }
+    }
+
+    /**
+     * Conteos por pronóstico y resultado de cada evento de una quiniela.
+     * Todas las operaciones toman el monitor de la instantánea.
+     */
+    private static class Instantanea {
+        private final Instant venceEn;
+        private final Map<Long, Map<String, Long>> conteos = new HashMap<>();
+        private final Map<Long, String> eventos = new LinkedHashMap<>();
+
+        Instantanea(Instant venceEn) {
+            this.venceEn = venceEn;
+        }
+
+        synchronized void sumar(Long eventoId, String prediccion, long cantidad) {
+            if (prediccion == null) {
+                return;
+            }
+            Map<String, Long> porPrediccion = conteos.computeIfAbsent(eventoId, k -> new HashMap<>());
+            long total = porPrediccion.getOrDefault(prediccion, 0L) + cantidad;
+            if (total > 0) {
+                porPrediccion.put(prediccion, total);
+            } else {
+                porPrediccion.remove(prediccion);
+            }
+        }
+
+        synchronized void aplicar(List<CambioPrediccion> cambiosPrediccion) {
+            for (CambioPrediccion cambio : cambiosPrediccion) {
+                sumar(cambio.eventoDeportivoId(), cambio.anterior(), -1);
+                sumar(cambio.eventoDeportivoId(), cambio.nueva(), 1);
+            }
+        }
+
+        synchronized void agregarEvento(Long eventoId, String resultado) {
+            eventos.put(eventoId, resultado);
+        }
+
+        synchronized boolean incluye(Long eventoId) {
+            return eventos.containsKey(eventoId);
+        }
+
+        /** Solo cambia eventos de esta quiniela */
+        synchronized void actualizarResultado(Long eventoId, String resultado) {
+            eventos.replace(eventoId, resultado);
+        }
+
+        synchronized DistribucionEvento distribucion(Long eventoId) {
+            return new DistribucionEvento(eventoId, eventos.get(eventoId),
+                    conteos.getOrDefault(eventoId, Collections.emptyMap()));
+        }
+
+        synchronized Map<Long, DistribucionEvento> todas() {
+            Map<Long, DistribucionEvento> todas = new LinkedHashMap<>();
+            for (Long eventoId : eventos.keySet()) {
+                todas.put(eventoId, distribucion(eventoId));
+            }
+            return todas;
+        }
+    }
+
+    /**
+     * Distribución de predicciones de un evento: conteo por pronóstico,
+     * resultado del evento (si ya lo tiene) y aciertos derivados
+     */
+    public static class DistribucionEvento {
+        private final Long eventoDeportivoId;
+        private final String resultado;
+        private final Map<String, Long> porPrediccion;
+        private final int totalPredicciones;
+
+        public DistribucionEvento(Long eventoDeportivoId, String resultado, Map<String, Long> porPrediccion) {
+            this.eventoDeportivoId = eventoDeportivoId;
+            this.resultado = resultado;
+            this.porPrediccion = Map.copyOf(porPrediccion);
+            this.totalPredicciones = (int) porPrediccion.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public Long getEventoDeportivoId() { return eventoDeportivoId; }
+        public String getResultado() { return resultado; }
+        public Map<String, Long> getPorPrediccion() { return porPrediccion; }
+        public int getTotalPredicciones() { return totalPredicciones; }
+
+        public long getPrediccionesCorrectas() {
+            return resultado != null ? porPrediccion.getOrDefault(resultado, 0L) : 0L;
+        }
+
+        public BigDecimal getPorcentajeAciertos() {
+            if (totalPredicciones == 0) {
+                return BigDecimal.ZERO;
+            }
+            return BigDecimal.valueOf(getPrediccionesCorrectas())
+                    .divide(BigDecimal.valueOf(totalPredicciones), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+        }
     }
 
     /**
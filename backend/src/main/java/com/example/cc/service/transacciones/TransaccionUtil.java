@@ -0,0 +1,30 @@
+package com.example.cc.service.transacciones;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para coordinar estado en memoria con la transacción en curso
+ */
+public final class TransaccionUtil {
+
+    private TransaccionUtil() {
+    }
+
+    /**
+     * Ejecutar la acción cuando la transacción actual se confirme (se descarta
+     * si se revierte); sin transacción activa se ejecuta de inmediato
+     */
+    public static void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.cc.service.wallet;
 
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Transaccion;
 import com.example.cc.entities.Usuario;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Interfaz para el servicio de gestión de monedero/wallet
@@ -25,6 +28,28 @@ public interface IWalletService {
      */
     void procesarPagoPremio(Usuario usuario, BigDecimal monto, String descripcion);
 
+    /**
+     * Procesar en lote los pagos de premios y comisiones
+     * @param pagos Abonos a aplicar; un usuario puede aparecer varias veces
+     * @return Número de transacciones registradas
+     */
+    int procesarPagosPremios(List<PagoPremioDto> pagos);
+
+    /**
+     * Procesar en lote reembolsos (tipo REEMBOLSO)
+     * @param reembolsos Abonos a aplicar; un usuario puede aparecer varias veces
+     * @return Número de transacciones registradas
+     */
+    int procesarReembolsos(List<PagoPremioDto> reembolsos);
+
+    /**
+     * Procesar en lote ajustes con signo (reliquidación por corrección de resultados)
+     * @param ajustes Montos positivos a abonar y negativos a cargar
+     * @param tipoAbono Tipo de transacción de los abonos; los cargos se registran como PENALIZACION
+     * @return Número de transacciones registradas
+     */
+    int procesarAjustes(List<PagoPremioDto> ajustes, Transaccion.TipoTransaccion tipoAbono);
+
     /**
      * Procesar depósito de dinero
      * @param usuario Usuario que deposita
@@ -0,0 +1,144 @@
+package com.example.cc.service.wallet;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Apuesta;
+import com.example.cc.service.apuestas.ContadoresApuestasService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reembolsos masivos por quinielas canceladas y por eventos deportivos
+ * cancelados o aplazados.
+ *
+ * Cada lote es una transacción corta de tres sentencias: un UPDATE ...
+ * RETURNING que cambia el estado de hasta {@code reembolsos.lote}
+ * participaciones o apuestas y devuelve quién recibe cuánto, y el abono en
+ * lote de {@link IWalletService#procesarReembolsos} (saldos + transacciones).
+ * Las filas se toman con {@code FOR UPDATE SKIP LOCKED}, así que un lote nunca
+ * espera a otro y volver a ejecutar el proceso solo reembolsa lo que sigue
+ * pendiente.
+ */
+@Service
+@Slf4j
+public class ReembolsoMasivoService {
+
+    private static final String SQL_CANCELAR_PARTICIPACIONES =
+            "UPDATE quiniela_participaciones p SET estado = 'CANCELADA', fecha_actualizacion = ? " +
+            "WHERE p.id IN (SELECT id FROM quiniela_participaciones " +
+            "WHERE quiniela_id = ? AND estado IN ('ACTIVA', 'PREDICCIONES_COMPLETADAS') " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING p.usuario_id, p.monto_apostado";
+
+    private static final String SQL_ANULAR_APUESTAS =
+            "UPDATE apuestas a SET estado = 'CANCELADA', fecha_resolucion = ?, fecha_actualizacion = ? " +
+            "FROM (SELECT ap.id, ap.estado FROM apuestas ap " +
+            "JOIN eventos_deportivos ev ON ev.id = ap.evento_deportivo_id " +
+            "WHERE ev.estado = 'cancelado' AND ap.estado IN ('PENDIENTE', 'ACEPTADA') " +
+            "ORDER BY ap.id LIMIT ? FOR UPDATE OF ap SKIP LOCKED) previa, eventos_deportivos e " +
+            "WHERE a.id = previa.id AND e.id = a.evento_deportivo_id " +
+            "RETURNING a.usuario_id, a.monto_apostado, e.nombre_evento, previa.estado";
+
+    private static final String SQL_QUINIELAS_PENDIENTES =
+            "SELECT DISTINCT q.id, q.nombre FROM quinielas q " +
+            "JOIN quiniela_participaciones p ON p.quiniela_id = q.id " +
+            "WHERE q.estado = 'CANCELADA' AND p.estado IN ('ACTIVA', 'PREDICCIONES_COMPLETADAS')";
+
+    private final IWalletService walletService;
+    private final ContadoresApuestasService contadoresApuestas;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+
+    @Value("${reembolsos.lote:1000}")
+    private int tamanoLote = 1000;
+
+    public ReembolsoMasivoService(IWalletService walletService, ContadoresApuestasService contadoresApuestas,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.walletService = walletService;
+        this.contadoresApuestas = contadoresApuestas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Cancelar y reembolsar todas las participaciones vigentes de una quiniela
+     * ya cancelada
+     * @return Número de participaciones reembolsadas
+     */
+    public int reembolsarQuiniela(Long quinielaId, String descripcion) {
+        int total = procesarEnLotes(ahora -> jdbcTemplate.query(SQL_CANCELAR_PARTICIPACIONES,
+                (rs, fila) -> new PagoPremioDto(rs.getLong(1), rs.getBigDecimal(2), descripcion),
+                ahora, quinielaId, tamanoLote));
+        log.info("💸 Quiniela {}: {} participaciones reembolsadas", quinielaId, total);
+        return total;
+    }
+
+    /**
+     * Reembolsar las participaciones que hayan quedado vigentes en quinielas
+     * canceladas (p. ej. si la cancelación se interrumpió a medio camino)
+     * @return Número de participaciones reembolsadas
+     */
+    public int reembolsarQuinielasCanceladas() {
+        int total = 0;
+        for (Object[] quiniela : jdbcTemplate.query(SQL_QUINIELAS_PENDIENTES,
+                (rs, fila) -> new Object[] { rs.getLong(1), rs.getString(2) })) {
+            total += reembolsarQuiniela((Long) quiniela[0],
+                    "Reembolso por cancelación de quiniela: " + quiniela[1]);
+        }
+        return total;
+    }
+
+    /**
+     * Anular y reembolsar las apuestas pendientes de eventos cancelados o aplazados
+     * @return Número de apuestas reembolsadas
+     */
+    public int reembolsarApuestasEventosCancelados() {
+        int total = procesarEnLotes(ahora -> {
+            Map<String, ContadoresApuestasService.Totales> anuladas = new HashMap<>();
+            List<PagoPremioDto> reembolsos = jdbcTemplate.query(SQL_ANULAR_APUESTAS, (rs, fila) -> {
+                anuladas.merge(rs.getString(4), new ContadoresApuestasService.Totales(1, rs.getBigDecimal(2)),
+                        ContadoresApuestasService.Totales::sumar);
+                return new PagoPremioDto(rs.getLong(1), rs.getBigDecimal(2),
+                        "Reembolso por cancelación del evento: " + rs.getString(3));
+            }, ahora, ahora, tamanoLote);
+            anuladas.forEach((estado, totales) -> contadoresApuestas.registrarCambio(estado,
+                    Apuesta.EstadoApuesta.CANCELADA.name(), totales.cantidad(), totales.monto()));
+            return reembolsos;
+        });
+        if (total > 0) {
+            log.info("💸 {} apuestas de eventos cancelados reembolsadas", total);
+        }
+        return total;
+    }
+
+    /**
+     * Repetir lotes (cada uno en su propia transacción) hasta que uno venga incompleto
+     */
+    private int procesarEnLotes(Function<Timestamp, List<PagoPremioDto>> tomarLote) {
+        int total = 0;
+        while (true) {
+            Integer procesadas = transaccion.execute(status -> {
+                List<PagoPremioDto> reembolsos = tomarLote.apply(Timestamp.valueOf(LocalDateTime.now()));
+                walletService.procesarReembolsos(reembolsos);
+                return reembolsos.size();
+            });
+            int lote = procesadas != null ? procesadas : 0;
+            total += lote;
+            if (lote < tamanoLote) {
+                return total;
+            }
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.cc.service.wallet;
 
+import com.example.cc.dto.PagoPremioDto;
 import com.example.cc.entities.Transaccion;
 import com.example.cc.entities.Usuario;
 import com.example.cc.repository.TransaccionRepository;
 import com.example.cc.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
@@ -20,21 +29,27 @@ public class WalletService implements IWalletService {
 
     private final UsuarioRepository usuarioRepository;
     private final TransaccionRepository transaccionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String SQL_ACREDITAR =
+            "UPDATE usuario u SET saldo_usuario = u.saldo_usuario + v.monto " +
+            "FROM unnest(?::bigint[], ?::numeric[]) AS v(id, monto) WHERE u.id_usuario = v.id";
+
+    private static final String SQL_REGISTRAR_TRANSACCIONES =
+            "INSERT INTO transaccion (id_usuario, tipo, monto, descripcion, estado, comision, " +
+            "fecha_creacion, fecha_procesamiento) " +
+            "SELECT v.id, ?, v.monto, v.descripcion, ?, 0, ?, ? " +
+            "FROM unnest(?::bigint[], ?::numeric[], ?::text[]) AS v(id, monto, descripcion)";
 
     /**
      * Procesar pago de participación en quiniela
      */
     public void procesarPagoParticipacion(Usuario usuario, BigDecimal monto, String descripcion) {
-        // Verificar saldo suficiente
-        if (usuario.getSaldoUsuario().compareTo(monto) < 0) {
+        // Debitar del saldo del usuario en la base, verificando el saldo en el mismo UPDATE
+        if (usuarioRepository.debitarSaldo(usuario.getIdUsuario(), monto) == 0) {
             throw new RuntimeException("Saldo insuficiente para la participación");
         }
 
-        // Debitar del saldo del usuario
-        BigDecimal nuevoSaldo = usuario.getSaldoUsuario().subtract(monto);
-        usuario.setSaldoUsuario(nuevoSaldo);
-        usuarioRepository.save(usuario);
-
         // Registrar transacción
         Transaccion transaccion = new Transaccion();
         transaccion.setUsuario(usuario);
@@ -74,6 +89,120 @@ public class WalletService implements IWalletService {
                 usuario.getIdUsuario(), monto);
     }
 
+    /**
+     * Procesar en lote pagos de premios: un UPDATE sobre arreglos acredita los
+     * saldos (un abono por usuario, en orden de ID para no provocar deadlocks
+     * con otros lotes) y un INSERT registra todas las transacciones, ambos en
+     * la transacción del llamador.
+     */
+    public int procesarPagosPremios(List<PagoPremioDto> pagos) {
+        return aplicarEnLote(pagos, Transaccion.TipoTransaccion.BONIFICACION, false);
+    }
+
+    /**
+     * Procesar en lote reembolsos, con el mismo UPDATE e INSERT sobre arreglos
+     * que los pagos de premios
+     */
+    public int procesarReembolsos(List<PagoPremioDto> reembolsos) {
+        return aplicarEnLote(reembolsos, Transaccion.TipoTransaccion.REEMBOLSO, false);
+    }
+
+    /**
+     * Procesar en lote ajustes con signo por reliquidaciones: los montos
+     * positivos se abonan con el tipo indicado y los negativos se cargan como
+     * PENALIZACION (el saldo puede quedar negativo si el usuario ya dispuso
+     * del premio). Los cargos se registran con monto negativo, igual que el
+     * pago de participaciones.
+     */
+    public int procesarAjustes(List<PagoPremioDto> ajustes, Transaccion.TipoTransaccion tipoAbono) {
+        List<PagoPremioDto> abonos = new ArrayList<>();
+        List<PagoPremioDto> cargos = new ArrayList<>();
+        for (PagoPremioDto ajuste : ajustes) {
+            if (ajuste.getMonto() == null || ajuste.getMonto().signum() == 0) {
+                continue;
+            }
+            if (ajuste.getMonto().signum() > 0) {
+                abonos.add(ajuste);
+            } else {
+                cargos.add(new PagoPremioDto(ajuste.getUsuarioId(), ajuste.getMonto().negate(),
+                        ajuste.getDescripcion()));
+            }
+        }
+        return aplicarEnLote(abonos, tipoAbono, false)
+                + aplicarEnLote(cargos, Transaccion.TipoTransaccion.PENALIZACION, true);
+    }
+
+    /**
+     * @param cargo Si es verdadero los montos (positivos) se restan del saldo en lugar de sumarse
+     *              y la transacción se registra en negativo
+     */
+    private int aplicarEnLote(List<PagoPremioDto> pagos, Transaccion.TipoTransaccion tipo, boolean cargo) {
+        List<PagoPremioDto> validos = pagos.stream()
+                .filter(pago -> pago.getMonto() != null && pago.getMonto().signum() > 0)
+                .toList();
+        if (validos.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, BigDecimal> abonosPorUsuario = new TreeMap<>();
+        for (PagoPremioDto pago : validos) {
+            abonosPorUsuario.merge(pago.getUsuarioId(), cargo ? pago.getMonto().negate() : pago.getMonto(),
+                    BigDecimal::add);
+        }
+        Long[] usuarios = abonosPorUsuario.keySet().toArray(new Long[0]);
+        BigDecimal[] abonos = abonosPorUsuario.values().toArray(new BigDecimal[0]);
+
+        Integer acreditados = jdbcTemplate.execute(SQL_ACREDITAR, (PreparedStatement ps) -> {
+            Array arregloUsuarios = ps.getConnection().createArrayOf("bigint", usuarios);
+            Array arregloAbonos = ps.getConnection().createArrayOf("numeric", abonos);
+            try {
+                ps.setArray(1, arregloUsuarios);
+                ps.setArray(2, arregloAbonos);
+                return ps.executeUpdate();
+            } finally {
+                arregloUsuarios.free();
+                arregloAbonos.free();
+            }
+        });
+        if (acreditados == null || acreditados != usuarios.length) {
+            throw new RuntimeException("No se pudieron acreditar todos los pagos: " + acreditados
+                    + " de " + usuarios.length + " usuarios");
+        }
+
+        Long[] ids = new Long[validos.size()];
+        BigDecimal[] montos = new BigDecimal[validos.size()];
+        String[] descripciones = new String[validos.size()];
+        for (int i = 0; i < validos.size(); i++) {
+            ids[i] = validos.get(i).getUsuarioId();
+            montos[i] = cargo ? validos.get(i).getMonto().negate() : validos.get(i).getMonto(); // Negativo para débito
+            descripciones[i] = validos.get(i).getDescripcion();
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        Integer registradas = jdbcTemplate.execute(SQL_REGISTRAR_TRANSACCIONES, (PreparedStatement ps) -> {
+            Array arregloIds = ps.getConnection().createArrayOf("bigint", ids);
+            Array arregloMontos = ps.getConnection().createArrayOf("numeric", montos);
+            Array arregloDescripciones = ps.getConnection().createArrayOf("text", descripciones);
+            try {
+                ps.setString(1, tipo.name());
+                ps.setString(2, Transaccion.EstadoTransaccion.COMPLETADA.name());
+                ps.setTimestamp(3, ahora);
+                ps.setTimestamp(4, ahora);
+                ps.setArray(5, arregloIds);
+                ps.setArray(6, arregloMontos);
+                ps.setArray(7, arregloDescripciones);
+                return ps.executeUpdate();
+            } finally {
+                arregloIds.free();
+                arregloMontos.free();
+                arregloDescripciones.free();
+            }
+        });
+
+        log.info("Procesado lote de {}: {} transacciones para {} usuarios",
+                tipo, registradas, usuarios.length);
+        return registradas != null ? registradas : 0;
+    }
+
     /**
      * Procesar depósito
      */
@@ -0,0 +1,128 @@
+package com.example.cc.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class DatabaseConfigTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDataSource_SoloLecturaVaALaReplica() throws Exception {
+        DataSource primario = pool();
+        DataSource replica = pool();
+        ObjectProvider<DataSource> proveedorReplica = mock(ObjectProvider.class);
+        when(proveedorReplica.getIfAvailable()).thenReturn(replica);
+
+        DataSource dataSource = new DatabaseConfig().dataSource(primario, proveedorReplica);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transaccion = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // La primera conexión del primario también lee los valores por defecto de las conexiones
+        transaccion.executeWithoutResult(status -> jdbcTemplate.execute("SELECT 1"));
+        verifyNoInteractions(replica);
+        clearInvocations(primario);
+
+        transaccion.setReadOnly(true);
+        transaccion.executeWithoutResult(status -> jdbcTemplate.execute("SELECT 1"));
+        verify(replica, times(1)).getConnection();
+        verifyNoInteractions(primario);
+
+        transaccion.setReadOnly(false);
+        transaccion.executeWithoutResult(status -> jdbcTemplate.execute("SELECT 1"));
+        verify(primario, times(1)).getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDataSource_SinReplicaTodoVaAlPrimario() throws Exception {
+        DataSource primario = pool();
+        DataSource dataSource = new DatabaseConfig().dataSource(primario, mock(ObjectProvider.class));
+
+        TransactionTemplate transaccion = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaccion.setReadOnly(true);
+        transaccion.executeWithoutResult(status -> new JdbcTemplate(dataSource).execute("SELECT 1"));
+
+        verify(primario, atLeastOnce()).getConnection();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testJpa_EscrituraTrasSoloLecturaEnElMismoEntityManagerVaAlPrimario() throws Exception {
+        DataSource primario = pool();
+        DataSource replica = pool();
+        ObjectProvider<DataSource> proveedorReplica = mock(ObjectProvider.class);
+        when(proveedorReplica.getIfAvailable()).thenReturn(replica);
+        DatabaseConfig config = new DatabaseConfig();
+        DataSource dataSource = config.dataSource(primario, proveedorReplica);
+
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        propiedades.put("hibernate.boot.allow_jdbc_metadata_access", false);
+        LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+        fabrica.setDataSource(dataSource);
+        fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        fabrica.setPackagesToScan(DatabaseConfig.class.getPackageName());
+        fabrica.setJpaPropertyMap(propiedades);
+        fabrica.afterPropertiesSet();
+        EntityManagerFactory emf = fabrica.getObject();
+
+        JpaTransactionManager transactionManager = (JpaTransactionManager) config.transactionManager();
+        transactionManager.setEntityManagerFactory(emf);
+        transactionManager.afterPropertiesSet();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        // Como open-in-view: un solo EntityManager para toda la petición
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            transaccion.executeWithoutResult(status -> usarConexion(em));
+            clearInvocations(primario);
+
+            transaccion.setReadOnly(true);
+            transaccion.executeWithoutResult(status -> usarConexion(em));
+            verify(replica, times(1)).getConnection();
+            verifyNoInteractions(primario);
+
+            transaccion.setReadOnly(false);
+            transaccion.executeWithoutResult(status -> usarConexion(em));
+            verify(primario, times(1)).getConnection();
+            verify(replica, times(1)).getConnection();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+            fabrica.destroy();
+        }
+    }
+
+    private static void usarConexion(EntityManager em) {
+        em.unwrap(Session.class).doWork(conexion -> conexion.createStatement());
+    }
+
+    private static DataSource pool() throws Exception {
+        Connection conexion = mock(Connection.class);
+        when(conexion.getAutoCommit()).thenReturn(true);
+        when(conexion.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(conexion.createStatement()).thenReturn(mock(Statement.class));
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(conexion);
+        return pool;
+    }
+}
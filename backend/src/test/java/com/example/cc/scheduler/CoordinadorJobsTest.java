@@ -0,0 +1,131 @@
+package com.example.cc.scheduler;
+
+import com.example.cc.repository.BloqueoJobRepository;
+import com.example.cc.repository.EjecucionJobRepository;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoordinadorJobsTest {
+
+    @Mock
+    private BloqueoJobRepository bloqueoJobRepository;
+
+    @Mock
+    private EjecucionJobRepository ejecucionJobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CoordinadorJobs coordinador;
+
+    @BeforeEach
+    void setUp() {
+        coordinador = new CoordinadorJobs(bloqueoJobRepository,
+                new RegistroEjecucionesService(ejecucionJobRepository), transactionManager);
+        ReflectionTestUtils.setField(coordinador, "instanciaId", "a");
+    }
+
+    @Test
+    void testEjecutar_OmiteSiOtraInstanciaTieneLaConcesion() {
+        when(bloqueoJobRepository.adquirir(eq("apuestas.liquidacion"), eq("a"), anyDouble())).thenReturn(0);
+
+        Runnable tarea = () -> fail("No debe ejecutarse");
+        boolean ejecutado = coordinador.ejecutar("apuestas.liquidacion", Duration.ofMinutes(25), tarea);
+
+        assertFalse(ejecutado);
+        verify(bloqueoJobRepository, never()).liberar(any(), any(), anyDouble());
+        verifyNoInteractions(ejecucionJobRepository);
+    }
+
+    @Test
+    void testEjecutar_LiberaConservandoElBloqueoMinimo() {
+        when(bloqueoJobRepository.adquirir(eq("eventos.cierre"), eq("a"), anyDouble())).thenReturn(1);
+
+        var resultado = coordinador.ejecutar("eventos.cierre", Duration.ofMinutes(5), () -> 3);
+
+        assertEquals(3, resultado.orElseThrow());
+        verify(bloqueoJobRepository).liberar("eventos.cierre", "a", 300.0);
+        verify(ejecucionJobRepository).save(any());
+    }
+
+    @Test
+    void testEjecutar_OmiteSiElMismoJobYaCorreEnEstaInstancia() {
+        when(bloqueoJobRepository.adquirir(eq("eventos.sincronizacion"), eq("a"), anyDouble())).thenReturn(1);
+
+        // Disparo manual mientras corre el programado: la base volvería a conceder al mismo propietario
+        Runnable manual = () -> fail("No debe ejecutarse");
+        Runnable programado = () -> assertFalse(
+                coordinador.ejecutar("eventos.sincronizacion", Duration.ofMinutes(5), manual));
+        boolean ejecutado = coordinador.ejecutar("eventos.sincronizacion", Duration.ofMinutes(5), programado);
+
+        assertTrue(ejecutado);
+        verify(bloqueoJobRepository, times(1)).adquirir(eq("eventos.sincronizacion"), eq("a"), anyDouble());
+        verify(bloqueoJobRepository, times(1)).liberar("eventos.sincronizacion", "a", 300.0);
+
+        // Terminado el primero, el job puede volver a ejecutarse
+        Runnable siguiente = () -> { };
+        assertTrue(coordinador.ejecutar("eventos.sincronizacion", Duration.ofMinutes(5), siguiente));
+    }
+
+    @Test
+    void testRenovarConcesiones_SoloMientrasElJobCorre() {
+        when(bloqueoJobRepository.adquirir(eq("apuestas.liquidacion"), eq("a"), anyDouble())).thenReturn(1);
+        when(bloqueoJobRepository.renovar("apuestas.liquidacion", "a", 1800.0)).thenReturn(1);
+
+        coordinador.ejecutar("apuestas.liquidacion", Duration.ofMinutes(25), coordinador::renovarConcesiones);
+        coordinador.renovarConcesiones();
+
+        verify(bloqueoJobRepository, times(1)).renovar("apuestas.liquidacion", "a", 1800.0);
+        verify(bloqueoJobRepository).liberar("apuestas.liquidacion", "a", 1500.0);
+    }
+
+    @Test
+    void testRenovarConcesiones_ConcesionPerdidaNoSeLibera() {
+        when(bloqueoJobRepository.adquirir(eq("apuestas.liquidacion"), eq("a"), anyDouble())).thenReturn(1);
+        when(bloqueoJobRepository.renovar("apuestas.liquidacion", "a", 1800.0)).thenReturn(0);
+
+        coordinador.ejecutar("apuestas.liquidacion", Duration.ofMinutes(25), () -> {
+            coordinador.renovarConcesiones();
+            // Perdida: no se vuelve a intentar renovar
+            coordinador.renovarConcesiones();
+        });
+
+        verify(bloqueoJobRepository, times(1)).renovar(any(), any(), anyDouble());
+        verify(bloqueoJobRepository, never()).liberar(any(), any(), anyDouble());
+    }
+
+    @Test
+    void testEjecutarPorParticiones_TomaSoloSuParte() {
+        ReflectionTestUtils.setField(coordinador, "particiones", 4);
+        when(bloqueoJobRepository.contarInstanciasActivas()).thenReturn(2L);
+        when(bloqueoJobRepository.adquirir(startsWith("cuotas.verificacion#"), eq("a"), anyDouble())).thenReturn(1);
+
+        List<Long> procesados = new ArrayList<>();
+        int tomadas = coordinador.ejecutarPorParticiones("cuotas.verificacion", Duration.ofMinutes(1),
+                particion -> LongStream.rangeClosed(1, 20).boxed()
+                        .filter(particion::incluye)
+                        .forEach(procesados::add));
+
+        assertEquals(2, tomadas);
+        assertEquals(10, procesados.size());
+        assertEquals(2, procesados.stream().map(id -> id % 4).distinct().count());
+        verify(bloqueoJobRepository, times(2)).adquirir(startsWith("cuotas.verificacion#"), eq("a"), anyDouble());
+        verify(bloqueoJobRepository, times(2)).liberar(startsWith("cuotas.verificacion#"), eq("a"), eq(60.0));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.cc.scheduler;
+
+import com.example.cc.entities.EventoDeportivo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveScorePollPlannerTest {
+
+    private LiveScorePollPlanner planner;
+    private LocalDateTime ahora;
+
+    @BeforeEach
+    void setUp() {
+        planner = new LiveScorePollPlanner();
+        ahora = LocalDateTime.of(2025, 5, 10, 18, 0);
+    }
+
+    @Test
+    void testCalcularProximoPoll_PoliticaPorEstado() {
+        assertEquals(ahora.plusSeconds(25), planner.calcularProximoPoll("en_vivo", ahora.minusMinutes(30), ahora));
+        assertEquals(ahora.plusMinutes(10), planner.calcularProximoPoll("programado", ahora.plusMinutes(90), ahora));
+        assertEquals(ahora.plusMinutes(5), planner.calcularProximoPoll("programado", ahora.plusMinutes(30), ahora));
+        assertEquals(ahora.plusMinutes(1), planner.calcularProximoPoll("programado", ahora.plusMinutes(10), ahora));
+        assertEquals(ahora.plusSeconds(25), planner.calcularProximoPoll("programado", ahora.plusMinutes(1), ahora));
+        assertNull(planner.calcularProximoPoll("programado", ahora.plusHours(5), ahora));
+        assertNull(planner.calcularProximoPoll("finalizado", ahora.minusMinutes(30), ahora));
+        assertNull(planner.calcularProximoPoll("en_vivo", ahora.minusHours(7), ahora));
+    }
+
+    @Test
+    void testCalcularProximoPoll_FinalizadoSinResultadoSigueEnConsulta() {
+        EventoDeportivo sinResultado = evento(3L, "finalizado", ahora.minusHours(10));
+        assertEquals(ahora.plusMinutes(5), planner.calcularProximoPoll(sinResultado, ahora));
+
+        sinResultado.setResultado("LOCAL");
+        assertNull(planner.calcularProximoPoll(sinResultado, ahora));
+
+        EventoDeportivo antiguo = evento(4L, "finalizado", ahora.minusHours(49));
+        assertNull(planner.calcularProximoPoll(antiguo, ahora));
+    }
+
+    @Test
+    void testExtraerVencidos_AgrupaYReprograma() {
+        EventoDeportivo enVivo = evento(1L, "en_vivo", ahora.minusMinutes(40));
+        EventoDeportivo lejano = evento(2L, "programado", ahora.plusMinutes(100));
+        planner.sincronizarCandidatos(List.of(enVivo, lejano), ahora);
+
+        // Los eventos nuevos se consultan de inmediato y en una sola pasada
+        List<LiveScorePollPlanner.EntradaPoll> vencidos = planner.extraerVencidos(ahora);
+        assertEquals(2, vencidos.size());
+        assertTrue(planner.getCola().isEmpty());
+
+        planner.reprogramar(enVivo, ahora);
+        planner.reprogramar(lejano, ahora);
+        assertEquals(1L, planner.getCola().get(0).getEventoId());
+        assertTrue(planner.extraerVencidos(ahora.plusSeconds(5)).isEmpty());
+        assertEquals(1, planner.extraerVencidos(ahora.plusSeconds(25)).size());
+
+        enVivo.setEstado("finalizado");
+        enVivo.setResultado("LOCAL");
+        planner.reprogramar(enVivo, ahora.plusSeconds(25));
+        assertEquals(List.of(2L), planner.getCola().stream().map(LiveScorePollPlanner.EntradaPoll::getEventoId).toList());
+    }
+
+    @Test
+    void testConsumirPresupuesto_VentanaDeUnMinuto() {
+        int limite = planner.getLimiteLlamadasPorMinuto();
+        for (int i = 0; i < limite; i++) {
+            assertTrue(planner.consumirPresupuesto(ahora.plusSeconds(i)));
+        }
+        assertFalse(planner.consumirPresupuesto(ahora.plusSeconds(limite)));
+        assertTrue(planner.consumirPresupuesto(ahora.plusSeconds(61)));
+    }
+
+    private EventoDeportivo evento(Long id, String estado, LocalDateTime fecha) {
+        EventoDeportivo evento = new EventoDeportivo();
+        evento.setId(id);
+        evento.setEventoIdExterno(String.valueOf(id * 100));
+        evento.setEstado(estado);
+        evento.setFechaEvento(fecha);
+        return evento;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.Deporte;
+import com.example.cc.entities.Liga;
+import com.example.cc.repository.DeporteRepository;
+import com.example.cc.repository.LigaRepository;
+import com.example.cc.service.deportes.CatalogoCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoCacheTest {
+
+    @Mock
+    private DeporteRepository deporteRepository;
+
+    @Mock
+    private LigaRepository ligaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogoCache catalogoCache;
+
+    @BeforeEach
+    void setUp() {
+        catalogoCache = new CatalogoCache(deporteRepository, ligaRepository, transactionManager);
+    }
+
+    @Test
+    void testResolver_SinConsultasTrasCalentar() {
+        when(deporteRepository.findIdYNombre()).thenReturn(List.<Object[]>of(new Object[]{1L, "Soccer"}));
+        when(ligaRepository.findIdNombreYIdExterno())
+                .thenReturn(List.<Object[]>of(new Object[]{10L, "English Premier League", "4328"}));
+        when(deporteRepository.getReferenceById(1L)).thenReturn(deporte(1L, "Soccer"));
+        when(ligaRepository.getReferenceById(10L)).thenReturn(new Liga());
+
+        for (int i = 0; i < 3; i++) {
+            catalogoCache.resolverDeporte(" soccer ", () -> fail("No debe crear"));
+            catalogoCache.resolverLiga("Otra", "4328", 1L, () -> fail("No debe crear"));
+            catalogoCache.resolverLiga("english premier league", null, 1L, () -> fail("No debe crear"));
+        }
+
+        verify(deporteRepository, times(1)).findIdYNombre();
+        verify(ligaRepository, times(1)).findIdNombreYIdExterno();
+        verify(deporteRepository, never()).findByNombreIgnoreCase(any());
+        verify(ligaRepository, never()).findByNombreIgnoreCase(any());
+    }
+
+    @Test
+    void testRegistrarDeporte_SoloAlConfirmar() {
+        // Transacción revertida: la caché no se entera del deporte
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogoCache.registrarDeporte(deporte(3L, "Rugby"));
+            assertEquals(0, catalogoCache.getTamanoDeportes());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, catalogoCache.getTamanoDeportes());
+
+        // Transacción confirmada: se registra tras el commit
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogoCache.registrarDeporte(deporte(3L, "Rugby"));
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, catalogoCache.getTamanoDeportes());
+    }
+
+    @Test
+    void testResolverDeporte_CreaUnaSolaVez() {
+        when(deporteRepository.findIdYNombre()).thenReturn(List.of());
+        when(ligaRepository.findIdNombreYIdExterno()).thenReturn(List.of());
+        when(deporteRepository.findByNombreIgnoreCase("Curling")).thenReturn(Optional.empty());
+        when(deporteRepository.saveAndFlush(any(Deporte.class))).thenAnswer(inv -> {
+            Deporte d = inv.getArgument(0);
+            d.setId(7L);
+            return d;
+        });
+        when(deporteRepository.getReferenceById(7L)).thenReturn(deporte(7L, "Curling"));
+
+        Deporte primero = catalogoCache.resolverDeporte("Curling", () -> deporte(null, "Curling"));
+        Deporte segundo = catalogoCache.resolverDeporte("CURLING", () -> fail("No debe crear"));
+
+        assertEquals(7L, primero.getId());
+        assertEquals(7L, segundo.getId());
+        verify(deporteRepository, times(1)).saveAndFlush(any(Deporte.class));
+        assertEquals(1, catalogoCache.getTamanoDeportes());
+    }
+
+    private Deporte deporte(Long id, String nombre) {
+        Deporte deporte = new Deporte();
+        deporte.setId(id);
+        deporte.setNombre(nombre);
+        return deporte;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.external.CatalogoSnapshot;
+import com.example.cc.entities.Deporte;
+import com.example.cc.entities.Liga;
+import com.example.cc.repository.DeporteRepository;
+import com.example.cc.repository.LigaRepository;
+import com.example.cc.service.deportes.CatalogoCache;
+import com.example.cc.service.deportes.CatalogoSnapshotStore;
+import com.example.cc.service.deportes.CatalogoSyncService;
+import com.example.cc.service.external.ITheSportsDbService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoSyncServiceTest {
+
+    @Mock
+    private DeporteRepository deporteRepository;
+
+    @Mock
+    private LigaRepository ligaRepository;
+
+    @Mock
+    private ITheSportsDbService theSportsDbService;
+
+    @Mock
+    private CatalogoSnapshotStore snapshotStore;
+
+    @Mock
+    private CatalogoCache catalogoCache;
+
+    @InjectMocks
+    private CatalogoSyncService catalogoSyncService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAplicarCatalogo_SoloAltasYCambios() {
+        Deporte soccer = new Deporte();
+        soccer.setId(1L);
+        soccer.setNombre("Soccer");
+
+        Liga premier = new Liga();
+        premier.setId(10L);
+        premier.setNombre("English Premier League");
+        premier.setLigaIdExterno("4328");
+        premier.setPais("England");
+        premier.setTemporada("2024-2025");
+        premier.setDeporte(soccer);
+
+        when(deporteRepository.findAll()).thenReturn(List.of(soccer));
+        when(ligaRepository.findAll()).thenReturn(List.of(premier));
+
+        CatalogoSnapshot snapshot = new CatalogoSnapshot("hoy", new ArrayList<>(), new ArrayList<>());
+        snapshot.getDeportes().add(new CatalogoSnapshot.DeporteSnapshot("soccer", null, null, null));
+        snapshot.getDeportes().add(new CatalogoSnapshot.DeporteSnapshot("Basketball", null, "🏀", null));
+        snapshot.getLigas().add(new CatalogoSnapshot.LigaSnapshot("4328", "English Premier League", "Soccer",
+                "England", "2025-2026", null, null, null));
+        snapshot.getLigas().add(new CatalogoSnapshot.LigaSnapshot("4387", "NBA", "Basketball",
+                "USA", "2025-2026", null, null, null));
+        snapshot.getLigas().add(new CatalogoSnapshot.LigaSnapshot("9999", "Liga X", "Curling",
+                null, null, null, null, null));
+
+        CatalogoSyncService.ResultadoSync resultado = catalogoSyncService.aplicarCatalogo(snapshot);
+
+        assertEquals(1, resultado.getDeportesCreados());
+        assertEquals(1, resultado.getLigasCreadas());
+        assertEquals(1, resultado.getLigasActualizadas());
+        assertEquals(1, resultado.getLigasOmitidas());
+        assertEquals("2025-2026", premier.getTemporada());
+
+        ArgumentCaptor<List<Liga>> ligas = ArgumentCaptor.forClass(List.class);
+        verify(ligaRepository).saveAll(ligas.capture());
+        assertEquals(2, ligas.getValue().size());
+        assertEquals("Basketball", ligas.getValue().get(1).getDeporte().getNombre());
+        verify(deporteRepository, times(1)).saveAll(anyList());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.cc.service;
+
+import com.example.cc.repository.PrediccionEventoRepository;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import com.example.cc.service.quiniela.CicloVidaQuinielaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CicloVidaQuinielaServiceTest {
+
+    @Mock
+    private QuinielaRepository quinielaRepository;
+
+    @Mock
+    private QuinielaEventoRepository quinielaEventoRepository;
+
+    @Mock
+    private QuinielaParticipacionRepository participacionRepository;
+
+    @Mock
+    private PrediccionEventoRepository prediccionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testEliminarCanceladasAntes_PorLotesDeHijosAPadres() {
+        CicloVidaQuinielaService cicloVida = new CicloVidaQuinielaService(quinielaRepository,
+                quinielaEventoRepository, participacionRepository, prediccionRepository, transactionManager);
+        ReflectionTestUtils.setField(cicloVida, "tamanoLote", 2);
+        LocalDateTime limite = LocalDateTime.now();
+
+        when(quinielaRepository.findIdsCanceladasAntes(eq(limite), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(quinielaRepository.eliminarPorIds(anyCollection())).thenReturn(2, 1);
+
+        assertEquals(3, cicloVida.eliminarCanceladasAntes(limite));
+
+        InOrder orden = inOrder(prediccionRepository, participacionRepository, quinielaEventoRepository,
+                quinielaRepository);
+        orden.verify(prediccionRepository).eliminarPorQuinielaIds(List.of(1L, 2L));
+        orden.verify(participacionRepository).eliminarPorQuinielaIds(List.of(1L, 2L));
+        orden.verify(quinielaEventoRepository).eliminarPorQuinielaIds(List.of(1L, 2L));
+        orden.verify(quinielaRepository).eliminarPorIds(List.of(1L, 2L));
+        orden.verify(prediccionRepository).eliminarPorQuinielaIds(List.of(3L));
+        // El último lote vino incompleto: no hace falta otra consulta
+        verify(quinielaRepository, times(2)).findIdsCanceladasAntes(eq(limite), any(Pageable.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
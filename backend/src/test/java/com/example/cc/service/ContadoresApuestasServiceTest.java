@@ -0,0 +1,63 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.Apuesta;
+import com.example.cc.repository.ContadorApuestaRepository;
+import com.example.cc.service.apuestas.ContadoresApuestasService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContadoresApuestasServiceTest {
+
+    @Mock
+    private ContadorApuestaRepository contadorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testRegistrarCambio_MueveCantidadYMontoEntreEstados() {
+        ContadoresApuestasService contadores = new ContadoresApuestasService(contadorRepository, transactionManager);
+
+        Apuesta apuesta = new Apuesta();
+        apuesta.setEstado(Apuesta.EstadoApuesta.RESUELTA);
+        apuesta.setEsGanadora(true);
+        apuesta.setMontoApostado(new BigDecimal("25.00"));
+        contadores.registrarCambio("ACEPTADA", apuesta);
+
+        verify(contadorRepository).sumar(eq("ACEPTADA"), anyInt(), eq(-1L), eq(new BigDecimal("-25.00")));
+        verify(contadorRepository).sumar(eq("GANADA"), anyInt(), eq(1L), eq(new BigDecimal("25.00")));
+
+        // Sin cambio de estado no se toca ningún contador
+        contadores.registrarCambio("GANADA", apuesta);
+        verify(contadorRepository, times(2)).sumar(anyString(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void testObtenerTotales_SumaRanurasPorEstado() {
+        ContadoresApuestasService contadores = new ContadoresApuestasService(contadorRepository, transactionManager);
+        when(contadorRepository.totalesPorEstado()).thenReturn(List.of(
+                new Object[] { "ACEPTADA", 3L, new BigDecimal("30.00") },
+                new Object[] { "PERDIDA", 2L, new BigDecimal("15.00") }));
+
+        Map<String, ContadoresApuestasService.Totales> totales = contadores.obtenerTotales();
+
+        assertEquals(3L, totales.get("ACEPTADA").cantidad());
+        assertEquals(new BigDecimal("45.00"), totales.values().stream()
+                .reduce(ContadoresApuestasService.Totales.CERO, ContadoresApuestasService.Totales::sumar).monto());
+    }
+}
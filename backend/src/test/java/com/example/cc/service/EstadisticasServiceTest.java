@@ -0,0 +1,51 @@
+package com.example.cc.service;
+
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import com.example.cc.service.estadisticas.EstadisticasService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EstadisticasServiceTest {
+
+    @Mock
+    private QuinielaRepository quinielaRepository;
+
+    @Mock
+    private QuinielaParticipacionRepository participacionRepository;
+
+    @InjectMocks
+    private EstadisticasService estadisticasService;
+
+    @Test
+    void testTopK_LimiteNoPositivoDevuelveVacio() {
+        for (int limite : new int[]{0, -1}) {
+            assertTrue(estadisticasService.obtenerQuinielasPopulares(limite).isEmpty());
+            assertTrue(estadisticasService.obtenerQuinielasMayorPool(limite).isEmpty());
+            assertTrue(estadisticasService.obtenerQuinielasProximasACerrar(limite).isEmpty());
+            assertTrue(estadisticasService.obtenerTopGanadores(limite).isEmpty());
+        }
+        verifyNoInteractions(quinielaRepository, participacionRepository);
+    }
+
+    @Test
+    void testObtenerTopGanadores_LimitaEnLaConsulta() {
+        when(participacionRepository.findTopGanadores(PageRequest.of(0, 3)))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, "ana", 120}));
+
+        var top = estadisticasService.obtenerTopGanadores(3);
+
+        assertEquals(1, top.size());
+        assertEquals("ana", top.get(0).get("username"));
+    }
+}
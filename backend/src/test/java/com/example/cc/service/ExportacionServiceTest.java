@@ -0,0 +1,77 @@
+package com.example.cc.service;
+
+import com.example.cc.service.admin.ExportacionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportacionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testExportar_CsvEscapaCamposYNdjsonUnaLineaPorFila() throws Exception {
+        ExportacionService exportacion = new ExportacionService(jdbcTemplate, new ObjectMapper(),
+                transactionManager);
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class)))
+                .thenAnswer(invocacion -> ((ResultSetExtractor<?>) invocacion.getArgument(1))
+                        .extractData(filas()));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(2, exportacion.exportar(ExportacionService.Conjunto.APUESTAS, ExportacionService.Formato.CSV,
+                null, null, csv));
+        assertEquals("id,descripcion,monto,fecha_creacion\n" +
+                "1,\"Final, \"\"vuelta\"\"\",10.50,2026-01-02T03:04:05\n" +
+                "2,,7.00,2026-01-02T03:04:05\n", csv.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportacion.exportar(ExportacionService.Conjunto.APUESTAS, ExportacionService.Formato.NDJSON,
+                null, null, ndjson);
+        assertEquals("{\"id\":1,\"descripcion\":\"Final, \\\"vuelta\\\"\",\"monto\":10.50," +
+                "\"fecha_creacion\":\"2026-01-02T03:04:05\"}\n" +
+                "{\"id\":2,\"descripcion\":null,\"monto\":7.00,\"fecha_creacion\":\"2026-01-02T03:04:05\"}\n",
+                ndjson.toString(StandardCharsets.UTF_8));
+    }
+
+    private static ResultSet filas() throws Exception {
+        ResultSetMetaData metadatos = mock(ResultSetMetaData.class);
+        when(metadatos.getColumnCount()).thenReturn(4);
+        when(metadatos.getColumnLabel(1)).thenReturn("id");
+        when(metadatos.getColumnLabel(2)).thenReturn("descripcion");
+        when(metadatos.getColumnLabel(3)).thenReturn("monto");
+        when(metadatos.getColumnLabel(4)).thenReturn("fecha_creacion");
+
+        Timestamp fecha = Timestamp.valueOf(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(metadatos);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn(1L, 2L);
+        when(rs.getObject(2)).thenReturn("Final, \"vuelta\"", (Object) null);
+        when(rs.getObject(3)).thenReturn(new BigDecimal("10.50"), new BigDecimal("7.00"));
+        when(rs.getObject(4)).thenReturn(fecha, fecha);
+        return rs;
+    }
+}
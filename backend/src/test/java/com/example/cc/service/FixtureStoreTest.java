@@ -0,0 +1,95 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.external.LiveScoreResponse;
+import com.example.cc.dto.response.TheSportsDbLeagueResponse;
+import com.example.cc.service.external.stub.FixtureStore;
+import com.example.cc.service.external.stub.RecordingInterceptor;
+import com.example.cc.service.external.stub.ReplayClientHttpRequestFactory;
+import com.example.cc.service.external.stub.SyntheticSportsDataGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixtureStoreTest {
+
+    private static final String BASE_URL = "https://www.thesportsdb.com/api/v2/json";
+    private static final String BASE_URL_V1 = "https://www.thesportsdb.com/api/v1/json/722804";
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testClave_SinApiKeyYConQuery() {
+        FixtureStore store = new FixtureStore(directorio, "722804");
+        assertEquals("api_v1_json_eventsday.php_d_2025-05-10",
+                store.clave(URI.create(BASE_URL_V1 + "/eventsday.php?d=2025-05-10")));
+    }
+
+    @Test
+    void testLeerSiguiente_SecuenciaRepiteUltimoPaso() throws Exception {
+        FixtureStore store = new FixtureStore(directorio, "722804");
+        store.guardarPaso("livescore", 1, "uno".getBytes(StandardCharsets.UTF_8));
+        store.guardarPaso("livescore", 2, "dos".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("uno", new String(store.leerSiguiente("livescore").orElseThrow(), StandardCharsets.UTF_8));
+        assertEquals("dos", new String(store.leerSiguiente("livescore").orElseThrow(), StandardCharsets.UTF_8));
+        assertEquals("dos", new String(store.leerSiguiente("livescore").orElseThrow(), StandardCharsets.UTF_8));
+        assertTrue(store.leerSiguiente("inexistente").isEmpty());
+    }
+
+    @Test
+    void testRecord_LivescoresSeGrabanComoSecuencia() throws Exception {
+        FixtureStore store = new FixtureStore(directorio, "722804");
+        store.guardarPaso("api_v2_json_livescore_all", 3, "sesion anterior".getBytes(StandardCharsets.UTF_8));
+        RecordingInterceptor interceptor = new RecordingInterceptor(store, List.of("livescore"));
+
+        for (String cuerpo : List.of("uno", "dos", "tres")) {
+            grabar(interceptor, BASE_URL + "/livescore/all", cuerpo);
+        }
+        grabar(interceptor, BASE_URL + "/all/leagues", "ligas1");
+        grabar(interceptor, BASE_URL + "/all/leagues", "ligas2");
+
+        String clave = store.clave(URI.create(BASE_URL + "/livescore/all"));
+        for (String esperado : List.of("uno", "dos", "tres", "tres")) {
+            assertEquals(esperado, new String(store.leerSiguiente(clave).orElseThrow(), StandardCharsets.UTF_8));
+        }
+        assertEquals("ligas2", new String(store.leerSiguiente(store.clave(URI.create(BASE_URL + "/all/leagues")))
+                .orElseThrow(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testReplay_DatosSinteticos() throws Exception {
+        FixtureStore store = new FixtureStore(directorio, "722804");
+        new SyntheticSportsDataGenerator(store, BASE_URL, BASE_URL_V1).generar(200, 2, 10, 7L);
+        RestTemplate restTemplate = new RestTemplate(new ReplayClientHttpRequestFactory(store, 0, 0, 0));
+
+        TheSportsDbLeagueResponse ligas = restTemplate.getForObject(BASE_URL + "/all/leagues", TheSportsDbLeagueResponse.class);
+        assertNotNull(ligas);
+        assertEquals(20, ligas.getLeagues().size());
+
+        LiveScoreResponse ultimo = null;
+        for (int i = 0; i < 10; i++) {
+            ultimo = restTemplate.getForObject(BASE_URL + "/livescore/all", LiveScoreResponse.class);
+        }
+        assertNotNull(ultimo);
+        assertEquals(100, ultimo.getLiveScore().size());
+        assertTrue(ultimo.getLiveScore().stream().anyMatch(s -> "FT".equals(s.getStrStatus())));
+    }
+
+    private static void grabar(RecordingInterceptor interceptor, String url, String cuerpo) throws Exception {
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create(url)), new byte[0],
+                (peticion, body) -> new MockClientHttpResponse(cuerpo.getBytes(StandardCharsets.UTF_8), HttpStatus.OK))
+                .close();
+    }
+}
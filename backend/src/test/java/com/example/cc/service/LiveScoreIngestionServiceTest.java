@@ -0,0 +1,121 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.external.LiveScoreResponse;
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.repository.EventoDeportivoRepository;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.external.LiveScoreIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveScoreIngestionServiceTest {
+
+    @Mock
+    private EventoDeportivoRepository eventoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LiveScoreIngestionService ingestionService;
+
+    private LocalDateTime ahora;
+    private EventoDeportivo evento;
+
+    @BeforeEach
+    void setUp() {
+        ahora = LocalDateTime.of(2025, 5, 10, 18, 0);
+        evento = new EventoDeportivo();
+        evento.setId(1L);
+        evento.setEventoIdExterno("100");
+        evento.setEstado("programado");
+        evento.setFechaEvento(ahora.plusHours(2));
+    }
+
+    @Test
+    void testIngerir_SoloGuardaEventosConCambios() {
+        EventoDeportivo sinCambios = new EventoDeportivo();
+        sinCambios.setId(2L);
+        sinCambios.setEventoIdExterno("200");
+        sinCambios.setEstado("programado");
+        sinCambios.setFechaEvento(ahora.plusHours(3));
+
+        ingestionService.ingerir(List.of(score("100", 1, 0, "1H")), List.of(evento, sinCambios), ahora);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventoDeportivo>> guardados = ArgumentCaptor.forClass(List.class);
+        verify(eventoRepository).saveAll(guardados.capture());
+        assertEquals(List.of(evento), guardados.getValue());
+        assertEquals("en_vivo", evento.getEstado());
+        assertEquals(1, evento.getMarcadorLocal());
+        verify(eventPublisher, times(1)).publishEvent(any(LiveScoreCambioEvent.class));
+    }
+
+    @Test
+    void testIngerir_AusenteDelFeedSeCierraSoloTrasLaGracia() {
+        evento.setFechaEvento(ahora.minusMinutes(30));
+
+        ingestionService.ingerir(List.of(), List.of(evento), ahora);
+        verify(eventoRepository, never()).saveAll(anyList());
+        assertEquals("programado", evento.getEstado());
+
+        ingestionService.ingerir(List.of(), List.of(evento), ahora.plusHours(5));
+        verify(eventoRepository).saveAll(List.of(evento));
+        assertEquals("finalizado", evento.getEstado());
+        assertNull(evento.getResultado());
+    }
+
+    @Test
+    void testIngerir_FeedRepetidoNoEscribe() {
+        List<LiveScoreResponse.LiveScore> feed = List.of(score("100", 2, 1, "FT"));
+
+        ingestionService.ingerir(feed, List.of(evento), ahora);
+        reset(eventoRepository, eventPublisher);
+
+        LiveScoreIngestionService.ResultadoIngesta resultado =
+                ingestionService.ingerir(feed, List.of(evento), ahora.plusMinutes(2));
+
+        verify(eventoRepository, never()).saveAll(anyList());
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, resultado.getEventosEnFeed().size());
+        assertTrue(resultado.getEventosCambiados().isEmpty());
+        assertEquals("LOCAL", evento.getResultado());
+    }
+
+    @Test
+    void testIngerir_CorreccionDeMarcadorFinal() {
+        ingestionService.ingerir(List.of(score("100", 2, 1, "FT")), List.of(evento), ahora);
+        reset(eventPublisher);
+
+        ingestionService.ingerir(List.of(score("100", 2, 2, "FT")), List.of(evento), ahora.plusMinutes(2));
+
+        ArgumentCaptor<LiveScoreCambioEvent> cambio = ArgumentCaptor.forClass(LiveScoreCambioEvent.class);
+        verify(eventPublisher).publishEvent(cambio.capture());
+        assertTrue(cambio.getValue().esCorreccionPostFinal());
+        assertEquals("EMPATE", evento.getResultado());
+    }
+
+    private LiveScoreResponse.LiveScore score(String idEvent, int local, int visitante, String status) {
+        LiveScoreResponse.LiveScore score = new LiveScoreResponse.LiveScore();
+        score.setIdEvent(idEvent);
+        score.setIntHomeScore(local);
+        score.setIntAwayScore(visitante);
+        score.setStrStatus(status);
+        return score;
+    }
+}
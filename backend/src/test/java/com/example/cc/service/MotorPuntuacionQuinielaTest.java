@@ -0,0 +1,88 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.service.quiniela.MotorPuntuacionQuiniela;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MotorPuntuacionQuinielaTest {
+
+    @Mock
+    private QuinielaEventoRepository quinielaEventoRepository;
+
+    @Mock
+    private QuinielaParticipacionRepository participacionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private MotorPuntuacionQuiniela motor;
+
+    @Test
+    void testCargarResultados_DetectaEventosSinResultado() {
+        when(quinielaEventoRepository.findResultadosEventosByQuinielaId(1L)).thenReturn(List.of(
+                new Object[]{20L, "LOCAL"}, new Object[]{10L, null}));
+
+        MotorPuntuacionQuiniela.ResultadosQuiniela resultados = motor.cargarResultados(1L);
+
+        assertEquals(2, resultados.getTotalEventos());
+        assertFalse(resultados.todosFinalizados());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPuntuar_UnaPasadaYUnSoloUpdate() throws Exception {
+        when(quinielaEventoRepository.findResultadosEventosByQuinielaId(1L)).thenReturn(List.of(
+                new Object[]{30L, "EMPATE"}, new Object[]{10L, "LOCAL"}, new Object[]{20L, "VISITANTE"}));
+        when(participacionRepository.streamPrediccionesParaPuntuar(1L,
+                EnumSet.of(QuinielaParticipacion.EstadoParticipacion.PREDICCIONES_COMPLETADAS))).thenReturn(Stream.of(
+                new Object[]{100L, 10L, "LOCAL", 5},
+                new Object[]{100L, 20L, "VISITANTE", 8},
+                new Object[]{100L, 30L, "LOCAL", 10},
+                new Object[]{101L, 10L, "EMPATE", 9},
+                new Object[]{101L, 30L, "EMPATE", 3},
+                new Object[]{102L, null, null, null}));
+
+        int puntuadas = motor.puntuar(1L, motor.cargarResultados(1L));
+
+        assertEquals(3, puntuadas);
+        ArgumentCaptor<PreparedStatementCallback<Integer>> callback = ArgumentCaptor.forClass(PreparedStatementCallback.class);
+        verify(jdbcTemplate, times(1)).execute(anyString(), callback.capture());
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection conexion = mock(Connection.class);
+        when(ps.getConnection()).thenReturn(conexion);
+        when(conexion.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        callback.getValue().doInPreparedStatement(ps);
+
+        ArgumentCaptor<Object[]> arreglos = ArgumentCaptor.forClass(Object[].class);
+        verify(conexion, times(3)).createArrayOf(anyString(), arreglos.capture());
+        assertArrayEquals(new Long[]{100L, 101L, 102L}, arreglos.getAllValues().get(0));
+        assertArrayEquals(new Integer[]{2, 1, 0}, arreglos.getAllValues().get(1));
+        assertArrayEquals(new BigDecimal[]{new BigDecimal("206.50"), new BigDecimal("101.50"), new BigDecimal("0.00")},
+                arreglos.getAllValues().get(2));
+        verify(ps).executeUpdate();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.Usuario;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import com.example.cc.repository.UsuarioRepository;
+import com.example.cc.service.quiniela.QuinielaService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga de participaciones concurrentes sobre una sola quiniela.
+ *
+ * Requiere PostgreSQL (usa la configuración de application.properties sobre
+ * una base desechable) y solo corre con {@code -Dcarga.quinielas=true}:
+ * {@code mvn test -Dtest=ParticipacionQuinielaCargaTest -Dcarga.quinielas=true}.
+ * Parámetros opcionales: {@code carga.usuarios} y {@code carga.hilos}.
+ * Los usuarios y la quiniela creados se borran al terminar.
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "carga.quinielas", matches = "true")
+class ParticipacionQuinielaCargaTest {
+
+    @Autowired
+    private QuinielaService quinielaService;
+
+    @Autowired
+    private QuinielaRepository quinielaRepository;
+
+    @Autowired
+    private QuinielaParticipacionRepository participacionRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long quinielaId;
+    private List<Long> usuarioIds = List.of();
+
+    @AfterEach
+    void limpiarDatosDeCarga() {
+        if (quinielaId != null) {
+            jdbcTemplate.update("DELETE FROM quiniela_participaciones WHERE quiniela_id = ?", quinielaId);
+        }
+        if (!usuarioIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM transaccion WHERE id_usuario = ANY(?)",
+                    (Object) usuarioIds.toArray(new Long[0]));
+            usuarioRepository.deleteAllById(usuarioIds);
+        }
+        if (quinielaId != null) {
+            quinielaRepository.deleteById(quinielaId);
+        }
+    }
+
+    @Test
+    void testParticiparEnQuiniela_QuinielaCalienteSinSobrecupo() throws Exception {
+        int totalUsuarios = Integer.getInteger("carga.usuarios", 400);
+        int hilos = Integer.getInteger("carga.hilos", 24);
+        int cupo = totalUsuarios * 3 / 4;
+        BigDecimal costo = new BigDecimal("10.00");
+        String prefijo = "carga" + System.currentTimeMillis();
+
+        Quiniela quiniela = new Quiniela();
+        quiniela.setNombre(prefijo);
+        quiniela.setTipoQuiniela(Quiniela.TipoQuiniela.CLASICA);
+        quiniela.setTipoDistribucion(Quiniela.TipoDistribucion.WINNER_TAKES_ALL);
+        quiniela.setCostoParticipacion(costo);
+        quiniela.setMaxParticipantes(cupo);
+        quiniela.setFechaInicio(LocalDateTime.now().minusHours(1));
+        quiniela.setFechaCierre(LocalDateTime.now().plusHours(1));
+        quiniela.setCreadorId(0L);
+        quinielaId = quinielaRepository.save(quiniela).getId();
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < totalUsuarios; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setEmail(prefijo + "-" + i + "@carga.test");
+            usuario.setPassword("x");
+            usuario.setSaldoUsuario(new BigDecimal("100.00"));
+            usuarios.add(usuario);
+        }
+        usuarioIds = usuarioRepository.saveAll(usuarios).stream().map(Usuario::getIdUsuario).toList();
+
+        // Cada usuario intenta unirse dos veces: el segundo intento debe rechazarse
+        List<Long> intentos = new ArrayList<>(usuarioIds);
+        intentos.addAll(usuarioIds);
+
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        Long id = quinielaId;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        for (Long usuarioId : intentos) {
+            executor.submit(() -> {
+                salida.await();
+                try {
+                    quinielaService.participarEnQuiniela(id, usuarioId);
+                    exitosas.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        String resumen = String.format("%d exitosas, %d rechazadas en %.2fs (%.0f intentos/s, %d hilos)",
+                exitosas.get(), rechazadas.get(), segundos, intentos.size() / segundos, hilos);
+        log.info("📊 Participaciones: {}", resumen);
+
+        Quiniela resultado = quinielaRepository.findById(quinielaId).orElseThrow();
+        assertEquals(cupo, exitosas.get(), resumen);
+        assertEquals(intentos.size() - cupo, rechazadas.get(), resumen);
+        assertEquals(cupo, resultado.getParticipantesActuales());
+        assertEquals(0, costo.multiply(BigDecimal.valueOf(cupo)).compareTo(resultado.getPoolActual()));
+        assertEquals(cupo, participacionRepository.findRankingByQuiniela(quinielaId).size());
+    }
+}
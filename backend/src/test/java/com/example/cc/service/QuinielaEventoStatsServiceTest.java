@@ -0,0 +1,106 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.QuinielaEvento;
+import com.example.cc.repository.PrediccionEventoRepository;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import com.example.cc.service.quiniela.RegistroPrediccionesQuiniela.CambioPrediccion;
+import com.example.cc.service.quinielaEventoStats.QuinielaEventoStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuinielaEventoStatsServiceTest {
+
+    @Mock
+    private PrediccionEventoRepository prediccionRepository;
+
+    @Mock
+    private QuinielaEventoRepository quinielaEventoRepository;
+
+    @InjectMocks
+    private QuinielaEventoStatsService statsService;
+
+    @Test
+    void testGetEstadisticas_UnaCargaAgrupadaYDeltas() {
+        when(quinielaEventoRepository.findResultadosEventosByQuinielaId(1L)).thenReturn(List.of(
+                new Object[]{10L, "LOCAL"}, new Object[]{20L, null}));
+        when(prediccionRepository.contarPorEventoYPrediccion(1L)).thenReturn(List.of(
+                new Object[]{10L, "LOCAL", 3L},
+                new Object[]{10L, "EMPATE", 1L},
+                new Object[]{20L, "VISITANTE", 2L}));
+
+        QuinielaEventoStatsService.QuinielaEventoStats stats = statsService.getEstadisticas(quinielaEvento(1L, 10L));
+        assertEquals(4, stats.getTotalPredicciones());
+        assertEquals(3, stats.getPrediccionesCorrectas());
+        assertEquals(0, new BigDecimal("75").compareTo(stats.getPorcentajeAciertos()));
+        assertEquals(0, statsService.getTotalPrediccionesCorrectasParaEvento(20L, 1L));
+
+        // Un participante cambia EMPATE → LOCAL y otro pronostica el evento 20
+        statsService.registrarPredicciones(1L, List.of(
+                new CambioPrediccion(10L, "EMPATE", "LOCAL"),
+                new CambioPrediccion(20L, null, "EMPATE")));
+        // El evento 20 termina en empate
+        statsService.alCambiarLivescore(new LiveScoreCambioEvent(this, 20L, "e20",
+                new HuellaLivescore(0, 0, "en_vivo", null, null),
+                new HuellaLivescore(1, 1, "finalizado", null, "EMPATE")));
+
+        Map<Long, QuinielaEventoStatsService.DistribucionEvento> distribucion = statsService.getDistribucion(1L);
+        assertEquals(Map.of("LOCAL", 4L), distribucion.get(10L).getPorPrediccion());
+        assertEquals(3, distribucion.get(20L).getTotalPredicciones());
+        assertEquals(1, distribucion.get(20L).getPrediccionesCorrectas());
+        verify(prediccionRepository, times(1)).contarPorEventoYPrediccion(1L);
+        verifyNoMoreInteractions(prediccionRepository);
+    }
+
+    @Test
+    void testGetDistribucion_DeltaDeOtraQuinielaNoDescartaLaCarga() {
+        when(quinielaEventoRepository.findResultadosEventosByQuinielaId(anyLong())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, null}));
+        when(prediccionRepository.contarPorEventoYPrediccion(2L)).thenReturn(List.of());
+        statsService.getDistribucion(2L);
+
+        // Mientras carga la quiniela 1 llega un pronóstico de la 2 y otro de la propia 1
+        when(prediccionRepository.contarPorEventoYPrediccion(1L)).thenAnswer(inv -> {
+            statsService.registrarPredicciones(2L, List.of(new CambioPrediccion(10L, null, "LOCAL")));
+            return List.<Object[]>of(new Object[]{10L, "LOCAL", 1L});
+        });
+        statsService.getDistribucion(1L);
+        statsService.getDistribucion(1L);
+        verify(prediccionRepository, times(1)).contarPorEventoYPrediccion(1L);
+
+        when(prediccionRepository.contarPorEventoYPrediccion(3L)).thenAnswer(inv -> {
+            statsService.registrarPredicciones(3L, List.of(new CambioPrediccion(10L, null, "LOCAL")));
+            return List.<Object[]>of(new Object[]{10L, "LOCAL", 1L});
+        });
+        statsService.getDistribucion(3L);
+        assertEquals(1, statsService.getTotalPrediccionesParaEvento(10L, 3L));
+        verify(prediccionRepository, times(2)).contarPorEventoYPrediccion(3L);
+        assertEquals(1, statsService.getTotalPrediccionesParaEvento(10L, 2L));
+    }
+
+    private static QuinielaEvento quinielaEvento(Long quinielaId, Long eventoId) {
+        Quiniela quiniela = new Quiniela();
+        quiniela.setId(quinielaId);
+        EventoDeportivo eventoDeportivo = new EventoDeportivo();
+        eventoDeportivo.setId(eventoId);
+        QuinielaEvento quinielaEvento = new QuinielaEvento();
+        quinielaEvento.setQuiniela(quiniela);
+        quinielaEvento.setEventoDeportivo(eventoDeportivo);
+        return quinielaEvento;
+    }
+}
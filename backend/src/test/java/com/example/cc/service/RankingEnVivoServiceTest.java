@@ -0,0 +1,182 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.RankingParticipacionDto;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.repository.QuinielaEventoRepository;
+import com.example.cc.repository.QuinielaParticipacionRepository;
+import com.example.cc.repository.QuinielaRepository;
+import com.example.cc.scheduler.CoordinadorJobs;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import com.example.cc.service.quiniela.MotorPuntuacionQuiniela;
+import com.example.cc.service.quiniela.RankingEnVivoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankingEnVivoServiceTest {
+
+    @Mock
+    private QuinielaRepository quinielaRepository;
+
+    @Mock
+    private QuinielaParticipacionRepository participacionRepository;
+
+    @Mock
+    private QuinielaEventoRepository quinielaEventoRepository;
+
+    @Mock
+    private RegistroEjecucionesService registroEjecuciones;
+
+    @Mock
+    private CoordinadorJobs coordinadorJobs;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RankingEnVivoService rankingEnVivo;
+
+    @BeforeEach
+    void setUp() {
+        MotorPuntuacionQuiniela motor = new MotorPuntuacionQuiniela(
+                quinielaEventoRepository, participacionRepository, jdbcTemplate);
+        rankingEnVivo = new RankingEnVivoService(quinielaRepository, participacionRepository,
+                quinielaEventoRepository, motor, registroEjecuciones, coordinadorJobs, jdbcTemplate, transactionManager);
+
+        Quiniela quiniela = new Quiniela();
+        quiniela.setEstado(Quiniela.EstadoQuiniela.ACTIVA);
+        when(quinielaRepository.findById(1L)).thenReturn(Optional.of(quiniela));
+
+        // Evento 10 finalizado (LOCAL), evento 20 sin resultado
+        when(quinielaEventoRepository.findResultadosEventosByQuinielaId(1L)).thenReturn(List.of(
+                new Object[]{10L, "LOCAL"}, new Object[]{20L, null}));
+        when(participacionRepository.streamPrediccionesParaPuntuar(eq(1L), any())).thenAnswer(inv -> Stream.of(
+                new Object[]{100L, 10L, "LOCAL", 4},
+                new Object[]{100L, 20L, "EMPATE", 2},
+                new Object[]{101L, 10L, "VISITANTE", 9},
+                new Object[]{101L, 20L, "VISITANTE", 9},
+                new Object[]{102L, 10L, "LOCAL", 8},
+                new Object[]{102L, 20L, "LOCAL", 1}));
+
+        List<RankingParticipacionDto> filas = new ArrayList<>();
+        for (long id = 100; id <= 104; id++) {
+            filas.add(new RankingParticipacionDto(id, "usuario" + id, 0, BigDecimal.ZERO, null, 0));
+        }
+        when(participacionRepository.findRankingByQuiniela(1L)).thenReturn(filas);
+    }
+
+    @Test
+    void testRanking_PuntuacionProvisionalYVecinos() {
+        List<RankingParticipacionDto> top = rankingEnVivo.obtenerTop(1L, 3);
+
+        assertEquals(List.of(102L, 100L, 101L), top.stream().map(RankingParticipacionDto::getParticipacionId).toList());
+        assertEquals(new BigDecimal("104.00"), top.get(0).getPuntuacion());
+        assertEquals(1, top.get(0).getAciertos());
+
+        // Empates sin puntos: se ordenan por ID de participación
+        assertEquals(4, rankingEnVivo.obtenerPosicion(1L, 103L).orElseThrow().getPosicion());
+        List<RankingParticipacionDto> vecinos = rankingEnVivo.obtenerVecinos(1L, 101L, 1);
+        assertEquals(List.of(2, 3, 4), vecinos.stream().map(RankingParticipacionDto::getPosicion).toList());
+        verify(quinielaRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testAlCambiarLivescore_AplicaDeltaYCorreccion() {
+        rankingEnVivo.obtenerTop(1L, 10);
+        when(quinielaEventoRepository.findQuinielaIdsByEventoDeportivoId(20L)).thenReturn(List.of(1L));
+        when(participacionRepository.findPrediccionesDeEvento(1L, 20L)).thenReturn(List.of(
+                new Object[]{100L, "EMPATE", 2},
+                new Object[]{101L, "VISITANTE", 9},
+                new Object[]{102L, "LOCAL", 1}));
+
+        HuellaLivescore enJuego = new HuellaLivescore(1, 1, "en_vivo", null, null);
+        HuellaLivescore visitante = new HuellaLivescore(0, 2, "finalizado", null, "VISITANTE");
+        rankingEnVivo.alCambiarLivescore(new LiveScoreCambioEvent(this, 20L, "e20", enJuego, visitante));
+
+        RankingParticipacionDto primero = rankingEnVivo.obtenerTop(1L, 1).get(0);
+        assertEquals(101L, primero.getParticipacionId());
+        assertEquals(new BigDecimal("104.50"), primero.getPuntuacion());
+
+        // Corrección post-final: se revierte VISITANTE y se aplica EMPATE
+        HuellaLivescore empate = new HuellaLivescore(2, 2, "finalizado", null, "EMPATE");
+        rankingEnVivo.alCambiarLivescore(new LiveScoreCambioEvent(this, 20L, "e20", visitante, empate));
+
+        assertEquals(List.of(100L, 102L, 101L), rankingEnVivo.obtenerTop(1L, 3).stream()
+                .map(RankingParticipacionDto::getParticipacionId).toList());
+        assertEquals(new BigDecimal("203.00"), rankingEnVivo.obtenerPosicion(1L, 100L).orElseThrow().getPuntuacion());
+        assertEquals(0, rankingEnVivo.obtenerPosicion(1L, 101L).orElseThrow().getAciertos());
+        verify(participacionRepository, never()).findPrediccionesDeEvento(anyLong(), eq(10L));
+    }
+
+    @Test
+    void testObtenerTop_ReconstruyeSiOtraInstanciaCambioElResultado() {
+        ReflectionTestUtils.setField(rankingEnVivo, "revalidacion", Duration.ZERO);
+        when(participacionRepository.contarPorQuiniela(1L)).thenReturn(5L);
+
+        rankingEnVivo.obtenerTop(1L, 3);
+        rankingEnVivo.obtenerTop(1L, 3);
+        // La segunda consulta solo revalida: el tablero coincide con la base de datos
+        verify(participacionRepository, times(1)).findRankingByQuiniela(1L);
+
+        // Otra instancia recibió el resultado del evento 20 sin que llegara el delta aquí
+        when(quinielaEventoRepository.findResultadosEventosByQuinielaId(1L)).thenReturn(List.of(
+                new Object[]{10L, "LOCAL"}, new Object[]{20L, "VISITANTE"}));
+
+        assertEquals(List.of(101L, 102L, 100L), rankingEnVivo.obtenerTop(1L, 3).stream()
+                .map(RankingParticipacionDto::getParticipacionId).toList());
+        verify(participacionRepository, times(2)).findRankingByQuiniela(1L);
+    }
+
+    @Test
+    void testObtenerCompleto_SinElTopeDePagina() {
+        ReflectionTestUtils.setField(rankingEnVivo, "limiteMaximo", 2);
+
+        assertEquals(2, rankingEnVivo.obtenerTop(1L, 10).size());
+        assertEquals(5, rankingEnVivo.obtenerCompleto(1L).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPersistirPosiciones_SoloConLaConcesion() {
+        when(participacionRepository.contarPorQuiniela(1L)).thenReturn(5L);
+        ReflectionTestUtils.setField(rankingEnVivo, "limiteMaximo", 2);
+        assertEquals(2, rankingEnVivo.obtenerTop(1L, Integer.MAX_VALUE).size());
+
+        // Otra instancia tiene la concesión: no se escribe nada
+        rankingEnVivo.persistirPosiciones();
+        verify(jdbcTemplate, never()).execute(anyString(), any(PreparedStatementCallback.class));
+
+        when(coordinadorJobs.ejecutar(eq("quinielas.ranking.persistir"), any(Duration.class), any(Runnable.class)))
+                .thenAnswer(inv -> {
+                    inv.<Runnable>getArgument(2).run();
+                    return true;
+                });
+        rankingEnVivo.persistirPosiciones();
+        rankingEnVivo.persistirPosiciones();
+        verify(jdbcTemplate, times(1)).execute(anyString(), any(PreparedStatementCallback.class));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.service.apuestas.ContadoresApuestasService;
+import com.example.cc.service.wallet.IWalletService;
+import com.example.cc.service.wallet.ReembolsoMasivoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReembolsoMasivoServiceTest {
+
+    @Mock
+    private IWalletService walletService;
+
+    @Mock
+    private ContadoresApuestasService contadoresApuestas;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReembolsarQuiniela_LotesCortosHastaAgotar() {
+        ReembolsoMasivoService reembolsoMasivo = new ReembolsoMasivoService(walletService,
+                contadoresApuestas, jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(reembolsoMasivo, "tamanoLote", 2);
+
+        List<PagoPremioDto> primerLote = List.of(reembolso(1L), reembolso(2L));
+        List<PagoPremioDto> segundoLote = List.of(reembolso(3L));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any()))
+                .thenReturn((List) primerLote, (List) segundoLote);
+
+        assertEquals(3, reembolsoMasivo.reembolsarQuiniela(7L, "Reembolso"));
+
+        verify(walletService).procesarReembolsos(primerLote);
+        verify(walletService).procesarReembolsos(segundoLote);
+        // Una transacción por lote
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    private static PagoPremioDto reembolso(Long usuarioId) {
+        return new PagoPremioDto(usuarioId, new BigDecimal("10.00"), "Reembolso");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.EjecucionJob;
+import com.example.cc.repository.EjecucionJobRepository;
+import com.example.cc.service.monitoreo.RegistroEjecucionesService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistroEjecucionesServiceTest {
+
+    @Mock
+    private EjecucionJobRepository ejecucionJobRepository;
+
+    @InjectMocks
+    private RegistroEjecucionesService registroEjecuciones;
+
+    @Test
+    void testEjecutar_RegistraEtapasFilasYErrores() {
+        int resultado = registroEjecuciones.ejecutar("eventos.sincronizacion", () -> {
+            registroEjecuciones.sumarLlamadaApi();
+            registroEjecuciones.sumarLlamadaApi();
+            registroEjecuciones.sumarEtapa(RegistroEjecucionesService.ETAPA_FETCH, 40);
+            registroEjecuciones.sumarEtapa(RegistroEjecucionesService.ETAPA_FETCH, 60);
+            registroEjecuciones.medirEtapa(RegistroEjecucionesService.ETAPA_UPSERT, () -> { });
+            registroEjecuciones.sumarFilas(120, 7);
+            registroEjecuciones.registrarError("evento 1: timeout");
+            return 7;
+        });
+
+        assertEquals(7, resultado);
+        ArgumentCaptor<EjecucionJob> captor = ArgumentCaptor.forClass(EjecucionJob.class);
+        verify(ejecucionJobRepository).save(captor.capture());
+        EjecucionJob registro = captor.getValue();
+        assertEquals("eventos.sincronizacion", registro.getNombreJob());
+        assertEquals("con_errores", registro.getEstado());
+        assertEquals(100L, registro.getEtapasMs().get("fetch"));
+        assertTrue(registro.getEtapasMs().containsKey("upsert"));
+        assertEquals(120L, registro.getFilasLeidas());
+        assertEquals(7L, registro.getFilasEscritas());
+        assertEquals(2, registro.getLlamadasApi());
+        assertEquals(1, registro.getErrores());
+        assertEquals("evento 1: timeout", registro.getMensajeError());
+        assertNotNull(registro.getFin());
+
+        RegistroEjecucionesService.IndicadoresJob indicadores =
+                registroEjecuciones.getIndicadores().get("eventos.sincronizacion");
+        assertEquals(1, indicadores.getEjecuciones());
+        assertEquals("con_errores", indicadores.getUltimoEstado());
+    }
+
+    @Test
+    void testEjecutar_FalloSeRegistraYRelanza() {
+        assertThrows(IllegalStateException.class, () -> registroEjecuciones.ejecutar("cuotas.cierre", () -> {
+            throw new IllegalStateException("sin conexión");
+        }));
+
+        // Fuera de un job las llamadas no hacen nada
+        registroEjecuciones.sumarLlamadaApi();
+        registroEjecuciones.registrarError("ignorado");
+
+        ArgumentCaptor<EjecucionJob> captor = ArgumentCaptor.forClass(EjecucionJob.class);
+        verify(ejecucionJobRepository, times(1)).save(captor.capture());
+        assertEquals("fallido", captor.getValue().getEstado());
+        assertEquals("sin conexión", captor.getValue().getMensajeError());
+        assertEquals(1, registroEjecuciones.getIndicadores().get("cuotas.cierre").getFallidas());
+    }
+}
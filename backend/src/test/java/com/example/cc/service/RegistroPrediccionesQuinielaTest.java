@@ -0,0 +1,110 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.request.PrediccionRequest;
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.entities.PrediccionEvento;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.QuinielaEvento;
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.repository.PrediccionEventoRepository;
+import com.example.cc.service.quiniela.RegistroPrediccionesQuiniela;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistroPrediccionesQuinielaTest {
+
+    @Mock
+    private PrediccionEventoRepository prediccionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RegistroPrediccionesQuiniela registroPredicciones;
+
+    @Test
+    void testRegistrar_UnaCargaYUnLoteDeInserciones() {
+        QuinielaParticipacion participacion = participacionConEventos(3);
+        PrediccionEvento existente = new PrediccionEvento();
+        existente.setId(900L);
+        existente.setEventoDeportivo(participacion.getQuiniela().getEventos().get(0).getEventoDeportivo());
+        existente.setPrediccion("LOCAL");
+        when(prediccionRepository.findByParticipacion(participacion)).thenReturn(List.of(existente));
+
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocacion -> {
+                    BatchPreparedStatementSetter lote = invocacion.getArgument(1);
+                    KeyHolder claves = invocacion.getArgument(2);
+                    for (int i = 0; i < lote.getBatchSize(); i++) {
+                        claves.getKeyList().add(Map.of("id", 1000L + i));
+                    }
+                    return new int[lote.getBatchSize()];
+                });
+
+        RegistroPrediccionesQuiniela.ResultadoPredicciones resultado = registroPredicciones.registrar(participacion,
+                List.of(solicitud(1L, "EMPATE", 7), solicitud(2L, "VISITANTE", 3), solicitud(3L, "LOCAL", null)));
+
+        assertTrue(resultado.isCompleta());
+        assertEquals(3, resultado.getGuardadas().size());
+        assertSame(existente, resultado.getGuardadas().get(0));
+        assertEquals("EMPATE", existente.getPrediccion());
+        assertEquals(7, existente.getConfianza());
+        assertEquals(List.of(1000L, 1001L), resultado.getGuardadas().subList(1, 3).stream()
+                .map(PrediccionEvento::getId).toList());
+        assertEquals(5, resultado.getGuardadas().get(2).getConfianza());
+        verify(prediccionRepository, times(1)).findByParticipacion(participacion);
+        verify(jdbcTemplate, times(1)).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+    }
+
+    @Test
+    void testRegistrar_EventoAjenoNoEscribeNada() {
+        QuinielaParticipacion participacion = participacionConEventos(2);
+
+        assertThrows(RuntimeException.class, () -> registroPredicciones.registrar(participacion,
+                List.of(solicitud(1L, "LOCAL", 5), solicitud(99L, "LOCAL", 5))));
+
+        verifyNoInteractions(prediccionRepository, jdbcTemplate);
+    }
+
+    private static QuinielaParticipacion participacionConEventos(int total) {
+        Quiniela quiniela = new Quiniela();
+        quiniela.setEventos(new ArrayList<>());
+        for (long i = 1; i <= total; i++) {
+            EventoDeportivo eventoDeportivo = new EventoDeportivo();
+            eventoDeportivo.setId(100L + i);
+            QuinielaEvento quinielaEvento = new QuinielaEvento();
+            quinielaEvento.setId(i);
+            quinielaEvento.setEventoDeportivo(eventoDeportivo);
+            quiniela.getEventos().add(quinielaEvento);
+        }
+        QuinielaParticipacion participacion = new QuinielaParticipacion();
+        participacion.setId(50L);
+        participacion.setQuiniela(quiniela);
+        return participacion;
+    }
+
+    private static PrediccionRequest solicitud(Long eventoId, String prediccion, Integer confianza) {
+        PrediccionRequest solicitud = new PrediccionRequest();
+        solicitud.setEventoId(eventoId);
+        solicitud.setPrediccion(prediccion);
+        solicitud.setConfianza(confianza);
+        return solicitud;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Transaccion;
+import com.example.cc.scheduler.CoordinadorJobs;
+import com.example.cc.service.apuestas.ContadoresApuestasService;
+import com.example.cc.service.apuestas.ReliquidacionApuestasService;
+import com.example.cc.service.estadisticas.RollupEstadisticasService;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import com.example.cc.service.wallet.IWalletService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReliquidacionApuestasServiceTest {
+
+    @Mock
+    private IWalletService walletService;
+
+    @Mock
+    private ContadoresApuestasService contadoresApuestas;
+
+    @Mock
+    private RollupEstadisticasService rollupEstadisticas;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CoordinadorJobs coordinadorJobs;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAlCambiarLivescore_SoloVolteaApuestasAfectadas() throws Exception {
+        ReliquidacionApuestasService reliquidacion = new ReliquidacionApuestasService(walletService,
+                contadoresApuestas, rollupEstadisticas, jdbcTemplate, coordinadorJobs, transactionManager);
+        // La corrección registrada queda como única pendiente del evento
+        when(jdbcTemplate.query(startsWith("SELECT id, resultado_anterior"), any(RowMapper.class), eq(20L)))
+                .thenAnswer(invocacion -> List.of(pendiente(invocacion.getArgument(1), 7L, "LOCAL", "EMPATE")))
+                .thenReturn(List.of());
+
+        // LOCAL dejaba ganar al usuario 1 (30.00); EMPATE hace ganar al usuario 2 (45.00)
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), eq(20L), eq("LOCAL")))
+                .thenAnswer(invocacion -> List.of(mapear(invocacion.getArgument(1), 1L, "30.00")));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), eq(20L), eq("EMPATE")))
+                .thenAnswer(invocacion -> List.of(mapear(invocacion.getArgument(1), 2L, "45.00")));
+
+        HuellaLivescore local = new HuellaLivescore(1, 0, "finalizado", null, "LOCAL");
+        HuellaLivescore empate = new HuellaLivescore(1, 1, "finalizado", null, "EMPATE");
+        LiveScoreCambioEvent correccion = new LiveScoreCambioEvent(this, 20L, "e20", local, empate);
+        reliquidacion.registrarPendiente(correccion);
+        reliquidacion.alCambiarLivescore(correccion);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO reliquidaciones_pendientes"),
+                eq(20L), eq("LOCAL"), eq("EMPATE"), any());
+        verify(jdbcTemplate).update(startsWith("DELETE FROM reliquidaciones_pendientes"), eq(7L));
+
+        ArgumentCaptor<List<PagoPremioDto>> ajustes = ArgumentCaptor.forClass(List.class);
+        verify(walletService).procesarAjustes(ajustes.capture(), eq(Transaccion.TipoTransaccion.DEPOSITO));
+        assertEquals(List.of(new BigDecimal("-30.00"), new BigDecimal("45.00")),
+                ajustes.getValue().stream().map(PagoPremioDto::getMonto).toList());
+        assertEquals(List.of(1L, 2L), ajustes.getValue().stream().map(PagoPremioDto::getUsuarioId).toList());
+        verify(contadoresApuestas).registrarCambio("GANADA", "PERDIDA", 1, new BigDecimal("10.00"));
+        verify(contadoresApuestas).registrarCambio("PERDIDA", "GANADA", 1, new BigDecimal("10.00"));
+        verify(rollupEstadisticas).registrarReliquidacion(
+                Map.of(101L, new BigDecimal("-30.00"), 102L, new BigDecimal("45.00")));
+
+        // Un cambio de marcador que no cambia el resultado no reliquida nada
+        HuellaLivescore empateCorregido = new HuellaLivescore(2, 2, "finalizado", null, "EMPATE");
+        LiveScoreCambioEvent soloMarcador = new LiveScoreCambioEvent(this, 20L, "e20", empate, empateCorregido);
+        reliquidacion.registrarPendiente(soloMarcador);
+        reliquidacion.alCambiarLivescore(soloMarcador);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any(), any(), any());
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT"), any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testProcesarPendientes_FalloConservaLaPendiente() throws Exception {
+        ReliquidacionApuestasService reliquidacion = new ReliquidacionApuestasService(walletService,
+                contadoresApuestas, rollupEstadisticas, jdbcTemplate, coordinadorJobs, transactionManager);
+        when(jdbcTemplate.query(startsWith("SELECT id, resultado_anterior"), any(RowMapper.class), eq(20L)))
+                .thenAnswer(invocacion -> List.of(pendiente(invocacion.getArgument(1), 7L, "LOCAL", "EMPATE")));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), eq(20L), anyString()))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("saldo bloqueado"))
+                .when(walletService).procesarAjustes(anyList(), any());
+
+        HuellaLivescore local = new HuellaLivescore(1, 0, "finalizado", null, "LOCAL");
+        HuellaLivescore empate = new HuellaLivescore(1, 1, "finalizado", null, "EMPATE");
+        reliquidacion.alCambiarLivescore(new LiveScoreCambioEvent(this, 20L, "e20", local, empate));
+
+        // La fila no se borra: se anota el intento y el job la reintenta
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), (Object) any());
+        verify(jdbcTemplate).update(startsWith("UPDATE reliquidaciones_pendientes"), eq("saldo bloqueado"), eq(7L));
+    }
+
+    private static Object pendiente(RowMapper<?> mapeador, long id, String anterior, String nuevo) throws Exception {
+        ResultSet fila = mock(ResultSet.class);
+        when(fila.getLong(1)).thenReturn(id);
+        when(fila.getString(2)).thenReturn(anterior);
+        when(fila.getString(3)).thenReturn(nuevo);
+        return mapeador.mapRow(fila, 0);
+    }
+
+    private static Object mapear(RowMapper<?> mapeador, long usuarioId, String monto) throws Exception {
+        ResultSet fila = mock(ResultSet.class);
+        when(fila.getLong(1)).thenReturn(usuarioId);
+        when(fila.getBigDecimal(2)).thenReturn(new BigDecimal(monto));
+        when(fila.getBigDecimal(3)).thenReturn(new BigDecimal("10.00"));
+        when(fila.getLong(4)).thenReturn(100 + usuarioId);
+        return mapeador.mapRow(fila, 0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Quiniela;
+import com.example.cc.entities.QuinielaParticipacion;
+import com.example.cc.entities.Usuario;
+import com.example.cc.service.quiniela.RepartoPremiosQuiniela;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepartoPremiosQuinielaTest {
+
+    private final RepartoPremiosQuiniela repartoPremios = new RepartoPremiosQuiniela();
+
+    @Test
+    void testRepartir_Top3SobranteALosPrimerosLugares() {
+        Quiniela quiniela = quiniela(Quiniela.TipoDistribucion.TOP_3_CLASICA);
+        List<QuinielaParticipacion> participaciones = List.of(
+                participacion(3L, "50.00", 1), participacion(1L, "200.00", 2),
+                participacion(2L, "50.00", 1), participacion(4L, "10.00", 0));
+
+        List<PagoPremioDto> pagos = repartoPremios.repartir(quiniela, participaciones, new BigDecimal("33.33"));
+
+        // 19.998 / 8.3325 / 4.9995 truncados suman 33.31: los 2 centavos van al 1º y 2º
+        assertEquals(List.of(new BigDecimal("20.00"), new BigDecimal("8.34"), new BigDecimal("4.99")),
+                pagos.stream().map(PagoPremioDto::getMonto).toList());
+        // Empate en 50.00: gana el desempate la participación con menor ID
+        assertEquals(List.of(1001L, 1002L, 1003L), pagos.stream().map(PagoPremioDto::getUsuarioId).toList());
+        assertEquals(new BigDecimal("8.34"), participaciones.get(2).getPremioGanado());
+        assertNull(participaciones.get(3).getPremioGanado());
+    }
+
+    @Test
+    void testRepartir_PorAciertosSumaExactaEnGrupos() {
+        Quiniela quiniela = quiniela(Quiniela.TipoDistribucion.POR_ACIERTOS_PROGRESIVO);
+        List<QuinielaParticipacion> participaciones = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            participaciones.add(participacion(id, "300.00", 3));
+        }
+        for (long id = 4; id <= 10; id++) {
+            participaciones.add(participacion(id, "200.00", 2));
+        }
+
+        List<PagoPremioDto> pagos = repartoPremios.repartir(quiniela, participaciones, new BigDecimal("100.00"));
+
+        assertEquals(10, pagos.size());
+        assertEquals(List.of(new BigDecimal("16.67"), new BigDecimal("16.67"), new BigDecimal("16.66")),
+                pagos.subList(0, 3).stream().map(PagoPremioDto::getMonto).toList());
+        BigDecimal segundoGrupo = pagos.subList(3, 10).stream()
+                .map(PagoPremioDto::getMonto).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(new BigDecimal("30.00"), segundoGrupo);
+        assertEquals(new BigDecimal("4.29"), pagos.get(3).getMonto());
+        assertEquals(new BigDecimal("4.28"), pagos.get(9).getMonto());
+    }
+
+    private static Quiniela quiniela(Quiniela.TipoDistribucion tipo) {
+        Quiniela quiniela = new Quiniela();
+        quiniela.setNombre("Jornada 1");
+        quiniela.setTipoDistribucion(tipo);
+        return quiniela;
+    }
+
+    private static QuinielaParticipacion participacion(Long id, String puntuacion, int aciertos) {
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(1000L + id);
+        QuinielaParticipacion participacion = new QuinielaParticipacion();
+        participacion.setId(id);
+        participacion.setUsuario(usuario);
+        participacion.setPuntuacion(new BigDecimal(puntuacion));
+        participacion.setAciertos(aciertos);
+        return participacion;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.EventoDeportivo;
+import com.example.cc.repository.EventoDeportivoRepository;
+import com.example.cc.service.external.LiveScoreCambioEvent;
+import com.example.cc.service.external.LiveScoreIngestionService.HuellaLivescore;
+import com.example.cc.service.external.ResultadoEventoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResultadoEventoServiceTest {
+
+    @Mock
+    private EventoDeportivoRepository eventoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ResultadoEventoService resultadoEvento;
+
+    @Test
+    void testGuardar_PublicaCorreccionDeResultado() {
+        EventoDeportivo evento = new EventoDeportivo();
+        evento.setId(20L);
+        evento.setEventoIdExterno("e20");
+        evento.setEstado("finalizado");
+        evento.setMarcadorLocal(1);
+        evento.setMarcadorVisitante(0);
+        evento.setResultado("LOCAL");
+        when(eventoRepository.save(evento)).thenReturn(evento);
+
+        // Guardar sin cambios no publica nada
+        resultadoEvento.guardar(evento, resultadoEvento.huella(evento));
+        verifyNoInteractions(eventPublisher);
+
+        HuellaLivescore anterior = resultadoEvento.huella(evento);
+        evento.setMarcadorVisitante(1);
+        evento.setResultado("EMPATE");
+        resultadoEvento.guardar(evento, anterior);
+
+        ArgumentCaptor<LiveScoreCambioEvent> cambio = ArgumentCaptor.forClass(LiveScoreCambioEvent.class);
+        verify(eventPublisher).publishEvent(cambio.capture());
+        assertTrue(cambio.getValue().esCorreccionPostFinal());
+        assertEquals("LOCAL", cambio.getValue().getAnterior().resultado());
+        assertEquals("EMPATE", cambio.getValue().getActual().resultado());
+    }
+
+    @Test
+    void testGuardar_EventoNuevoNoPublica() {
+        EventoDeportivo evento = new EventoDeportivo();
+        evento.setResultado("LOCAL");
+        when(eventoRepository.save(evento)).thenReturn(evento);
+
+        resultadoEvento.guardar(evento, null);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.cc.service;
+
+import com.example.cc.entities.Apuesta;
+import com.example.cc.entities.MarcaRollup;
+import com.example.cc.repository.MarcaRollupRepository;
+import com.example.cc.repository.RollupEstadisticaRepository;
+import com.example.cc.service.estadisticas.RollupEstadisticasService;
+import com.example.cc.service.estadisticas.RollupEstadisticasService.AporteLiquidacion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollupEstadisticasServiceTest {
+
+    @Mock
+    private RollupEstadisticaRepository rollupRepository;
+
+    @Mock
+    private MarcaRollupRepository marcaRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testActualizar_AvanzaLaMarcaEnVentanasHastaElCorte() {
+        RollupEstadisticasService rollups = new RollupEstadisticasService(rollupRepository, marcaRepository,
+                jdbcTemplate, transactionManager);
+
+        // Cada fuente va 36 horas atrasada: dos ventanas de un día como máximo
+        LocalDateTime marca = LocalDateTime.now().minusHours(36);
+        when(marcaRepository.findById(anyString()))
+                .thenAnswer(invocacion -> Optional.of(new MarcaRollup(invocacion.getArgument(0), marca)));
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), any(Timestamp.class))).thenReturn(5);
+        // Dentro de cada ventana la marca releída con bloqueo es la última guardada de esa fuente
+        Map<String, LocalDateTime> guardadasPorFuente = new HashMap<>();
+        when(marcaRepository.save(any(MarcaRollup.class))).thenAnswer(invocacion -> {
+            MarcaRollup guardada = invocacion.getArgument(0);
+            guardadasPorFuente.put(guardada.getFuente(), guardada.getHasta());
+            return guardada;
+        });
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Timestamp.class), anyString()))
+                .thenAnswer(invocacion -> List.of(Timestamp.valueOf(
+                        guardadasPorFuente.getOrDefault(invocacion.<String>getArgument(2), marca))));
+
+        rollups.actualizar();
+
+        // 3 fuentes x 2 ventanas, cada una en su transacción con horas, días y marca
+        verify(transactionManager, times(6)).commit(any());
+        verify(jdbcTemplate, times(6)).update(contains("'DIA'"), any(Timestamp.class), any(Timestamp.class));
+
+        ArgumentCaptor<MarcaRollup> marcas = ArgumentCaptor.forClass(MarcaRollup.class);
+        verify(marcaRepository, times(6)).save(marcas.capture());
+        List<MarcaRollup> guardadas = marcas.getAllValues();
+        assertEquals(marca.plusDays(1), guardadas.get(0).getHasta());
+        assertTrue(guardadas.get(1).getHasta().isAfter(LocalDateTime.now().minusMinutes(11)));
+        assertEquals("apuestas.creacion", guardadas.get(1).getFuente());
+        assertEquals("quinielas.participacion", guardadas.get(5).getFuente());
+    }
+
+    @Test
+    void testActualizar_SinMarcaNiFilasNoEscribe() {
+        RollupEstadisticasService rollups = new RollupEstadisticasService(rollupRepository, marcaRepository,
+                jdbcTemplate, transactionManager);
+        when(marcaRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(null);
+
+        assertEquals(0, rollups.actualizar());
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Timestamp.class), any(Timestamp.class));
+        verify(marcaRepository, never()).save(any());
+    }
+
+    @Test
+    void testActualizar_OmiteLaVentanaSiOtraInstanciaMovioLaMarca() {
+        RollupEstadisticasService rollups = new RollupEstadisticasService(rollupRepository, marcaRepository,
+                jdbcTemplate, transactionManager);
+        LocalDateTime marca = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.MICROS);
+        when(marcaRepository.findById(anyString()))
+                .thenAnswer(invocacion -> Optional.of(new MarcaRollup(invocacion.getArgument(0), marca)));
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Timestamp.class), anyString()))
+                .thenReturn(List.of(Timestamp.valueOf(marca.plusHours(1))));
+
+        assertEquals(0, rollups.actualizar());
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Timestamp.class), any(Timestamp.class));
+        verify(marcaRepository, never()).save(any());
+    }
+
+    @Test
+    void testRegistrarReliquidacion_SinMarcaNoAjusta() {
+        RollupEstadisticasService rollups = new RollupEstadisticasService(rollupRepository, marcaRepository,
+                jdbcTemplate, transactionManager);
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Timestamp.class), eq("apuestas.resolucion")))
+                .thenReturn(List.of());
+
+        rollups.registrarReliquidacion(Map.of(1L, new BigDecimal("-30.00")));
+
+        verify(jdbcTemplate, never()).execute(anyString(), any(PreparedStatementCallback.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(Timestamp.class), any(Timestamp.class));
+    }
+
+    @Test
+    void testRegistrarCorreccion_SoloAjustaSiCambiaElAporte() {
+        RollupEstadisticasService rollups = new RollupEstadisticasService(rollupRepository, marcaRepository,
+                jdbcTemplate, transactionManager);
+        Apuesta apuesta = new Apuesta();
+        apuesta.setEstado(Apuesta.EstadoApuesta.RESUELTA);
+        apuesta.setEsGanadora(false);
+        apuesta.setMontoApostado(new BigDecimal("20.00"));
+        apuesta.setMontoGanancia(new BigDecimal("80.00"));
+        AporteLiquidacion anterior = AporteLiquidacion.de(apuesta);
+
+        rollups.registrarCorreccion(1L, anterior, AporteLiquidacion.de(apuesta));
+        verifyNoInteractions(jdbcTemplate);
+
+        // Re-marcada como ganadora: la ganancia debe llegar a las horas ya agregadas
+        apuesta.setEsGanadora(true);
+        AporteLiquidacion actual = AporteLiquidacion.de(apuesta);
+        assertEquals(new BigDecimal("80.00"), actual.pagado());
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Timestamp.class), eq("apuestas.resolucion")))
+                .thenReturn(List.of());
+
+        rollups.registrarCorreccion(1L, anterior, actual);
+
+        verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(Timestamp.class), eq("apuestas.resolucion"));
+    }
+}
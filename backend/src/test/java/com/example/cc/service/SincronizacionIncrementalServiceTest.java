@@ -0,0 +1,112 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.external.TheSportsDbEventResponse;
+import com.example.cc.entities.SincronizacionDia;
+import com.example.cc.repository.EventoDeportivoRepository;
+import com.example.cc.repository.SincronizacionDiaRepository;
+import com.example.cc.service.external.SincronizacionIncrementalService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SincronizacionIncrementalServiceTest {
+
+    @Mock
+    private SincronizacionDiaRepository sincronizacionDiaRepository;
+
+    @Mock
+    private EventoDeportivoRepository eventoRepository;
+
+    @InjectMocks
+    private SincronizacionIncrementalService service;
+
+    private final LocalDate fecha = LocalDate.of(2025, 5, 10);
+
+    @Test
+    void testCalcularDelta_SoloEventosCambiados() {
+        TheSportsDbEventResponse.EventData igual = evento("1", "NS");
+        TheSportsDbEventResponse.EventData cambiado = evento("2", "FT");
+        TheSportsDbEventResponse.EventData nuevo = evento("3", "NS");
+
+        when(sincronizacionDiaRepository.findByFecha(fecha)).thenReturn(Optional.empty());
+        when(eventoRepository.findHashesByEventoIdExternoIn(anyCollection())).thenReturn(List.of(
+                new Object[]{"1", SincronizacionIncrementalService.hashEvento(igual)},
+                new Object[]{"2", SincronizacionIncrementalService.hashEvento(evento("2", "NS"))}));
+
+        SincronizacionIncrementalService.DeltaDia delta = service.calcularDelta(fecha, List.of(igual, cambiado, nuevo));
+
+        assertFalse(delta.isSinCambios());
+        assertEquals(3, delta.getTotalEventos());
+        assertEquals(List.of("2", "3"), delta.getCambiados().stream().map(TheSportsDbEventResponse.EventData::getIdEvent).toList());
+    }
+
+    @Test
+    void testCalcularDelta_DiaSinCambiosSeOmite() {
+        List<TheSportsDbEventResponse.EventData> eventos = List.of(evento("1", "NS"), evento("2", "NS"));
+        when(sincronizacionDiaRepository.findByFecha(fecha)).thenReturn(Optional.empty());
+        when(eventoRepository.findHashesByEventoIdExternoIn(anyCollection())).thenReturn(List.of());
+        SincronizacionIncrementalService.DeltaDia primera = service.calcularDelta(fecha, eventos);
+
+        SincronizacionDia registro = new SincronizacionDia();
+        registro.setId(5L);
+        registro.setHashContenido(primera.getHashDia());
+        registro.setUltimaSincronizacion(LocalDateTime.now());
+        when(sincronizacionDiaRepository.findByFecha(fecha)).thenReturn(Optional.of(registro));
+
+        // Mismo contenido en otro orden
+        SincronizacionIncrementalService.DeltaDia segunda = service.calcularDelta(fecha, List.of(eventos.get(1), eventos.get(0)));
+
+        assertTrue(segunda.isSinCambios());
+        assertTrue(segunda.getCambiados().isEmpty());
+        verify(sincronizacionDiaRepository).marcarVerificado(eq(5L), any(LocalDateTime.class));
+        // Los hashes se comparan mientras se leen los eventos, antes de conocer el hash del día
+        verify(eventoRepository, times(2)).findHashesByEventoIdExternoIn(anyCollection());
+    }
+
+    @Test
+    void testIniciarDelta_ComparaPorLotesYSoloRetieneCambiados() {
+        ReflectionTestUtils.setField(service, "loteHashes", 2);
+        TheSportsDbEventResponse.EventData igual1 = evento("1", "NS");
+        TheSportsDbEventResponse.EventData igual2 = evento("2", "NS");
+        TheSportsDbEventResponse.EventData cambiado = evento("3", "FT");
+        when(sincronizacionDiaRepository.findByFecha(fecha)).thenReturn(Optional.empty());
+        when(eventoRepository.findHashesByEventoIdExternoIn(List.of("1", "2"))).thenReturn(List.of(
+                new Object[]{"1", SincronizacionIncrementalService.hashEvento(igual1)},
+                new Object[]{"2", SincronizacionIncrementalService.hashEvento(igual2)}));
+        when(eventoRepository.findHashesByEventoIdExternoIn(List.of("3"))).thenReturn(List.<Object[]>of(
+                new Object[]{"3", SincronizacionIncrementalService.hashEvento(evento("3", "NS"))}));
+
+        SincronizacionIncrementalService.AcumuladorDia acumulador = service.iniciarDelta(fecha);
+        List.of(igual1, igual2, cambiado).forEach(acumulador);
+        // El primer lote se compara en cuanto se completa, sin esperar al final del día
+        verify(eventoRepository).findHashesByEventoIdExternoIn(List.of("1", "2"));
+
+        SincronizacionIncrementalService.DeltaDia delta = service.terminarDelta(acumulador);
+        assertEquals(3, delta.getTotalEventos());
+        assertEquals(List.of(cambiado), delta.getCambiados());
+        assertEquals(service.calcularDelta(fecha, List.of(cambiado, igual1, igual2)).getHashDia(), delta.getHashDia());
+    }
+
+    private TheSportsDbEventResponse.EventData evento(String id, String status) {
+        TheSportsDbEventResponse.EventData evento = new TheSportsDbEventResponse.EventData();
+        evento.setIdEvent(id);
+        evento.setStrEvent("Evento " + id);
+        evento.setStrStatus(status);
+        return evento;
+    }
+}
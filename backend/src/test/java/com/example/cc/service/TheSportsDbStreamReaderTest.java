@@ -0,0 +1,54 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.external.TheSportsDbEventResponse;
+import com.example.cc.dto.response.TheSportsDbLeagueResponse;
+import com.example.cc.service.external.TheSportsDbStreamReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TheSportsDbStreamReaderTest {
+
+    private final TheSportsDbStreamReader reader = new TheSportsDbStreamReader();
+
+    @Test
+    void testLeerEventos_EntregaCadaEvento() throws Exception {
+        String json = "{\"meta\":{\"x\":[1,2]},\"events\":[" +
+                "{\"idEvent\":\"1\",\"strEvent\":\"A vs B\",\"strUnknown\":{\"a\":1}}," +
+                "{\"idEvent\":\"2\",\"strEvent\":\"C vs D\"}]}";
+        List<TheSportsDbEventResponse.EventData> eventos = new ArrayList<>();
+
+        int leidos = reader.leerEventos(stream(json), eventos::add);
+
+        assertEquals(2, leidos);
+        assertEquals("C vs D", eventos.get(1).getStrEvent());
+    }
+
+    @Test
+    void testLeerEventos_ArregloNulo() throws Exception {
+        assertEquals(0, reader.leerEventos(stream("{\"events\":null}"), e -> fail()));
+    }
+
+    @Test
+    void testLeerLigas_OmiteCamposNoUsados() throws Exception {
+        String json = "{\"all\":[{\"idLeague\":\"4328\",\"strLeague\":\"Premier\",\"strSport\":\"Soccer\"," +
+                "\"strDescriptionEN\":\"en\",\"strDescriptionDE\":\"de\",\"strFanart1\":\"img\"}]}";
+        List<TheSportsDbLeagueResponse.LeagueData> ligas = new ArrayList<>();
+
+        reader.leerLigas(stream(json), ligas::add);
+
+        assertEquals(1, ligas.size());
+        assertEquals("en", ligas.get(0).getStrDescriptionEN());
+        assertNull(ligas.get(0).getStrDescriptionDE());
+        assertNull(ligas.get(0).getStrFanart1());
+    }
+
+    private ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cc.service;
+
+import com.example.cc.dto.PagoPremioDto;
+import com.example.cc.entities.Transaccion;
+import com.example.cc.repository.TransaccionRepository;
+import com.example.cc.repository.UsuarioRepository;
+import com.example.cc.service.wallet.WalletService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PreparedStatement ps;
+
+    @Mock
+    private Connection conexion;
+
+    @InjectMocks
+    private WalletService walletService;
+
+    @Test
+    void testProcesarAjustes_CargosSeRegistranEnNegativo() throws Exception {
+        when(ps.getConnection()).thenReturn(conexion);
+        when(conexion.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        when(ps.executeUpdate()).thenReturn(1);
+        when(jdbcTemplate.execute(anyString(), any(PreparedStatementCallback.class)))
+                .thenAnswer(inv -> inv.<PreparedStatementCallback<?>>getArgument(1).doInPreparedStatement(ps));
+
+        int procesados = walletService.procesarAjustes(List.of(
+                new PagoPremioDto(7L, new BigDecimal("-50.00"), "Reliquidación")),
+                Transaccion.TipoTransaccion.BONIFICACION);
+
+        assertEquals(1, procesados);
+        verify(ps).setString(1, Transaccion.TipoTransaccion.PENALIZACION.name());
+        ArgumentCaptor<Object[]> montos = ArgumentCaptor.forClass(Object[].class);
+        verify(conexion, times(2)).createArrayOf(eq("numeric"), montos.capture());
+        // Débito del saldo y monto de la transacción, ambos negativos
+        for (Object[] arreglo : montos.getAllValues()) {
+            assertArrayEquals(new Object[]{new BigDecimal("-50.00")}, arreglo);
+        }
+    }
+}